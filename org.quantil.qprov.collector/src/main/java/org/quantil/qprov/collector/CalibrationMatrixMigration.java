@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.core.model.entities.CalibrationMatrix;
+import org.quantil.qprov.core.repositories.CalibrationMatrixRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Converts calibration matrices stored as serialized Java objects into the binary format on startup. The matrices are converted in small
+ * batches, each within its own transaction, to bound the memory required for the deserialized matrices. Matrices that can not be
+ * converted are kept in the legacy format and skipped for the remaining migration, so that they neither abort nor stall it.
+ */
+@Component
+public class CalibrationMatrixMigration implements ApplicationRunner {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final int BATCH_SIZE = 10;
+
+    private final CalibrationMatrixRepository calibrationMatrixRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CalibrationMatrixMigration(CalibrationMatrixRepository calibrationMatrixRepository, PlatformTransactionManager transactionManager) {
+        this.calibrationMatrixRepository = calibrationMatrixRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        final Set<UUID> unconvertible = new HashSet<>();
+        int migrated = 0;
+        try {
+            Integer batch;
+            do {
+                final int unconvertibleBefore = unconvertible.size();
+                batch = transactionTemplate.execute(status -> migrateBatch(unconvertible));
+
+                // the batch contains the matrices that could not be converted as well
+                migrated += batch - (unconvertible.size() - unconvertibleBefore);
+            } while (batch > 0);
+        } catch (RuntimeException e) {
+            logger.error("Migration of calibration matrices failed after {} matrices: {}", migrated, e.getLocalizedMessage());
+            return;
+        }
+
+        if (migrated > 0) {
+            logger.info("Migrated {} calibration matrices to the binary format", migrated);
+        }
+        if (!unconvertible.isEmpty()) {
+            logger.warn("Unable to migrate {} calibration matrices, which are kept in the legacy format", unconvertible.size());
+        }
+    }
+
+    private int migrateBatch(Set<UUID> unconvertible) {
+        // matrices that could not be converted are excluded, as they would otherwise be selected again by every batch
+        final PageRequest page = PageRequest.ofSize(BATCH_SIZE);
+        final List<CalibrationMatrix> calibrationMatrices = unconvertible.isEmpty()
+                ? calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNull(page)
+                : calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNullAndDatabaseIdNotIn(unconvertible, page);
+
+        final List<CalibrationMatrix> migrated = new ArrayList<>(calibrationMatrices.size());
+        for (CalibrationMatrix calibrationMatrix : calibrationMatrices) {
+            try {
+                calibrationMatrix.migrateLegacyCalibrationMatrix();
+                migrated.add(calibrationMatrix);
+            } catch (RuntimeException e) {
+                logger.warn("Unable to migrate calibration matrix {}: {}", calibrationMatrix.getDatabaseId(), e.getLocalizedMessage());
+                unconvertible.add(calibrationMatrix.getDatabaseId());
+            }
+        }
+        calibrationMatrixRepository.saveAll(migrated);
+        return calibrationMatrices.size();
+    }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.util.Locale;
+
+/**
+ * The phases of a collection run whose duration and outcome are recorded per provider by the {@link CollectorMetrics}
+ */
+public enum CollectionPhase {
+
+    /**
+     * Authentication at the API of the provider
+     */
+    AUTHENTICATION,
+
+    /**
+     * Retrieval of the list of devices offered by the provider
+     */
+    DEVICE_LISTING,
+
+    /**
+     * Retrieval of the properties and status of a single QPU
+     */
+    QPU_FETCH,
+
+    /**
+     * Retrieval of the queue size of a single QPU during the collection of the queue status
+     */
+    QUEUE_STATUS,
+
+    /**
+     * Storing the collected data of a single QPU in the database
+     */
+    PERSISTENCE,
+
+    /**
+     * Submission of the calibration circuits for a single QPU
+     */
+    CIRCUIT_SUBMISSION,
+
+    /**
+     * A single poll for the result of the calibration circuits
+     */
+    CIRCUIT_POLLING,
+
+    /**
+     * Calculation of a calibration matrix, from the submission of the circuits until the matrix is stored
+     */
+    CALIBRATION_MATRIX;
+
+    /**
+     * Get the value of the phase tag of the meters recorded for this phase
+     *
+     * @return the tag value
+     */
+    public String getTagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts the QPUs that were updated or skipped because they did not change since the last collection within a collection run, as well as the
+ * qubit and gate characteristics inserted for the updated QPUs. The statistics can be updated concurrently by the threads storing the data of
+ * the different QPUs.
+ * <p>
+ * In addition, the statistics accumulate the duration of the phases of the run, the failed operations, and the requests sent to the provider
+ * APIs. The requests are attributed to the run by the HTTP clients of the providers via {@link #current()}, as the statistics are bound to
+ * the thread executing an operation of the run while the operation is timed by the {@link CollectorMetrics}.
+ * <p>
+ * Updates made while a QPU snapshot is stored by the {@link QPUPersistenceExecutor} are deferred by {@link DeferredUpdates} until the
+ * transaction storing the snapshot was committed, so that data which was rolled back is not counted.
+ */
+public class CollectionStatistics {
+
+    private static final ThreadLocal<CollectionStatistics> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<DeferredUpdates> DEFERRED = new ThreadLocal<>();
+
+    private final AtomicInteger updatedQpus = new AtomicInteger();
+
+    private final AtomicInteger skippedQpus = new AtomicInteger();
+
+    private final AtomicInteger insertedCharacteristics = new AtomicInteger();
+
+    private final Map<CollectionPhase, LongAdder> phaseDurations = new ConcurrentHashMap<>();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicLong apiCalls = new AtomicLong();
+
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+
+    /**
+     * Get the statistics of the collection run the current thread executes an operation for
+     *
+     * @return the statistics, or an empty optional if the thread does not execute a timed operation of a collection run
+     */
+    public static Optional<CollectionStatistics> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public void qpuUpdated() {
+        apply(updatedQpus::incrementAndGet);
+    }
+
+    public void qpuSkipped() {
+        apply(skippedQpus::incrementAndGet);
+    }
+
+    public void characteristicsInserted(int count) {
+        apply(() -> insertedCharacteristics.addAndGet(count));
+    }
+
+    /**
+     * Record a request sent to the API of a provider
+     *
+     * @param bytes the number of bytes of the received response body
+     */
+    public void apiCallMade(long bytes) {
+        apiCalls.incrementAndGet();
+        bytesDownloaded.addAndGet(bytes);
+    }
+
+    /**
+     * Add received bytes to a request that was already recorded, e.g., if the response is streamed
+     *
+     * @param bytes the number of received bytes
+     */
+    public void bytesDownloaded(long bytes) {
+        bytesDownloaded.addAndGet(bytes);
+    }
+
+    void phaseExecuted(CollectionPhase phase, long durationNanos, boolean success) {
+        apply(() -> {
+            phaseDurations.computeIfAbsent(phase, ignored -> new LongAdder()).add(durationNanos);
+            if (!success) {
+                failures.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Apply an update of the statistics, or defer it if the current thread stores a QPU snapshot whose transaction is not committed yet
+     *
+     * @param update the update to apply
+     */
+    void apply(Runnable update) {
+        final DeferredUpdates deferredUpdates = DEFERRED.get();
+        if (deferredUpdates == null) {
+            update.run();
+        } else {
+            deferredUpdates.statistics.add(this);
+            deferredUpdates.updates.add(update);
+        }
+    }
+
+    <T> T callAsCurrent(Supplier<T> operation) {
+        final CollectionStatistics previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Get the number of QPUs for which the configuration or calibration data was updated
+     *
+     * @return the number of updated QPUs
+     */
+    public int getUpdatedQpus() {
+        return updatedQpus.get();
+    }
+
+    /**
+     * Get the number of QPUs for which only the queue size was updated, as their fingerprint did not change
+     *
+     * @return the number of skipped QPUs
+     */
+    public int getSkippedQpus() {
+        return skippedQpus.get();
+    }
+
+    /**
+     * Get the number of qubit and gate characteristics that were inserted for the updated QPUs
+     *
+     * @return the number of inserted characteristics
+     */
+    public int getInsertedCharacteristics() {
+        return insertedCharacteristics.get();
+    }
+
+    /**
+     * Get the accumulated duration of all operations of each phase of the run, which can exceed the duration of the run if the operations
+     * are executed concurrently
+     *
+     * @return the duration in milliseconds per phase
+     */
+    public Map<String, Long> getPhaseDurations() {
+        final Map<String, Long> durations = new TreeMap<>();
+        phaseDurations.forEach((phase, duration) -> durations.put(phase.getTagValue(), TimeUnit.NANOSECONDS.toMillis(duration.sum())));
+        return durations;
+    }
+
+    /**
+     * Get the number of failed operations of the run, e.g., requests to the provider API or QPUs that could not be stored
+     *
+     * @return the number of failures
+     */
+    public int getFailures() {
+        return failures.get();
+    }
+
+    public long getApiCalls() {
+        return apiCalls.get();
+    }
+
+    public long getBytesDownloaded() {
+        return bytesDownloaded.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d updated, %d skipped, %d characteristics inserted", getUpdatedQpus(), getSkippedQpus(),
+                getInsertedCharacteristics());
+    }
+
+    /**
+     * Collects the updates of the statistics made by an operation storing a QPU snapshot, which are applied once the transaction of the
+     * operation was committed, or discarded if it was rolled back
+     */
+    static final class DeferredUpdates {
+
+        private final Set<CollectionStatistics> statistics = new HashSet<>();
+
+        private final List<Runnable> updates = new ArrayList<>();
+
+        /**
+         * Execute the given operation and defer all updates of the statistics it makes on the current thread
+         *
+         * @param operation the operation to execute
+         */
+        void run(Runnable operation) {
+            final DeferredUpdates previous = DEFERRED.get();
+            DEFERRED.set(this);
+            try {
+                operation.run();
+            } finally {
+                if (previous == null) {
+                    DEFERRED.remove();
+                } else {
+                    DEFERRED.set(previous);
+                }
+            }
+        }
+
+        /**
+         * Apply the deferred updates after the transaction of the operation was committed
+         */
+        void apply() {
+            updates.forEach(Runnable::run);
+            clear();
+        }
+
+        /**
+         * Discard the deferred updates and count a failure for each run the operation belongs to, as its data could not be stored
+         */
+        void fail() {
+            statistics.forEach(runStatistics -> runStatistics.failures.incrementAndGet());
+            clear();
+        }
+
+        private void clear() {
+            statistics.clear();
+            updates.clear();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.quantil.qprov.collector.jobs.CollectionType;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the duration and outcome of the collection runs and their phases per provider. The timers are tagged with the outcome of each
+ * operation, so that the error rates of the provider APIs can be derived from the counts of the failed and successful operations. The phases
+ * are also accumulated in the {@link CollectionStatistics} of the run they belong to.
+ */
+@Component
+public class CollectorMetrics {
+
+    private static final String PROVIDER_TAG = "provider";
+
+    private static final String PHASE_TAG = "phase";
+
+    private static final String TYPE_TAG = "type";
+
+    private static final String OUTCOME_TAG = "outcome";
+
+    private static final String RESULT_TAG = "result";
+
+    private final MeterRegistry meterRegistry;
+
+    public CollectorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Start timing a phase whose outcome is only known asynchronously, the phase is recorded by passing the returned sample to
+     * {@link #stopTimer(Timer.Sample, String, CollectionPhase, CollectionStatistics, boolean)}
+     *
+     * @return the sample measuring the duration of the phase
+     */
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Record the duration of a phase that was started by {@link #startTimer()}
+     *
+     * @param sample     the sample measuring the duration of the phase
+     * @param providerId the ID of the provider the phase was executed for
+     * @param phase      the executed phase
+     * @param statistics the statistics of the collection run the phase belongs to
+     * @param success    <code>true</code> if the phase was successful, <code>false</code> otherwise
+     */
+    public void stopTimer(Timer.Sample sample, String providerId, CollectionPhase phase, CollectionStatistics statistics, boolean success) {
+        final long duration = sample.stop(getPhaseTimer(providerId, phase, success));
+        statistics.phaseExecuted(phase, duration, success);
+    }
+
+    /**
+     * Execute and time the given operation, which is considered failed if it throws an exception. While the operation is executed, the
+     * statistics of the run are bound to the current thread, so that the requests sent by the operation are attributed to the run.
+     *
+     * @param providerId the ID of the provider the operation is executed for
+     * @param phase      the phase the operation belongs to
+     * @param statistics the statistics of the collection run the operation belongs to
+     * @param operation  the operation to execute
+     * @param <T>        the type of the result of the operation
+     * @return the result of the operation
+     */
+    public <T> T time(String providerId, CollectionPhase phase, CollectionStatistics statistics, Supplier<T> operation) {
+        final long startTime = meterRegistry.config().clock().monotonicTime();
+        boolean success = false;
+        try {
+            final T result = statistics.callAsCurrent(operation);
+            success = true;
+            return result;
+        } finally {
+            record(providerId, phase, statistics, startTime, success);
+        }
+    }
+
+    /**
+     * Execute and time the given operation, which is considered failed if it throws an exception
+     *
+     * @param providerId the ID of the provider the operation is executed for
+     * @param phase      the phase the operation belongs to
+     * @param statistics the statistics of the collection run the operation belongs to
+     * @param operation  the operation to execute
+     */
+    public void time(String providerId, CollectionPhase phase, CollectionStatistics statistics, Runnable operation) {
+        time(providerId, phase, statistics, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Execute and time the given operation, which reports its success by its result instead of throwing an exception
+     *
+     * @param providerId the ID of the provider the operation is executed for
+     * @param phase      the phase the operation belongs to
+     * @param statistics the statistics of the collection run the operation belongs to
+     * @param operation  the operation to execute
+     * @return the result of the operation
+     */
+    public boolean timeStatus(String providerId, CollectionPhase phase, CollectionStatistics statistics, BooleanSupplier operation) {
+        final long startTime = meterRegistry.config().clock().monotonicTime();
+        boolean success = false;
+        try {
+            success = statistics.callAsCurrent(operation::getAsBoolean);
+            return success;
+        } finally {
+            record(providerId, phase, statistics, startTime, success);
+        }
+    }
+
+    /**
+     * Record a synchronously timed operation, which is deferred together with the other updates of the statistics if the operation
+     * stores a QPU snapshot, so that operations rolled back and executed again are only recorded once their transaction was committed
+     */
+    private void record(String providerId, CollectionPhase phase, CollectionStatistics statistics, long startTime, boolean success) {
+        final long duration = meterRegistry.config().clock().monotonicTime() - startTime;
+        statistics.apply(() -> getPhaseTimer(providerId, phase, success).record(duration, TimeUnit.NANOSECONDS));
+        statistics.phaseExecuted(phase, duration, success);
+    }
+
+    private Timer getPhaseTimer(String providerId, CollectionPhase phase, boolean success) {
+        return Timer.builder("qprov.collection.phase")
+                .description("Time spent in the phases of the collection runs")
+                .tags(PROVIDER_TAG, providerId, PHASE_TAG, phase.getTagValue(), OUTCOME_TAG, getOutcome(success))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a finished collection run with the number of updated and skipped QPUs and the inserted characteristics
+     *
+     * @param providerId the ID of the provider the collection was executed for
+     * @param type       the type of the collection
+     * @param duration   the duration of the collection
+     * @param success    <code>true</code> if the collection was successful, <code>false</code> otherwise
+     * @param statistics the statistics of the collection run
+     */
+    public void recordCollection(String providerId, CollectionType type, Duration duration, boolean success,
+                                 CollectionStatistics statistics) {
+        final Tags tags = Tags.of(PROVIDER_TAG, providerId, TYPE_TAG, type.name().toLowerCase(Locale.ROOT));
+        Timer.builder("qprov.collection.run")
+                .description("Duration of the collection runs")
+                .tags(tags)
+                .tag(OUTCOME_TAG, getOutcome(success))
+                .register(meterRegistry)
+                .record(duration);
+        countQpus(tags, "updated", statistics.getUpdatedQpus());
+        countQpus(tags, "skipped", statistics.getSkippedQpus());
+        Counter.builder("qprov.collection.characteristics")
+                .description("Number of qubit and gate characteristics inserted into the database")
+                .tags(tags)
+                .register(meterRegistry)
+                .increment(statistics.getInsertedCharacteristics());
+    }
+
+    private void countQpus(Tags tags, String result, int count) {
+        Counter.builder("qprov.collection.qpus")
+                .description("Number of QPUs whose data was updated or skipped because it did not change since the last collection")
+                .tags(tags)
+                .tag(RESULT_TAG, result)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    private static String getOutcome(boolean success) {
+        return success ? "success" : "error";
+    }
+}
@@ -19,60 +19,135 @@
 
 package org.quantil.qprov.collector;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.jobs.CollectionJob;
+import org.quantil.qprov.collector.jobs.CollectionJobService;
+import org.quantil.qprov.collector.jobs.CollectionType;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.hateoas.RepresentationModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
 @RestController()
 public class CollectorService {
     protected static final Logger logger = LogManager.getLogger();
 
-    private final Set<IProvider> availableProviders;
+    private final CollectionJobService collectionJobService;
 
     @Autowired
-    public CollectorService(Set<IProvider> availableProviders) {
-        this.availableProviders = availableProviders;
+    public CollectorService(CollectionJobService collectionJobService) {
+        this.collectionJobService = collectionJobService;
     }
 
     @Operation(responses = {
             @ApiResponse(responseCode = "202"),
             @ApiResponse(responseCode = "500", description = "Server error during provenance data collection"),
-    }, description = "Retrieve the provenance data from all available quantum hardware providers.")
+    }, description = "Retrieve the provenance data from all available quantum hardware providers. The collection is performed "
+            + "asynchronously and its progress can be retrieved from the returned job.")
     @PostMapping("/collect")
-    public HttpEntity<RepresentationModel<?>> collectProvenanceData() {
+    public HttpEntity<EntityModel<CollectionJob>> collectProvenanceData() {
+        logger.debug("Triggering collection of provenance data from the provider APIs...");
+        return createAcceptedResponse(collectionJobService.submit(CollectionType.API, CollectionTrigger.MANUAL));
+    }
 
-        this.availableProviders.forEach((IProvider provider) -> {
-            logger.debug("Collecting provenance data for provider: {}", provider.getProviderId());
-            final boolean success = provider.collectFromApi();
-            logger.debug("Finished retrieval of data with success: {}", success);
-        });
+    @Operation(responses = {
+            @ApiResponse(responseCode = "202"),
+            @ApiResponse(responseCode = "500", description = "Server error during provenance data collection"),
+    }, description = "Retrieve the provenance data from all available quantum hardware providers by executing calibration circuits. The "
+            + "collection is performed asynchronously and its progress can be retrieved from the returned job.")
+    @PostMapping("/collectCircuit")
+    public HttpEntity<EntityModel<CollectionJob>> collectProvenanceDataByCircuitExecution() {
+        logger.debug("Triggering collection of provenance data by executing calibration circuits...");
+        return createAcceptedResponse(collectionJobService.submit(CollectionType.CIRCUITS, CollectionTrigger.MANUAL));
+    }
 
-        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    @Operation(responses = {
+            @ApiResponse(responseCode = "202"),
+            @ApiResponse(responseCode = "500", description = "Server error during provenance data collection"),
+    }, description = "Update the queue sizes of the QPUs of all available quantum hardware providers without retrieving their "
+            + "properties. The collection is performed asynchronously and its progress can be retrieved from the returned job.")
+    @PostMapping("/collectQueue")
+    public HttpEntity<EntityModel<CollectionJob>> collectQueueStatus() {
+        logger.debug("Triggering collection of the queue sizes from the provider APIs...");
+        return createAcceptedResponse(collectionJobService.submit(CollectionType.QUEUE, CollectionTrigger.MANUAL));
     }
 
     @Operation(responses = {
             @ApiResponse(responseCode = "202"),
+            @ApiResponse(responseCode = "400", description = "Bad Request. Start date is after the end date."),
+            @ApiResponse(responseCode = "404", description = "Not Found. Provider with given ID doesn't exist."),
             @ApiResponse(responseCode = "500", description = "Server error during provenance data collection"),
-    }, description = "Retrieve the provenance data from all available quantum hardware providers by executing calibration circuits.")
-    @PostMapping("/collectCircuit")
-    public HttpEntity<RepresentationModel<?>> collectProvenanceDataByCircuitExecution() {
+    }, description = "Retrieve the historical calibration data of the known QPUs for the given range of days (ISO dates, the end date "
+            + "defaults to today) from the given provider or all available providers. Interrupted backfills resume from the last "
+            + "completed day. The backfill is performed asynchronously and its progress can be retrieved from the returned job.")
+    @PostMapping("/collectBackfill")
+    public HttpEntity<EntityModel<CollectionJob>> backfillCalibrations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String provider) {
+
+        // calibration data of future days does not exist yet
+        final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        final LocalDate lastDate = Objects.isNull(endDate) || endDate.isAfter(today) ? today : endDate;
+        if (startDate.isAfter(lastDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        final Set<IProvider> providers;
+        if (Objects.isNull(provider)) {
+            providers = collectionJobService.getProviders();
+        } else {
+            final Optional<IProvider> selectedProvider = collectionJobService.getProvider(provider);
+            if (selectedProvider.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            providers = Set.of(selectedProvider.get());
+        }
+
+        logger.debug("Triggering backfill of calibration data from {} to {}...", startDate, lastDate);
+        return createAcceptedResponse(collectionJobService.submitBackfill(providers, startDate, lastDate, CollectionTrigger.MANUAL));
+    }
 
-        this.availableProviders.forEach((IProvider provider) -> {
-            logger.debug("Calculating provenance data for provider by executing calibration circuits: {}", provider.getProviderId());
-            final boolean success = provider.collectThroughCircuits();
-            logger.debug("Finished retrieval of data with success: {}", success);
-        });
+    @Operation(responses = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "404", description = "Not Found. Collection job with given ID doesn't exist.")
+    }, description = "Retrieve the status of a collection job, including the status and duration of the collection for each provider.")
+    @GetMapping("/collect/{jobId}")
+    public HttpEntity<EntityModel<CollectionJob>> getCollectionJob(@PathVariable UUID jobId) {
+        return collectionJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(createJobModel(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    private ResponseEntity<EntityModel<CollectionJob>> createAcceptedResponse(CollectionJob job) {
+        final EntityModel<CollectionJob> jobModel = createJobModel(job);
+        return ResponseEntity.accepted().location(jobModel.getRequiredLink("self").toUri()).body(jobModel);
+    }
 
-        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    private EntityModel<CollectionJob> createJobModel(CollectionJob job) {
+        final Link selfLink = linkTo(methodOn(CollectorService.class).getCollectionJob(job.getId())).withSelfRel();
+        return EntityModel.of(job, selfLink);
     }
 }
@@ -28,7 +28,23 @@ public abstract class Constants {
 
     public static final int DEFAULT_COLLECTION_STARTUP_TIME_CIRCUITS = 2;
 
-    public static final int CALIBRATION_MATRIX_CALCULATION_POLLING_INTERVAL = 180000;
+    public static final int DEFAULT_COLLECTION_STARTUP_TIME_QUEUE = 2;
+
+    // the days of calibration history used to estimate the calibration period of a QPU
+    public static final int ADAPTIVE_SCHEDULE_HISTORY_DAYS = 14;
+
+    // the number of calibrations required to estimate the calibration period of a QPU
+    public static final int ADAPTIVE_SCHEDULE_MIN_CALIBRATIONS = 3;
+
+    // the window around the expected calibration with dense polling is the calibration period divided by this value
+    public static final int ADAPTIVE_SCHEDULE_WINDOW_DIVISOR = 10;
+
+    // prefixes of the names of the leases and advisory locks coordinating multiple collector instances
+    public static final String CLUSTER_QPU_PREFIX = "qpu:";
+
+    public static final String CLUSTER_PROVIDER_PREFIX = "provider:";
+
+    public static final String CLUSTER_CIRCUITS_PREFIX = "circuits:";
 
     private Constants() {
     }
@@ -19,6 +19,13 @@
 
 package org.quantil.qprov.collector;
 
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.quantil.qprov.collector.jobs.CollectionSchedule;
+
 public interface IProvider {
 
     /**
@@ -28,17 +35,57 @@ public interface IProvider {
      */
     String getProviderId();
 
+    /**
+     * Get the names of the providers in the database whose QPUs are collected by this provider
+     *
+     * @return the provider names
+     */
+    default Set<String> getProviderNames() {
+        return Set.of(getProviderId());
+    }
+
+    /**
+     * Get the intervals in which the collections for the provider are triggered periodically by the collection scheduler
+     *
+     * @return the schedule of the provider
+     */
+    CollectionSchedule getSchedule();
+
     /**
      * Fetch all data from provider APIs
      *
+     * @param statistics the statistics of the collection run to update with the number of updated and skipped QPUs
      * @return boolean result of fetch attempt
      */
-    boolean collectFromApi();
+    boolean collectFromApi(CollectionStatistics statistics);
+
+    /**
+     * Update the queue sizes of the QPUs that were found by previous collections from the provider APIs
+     *
+     * @param statistics the statistics of the collection run to update with the number of QPUs with changed and unchanged queue size
+     * @return boolean result of the update
+     */
+    boolean collectQueueStatus(CollectionStatistics statistics);
 
     /**
      * Execute calibration circuits to get required data that is not available via the API, such as the calibration matrix
      *
-     * @return boolean result of collection
+     * @param statistics the statistics of the collection run
+     * @return a future completed with the boolean result of the collection once the results of all circuits are retrieved
+     */
+    CompletableFuture<Boolean> collectThroughCircuits(CollectionStatistics statistics);
+
+    /**
+     * Collect the historical calibration data of the QPUs that were found by previous collections from the provider APIs for the given
+     * range of days, e.g., to fill the gaps of a period in which the collector was not running
+     *
+     * @param startDate  the first day to collect the calibration data for
+     * @param endDate    the last day to collect the calibration data for
+     * @param statistics the statistics of the collection run
+     * @return boolean result of the backfill
      */
-    boolean collectThroughCircuits();
+    default boolean backfillCalibrations(LocalDate startDate, LocalDate endDate, CollectionStatistics statistics) {
+        LogManager.getLogger().warn("Backfill of historical calibration data is not supported by provider {}!", getProviderId());
+        return false;
+    }
 }
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+public interface ISpoolHandler {
+
+    /**
+     * Get the type of the spooled snapshots that are stored by this handler
+     *
+     * @return the snapshot type
+     */
+    String getSnapshotType();
+
+    /**
+     * Store the given spooled snapshot in the database. Snapshots may be stored more than once, e.g., if the collector crashed while
+     * replaying the spool, so storing a snapshot that was already stored must not change the database.
+     *
+     * @param snapshot the snapshot to store
+     */
+    void store(SpooledSnapshot snapshot);
+}
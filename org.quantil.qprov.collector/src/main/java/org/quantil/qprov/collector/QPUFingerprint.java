@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the fingerprint of a QPU from its normalized device configuration and calibration time. If the fingerprint of a QPU did not change
+ * since the last collection, its qubits, gates, and characteristics do not have to be compared with the stored ones.
+ */
+public class QPUFingerprint {
+
+    private final MessageDigest digest;
+
+    public QPUFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+    }
+
+    /**
+     * Add a property to the fingerprint
+     *
+     * @param name  the name of the property
+     * @param value the value of the property, may be <code>null</code>
+     * @return this fingerprint
+     */
+    public QPUFingerprint add(String name, Object value) {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '=');
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        return this;
+    }
+
+    /**
+     * Add a property with multiple values to the fingerprint, the values are sorted, so that their order does not influence the fingerprint
+     *
+     * @param name   the name of the property
+     * @param values the values of the property, may be <code>null</code>
+     * @return this fingerprint
+     */
+    public QPUFingerprint addSorted(String name, Collection<?> values) {
+        if (Objects.isNull(values)) {
+            return add(name, null);
+        }
+        return add(name, values.stream().map(String::valueOf).sorted().collect(Collectors.joining(",", "[", "]")));
+    }
+
+    /**
+     * Build the fingerprint from the added properties
+     *
+     * @return the hex encoded fingerprint
+     */
+    public String build() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
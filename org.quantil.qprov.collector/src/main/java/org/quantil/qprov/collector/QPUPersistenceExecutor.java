@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.quantil.qprov.collector.CollectionStatistics.DeferredUpdates;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Stores the collected QPU snapshots decoupled from their retrieval. The providers submit the snapshots to a bounded queue, which blocks
+ * the providers if the database falls behind, and a single writer thread drains the queue and stores the snapshots in batches, each
+ * within a single transaction, so that all inserts and updates are sent to the database in JDBC batches when the transaction commits.
+ * <p>
+ * If the database is unavailable, snapshots that can be serialized are appended to the {@link QPUSnapshotSpool} instead, and as long as
+ * the spool is not empty, all further snapshots are appended to it as well to keep their order until it was replayed.
+ * <p>
+ * The updates of the {@link CollectionStatistics} made while storing a snapshot are only applied once its transaction was committed, so
+ * that snapshots which are stored again after a rollback or spooled are not counted as updated.
+ */
+@Component
+public class QPUPersistenceExecutor {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Statistics statistics;
+
+    private final QPUSnapshotSpool spool;
+
+    private final BlockingQueue<QPUSnapshot> queue;
+
+    private final int batchSize;
+
+    private final ExecutorService writer;
+
+    private final Timer batchTimer;
+
+    private volatile boolean running = true;
+
+    @Autowired
+    public QPUPersistenceExecutor(PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                                  MeterRegistry meterRegistry, QPUSnapshotSpool spool,
+                                  @Value("${qprov.collector.persistence.queue-capacity}") Integer queueCapacity,
+                                  @Value("${qprov.collector.persistence.batch-size}") Integer batchSize) {
+        this(transactionManager, entityManagerFactory.unwrap(SessionFactory.class).getStatistics(), meterRegistry, spool, queueCapacity,
+                batchSize);
+    }
+
+    QPUPersistenceExecutor(PlatformTransactionManager transactionManager, Statistics statistics, MeterRegistry meterRegistry,
+                           QPUSnapshotSpool spool, int queueCapacity, int batchSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statistics = statistics;
+        this.spool = spool;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        Gauge.builder("qprov.persistence.queue.depth", queue, BlockingQueue::size)
+                .description("Number of collected QPU snapshots waiting to be stored")
+                .register(meterRegistry);
+        Gauge.builder("qprov.persistence.writer.lag", this, executor -> executor.getWriterLag().toMillis() / 1000.0)
+                .description("Time the oldest collected QPU snapshot is waiting to be stored")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("qprov.persistence.batch")
+                .description("Time to store a batch of collected QPU snapshots")
+                .register(meterRegistry);
+
+        this.writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("qprov-writer-"));
+        this.writer.execute(this::write);
+    }
+
+    /**
+     * Submit the persistence logic for a QPU snapshot, which is executed in a transaction by the writer thread. Blocks if the queue of
+     * snapshots waiting to be stored is full.
+     *
+     * @param qpuName     the name of the QPU the data belongs to
+     * @param persistence the logic storing the data of the QPU
+     * @return a future that is completed when the transaction storing the snapshot is committed
+     */
+    public CompletableFuture<Void> submit(String qpuName, Runnable persistence) {
+        return submit(qpuName, persistence, null);
+    }
+
+    /**
+     * Submit the persistence logic for a QPU snapshot, which is appended to the spool in serialized form if the database is unavailable.
+     * Blocks if the queue of snapshots waiting to be stored is full.
+     *
+     * @param qpuName         the name of the QPU the data belongs to
+     * @param persistence     the logic storing the data of the QPU
+     * @param spooledSnapshot supplier of the serialized data of the QPU, or <code>null</code> if the snapshot can not be spooled
+     * @return a future that is completed when the transaction storing the snapshot is committed or the snapshot was spooled
+     */
+    public CompletableFuture<Void> submit(String qpuName, Runnable persistence, Supplier<SpooledSnapshot> spooledSnapshot) {
+        final QPUSnapshot snapshot = new QPUSnapshot(qpuName, persistence, spooledSnapshot);
+        if (!running) {
+            snapshot.completion.completeExceptionally(new RejectedExecutionException("Persistence executor is shut down"));
+            return snapshot.completion;
+        }
+
+        try {
+            queue.put(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            snapshot.completion.completeExceptionally(e);
+        }
+        return snapshot.completion;
+    }
+
+    /**
+     * Wait until the given snapshots are stored
+     *
+     * @param snapshots the futures of the submitted snapshots
+     * @return <code>true</code> if all snapshots were stored successfully, <code>false</code> otherwise
+     */
+    public boolean await(List<CompletableFuture<Void>> snapshots) {
+        boolean success = true;
+        for (CompletableFuture<Void> snapshot : snapshots) {
+            try {
+                snapshot.join();
+            } catch (CompletionException e) {
+                success = false;
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Get the time the oldest snapshot in the queue is waiting to be stored
+     *
+     * @return the lag of the writer, or zero if the queue is empty
+     */
+    public Duration getWriterLag() {
+        final QPUSnapshot oldest = queue.peek();
+        return oldest == null ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest.submitTime);
+    }
+
+    private void write() {
+        final List<QPUSnapshot> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final QPUSnapshot first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Unexpected error while storing QPU snapshots: {}", e.getLocalizedMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+
+        QPUSnapshot remaining;
+        while ((remaining = queue.poll()) != null) {
+            remaining.completion.completeExceptionally(new RejectedExecutionException("Persistence executor is shut down"));
+        }
+    }
+
+    private void persist(List<QPUSnapshot> snapshots) {
+        final long startTime = System.nanoTime();
+        final long statementsBefore = statistics.getPrepareStatementCount();
+
+        // snapshots are appended to the spool as long as it contains older snapshots, only the remaining ones are stored directly
+        final List<QPUSnapshot> batch = spool.isEmpty() ? snapshots : snapshots.stream().filter(snapshot -> !trySpool(snapshot)).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // updates of the statistics made while storing the snapshots are only applied once the transaction was committed
+        final List<DeferredUpdates> batchUpdates = batch.stream().map(snapshot -> new DeferredUpdates()).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    batchUpdates.get(i).run(batch.get(i).persistence);
+                }
+            });
+            batchUpdates.forEach(DeferredUpdates::apply);
+            batch.forEach(snapshot -> snapshot.completion.complete(null));
+        } catch (RuntimeException e) {
+            if (isDatabaseUnavailable(e)) {
+                logger.warn("Database unavailable while storing {} QPU snapshots. Spooling snapshots: {}", batch.size(),
+                        e.getLocalizedMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    spoolOrFail(batch.get(i), batchUpdates.get(i), e);
+                }
+            } else if (batch.size() == 1) {
+                fail(batch.get(0), batchUpdates.get(0), e);
+            } else {
+                // the transaction of the batch was rolled back, so the snapshots are stored separately to only lose the failing one
+                logger.warn("Storing batch of {} QPU snapshots failed. Retrying snapshots separately: {}", batch.size(),
+                        e.getLocalizedMessage());
+                for (QPUSnapshot snapshot : batch) {
+                    final DeferredUpdates updates = new DeferredUpdates();
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> updates.run(snapshot.persistence));
+                        updates.apply();
+                        snapshot.completion.complete(null);
+                    } catch (RuntimeException snapshotException) {
+                        if (isDatabaseUnavailable(snapshotException)) {
+                            spoolOrFail(snapshot, updates, snapshotException);
+                        } else {
+                            fail(snapshot, updates, snapshotException);
+                        }
+                    }
+                }
+            }
+        }
+        batchTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+
+        // statistics are only gathered if enabled by 'hibernate.generate_statistics' and cover all concurrently running transactions
+        if (statistics.isStatisticsEnabled()) {
+            logger.info("Persisted {} QPU snapshots ({}) with {} JDBC statements in {} ms", batch.size(),
+                    batch.stream().map(snapshot -> snapshot.qpuName).toList(), statistics.getPrepareStatementCount() - statementsBefore,
+                    (System.nanoTime() - startTime) / 1000000);
+        }
+    }
+
+    private boolean trySpool(QPUSnapshot snapshot) {
+        if (Objects.isNull(snapshot.spooledSnapshot)) {
+            return false;
+        }
+
+        try {
+            if (!spool.append(snapshot.spooledSnapshot.get())) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Unable to serialize snapshot of QPU {}: {}", snapshot.qpuName, e.getLocalizedMessage());
+            return false;
+        }
+        snapshot.completion.complete(null);
+        return true;
+    }
+
+    private void spoolOrFail(QPUSnapshot snapshot, DeferredUpdates updates, RuntimeException e) {
+        if (!trySpool(snapshot)) {
+            fail(snapshot, updates, e);
+        }
+    }
+
+    /**
+     * Check if the given exception was caused by an unreachable or overloaded database, so that storing the snapshot later may succeed
+     *
+     * @param e the exception to check
+     * @return <code>true</code> if the database is unavailable, <code>false</code> otherwise
+     */
+    static boolean isDatabaseUnavailable(Throwable e) {
+        for (Throwable cause = e; Objects.nonNull(cause); cause = cause.getCause()) {
+            if (cause instanceof CannotCreateTransactionException || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+
+            // SQL state class 08 denotes connection exceptions
+            if (cause instanceof SQLException sqlException && Objects.nonNull(sqlException.getSQLState())
+                    && sqlException.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void fail(QPUSnapshot snapshot, DeferredUpdates updates, RuntimeException e) {
+        updates.fail();
+        logger.error("Unable to store snapshot of QPU {}: {}", snapshot.qpuName, e.getLocalizedMessage());
+        snapshot.completion.completeExceptionally(e);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.debug("Shutting down persistence writer...");
+
+        // the writer stores the already submitted snapshots before terminating
+        running = false;
+        writer.shutdown();
+        if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+        }
+    }
+
+    /**
+     * A collected QPU snapshot waiting to be stored, consisting of the logic storing the data that was retrieved for the QPU and optionally
+     * the serialized data for the spool
+     */
+    private static class QPUSnapshot {
+
+        private final String qpuName;
+
+        private final Runnable persistence;
+
+        private final Supplier<SpooledSnapshot> spooledSnapshot;
+
+        private final long submitTime = System.nanoTime();
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        QPUSnapshot(String qpuName, Runnable persistence, Supplier<SpooledSnapshot> spooledSnapshot) {
+            this.qpuName = qpuName;
+            this.persistence = persistence;
+            this.spooledSnapshot = spooledSnapshot;
+        }
+    }
+}
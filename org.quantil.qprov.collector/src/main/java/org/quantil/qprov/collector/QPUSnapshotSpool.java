@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Crash-safe local spool for QPU snapshots that can not be stored while the database is unavailable. The snapshots are appended to
+ * memory-mapped segment files of a fixed size, each record consisting of its length, a CRC32C checksum, and the serialized snapshot. A
+ * record is forced to disk before it is acknowledged, and its length is written last, so that records which were only partially written
+ * when the collector crashed are detected by their missing length or wrong checksum when the spool is recovered.
+ * <p>
+ * The spool is replayed from the oldest record, and segments are deleted as soon as all their records were replayed. The read position is
+ * not persisted, so the records of a partially replayed segment are replayed again after a restart.
+ */
+@Component
+public class QPUSnapshotSpool {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    // length and checksum of each record
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long maxSize;
+
+    // segments ordered from the oldest to the newest, new records are only appended to the last one
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private long nextSegmentId;
+
+    private int pendingRecords;
+
+    private final Counter appendedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter corruptedCounter;
+
+    @Autowired
+    public QPUSnapshotSpool(MeterRegistry meterRegistry,
+                            @Value("${qprov.collector.spool.enabled}") Boolean enabled,
+                            @Value("${qprov.collector.spool.directory}") String directory,
+                            @Value("${qprov.collector.spool.segment-size}") Integer segmentSize,
+                            @Value("${qprov.collector.spool.max-size}") Integer maxSize) throws IOException {
+        this(enabled ? Path.of(directory) : null, segmentSize * 1024 * 1024, maxSize * 1024L * 1024L, meterRegistry);
+    }
+
+    QPUSnapshotSpool(Path directory, int segmentSize, long maxSize, MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+
+        Gauge.builder("qprov.spool.records", this, QPUSnapshotSpool::getPendingRecords)
+                .description("Number of spooled QPU snapshots waiting to be stored")
+                .register(meterRegistry);
+        Gauge.builder("qprov.spool.size", this, QPUSnapshotSpool::getSize)
+                .description("Disk space used by the segments of the spool")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.appendedCounter = Counter.builder("qprov.spool.appended")
+                .description("Number of QPU snapshots appended to the spool")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("qprov.spool.rejected")
+                .description("Number of QPU snapshots that could not be spooled as the spool was full")
+                .register(meterRegistry);
+        this.corruptedCounter = Counter.builder("qprov.spool.corrupted")
+                .description("Number of segments with records that were only partially written or corrupted")
+                .register(meterRegistry);
+
+        if (Objects.nonNull(directory)) {
+            Files.createDirectories(directory);
+            recover();
+        }
+    }
+
+    /**
+     * Append the given snapshot to the spool and force it to disk
+     *
+     * @param snapshot the snapshot to append
+     * @return <code>true</code> if the snapshot was appended, <code>false</code> if the spool is disabled or full
+     */
+    public synchronized boolean append(SpooledSnapshot snapshot) {
+        if (Objects.isNull(directory)) {
+            return false;
+        }
+
+        try {
+            final byte[] record = encode(snapshot);
+            final int recordSize = RECORD_HEADER_SIZE + record.length;
+            Segment segment = segments.peekLast();
+            if (Objects.isNull(segment) || segment.sealed || segment.writePosition + recordSize > segmentSize) {
+                if (recordSize > segmentSize || (long) (segments.size() + 1) * segmentSize > maxSize) {
+                    logger.error("Spool is full. Unable to spool snapshot of QPU {} with {} bytes", snapshot.getQpuName(), record.length);
+                    rejectedCounter.increment();
+                    return false;
+                }
+                segment = createSegment();
+            }
+
+            // the length is written last, so that a record is only visible once its payload and checksum are written
+            final CRC32C checksum = new CRC32C();
+            checksum.update(record);
+            segment.buffer.put(segment.writePosition + RECORD_HEADER_SIZE, record);
+            segment.buffer.putInt(segment.writePosition + 4, (int) checksum.getValue());
+            segment.buffer.putInt(segment.writePosition, record.length);
+            segment.buffer.force();
+
+            segment.writePosition += recordSize;
+            segment.records++;
+            pendingRecords++;
+            appendedCounter.increment();
+            logger.debug("Spooled snapshot of QPU {} ({} pending)", snapshot.getQpuName(), pendingRecords);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Unable to spool snapshot of QPU {}: {}", snapshot.getQpuName(), e.getLocalizedMessage());
+            rejectedCounter.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Read the oldest snapshots from the spool without removing them
+     *
+     * @param maxSnapshots the maximum number of snapshots to read
+     * @return the oldest snapshots, or an empty list if the spool is empty
+     */
+    public synchronized List<SpooledSnapshot> read(int maxSnapshots) {
+        final List<SpooledSnapshot> snapshots = new ArrayList<>();
+        final Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext() && snapshots.size() < maxSnapshots) {
+            final Segment segment = iterator.next();
+            int position = segment.readPosition;
+            for (int i = segment.readRecords; i < segment.records && snapshots.size() < maxSnapshots; i++) {
+                final int length = segment.buffer.getInt(position);
+                final byte[] record = new byte[length];
+                segment.buffer.get(position + RECORD_HEADER_SIZE, record);
+                snapshots.add(decode(record));
+                position += RECORD_HEADER_SIZE + length;
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Remove the given number of the oldest snapshots from the spool after they were stored, segments are deleted as soon as all their
+     * snapshots are removed
+     *
+     * @param count the number of snapshots to remove
+     */
+    public synchronized void acknowledge(int count) {
+        int remaining = Math.min(count, pendingRecords);
+        while (remaining > 0) {
+            final Segment segment = segments.getFirst();
+            while (remaining > 0 && segment.readRecords < segment.records) {
+                segment.readPosition += RECORD_HEADER_SIZE + segment.buffer.getInt(segment.readPosition);
+                segment.readRecords++;
+                pendingRecords--;
+                remaining--;
+            }
+            if (segment.readRecords == segment.records) {
+                segments.removeFirst();
+                delete(segment);
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public synchronized int getPendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Get the disk space used by the segments of the spool
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Load the segments that were left by a previous run of the collector, records following a partially written or corrupted record are
+     * skipped, and the recovered segments are sealed so that new records are appended to a new segment
+     */
+    private void recover() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            final String fileName = file.getFileName().toString();
+            final long id = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+            nextSegmentId = Math.max(nextSegmentId, id + 1);
+
+            final Segment segment = new Segment(file, map(file, (int) Math.min(Files.size(file), Integer.MAX_VALUE)));
+            segment.sealed = true;
+            final int capacity = segment.buffer.capacity();
+            while (segment.writePosition + RECORD_HEADER_SIZE <= capacity) {
+                final int length = segment.buffer.getInt(segment.writePosition);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || segment.writePosition + RECORD_HEADER_SIZE + length > capacity
+                        || !isValid(segment.buffer, segment.writePosition, length)) {
+                    logger.error("Spool segment {} contains a corrupted record at position {}. Skipping remaining records of the segment.",
+                            file, segment.writePosition);
+                    corruptedCounter.increment();
+                    break;
+                }
+                segment.writePosition += RECORD_HEADER_SIZE + length;
+                segment.records++;
+            }
+
+            if (segment.records == 0) {
+                delete(segment);
+            } else {
+                segments.addLast(segment);
+                pendingRecords += segment.records;
+            }
+        }
+
+        if (pendingRecords > 0) {
+            logger.info("Recovered {} spooled QPU snapshots in {} segments from directory: {}", pendingRecords, segments.size(), directory);
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        final Path file = directory.resolve(String.format("%020d%s", nextSegmentId++, SEGMENT_SUFFIX));
+        final Segment segment = new Segment(file, map(file, segmentSize));
+        segments.addLast(segment);
+        logger.debug("Created spool segment: {}", file);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        // the mapping remains valid after the channel is closed, and extends new files with zeros to the given size
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+            logger.debug("Deleted replayed spool segment: {}", segment.file);
+        } catch (IOException e) {
+            logger.error("Unable to delete spool segment {}: {}", segment.file, e.getLocalizedMessage());
+        }
+    }
+
+    private static boolean isValid(MappedByteBuffer buffer, int position, int length) {
+        final byte[] record = new byte[length];
+        buffer.get(position + RECORD_HEADER_SIZE, record);
+        final CRC32C checksum = new CRC32C();
+        checksum.update(record);
+        return buffer.getInt(position + 4) == (int) checksum.getValue();
+    }
+
+    private static byte[] encode(SpooledSnapshot snapshot) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(snapshot.getPayload().length + 128);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeUTF(snapshot.getType());
+            output.writeUTF(snapshot.getQpuName());
+            output.writeLong(snapshot.getCollectionTime());
+            output.writeInt(snapshot.getPayload().length);
+            output.write(snapshot.getPayload());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static SpooledSnapshot decode(byte[] record) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+            final String type = input.readUTF();
+            final String qpuName = input.readUTF();
+            final long collectionTime = input.readLong();
+            final byte[] payload = new byte[input.readInt()];
+            input.readFully(payload);
+            return new SpooledSnapshot(type, qpuName, collectionTime, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode spooled snapshot", e);
+        }
+    }
+
+    /**
+     * A memory-mapped segment file of the spool
+     */
+    private static class Segment {
+
+        private final Path file;
+
+        private final MappedByteBuffer buffer;
+
+        // recovered segments are not extended, as they may contain partially written records
+        private boolean sealed;
+
+        private int writePosition;
+
+        private int records;
+
+        private int readPosition;
+
+        private int readRecords;
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically stores the snapshots from the {@link QPUSnapshotSpool} in the database, starting with the oldest one. The snapshots are
+ * stored in batches, each within a single transaction, and removed from the spool after the transaction committed. If the database is
+ * still unavailable, the replay is stopped until the next interval, while snapshots that can not be stored for other reasons are discarded
+ * so that they do not block the spool.
+ */
+@Component
+public class QPUSpoolReplayer {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final QPUSnapshotSpool spool;
+
+    private final Map<String, ISpoolHandler> handlers;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int replayInterval;
+
+    private final ScheduledExecutorService timer;
+
+    private final Counter replayedCounter;
+
+    private final Counter discardedCounter;
+
+    @Autowired
+    public QPUSpoolReplayer(QPUSnapshotSpool spool, Set<ISpoolHandler> handlers, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${qprov.collector.persistence.batch-size}") Integer batchSize,
+                            @Value("${qprov.collector.spool.replay-interval}") Integer replayInterval) {
+        this.spool = spool;
+        this.handlers = handlers.stream().collect(Collectors.toMap(ISpoolHandler::getSnapshotType, Function.identity()));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.replayInterval = replayInterval;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("qprov-spool-replayer-"));
+
+        this.replayedCounter = Counter.builder("qprov.spool.replayed")
+                .description("Number of spooled QPU snapshots that were stored in the database")
+                .register(meterRegistry);
+        this.discardedCounter = Counter.builder("qprov.spool.discarded")
+                .description("Number of spooled QPU snapshots that were discarded as they could not be stored")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // snapshots recovered from a previous run are stored right away
+        timer.scheduleWithFixedDelay(this::replay, 0, replayInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Store the snapshots from the spool until it is empty or the database is unavailable
+     *
+     * @return <code>true</code> if the spool was replayed completely, <code>false</code> otherwise
+     */
+    boolean replay() {
+        try {
+            List<SpooledSnapshot> batch;
+            while (!(batch = spool.read(batchSize)).isEmpty()) {
+                if (!replay(batch)) {
+                    logger.warn("Database unavailable. Postponing replay of {} spooled QPU snapshots.", spool.getPendingRecords());
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error while replaying spooled QPU snapshots: {}", e.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    private boolean replay(List<SpooledSnapshot> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach(this::store));
+            spool.acknowledge(batch.size());
+            replayedCounter.increment(batch.size());
+            logger.debug("Replayed {} spooled QPU snapshots ({} pending)", batch.size(), spool.getPendingRecords());
+            return true;
+        } catch (RuntimeException e) {
+            if (QPUPersistenceExecutor.isDatabaseUnavailable(e)) {
+                return false;
+            }
+        }
+
+        // the transaction of the batch was rolled back, so the snapshots are stored separately to only discard the failing one
+        for (SpooledSnapshot snapshot : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> store(snapshot));
+                replayedCounter.increment();
+            } catch (RuntimeException e) {
+                if (QPUPersistenceExecutor.isDatabaseUnavailable(e)) {
+                    return false;
+                }
+                logger.error("Discarding spooled snapshot of QPU {} that can not be stored: {}", snapshot.getQpuName(),
+                        e.getLocalizedMessage());
+                discardedCounter.increment();
+            }
+            spool.acknowledge(1);
+        }
+        return true;
+    }
+
+    private void store(SpooledSnapshot snapshot) {
+        final ISpoolHandler handler = handlers.get(snapshot.getType());
+        if (Objects.isNull(handler)) {
+            throw new IllegalStateException("No handler available for spooled snapshots of type " + snapshot.getType());
+        }
+        handler.store(snapshot);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -17,28 +17,24 @@
  * limitations under the License.
  *******************************************************************************/
 
-package org.quantil.qprov.collector.providers.aws;
+package org.quantil.qprov.collector;
 
 import lombok.AllArgsConstructor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import lombok.Getter;
 
+/**
+ * A serialized QPU snapshot that is stored in the local spool while the database is unavailable
+ */
+@Getter
 @AllArgsConstructor
-public class AWSRunnableApi implements Runnable {
+public class SpooledSnapshot {
 
-    private static final Logger logger = LoggerFactory.getLogger(AWSRunnableApi.class);
+    // the type of the snapshot, identifying the handler that is able to store it
+    private final String type;
 
-    private AWSProvider awsProvider;
+    private final String qpuName;
 
-    @Override
-    public void run() {
-        logger.debug("Starting periodic collection from API...");
-        boolean result = false;
-        try {
-            result = awsProvider.collectFromApi();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        logger.debug("Finished periodic collection from API with result: {}", result);
-    }
+    private final long collectionTime;
+
+    private final byte[] payload;
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.backfill;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The range of days for which the historical calibration data of a QPU was completely backfilled, so that an interrupted backfill can be
+ * resumed after the last completed day
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillCheckpoint {
+
+    @Id
+    private String qpuName;
+
+    private LocalDate startDate;
+
+    private LocalDate lastDate;
+
+    /**
+     * Get the next day to backfill for a backfill starting at the given day
+     *
+     * @param backfillStartDate the first day of the backfill
+     * @return the day after the completed range if the range covers the given day, the given day otherwise
+     */
+    public LocalDate getNextDate(LocalDate backfillStartDate) {
+        if (startDate.isAfter(backfillStartDate) || lastDate.isBefore(backfillStartDate)) {
+            return backfillStartDate;
+        }
+        return lastDate.plusDays(1);
+    }
+}
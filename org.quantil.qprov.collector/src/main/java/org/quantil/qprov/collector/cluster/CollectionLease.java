@@ -17,27 +17,25 @@
  * limitations under the License.
  *******************************************************************************/
 
-package org.quantil.qprov.collector.providers.ibmq;
+package org.quantil.qprov.collector.cluster;
 
-import lombok.AllArgsConstructor;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import java.time.Instant;
 
-@AllArgsConstructor
-public class IBMQRunnableCircuits implements Runnable {
-    protected static final Logger logger = LogManager.getLogger();
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
 
-    private IBMQProvider ibmqProvider;
+/**
+ * The lease of a collector instance for the collection of a QPU or another unit of work, which is valid until its expiry time
+ */
+@Data
+@Entity
+public class CollectionLease {
 
-    @Override
-    public void run() {
-        logger.debug("Starting periodic collection by executing quantum circuits...");
-        boolean result = false;
-        try {
-            result = ibmqProvider.collectThroughCircuits();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        logger.debug("Finished periodic collection by executing quantum circuits with result: {}", result);
-    }
+    @Id
+    private String name;
+
+    private String owner;
+
+    private Instant expiryTime;
 }
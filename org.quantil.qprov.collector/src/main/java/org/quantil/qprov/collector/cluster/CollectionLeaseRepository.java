@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.cluster;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the leases of the collector instances, all timestamps are taken from the database clock to be independent of the clocks of
+ * the instances
+ */
+@RepositoryRestResource(exported = false)
+@Repository
+public interface CollectionLeaseRepository extends JpaRepository<CollectionLease, String> {
+
+    /**
+     * Acquire or renew the lease with the given name, which succeeds if the lease does not exist, is expired, or is held by the owner
+     *
+     * @param name     the name of the lease
+     * @param owner    the ID of the instance acquiring the lease
+     * @param duration the duration of the lease in seconds
+     * @return 1 if the lease was acquired, 0 if it is held by another instance
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO collection_lease (name, owner, expiry_time) "
+            + "VALUES (:name, :owner, CURRENT_TIMESTAMP + :duration * INTERVAL '1 second') "
+            + "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, expiry_time = EXCLUDED.expiry_time "
+            + "WHERE collection_lease.owner = EXCLUDED.owner OR collection_lease.expiry_time < CURRENT_TIMESTAMP", nativeQuery = true)
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("duration") int duration);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE collection_lease SET expiry_time = CURRENT_TIMESTAMP + :duration * INTERVAL '1 second' WHERE owner = :owner",
+            nativeQuery = true)
+    int renew(@Param("owner") String owner, @Param("duration") int duration);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CollectionLease l WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CollectionLease l WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.cluster;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Coordinates multiple collector instances sharing the same database, so that the QPUs are partitioned across the live instances and each
+ * QPU is collected by exactly one instance. Each instance renews its heartbeat periodically, and the QPUs are assigned to the live
+ * instances by rendezvous hashing, so that only the QPUs of an instance that joins or dies are reassigned. An instance only collects a QPU
+ * if it is assigned to it and it holds the lease of the QPU in the database, which is renewed with the heartbeat and released as soon as
+ * the QPU is assigned to another instance. Thus, the leases of a dead instance expire after the lease duration, and its QPUs are taken over
+ * by the remaining instances.
+ * <p>
+ * Furthermore, the creation of providers and QPUs is serialized across the instances by transaction-level advisory locks.
+ */
+@Component
+public class CollectorCluster {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final CollectorInstanceRepository instanceRepository;
+
+    private final CollectionLeaseRepository leaseRepository;
+
+    private final EntityManager entityManager;
+
+    private final boolean enabled;
+
+    private final int leaseDuration;
+
+    private final String instanceId;
+
+    private final String hostname;
+
+    // the leases that were acquired by this instance, which may still be used if the database is temporarily unavailable
+    private final Set<String> heldLeases = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    private volatile List<String> liveInstances = List.of();
+
+    public CollectorCluster(CollectorInstanceRepository instanceRepository, CollectionLeaseRepository leaseRepository,
+                            EntityManager entityManager, MeterRegistry meterRegistry,
+                            @Value("${qprov.collector.cluster.enabled}") Boolean enabled,
+                            @Value("${qprov.collector.cluster.lease-duration}") Integer leaseDuration) {
+        this.instanceRepository = instanceRepository;
+        this.leaseRepository = leaseRepository;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.leaseDuration = leaseDuration;
+        this.hostname = getHostname();
+        this.instanceId = hostname + "-" + UUID.randomUUID();
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("qprov-cluster-"));
+
+        Gauge.builder("qprov.cluster.instances", this, cluster -> cluster.getInstances().size())
+                .description("Number of live collector instances sharing the collection")
+                .register(meterRegistry);
+        Gauge.builder("qprov.cluster.leases", heldLeases, Set::size)
+                .description("Number of leases held by this collector instance")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        // the heartbeat is renewed three times per lease duration, so that a single failed renewal does not expire the leases
+        logger.info("Joining collector cluster as instance {} with lease duration of {} s", instanceId, leaseDuration);
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, Math.max(1, leaseDuration / 3), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Try to acquire the lease for the given unit of work, e.g., the collection of a QPU
+     *
+     * @param name the name of the lease
+     * @return <code>true</code> if this instance is responsible for the unit of work, <code>false</code> if another instance is
+     */
+    public boolean acquire(String name) {
+        if (!enabled) {
+            return true;
+        }
+        if (!isAssigned(name)) {
+            return false;
+        }
+
+        try {
+            if (leaseRepository.acquire(name, instanceId, leaseDuration) > 0) {
+                heldLeases.add(name);
+                return true;
+            }
+            logger.debug("Lease {} is held by another instance", name);
+            heldLeases.remove(name);
+            return false;
+        } catch (RuntimeException e) {
+            // keep working on the units of work whose lease was held before, e.g., to spool their data while the database is unavailable
+            logger.warn("Unable to acquire lease {}: {}", name, e.getLocalizedMessage());
+            return heldLeases.contains(name);
+        }
+    }
+
+    /**
+     * Lock the given key for the current transaction, blocking until other instances holding the lock committed their transactions
+     *
+     * @param key the key to lock, e.g., the name of a QPU that is created
+     */
+    public void lock(String key) {
+        if (enabled) {
+            entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:key)").setParameter("key", hash(key))
+                    .getSingleResult();
+        }
+    }
+
+    /**
+     * Check if the unit of work with the given name is assigned to this instance
+     *
+     * @param name the name of the unit of work
+     * @return <code>true</code> if it is assigned to this instance, <code>false</code> otherwise
+     */
+    public boolean isAssigned(String name) {
+        return !enabled || instanceId.equals(getOwner(name, getInstances()));
+    }
+
+    /**
+     * Get the live instances including this one, as known from the last heartbeat
+     *
+     * @return the IDs of the live instances
+     */
+    public List<String> getInstances() {
+        final List<String> instances = liveInstances;
+        return instances.contains(instanceId) ? instances : Stream.concat(instances.stream(), Stream.of(instanceId)).sorted().toList();
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    void heartbeat() {
+        try {
+            instanceRepository.heartbeat(instanceId, hostname);
+            instanceRepository.deleteExpired(leaseDuration);
+            final List<String> instances = instanceRepository.findLiveInstanceIds(leaseDuration);
+            if (!instances.equals(liveInstances)) {
+                logger.info("Live collector instances changed: {}", instances);
+            }
+            liveInstances = instances;
+
+            // release the leases that are assigned to another instance, e.g., after an instance joined
+            for (String lease : heldLeases) {
+                if (!isAssigned(lease)) {
+                    logger.debug("Releasing lease {} after rebalancing", lease);
+                    leaseRepository.release(lease, instanceId);
+                    heldLeases.remove(lease);
+                }
+            }
+            leaseRepository.renew(instanceId, leaseDuration);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to renew heartbeat of collector instance {}: {}", instanceId, e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Get the instance a unit of work is assigned to by rendezvous hashing, i.e., the instance with the highest hash of its ID and the name
+     * of the unit of work, so that only the units of work of an instance are reassigned if it joins or leaves the cluster
+     *
+     * @param name      the name of the unit of work
+     * @param instances the IDs of the live instances
+     * @return the ID of the instance the unit of work is assigned to
+     */
+    static String getOwner(String name, Collection<String> instances) {
+        return instances.stream().max(Comparator.comparingLong((String instance) -> hash(instance + "/" + name))
+                .thenComparing(Comparator.naturalOrder())).orElse(null);
+    }
+
+    private static long hash(String value) {
+        // name based UUIDs are derived from an MD5 hash, which is stable across JVMs in contrast to String.hashCode()
+        return UUID.nameUUIDFromBytes(value.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private static String getHostname() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "collector";
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        if (!enabled) {
+            return;
+        }
+
+        // release the leases right away, so that the remaining instances take over without waiting for their expiry
+        try {
+            leaseRepository.releaseAll(instanceId);
+            instanceRepository.deleteById(instanceId);
+            logger.info("Left collector cluster as instance {}", instanceId);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to leave collector cluster: {}", e.getLocalizedMessage());
+        }
+    }
+}
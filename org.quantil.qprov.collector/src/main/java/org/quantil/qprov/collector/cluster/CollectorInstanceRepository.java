@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.cluster;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the collector instances, all timestamps are taken from the database clock to be independent of the clocks of the instances
+ */
+@RepositoryRestResource(exported = false)
+@Repository
+public interface CollectorInstanceRepository extends JpaRepository<CollectorInstance, String> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO collector_instance (instance_id, hostname, start_time, heartbeat) "
+            + "VALUES (:instanceId, :hostname, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (instance_id) DO UPDATE SET heartbeat = CURRENT_TIMESTAMP", nativeQuery = true)
+    int heartbeat(@Param("instanceId") String instanceId, @Param("hostname") String hostname);
+
+    @Query(value = "SELECT instance_id FROM collector_instance WHERE heartbeat >= CURRENT_TIMESTAMP - :timeout * INTERVAL '1 second' "
+            + "ORDER BY instance_id", nativeQuery = true)
+    List<String> findLiveInstanceIds(@Param("timeout") int timeout);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM collector_instance WHERE heartbeat < CURRENT_TIMESTAMP - :timeout * INTERVAL '1 second'",
+            nativeQuery = true)
+    int deleteExpired(@Param("timeout") int timeout);
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.Constants;
+import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.core.model.agents.Provider;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.repositories.ProviderRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.quantil.qprov.core.repositories.QubitCharacteristicsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Determines the delay until the next API collection of a provider based on the calibration history of its QPUs. The calibration period of
+ * each QPU is estimated from the time between its stored calibrations, and the provider is polled with the minimum interval around the
+ * expected next calibration of any of its QPUs, and with up to the maximum interval otherwise.
+ */
+@Component
+public class CalibrationCadenceEstimator {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final ProviderRepository providerRepository;
+
+    private final QPURepository qpuRepository;
+
+    private final QubitCharacteristicsRepository qubitCharacteristicsRepository;
+
+    private final boolean enabled;
+
+    private final Duration minInterval;
+
+    private final Duration maxInterval;
+
+    @Autowired
+    public CalibrationCadenceEstimator(ProviderRepository providerRepository, QPURepository qpuRepository,
+                                       QubitCharacteristicsRepository qubitCharacteristicsRepository,
+                                       @Value("${qprov.collector.adaptive-schedule.enabled}") Boolean enabled,
+                                       @Value("${qprov.collector.adaptive-schedule.min-interval}") Integer minInterval,
+                                       @Value("${qprov.collector.adaptive-schedule.max-interval}") Integer maxInterval) {
+        this(providerRepository, qpuRepository, qubitCharacteristicsRepository, enabled, Duration.ofMinutes(minInterval),
+                Duration.ofMinutes(maxInterval));
+    }
+
+    CalibrationCadenceEstimator(ProviderRepository providerRepository, QPURepository qpuRepository,
+                                QubitCharacteristicsRepository qubitCharacteristicsRepository, boolean enabled, Duration minInterval,
+                                Duration maxInterval) {
+        this.providerRepository = providerRepository;
+        this.qpuRepository = qpuRepository;
+        this.qubitCharacteristicsRepository = qubitCharacteristicsRepository;
+        this.enabled = enabled;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval.compareTo(minInterval) < 0 ? minInterval : maxInterval;
+    }
+
+    /**
+     * Get the delay until the next API collection of the given provider
+     *
+     * @param provider        the provider to collect the data for
+     * @param defaultInterval the configured interval of the provider, which is used for QPUs without sufficient calibration history
+     * @return the delay until the next collection
+     */
+    public Duration getInterval(IProvider provider, Duration defaultInterval) {
+        if (!enabled) {
+            return defaultInterval;
+        }
+
+        final Instant now = Instant.now();
+        final Date since = Date.from(now.minus(Duration.ofDays(Constants.ADAPTIVE_SCHEDULE_HISTORY_DAYS)));
+        Duration interval = maxInterval;
+        boolean qpusFound = false;
+        try {
+            for (String providerName : provider.getProviderNames()) {
+                final Provider storedProvider = providerRepository.findByName(providerName).orElse(null);
+                if (Objects.isNull(storedProvider)) {
+                    continue;
+                }
+                for (QPU qpu : qpuRepository.findByProvider(storedProvider)) {
+                    if (qpu.isSimulator()) {
+                        continue;
+                    }
+                    qpusFound = true;
+                    final List<Instant> calibrationTimes = qubitCharacteristicsRepository.findCalibrationTimesByQpu(qpu, since).stream()
+                            .map(Date::toInstant).toList();
+                    final Duration qpuInterval = getInterval(calibrationTimes, now, defaultInterval);
+                    logger.trace("Next expected calibration of QPU {} in: {}", qpu.getName(), qpuInterval);
+                    if (qpuInterval.compareTo(interval) < 0) {
+                        interval = qpuInterval;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Unable to estimate calibration cadence of provider {}: {}", provider.getProviderId(), e.getLocalizedMessage());
+            return defaultInterval;
+        }
+
+        // without any QPUs, e.g., before the first successful collection, the configured interval is used
+        return qpusFound ? interval : defaultInterval;
+    }
+
+    /**
+     * Get the delay until the next collection for a single QPU based on the times of its previous calibrations
+     *
+     * @param calibrationTimes the distinct calibration times of the QPU in ascending order
+     * @param now              the current time
+     * @param defaultInterval  the interval to use if the calibration history is not sufficient to estimate the calibration period
+     * @return the delay until the next collection, within the minimum and maximum interval
+     */
+    Duration getInterval(List<Instant> calibrationTimes, Instant now, Duration defaultInterval) {
+        if (calibrationTimes.size() < Constants.ADAPTIVE_SCHEDULE_MIN_CALIBRATIONS) {
+            return clamp(defaultInterval);
+        }
+
+        // the median is robust against single delayed or additional calibrations
+        final List<Long> periods = new ArrayList<>();
+        for (int i = 1; i < calibrationTimes.size(); i++) {
+            periods.add(Duration.between(calibrationTimes.get(i - 1), calibrationTimes.get(i)).toMillis());
+        }
+        Collections.sort(periods);
+        final long period = periods.get(periods.size() / 2);
+        if (period <= 0) {
+            return clamp(defaultInterval);
+        }
+
+        // poll densely in a window around the expected next calibration, skipping calibrations that were apparently left out
+        final long window = Math.max(minInterval.toMillis(), period / Constants.ADAPTIVE_SCHEDULE_WINDOW_DIVISOR);
+        final long lastCalibration = calibrationTimes.get(calibrationTimes.size() - 1).toEpochMilli();
+        final long missedPeriods = Math.max(1, -Math.floorDiv(lastCalibration + window - now.toEpochMilli(), period));
+        final long expectedCalibration = lastCalibration + missedPeriods * period;
+        return clamp(Duration.ofMillis(expectedCalibration - window - now.toEpochMilli()));
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+}
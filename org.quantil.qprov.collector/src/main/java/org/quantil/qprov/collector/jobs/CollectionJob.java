@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import lombok.Getter;
+
+/**
+ * A triggered collection of provenance data comprising the collections for all available providers
+ */
+@Getter
+public class CollectionJob {
+
+    private final UUID id;
+
+    private final CollectionType type;
+
+    private final Date created = new Date();
+
+    private final Map<String, ProviderCollection> providers;
+
+    CollectionJob(UUID id, CollectionType type, Map<String, ProviderCollection> providers) {
+        this.id = id;
+        this.type = type;
+        this.providers = Collections.unmodifiableMap(providers);
+    }
+
+    /**
+     * Get the overall status of the job based on the status of the collections for the different providers
+     *
+     * @return the aggregated status of the job
+     */
+    public CollectionStatus getStatus() {
+        final Collection<ProviderCollection> collections = providers.values();
+        if (collections.stream().anyMatch(collection -> !collection.getStatus().isDone())) {
+            return collections.stream().allMatch(collection -> collection.getStatus() == CollectionStatus.PENDING)
+                    ? CollectionStatus.PENDING : CollectionStatus.RUNNING;
+        }
+        return collections.stream().allMatch(collection -> collection.getStatus() == CollectionStatus.SUCCEEDED)
+                ? CollectionStatus.SUCCEEDED : CollectionStatus.FAILED;
+    }
+
+    /**
+     * Get the progress of the job
+     *
+     * @return the number of providers for which the collection is finished
+     */
+    public long getFinishedProviders() {
+        return providers.values().stream().filter(collection -> collection.getStatus().isDone()).count();
+    }
+
+    /**
+     * Get the time at which the last provider collection of the job finished
+     *
+     * @return the end time of the job, or <code>null</code> if the job is still running
+     */
+    public Date getEndTime() {
+        if (!getStatus().isDone()) {
+            return null;
+        }
+        return providers.values().stream().map(ProviderCollection::getEndTime).filter(Objects::nonNull).max(Date::compareTo).orElse(created);
+    }
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.quantil.qprov.core.model.collection.CollectionRun;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
+import org.quantil.qprov.core.repositories.CollectionRunRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the collection of provenance data asynchronously. The collections of each provider are executed on a separate bounded thread pool,
+ * so that a provider whose API does not respond cannot delay the collections of the other providers, and a collection that is triggered
+ * while the same collection for the provider is still running is merged into the running one. Collections for a provider whose circuit
+ * breaker is open are not started, so that the last collected data is kept. Each finished collection is recorded as a {@link CollectionRun}
+ * in the database.
+ */
+@Component
+public class CollectionJobService {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final Set<IProvider> availableProviders;
+
+    private final CollectorMetrics collectorMetrics;
+
+    private final CollectionRunRepository collectionRunRepository;
+
+    private final ProviderResilience providerResilience;
+
+    private final int maxConcurrentCollections;
+
+    // one executor per provider acting as bulkhead, identified by the provider ID
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    // collections that are currently pending or running, identified by the collection type and provider ID
+    private final Map<String, ProviderCollection> activeCollections = new ConcurrentHashMap<>();
+
+    private final Map<UUID, CollectionJob> jobs;
+
+    public CollectionJobService(Set<IProvider> availableProviders, CollectorMetrics collectorMetrics,
+                                CollectionRunRepository collectionRunRepository, ProviderResilience providerResilience,
+                                @Value("${qprov.collector.max-concurrent-collections}") Integer maxConcurrentCollections,
+                                @Value("${qprov.collector.job-history-size}") Integer jobHistorySize) {
+        this.availableProviders = availableProviders;
+        this.collectorMetrics = collectorMetrics;
+        this.collectionRunRepository = collectionRunRepository;
+        this.providerResilience = providerResilience;
+        this.maxConcurrentCollections = maxConcurrentCollections;
+
+        // only keep the most recent jobs to bound the memory consumption
+        this.jobs = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CollectionJob> eldest) {
+                return size() > jobHistorySize;
+            }
+        };
+    }
+
+    /**
+     * Trigger the collection of the given type for all available providers
+     *
+     * @param type    the type of collection to perform
+     * @param trigger the origin of the collection
+     * @return the job tracking the progress of the collection
+     */
+    public CollectionJob submit(CollectionType type, CollectionTrigger trigger) {
+        final UUID jobId = UUID.randomUUID();
+        final Map<String, ProviderCollection> providerCollections = new LinkedHashMap<>();
+        availableProviders.stream().sorted(Comparator.comparing(IProvider::getProviderId))
+                .forEach(provider -> providerCollections.put(provider.getProviderId(), submit(jobId, type, provider, trigger)));
+        return register(jobId, type, providerCollections);
+    }
+
+    /**
+     * Trigger the collection of the given type for a single provider
+     *
+     * @param type     the type of collection to perform
+     * @param provider the provider to collect the provenance data for
+     * @param trigger  the origin of the collection
+     * @return the job tracking the progress of the collection
+     */
+    public CollectionJob submit(CollectionType type, IProvider provider, CollectionTrigger trigger) {
+        final UUID jobId = UUID.randomUUID();
+        return register(jobId, type, Map.of(provider.getProviderId(), submit(jobId, type, provider, trigger)));
+    }
+
+    /**
+     * Trigger the backfill of the historical calibration data for the given range of days for the given providers
+     *
+     * @param providers the providers to backfill the calibration data for
+     * @param startDate the first day to backfill
+     * @param endDate   the last day to backfill
+     * @param trigger   the origin of the backfill
+     * @return the job tracking the progress of the backfill
+     */
+    public CollectionJob submitBackfill(Set<IProvider> providers, LocalDate startDate, LocalDate endDate, CollectionTrigger trigger) {
+        final UUID jobId = UUID.randomUUID();
+        final Map<String, ProviderCollection> providerCollections = new LinkedHashMap<>();
+        providers.stream().sorted(Comparator.comparing(IProvider::getProviderId))
+                .forEach(provider -> providerCollections.put(provider.getProviderId(),
+                        submit(jobId, provider, new ProviderCollection(jobId, provider.getProviderId(), CollectionType.BACKFILL, trigger,
+                                startDate, endDate))));
+        return register(jobId, CollectionType.BACKFILL, providerCollections);
+    }
+
+    /**
+     * Get the provider with the given ID
+     *
+     * @param providerId the ID of the provider
+     * @return the provider, or an empty optional if no provider with the given ID is available
+     */
+    public Optional<IProvider> getProvider(String providerId) {
+        return availableProviders.stream().filter(provider -> provider.getProviderId().equals(providerId)).findFirst();
+    }
+
+    /**
+     * Get all available providers
+     *
+     * @return the available providers
+     */
+    public Set<IProvider> getProviders() {
+        return availableProviders;
+    }
+
+    /**
+     * Get the job with the given ID
+     *
+     * @param jobId the ID of the job
+     * @return the job, or an empty optional if no job with the given ID is known (anymore)
+     */
+    public Optional<CollectionJob> getJob(UUID jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    private ProviderCollection submit(UUID jobId, CollectionType type, IProvider provider, CollectionTrigger trigger) {
+        return submit(jobId, provider, new ProviderCollection(jobId, provider.getProviderId(), type, trigger));
+    }
+
+    private ProviderCollection submit(UUID jobId, IProvider provider, ProviderCollection newCollection) {
+        final String key = newCollection.getType() + ":" + provider.getProviderId();
+        final ProviderCollection collection = activeCollections.computeIfAbsent(key, ignored -> newCollection);
+
+        if (!collection.getJobId().equals(jobId)) {
+            logger.debug("Collection of type {} for provider {} already running in job {}. Attaching to job {}.",
+                    collection.getType(), provider.getProviderId(), collection.getJobId(), jobId);
+            return collection;
+        }
+
+        try {
+            getExecutor(provider.getProviderId()).execute(() -> runCollection(provider, collection, key));
+        } catch (RejectedExecutionException e) {
+            logger.error("Unable to schedule collection for provider {}: {}", provider.getProviderId(), e.getLocalizedMessage());
+            collection.finished(false, "Collection rejected by executor");
+            activeCollections.remove(key, collection);
+        }
+        return collection;
+    }
+
+    private ExecutorService getExecutor(String providerId) {
+        return executors.computeIfAbsent(providerId, ignored -> Executors.newFixedThreadPool(maxConcurrentCollections,
+                new CustomizableThreadFactory("qprov-collection-" + providerId + "-")));
+    }
+
+    private CollectionJob register(UUID jobId, CollectionType type, Map<String, ProviderCollection> providerCollections) {
+        final CollectionJob job = new CollectionJob(jobId, type, providerCollections);
+        synchronized (jobs) {
+            jobs.put(jobId, job);
+        }
+        logger.debug("Submitted collection job {} of type {} for {} providers", jobId, type, providerCollections.size());
+        return job;
+    }
+
+    private void runCollection(IProvider provider, ProviderCollection collection, String key) {
+        logger.debug("Collecting provenance data of type {} for provider: {}", collection.getType(), provider.getProviderId());
+        collection.started();
+
+        final CompletableFuture<Boolean> result;
+        try {
+            if (providerResilience.getCircuitBreaker(provider.getProviderId()).isOpen()) {
+                logger.warn("Circuit breaker of provider {} is open. Skipping collection and keeping the last collected data!",
+                        provider.getProviderId());
+                finishCollection(provider, collection, key, false, "Circuit breaker of provider is open");
+                return;
+            }
+            result = switch (collection.getType()) {
+                case API -> CompletableFuture.completedFuture(provider.collectFromApi(collection.getStatistics()));
+                case CIRCUITS -> provider.collectThroughCircuits(collection.getStatistics());
+                case QUEUE -> CompletableFuture.completedFuture(provider.collectQueueStatus(collection.getStatistics()));
+                case BACKFILL -> CompletableFuture.completedFuture(provider.backfillCalibrations(collection.getBackfillStartDate(),
+                        collection.getBackfillEndDate(), collection.getStatistics()));
+            };
+        } catch (RuntimeException e) {
+            failCollection(provider, collection, key, e);
+            return;
+        }
+
+        // the circuits are executed asynchronously, so that the thread of the executor is not occupied while waiting for their results
+        result.whenComplete((success, e) -> {
+            if (Objects.isNull(e)) {
+                finishCollection(provider, collection, key, Boolean.TRUE.equals(success), null);
+            } else {
+                failCollection(provider, collection, key,
+                        e instanceof CompletionException && Objects.nonNull(e.getCause()) ? e.getCause() : e);
+            }
+        });
+    }
+
+    private void failCollection(IProvider provider, ProviderCollection collection, String key, Throwable e) {
+        logger.error("Collection for provider {} failed with exception: {}", provider.getProviderId(), e.getLocalizedMessage());
+        final String error = Objects.requireNonNullElse(e.getLocalizedMessage(), e.getClass().getSimpleName());
+        finishCollection(provider, collection, key, false, error);
+    }
+
+    private void finishCollection(IProvider provider, ProviderCollection collection, String key, boolean success, String error) {
+        collection.finished(success, error);
+        activeCollections.remove(key, collection);
+        collectorMetrics.recordCollection(provider.getProviderId(), collection.getType(), Duration.ofMillis(collection.getDuration()),
+                success, collection.getStatistics());
+        logger.debug("Finished collection for provider {} with success {} after {} ms ({} QPUs)", provider.getProviderId(), success,
+                collection.getDuration(), collection.getStatistics());
+        recordRun(collection);
+    }
+
+    private void recordRun(ProviderCollection collection) {
+        final CollectionStatistics statistics = collection.getStatistics();
+        final CollectionRun run = new CollectionRun();
+        run.setJobId(collection.getJobId());
+        run.setProvider(collection.getProviderId());
+        run.setType(collection.getType().name());
+        run.setTrigger(collection.getTrigger());
+        run.setStartTime(collection.getStartTime());
+        run.setEndTime(collection.getEndTime());
+        run.setSuccess(collection.getStatus() == CollectionStatus.SUCCEEDED);
+        run.setError(collection.getError());
+        run.setPhaseDurations(statistics.getPhaseDurations());
+        run.setApiCalls(statistics.getApiCalls());
+        run.setBytesDownloaded(statistics.getBytesDownloaded());
+        run.setUpdatedQpus(statistics.getUpdatedQpus());
+        run.setSkippedQpus(statistics.getSkippedQpus());
+        run.setRowsWritten(statistics.getInsertedCharacteristics());
+        run.setFailures(statistics.getFailures());
+
+        // the ledger is only used for analysis, so a run that cannot be recorded, e.g., as the database is unavailable, is not retried
+        try {
+            collectionRunRepository.save(run);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to record collection run of provider {}: {}", collection.getProviderId(), e.getLocalizedMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        logger.debug("Shutting down collection executors...");
+        executors.values().forEach(ExecutorService::shutdown);
+        for (ExecutorService executor : executors.values()) {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The intervals in which the different types of collections are triggered periodically for a provider
+ */
+public final class CollectionSchedule {
+
+    /**
+     * Schedule of providers for which no periodic collection is configured
+     */
+    public static final CollectionSchedule NONE = new CollectionSchedule(new EnumMap<>(CollectionType.class));
+
+    private final Map<CollectionType, Duration> intervals;
+
+    private CollectionSchedule(Map<CollectionType, Duration> intervals) {
+        this.intervals = intervals;
+    }
+
+    /**
+     * Create the schedule for a provider from its configuration
+     *
+     * @param autoCollect             <code>true</code> if data should be collected periodically, <code>false</code> otherwise
+     * @param apiInterval             the interval of the collections from the provider API in minutes
+     * @param executeCircuits         <code>true</code> if calibration circuits should be executed periodically, <code>false</code> otherwise
+     * @param circuitsInterval        the interval of the collections by executing calibration circuits in minutes
+     * @param queueInterval           the interval of the updates of the queue sizes in minutes, or 0 to only update them with the API
+     *                                collections
+     * @return the schedule of the provider
+     */
+    public static CollectionSchedule create(boolean autoCollect, int apiInterval, boolean executeCircuits, int circuitsInterval,
+                                            int queueInterval) {
+        final Map<CollectionType, Duration> intervals = new EnumMap<>(CollectionType.class);
+        if (autoCollect) {
+            intervals.put(CollectionType.API, Duration.ofMinutes(apiInterval));
+            if (executeCircuits) {
+                intervals.put(CollectionType.CIRCUITS, Duration.ofMinutes(circuitsInterval));
+            }
+            if (queueInterval > 0) {
+                intervals.put(CollectionType.QUEUE, Duration.ofMinutes(queueInterval));
+            }
+        }
+        return new CollectionSchedule(intervals);
+    }
+
+    /**
+     * Get the interval of the given type of collection
+     *
+     * @param type the type of collection
+     * @return the interval, or an empty optional if the collection is not triggered periodically
+     */
+    public Optional<Duration> getInterval(CollectionType type) {
+        return Optional.ofNullable(intervals.get(type));
+    }
+}
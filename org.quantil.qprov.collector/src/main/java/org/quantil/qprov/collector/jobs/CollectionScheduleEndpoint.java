@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint providing the periodic collections with the times and durations of their last runs and the times of their next runs
+ */
+@Component
+@Endpoint(id = "collectionschedule")
+public class CollectionScheduleEndpoint {
+
+    private final CollectionScheduler collectionScheduler;
+
+    public CollectionScheduleEndpoint(CollectionScheduler collectionScheduler) {
+        this.collectionScheduler = collectionScheduler;
+    }
+
+    @ReadOperation
+    public List<ScheduledCollection> scheduledCollections() {
+        return collectionScheduler.getScheduledCollections();
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.Constants;
+import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Triggers the periodic collections of all providers according to their schedules. A single thread only keeps the time, the collections
+ * are executed on the bounded thread pool of the {@link CollectionJobService}. The next run of a collection is scheduled after the previous
+ * run finished, so that runs of the same collection never overlap, and it is delayed by a random jitter to spread the runs of the providers.
+ */
+@Component
+public class CollectionScheduler {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final CollectionJobService collectionJobService;
+
+    private final CalibrationCadenceEstimator calibrationCadenceEstimator;
+
+    private final List<ScheduledCollection> scheduledCollections = new ArrayList<>();
+
+    private final ScheduledExecutorService timer;
+
+    private final double jitter;
+
+    public CollectionScheduler(Set<IProvider> availableProviders, CollectionJobService collectionJobService,
+                               CalibrationCadenceEstimator calibrationCadenceEstimator,
+                               @Value("${qprov.collector.schedule-jitter}") Integer jitter) {
+        this.collectionJobService = collectionJobService;
+        this.calibrationCadenceEstimator = calibrationCadenceEstimator;
+        this.jitter = jitter / 100.0;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("qprov-scheduler-"));
+
+        availableProviders.stream().sorted(Comparator.comparing(IProvider::getProviderId)).forEach(provider -> {
+            for (CollectionType type : CollectionType.values()) {
+                provider.getSchedule().getInterval(type).ifPresent(interval -> {
+                    logger.debug("Periodic collection of type {} activated for provider {} with interval: {} min", type,
+                            provider.getProviderId(), interval.toMinutes());
+                    scheduledCollections.add(new ScheduledCollection(provider, type, interval));
+                });
+            }
+        });
+    }
+
+    /**
+     * Get the periodic collections and the times of their last and next runs
+     *
+     * @return the scheduled collections
+     */
+    public List<ScheduledCollection> getScheduledCollections() {
+        return Collections.unmodifiableList(scheduledCollections);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (ScheduledCollection scheduledCollection : scheduledCollections) {
+            // circuit execution and queue updates are delayed as they rely on the set of identified QPUs from the API collection
+            final int startupTime = switch (scheduledCollection.getType()) {
+                case API -> Constants.DEFAULT_COLLECTION_STARTUP_TIME;
+                case CIRCUITS -> Constants.DEFAULT_COLLECTION_STARTUP_TIME_CIRCUITS;
+                case QUEUE -> Constants.DEFAULT_COLLECTION_STARTUP_TIME_QUEUE;
+                case BACKFILL -> throw new IllegalStateException("Backfills are only triggered manually");
+            };
+            schedule(scheduledCollection, Duration.ofMinutes(startupTime));
+        }
+    }
+
+    private void schedule(ScheduledCollection scheduledCollection, Duration delay) {
+        final long delayMillis = delay.toMillis() + (long) (ThreadLocalRandom.current().nextDouble() * jitter * delay.toMillis());
+        try {
+            timer.schedule(() -> run(scheduledCollection), delayMillis, TimeUnit.MILLISECONDS);
+            scheduledCollection.scheduled(new Date(System.currentTimeMillis() + delayMillis));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Scheduler shut down, not scheduling further collections of provider {}", scheduledCollection.getProviderId());
+        }
+    }
+
+    private void run(ScheduledCollection scheduledCollection) {
+        logger.debug("Starting periodic collection of type {} for provider {}...", scheduledCollection.getType(),
+                scheduledCollection.getProviderId());
+
+        // if the collection was triggered manually in the meantime, the running collection is awaited instead of starting a second one
+        final ProviderCollection collection = collectionJobService.submit(scheduledCollection.getType(), scheduledCollection.getProvider(),
+                CollectionTrigger.SCHEDULED).getProviders().get(scheduledCollection.getProviderId());
+        collection.whenFinished().thenRun(() -> {
+            scheduledCollection.finished(collection);
+            logger.debug("Finished periodic collection of type {} for provider {} with status: {}", scheduledCollection.getType(),
+                    scheduledCollection.getProviderId(), collection.getStatus());
+            schedule(scheduledCollection, getNextInterval(scheduledCollection));
+        });
+    }
+
+    private Duration getNextInterval(ScheduledCollection scheduledCollection) {
+        // API collections follow the calibration cadence of the QPUs, whereas the other collections use the configured interval
+        if (scheduledCollection.getType() != CollectionType.API) {
+            return scheduledCollection.getInterval();
+        }
+        final Duration interval = calibrationCadenceEstimator.getInterval(scheduledCollection.getProvider(), scheduledCollection.getInterval());
+        logger.debug("Next API collection for provider {} in {} min", scheduledCollection.getProviderId(), interval.toMinutes());
+        return interval;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.debug("Shutting down collection scheduler...");
+        timer.shutdownNow();
+    }
+}
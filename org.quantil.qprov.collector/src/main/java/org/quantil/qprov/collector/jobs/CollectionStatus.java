@@ -17,28 +17,22 @@
  * limitations under the License.
  *******************************************************************************/
 
-package org.quantil.qprov.collector.providers.aws;
+package org.quantil.qprov.collector.jobs;
 
-import lombok.AllArgsConstructor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+/**
+ * Status of a collection job or of the collection for a single provider within a job
+ */
+public enum CollectionStatus {
 
-@AllArgsConstructor
-public class AWSRunnableCircuits implements Runnable {
+    PENDING,
 
-    private static final Logger logger = LoggerFactory.getLogger(AWSRunnableCircuits.class);
+    RUNNING,
 
-    private AWSProvider awsProvider;
+    SUCCEEDED,
 
-    @Override
-    public void run() {
-        logger.debug("Starting periodic collection by executing quantum circuits...");
-        boolean result = false;
-        try {
-            result = awsProvider.collectThroughCircuits();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        logger.debug("Finished periodic collection by executing quantum circuits with result: {}", result);
+    FAILED;
+
+    public boolean isDone() {
+        return this == SUCCEEDED || this == FAILED;
     }
 }
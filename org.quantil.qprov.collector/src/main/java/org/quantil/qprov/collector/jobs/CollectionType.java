@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+/**
+ * The different kinds of provenance data collections that can be triggered for a provider
+ */
+public enum CollectionType {
+
+    /**
+     * Collection of the data that is available via the provider APIs
+     */
+    API,
+
+    /**
+     * Collection of the data that requires the execution of calibration circuits
+     */
+    CIRCUITS,
+
+    /**
+     * Collection of the current queue sizes of the already known QPUs, without retrieving their properties
+     */
+    QUEUE,
+
+    /**
+     * Collection of the historical calibration data of the already known QPUs for a range of past days
+     */
+    BACKFILL
+}
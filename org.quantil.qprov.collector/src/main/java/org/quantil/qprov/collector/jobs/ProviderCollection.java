@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * The collection of provenance data for a single provider. If a collection for the same provider is triggered while this one is still running,
+ * the new job reuses this object instead of starting a second collection.
+ */
+@Getter
+public class ProviderCollection {
+
+    private final UUID jobId;
+
+    private final String providerId;
+
+    private final CollectionType type;
+
+    private final CollectionTrigger trigger;
+
+    // the range of days to collect the historical calibration data for, only set for backfills
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final LocalDate backfillStartDate;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final LocalDate backfillEndDate;
+
+    private volatile CollectionStatus status = CollectionStatus.PENDING;
+
+    private volatile Date startTime;
+
+    private volatile Date endTime;
+
+    private volatile String error;
+
+    private final CollectionStatistics statistics = new CollectionStatistics();
+
+    @Getter(AccessLevel.NONE)
+    private final CompletableFuture<ProviderCollection> completion = new CompletableFuture<>();
+
+    public ProviderCollection(UUID jobId, String providerId, CollectionType type, CollectionTrigger trigger) {
+        this(jobId, providerId, type, trigger, null, null);
+    }
+
+    public ProviderCollection(UUID jobId, String providerId, CollectionType type, CollectionTrigger trigger, LocalDate backfillStartDate,
+                              LocalDate backfillEndDate) {
+        this.jobId = jobId;
+        this.providerId = providerId;
+        this.type = type;
+        this.trigger = trigger;
+        this.backfillStartDate = backfillStartDate;
+        this.backfillEndDate = backfillEndDate;
+    }
+
+    /**
+     * Get the duration of the collection
+     *
+     * @return the duration in milliseconds, the time elapsed so far if the collection is still running, or <code>null</code> if it was not
+     * started yet
+     */
+    public Long getDuration() {
+        if (Objects.isNull(startTime)) {
+            return null;
+        }
+        final long end = Objects.nonNull(endTime) ? endTime.getTime() : System.currentTimeMillis();
+        return end - startTime.getTime();
+    }
+
+    void started() {
+        startTime = new Date();
+        status = CollectionStatus.RUNNING;
+    }
+
+    void finished(boolean success, String error) {
+        this.error = error;
+        endTime = new Date();
+        if (Objects.isNull(startTime)) {
+            startTime = endTime;
+        }
+        status = success ? CollectionStatus.SUCCEEDED : CollectionStatus.FAILED;
+        completion.complete(this);
+    }
+
+    /**
+     * Get a future that is completed when the collection is finished
+     *
+     * @return the future completed with this collection
+     */
+    CompletableFuture<ProviderCollection> whenFinished() {
+        return completion;
+    }
+}
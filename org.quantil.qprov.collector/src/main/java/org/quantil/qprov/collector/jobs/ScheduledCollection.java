@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+import org.quantil.qprov.collector.IProvider;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+/**
+ * A periodic collection of a provider and the times of its last and next run
+ */
+@Getter
+public class ScheduledCollection {
+
+    @JsonIgnore
+    private final IProvider provider;
+
+    private final CollectionType type;
+
+    @JsonIgnore
+    private final Duration interval;
+
+    private volatile Date nextRunTime;
+
+    private volatile UUID lastJobId;
+
+    private volatile Date lastStartTime;
+
+    private volatile Date lastEndTime;
+
+    private volatile Long lastDuration;
+
+    private volatile CollectionStatus lastStatus;
+
+    ScheduledCollection(IProvider provider, CollectionType type, Duration interval) {
+        this.provider = provider;
+        this.type = type;
+        this.interval = interval;
+    }
+
+    public String getProviderId() {
+        return provider.getProviderId();
+    }
+
+    /**
+     * Get the configured interval in which the collection is triggered. API collections are scheduled based on the calibration cadence of
+     * the QPUs if the adaptive schedule is enabled, and the start of the next run is delayed by the jitter in addition
+     *
+     * @return the interval in minutes
+     */
+    public long getIntervalMinutes() {
+        return interval.toMinutes();
+    }
+
+    void scheduled(Date nextRunTime) {
+        this.nextRunTime = nextRunTime;
+    }
+
+    void finished(ProviderCollection collection) {
+        this.nextRunTime = null;
+        this.lastJobId = collection.getJobId();
+        this.lastStartTime = collection.getStartTime();
+        this.lastEndTime = collection.getEndTime();
+        this.lastDuration = collection.getDuration();
+        this.lastStatus = collection.getStatus();
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.aws;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.braket.AWSBraket;
+import com.amazonaws.services.braket.AWSBraketClientBuilder;
+import com.amazonaws.util.IOUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.resilience.CircuitBreaker;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Provides one Braket client per region, which is created on first use and shared by all collections. The clients are thread-safe and keep
+ * their HTTP connection pool, so connections to the Braket API are reused across requests. All clients share the circuit breaker of the
+ * provider and use the configured timeouts, whereas failed requests are retried by the SDK with its jittered backoff.
+ */
+@Component
+public class AWSBraketClientRegistry {
+
+    /**
+     * Key to register a consumer for the raw JSON response of a request, as the SDK discards some properties, such as the device capabilities
+     */
+    public static final HandlerContextKey<Consumer<byte[]>> RAW_RESPONSE_CONSUMER = new HandlerContextKey<>("RawResponseConsumer");
+
+    private static final HandlerContextKey<Long> REQUEST_START_TIME = new HandlerContextKey<>("RequestStartTime");
+
+    private static final Logger logger = LoggerFactory.getLogger(AWSBraketClientRegistry.class);
+
+    private final Map<String, AWSBraket> clients = new ConcurrentHashMap<>();
+
+    private final AWSStaticCredentialsProvider credentialsProvider;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ProviderResilience providerResilience;
+
+    private final CircuitBreaker circuitBreaker;
+
+    public AWSBraketClientRegistry(MeterRegistry meterRegistry, ProviderResilience providerResilience,
+                                   @Value("${qprov.aws.token}") String accessToken,
+                                   @Value("${qprov.aws.secret-token}") String secretAccessToken) {
+        this.meterRegistry = meterRegistry;
+        this.providerResilience = providerResilience;
+        this.circuitBreaker = providerResilience.getCircuitBreaker(AWSConstants.PROVIDER_ID);
+        this.credentialsProvider = new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessToken, secretAccessToken));
+    }
+
+    /**
+     * Get the Braket client for the given region
+     *
+     * @param region the AWS region to access
+     * @return the shared client for the region
+     */
+    public AWSBraket getClient(String region) {
+        return clients.computeIfAbsent(region, this::createClient);
+    }
+
+    private AWSBraket createClient(String region) {
+        logger.debug("Creating Braket client for region {}", region);
+        return AWSBraketClientBuilder.standard()
+                .withCredentials(credentialsProvider)
+                .withRegion(region)
+                .withClientConfiguration(createClientConfiguration())
+                .withRequestHandlers(new BraketRequestHandler(region))
+                .build();
+    }
+
+    private ClientConfiguration createClientConfiguration() {
+        return new ClientConfiguration()
+                .withConnectionTimeout((int) providerResilience.getConnectTimeout().toMillis())
+                .withSocketTimeout((int) providerResilience.getReadTimeout().toMillis())
+                .withRequestTimeout((int) providerResilience.getRequestTimeout().toMillis())
+                .withRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(providerResilience.getMaxRetries()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.debug("Shutting down {} Braket clients...", clients.size());
+        clients.values().forEach(AWSBraket::shutdown);
+        clients.clear();
+    }
+
+    /**
+     * Records the latency and outcome of all requests of a client and passes the raw responses to the registered consumers. The requests are
+     * also attributed to the collection run they are sent for, as the synchronous client executes the handlers on the calling thread.
+     * Requests are rejected before they are sent while the circuit breaker of the provider is open.
+     */
+    private class BraketRequestHandler extends RequestHandler2 {
+
+        private final String region;
+
+        BraketRequestHandler(String region) {
+            this.region = region;
+        }
+
+        @Override
+        public void beforeRequest(Request<?> request) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new AmazonClientException("Circuit breaker of provider " + AWSConstants.PROVIDER_ID + " is open, request to region "
+                        + region + " not sent");
+            }
+            request.addHandlerContext(REQUEST_START_TIME, System.nanoTime());
+        }
+
+        @Override
+        public HttpResponse beforeUnmarshalling(Request<?> request, HttpResponse httpResponse) {
+            final Consumer<byte[]> rawResponseConsumer = request.getHandlerContext(RAW_RESPONSE_CONSUMER);
+            if (Objects.isNull(rawResponseConsumer) || Objects.isNull(httpResponse.getContent())) {
+                return httpResponse;
+            }
+
+            try {
+                final byte[] content = IOUtils.toByteArray(httpResponse.getContent());
+                rawResponseConsumer.accept(content);
+
+                // provide the content again, so that the response can still be unmarshalled by the SDK
+                httpResponse.setContent(new ByteArrayInputStream(content));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return httpResponse;
+        }
+
+        @Override
+        public void afterResponse(Request<?> request, Response<?> response) {
+            recordRequest(request, response, "success", true);
+        }
+
+        @Override
+        public void afterError(Request<?> request, Response<?> response, Exception e) {
+            recordRequest(request, response, "error", !isProviderFailure(e));
+        }
+
+        private void recordRequest(Request<?> request, Response<?> response, String outcome, boolean providerAvailable) {
+            // requests rejected by the circuit breaker have no start time and were never sent
+            final Long startTime = request.getHandlerContext(REQUEST_START_TIME);
+            if (Objects.isNull(startTime)) {
+                return;
+            }
+            if (providerAvailable) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            CollectionStatistics.current().ifPresent(statistics -> statistics.apiCallMade(getContentLength(response)));
+
+            Timer.builder("qprov.aws.braket.requests")
+                    .description("Requests sent to the AWS Braket API")
+                    .tag("region", region)
+                    .tag("operation", Objects.requireNonNullElse(request.getHandlerContext(HandlerContextKey.OPERATION_NAME), "unknown"))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Check if the given error of a request indicates that the provider is unavailable, i.e., the request could not be sent, timed out,
+         * was throttled, or was answered with a server error, whereas other client errors, e.g., invalid requests, do not count as failures
+         */
+        private static boolean isProviderFailure(Exception e) {
+            if (e instanceof AmazonServiceException serviceException) {
+                return serviceException.getStatusCode() >= 500 || RetryUtils.isThrottlingException(serviceException);
+            }
+            return true;
+        }
+
+        private static long getContentLength(Response<?> response) {
+            if (Objects.isNull(response) || Objects.isNull(response.getHttpResponse())) {
+                return 0;
+            }
+            try {
+                return Long.parseLong(Objects.requireNonNullElse(response.getHttpResponse().getHeader("Content-Length"), "0"));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
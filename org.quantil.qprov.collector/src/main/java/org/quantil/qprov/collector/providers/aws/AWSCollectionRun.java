@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.aws;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The devices discovered during a single collection run. The run context is created once all regions were queried and is not modified
+ * afterwards, so concurrent runs never share or overwrite their results.
+ */
+public class AWSCollectionRun {
+
+    private final Map<String, List<AWSDevice>> devicesPerProvider;
+
+    private final List<AWSDevice> simulators;
+
+    /**
+     * Create the context of a collection run
+     *
+     * @param devicesPerProvider the QPUs per provider, providers for which the devices could not be retrieved are missing
+     * @param simulators         the available simulators, or <code>null</code> if they could not be retrieved
+     */
+    public AWSCollectionRun(Map<String, List<AWSDevice>> devicesPerProvider, List<AWSDevice> simulators) {
+        final Map<String, List<AWSDevice>> devices = new HashMap<>();
+        devicesPerProvider.forEach((provider, providerDevices) -> devices.put(provider, List.copyOf(providerDevices)));
+        this.devicesPerProvider = Collections.unmodifiableMap(devices);
+        this.simulators = Objects.isNull(simulators) ? null : List.copyOf(simulators);
+    }
+
+    /**
+     * Get the QPUs of the given provider
+     *
+     * @param provider the name of the provider
+     * @return the QPUs of the provider, or <code>null</code> if they could not be retrieved
+     */
+    public List<AWSDevice> getDevices(String provider) {
+        return devicesPerProvider.get(provider);
+    }
+
+    /**
+     * Get the simulators available over AWS
+     *
+     * @return the simulators, or <code>null</code> if they could not be retrieved
+     */
+    public List<AWSDevice> getSimulators() {
+        return simulators;
+    }
+
+    public boolean isSimulator(String deviceName) {
+        return Objects.nonNull(simulators) && simulators.stream().anyMatch(simulator -> simulator.getDeviceName().equals(deviceName));
+    }
+}
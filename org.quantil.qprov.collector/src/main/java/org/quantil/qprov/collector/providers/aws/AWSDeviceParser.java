@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.aws;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Extracts the AWS devices and their properties from the JSON returned by Braket in a single pass using the Jackson streaming API. Only the
+ * parts of the device capabilities used by QProv are read, all other parts of the documents are skipped without building a tree.
+ */
+public abstract class AWSDeviceParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(AWSDeviceParser.class);
+
+    // thread-safe once configured, so it is shared by all parsers
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final String OPENQASM_OPERATIONS = "action.braket.ir.openqasm.program.supportedOperations";
+
+    // objects of the device capabilities that contain the properties of interest, everything else is skipped
+    private static final Set<String> RELEVANT_OBJECTS = Set.of("service", "action", "action.braket.ir.openqasm.program", "paradigm",
+            "paradigm.connectivity", "provider", "provider.fidelity", "provider.timing");
+
+    private static final List<String> PROVIDER_PROPERTY_PREFIXES = List.of("provider.fidelity.", "provider.timing.");
+
+    /**
+     * Parse the devices contained in the response of a device search
+     *
+     * @param searchResponse the raw JSON response of the search
+     * @return the devices contained in the response, their capabilities are not parsed yet
+     * @throws IOException if the response is not valid JSON
+     */
+    public static List<AWSDevice> parseDevices(byte[] searchResponse) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(searchResponse)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                logger.warn("JSON response is not an object.");
+                return Collections.emptyList();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if (field.equals("devices") && token == JsonToken.START_ARRAY) {
+                    final List<AWSDevice> devices = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        devices.add(MAPPER.readValue(parser, AWSDevice.class));
+                    }
+                    return devices;
+                }
+                parser.skipChildren();
+            }
+        }
+        logger.warn("JSON response does not contain a devices property.");
+        return Collections.emptyList();
+    }
+
+    /**
+     * Parse the device capabilities of the given device and set the gates, number of qubits, max shots, calibration time, connectivity map,
+     * and provider properties of the device
+     *
+     * @param device the device to parse the capabilities for
+     * @throws IOException if the device capabilities are not valid JSON
+     */
+    public static void parseDeviceCapabilities(AWSDevice device) throws IOException {
+        if (Objects.isNull(device.getDeviceCapabilities())) {
+            logger.warn("For QPU {} of provider {} the device capabilities are empty!", device.getDeviceName(), device.getProviderName());
+            return;
+        }
+        try (JsonParser parser = MAPPER.getFactory().createParser(device.getDeviceCapabilities())) {
+            new CapabilitiesReader(device).read(parser);
+        }
+    }
+
+    /**
+     * Holds the state while reading the capabilities of a device, as the order of the properties in the document is not defined
+     */
+    private static final class CapabilitiesReader {
+
+        private final AWSDevice device;
+
+        private final Map<String, String> providerProperties = new HashMap<>();
+
+        private boolean empty = true;
+
+        private Integer qubitCount;
+
+        private Integer maxShots;
+
+        private String updatedAt;
+
+        private List<String> gates;
+
+        private Boolean fullyConnected;
+
+        private Map<Integer, List<Integer>> connectivityGraph;
+
+        private CapabilitiesReader(AWSDevice device) {
+            this.device = device;
+        }
+
+        private void read(JsonParser parser) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Device capabilities of device " + device.getDeviceName() + " are not a JSON object");
+            }
+            readObject(parser, "");
+
+            if (empty) {
+                logger.warn("For QPU {} of provider {} the device capabilities are empty!", device.getDeviceName(), device.getProviderName());
+                return;
+            }
+            device.setProviderProperties(providerProperties);
+            applyBasicProperties();
+            applyGates();
+            applyConnectivityMap();
+        }
+
+        private void readObject(JsonParser parser, String path) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                empty = false;
+                final String field = path.isEmpty() ? parser.getCurrentName() : path + "." + parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+
+                switch (field) {
+                    case "service.shotsRange":
+                        maxShots = readIntegers(parser).stream().max(Integer::compareTo).orElse(-1);
+                        break;
+                    case "service.updatedAt":
+                        updatedAt = parser.getValueAsString();
+                        break;
+                    case "paradigm.qubitCount":
+                        qubitCount = parser.getValueAsInt();
+                        break;
+                    case "paradigm.connectivity.fullyConnected":
+                        fullyConnected = parser.getValueAsBoolean();
+                        break;
+                    case "paradigm.connectivity.connectivityGraph":
+                        connectivityGraph = readConnectivityGraph(parser);
+                        break;
+                    case OPENQASM_OPERATIONS:
+                        gates = readStrings(parser);
+                        break;
+                    default:
+                        if (token == JsonToken.START_OBJECT && (RELEVANT_OBJECTS.contains(field) || isProviderProperty(field))) {
+                            readObject(parser, field);
+                        } else if (token.isScalarValue() && isProviderProperty(field)) {
+                            providerProperties.put(field.substring("provider.".length()), parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                }
+            }
+        }
+
+        private boolean isProviderProperty(String field) {
+            return PROVIDER_PROPERTY_PREFIXES.stream().anyMatch(field::startsWith);
+        }
+
+        private List<Integer> readIntegers(JsonParser parser) throws IOException {
+            final List<Integer> values = new ArrayList<>();
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return values;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(parser.getValueAsInt());
+            }
+            return values;
+        }
+
+        private List<String> readStrings(JsonParser parser) throws IOException {
+            final List<String> values = new ArrayList<>();
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return values;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(parser.getValueAsString());
+            }
+            return values;
+        }
+
+        private Map<Integer, List<Integer>> readConnectivityGraph(JsonParser parser) throws IOException {
+            final Map<Integer, List<Integer>> graph = new HashMap<>();
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return graph;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final int qubit = Integer.parseInt(parser.getCurrentName());
+                parser.nextToken();
+                graph.put(qubit, readIntegers(parser));
+            }
+            return graph;
+        }
+
+        private void applyBasicProperties() {
+            if (Objects.nonNull(qubitCount)) {
+                device.setNumberQubits(new BigDecimal(qubitCount));
+            }
+            if (Objects.nonNull(maxShots)) {
+                device.setMaxShots(new BigDecimal(maxShots));
+            }
+            // TODO: It appears that this is currently not the correct meaning as even simulators have an updatedAt property -> Cannot map to calibration time
+            if (Objects.isNull(updatedAt)) {
+                logger.warn("Device {} has no calibration time property.", device.getDeviceName());
+                return;
+            }
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss");
+            try {
+                device.setCalibrationTime(formatter.parse(updatedAt.replace('T', ' ')));
+            } catch (ParseException e) {
+                logger.error("Could not parse the calibration date");
+            }
+        }
+
+        private void applyGates() {
+            if (Objects.isNull(gates)) {
+                logger.warn("For device {} of provider {} the gates for openqasm are not available", device.getDeviceName(),
+                        device.getProviderName());
+                return;
+            }
+            device.setGates(gates);
+        }
+
+        private void applyConnectivityMap() {
+            if (Objects.isNull(fullyConnected)) {
+                logger.warn("For device {} of provider {} no connectivity node was returned.", device.getDeviceName(), device.getProviderName());
+                return;
+            }
+            if (fullyConnected) {
+                if (Objects.isNull(device.getNumberQubits())) {
+                    logger.warn("For device {} of provider {} the number of qubits is missing.", device.getDeviceName(), device.getProviderName());
+                    return;
+                }
+                int numberQubits = device.getNumberQubits().intValue();
+                // Assuming for fully connected (ionq) the qubits are named sequentially
+                Map<Integer, List<Integer>> connectivityMap = new HashMap<>(numberQubits);
+                for (int i = 0; i < numberQubits; i++) {
+                    List<Integer> connections = new ArrayList<>(numberQubits - 1);
+                    for (int j = 0; j < numberQubits; j++) {
+                        if (j != i) {
+                            connections.add(j);
+                        }
+                    }
+                    connectivityMap.put(i, connections);
+                }
+                device.setConnectivityMap(connectivityMap);
+                return;
+            }
+            // NOTICE: At the time of writing this code, this only applies to rigetti QPUs (we only target ionq and rigetti for now)
+            device.setConnectivityMap(Objects.requireNonNullElse(connectivityGraph, new HashMap<>()));
+        }
+    }
+}
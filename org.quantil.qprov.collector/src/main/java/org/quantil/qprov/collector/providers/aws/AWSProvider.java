@@ -19,24 +19,20 @@
 
 package org.quantil.qprov.collector.providers.aws;
 
-import com.amazonaws.Request;
-import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.auth.BasicAWSCredentials;
-import com.amazonaws.handlers.RequestHandler2;
-import com.amazonaws.http.HttpResponse;
-import com.amazonaws.services.braket.AWSBraketClient;
-import com.amazonaws.services.braket.AWSBraketClientBuilder;
 import com.amazonaws.services.braket.model.DeviceQueueInfo;
 import com.amazonaws.services.braket.model.GetDeviceRequest;
 import com.amazonaws.services.braket.model.GetDeviceResult;
 import com.amazonaws.services.braket.model.SearchDevicesRequest;
-import com.amazonaws.util.IOUtils;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Hibernate;
+import org.quantil.qprov.collector.CollectionPhase;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
 import org.quantil.qprov.collector.Constants;
 import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.collector.QPUFingerprint;
+import org.quantil.qprov.collector.QPUPersistenceExecutor;
+import org.quantil.qprov.collector.cluster.CollectorCluster;
+import org.quantil.qprov.collector.jobs.CollectionSchedule;
 import org.quantil.qprov.core.model.agents.Provider;
 import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.Gate;
@@ -44,9 +40,12 @@ import org.quantil.qprov.core.model.entities.GateCharacteristics;
 import org.quantil.qprov.core.model.entities.Qubit;
 import org.quantil.qprov.core.model.entities.QubitCharacteristics;
 import org.quantil.qprov.core.repositories.*;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -54,11 +53,15 @@ import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Component
 public class AWSProvider implements IProvider {
@@ -77,45 +80,59 @@ public class AWSProvider implements IProvider {
 
     private final GateRepository gateRepository;
 
-    private final Map<String, List<AWSDevice>> devicesPerProvider = new HashMap<>();
-    private List<AWSDevice> simulators;
+    private final QPUPersistenceExecutor qpuPersistenceExecutor;
 
-    @Value("${qprov.aws.token}")
-    private String accessToken;
-    @Value("${qprov.aws.secret-token}")
-    private String secretAccessToken;
+    private final CollectorCluster collectorCluster;
+
+    private final CollectorMetrics collectorMetrics;
+
+    private final AWSBraketClientRegistry clientRegistry;
+
+    private final ExecutorService regionExecutor;
+
+    private final CollectionSchedule schedule;
+
+    // devices discovered by the last collection from the API, whose queue sizes are updated in between the collections
+    private volatile AWSCollectionRun lastRun;
 
     public AWSProvider(ProviderRepository providerRepository, QPURepository qpuRepository,
                        QubitRepository qubitRepository,
                        QubitCharacteristicsRepository qubitCharacteristicsRepository,
                        GateCharacteristicsRepository gateCharacteristicsRepository,
                        GateRepository gateRepository,
+                       QPUPersistenceExecutor qpuPersistenceExecutor,
+                       CollectorCluster collectorCluster,
+                       CollectorMetrics collectorMetrics,
+                       AWSBraketClientRegistry clientRegistry,
                        @Value("${qprov.aws.execute-calibration}") Boolean executeCalibrationCircuits,
                        @Value("${qprov.aws.auto-collect}") Boolean autoCollect,
                        @Value("${qprov.aws.auto-collect-interval}") Integer autoCollectInterval,
-                       @Value("${qprov.aws.auto-collect-interval-circuits}") Integer autoCollectIntervalCircuits) {
+                       @Value("${qprov.aws.auto-collect-interval-circuits}") Integer autoCollectIntervalCircuits,
+                       @Value("${qprov.aws.auto-collect-interval-queue}") Integer autoCollectIntervalQueue) {
         this.providerRepository = providerRepository;
         this.qpuRepository = qpuRepository;
         this.qubitRepository = qubitRepository;
         this.qubitCharacteristicsRepository = qubitCharacteristicsRepository;
         this.gateCharacteristicsRepository = gateCharacteristicsRepository;
         this.gateRepository = gateRepository;
+        this.qpuPersistenceExecutor = qpuPersistenceExecutor;
+        this.collectorCluster = collectorCluster;
+        this.collectorMetrics = collectorMetrics;
+        this.clientRegistry = clientRegistry;
+        this.regionExecutor = Executors.newFixedThreadPool(getRegions().size(), new CustomizableThreadFactory("qprov-aws-"));
+
+        this.schedule = CollectionSchedule.create(autoCollect, autoCollectInterval, executeCalibrationCircuits, autoCollectIntervalCircuits,
+                autoCollectIntervalQueue);
+    }
 
-        // periodically collect data if activated in properties/environment variables
-        if (autoCollect) {
-            logger.debug("Auto collection activated with interval: {} min", autoCollectInterval);
-            final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-            scheduler.scheduleAtFixedRate(new AWSRunnableApi(this),
-                    Constants.DEFAULT_COLLECTION_STARTUP_TIME, autoCollectInterval, TimeUnit.MINUTES);
-
-            if (executeCalibrationCircuits) {
-                logger.debug("Auto collection by circuit execution activated with interval: {} min", autoCollectIntervalCircuits);
+    @Override
+    public Set<String> getProviderNames() {
+        return AWSConstants.PROVIDERS.keySet();
+    }
 
-                // circuit execution is delayed as it relies on the set of identified QPUs from the API collection
-                scheduler.scheduleAtFixedRate(new AWSRunnableCircuits(this),
-                        Constants.DEFAULT_COLLECTION_STARTUP_TIME_CIRCUITS, autoCollectIntervalCircuits, TimeUnit.MINUTES);
-            }
-        }
+    @Override
+    public CollectionSchedule getSchedule() {
+        return schedule;
     }
 
     @Override
@@ -124,182 +141,331 @@ public class AWSProvider implements IProvider {
     }
 
     @Override
-    public boolean collectFromApi() {
-        for (Map.Entry<String, String> providerAndRegion : AWSConstants.PROVIDERS.entrySet()) {
-            try {
-                getDevices(providerAndRegion.getKey(), providerAndRegion.getValue());
-            } catch (RuntimeException runtimeException) {
-                logger.error("Encountered an error when retrieving devices for provider {}", providerAndRegion.getKey());
-                logger.error(runtimeException.getMessage());
-                logger.error("Access key: {}", accessToken);
+    public boolean collectFromApi(CollectionStatistics statistics) {
+        final AWSCollectionRun run = discoverDevices(statistics);
+        lastRun = run;
+
+        // retrieve the queue sizes of all QPUs collected by this instance concurrently, each snapshot is handed over to the writer as soon
+        // as its queue size is known
+        final Map<AWSDevice, CompletableFuture<Integer>> queueSizes = new LinkedHashMap<>();
+        for (String provider : AWSConstants.PROVIDERS.keySet()) {
+            if (Objects.isNull(run.getDevices(provider))) {
+                continue;
+            }
+            final String region = AWSConstants.PROVIDERS.get(provider);
+            for (AWSDevice device : run.getDevices(provider)) {
+                if (acquireQPU(device)) {
+                    queueSizes.put(device, CompletableFuture.supplyAsync(() -> collectorMetrics.time(getProviderId(),
+                            CollectionPhase.QPU_FETCH, statistics, () -> retrieveQueueSize(device, region)), regionExecutor));
+                }
             }
         }
+
+        // the providers are created with the first snapshot that is stored
+        boolean status = true;
+        final List<CompletableFuture<Void>> snapshots = new ArrayList<>();
         for (String provider : AWSConstants.PROVIDERS.keySet()) {
-            Provider providerObj = addProviderToDatabase(provider);
-            if (Objects.isNull(devicesPerProvider.get(provider))) {
+            if (Objects.isNull(run.getDevices(provider))) {
                 logger.error("Devices for provider {} could not be retrieved.", provider);
                 continue;
             }
-            for (AWSDevice device : devicesPerProvider.get(provider)) {
-                logger.debug("Adding QPU {} of provider {} to database", device.getDeviceName(), device.getProviderName());
-                final QPU qpu = addQPUToDatabase(providerObj, device);
-                setQueueSize(qpu, device, AWSConstants.PROVIDERS.get(provider));
-                // Not entirely sure whether the updatedAt property is the calibrationDate
-                Date lastCalibrated = new Date();
-                if (Objects.isNull(device.getCalibrationTime())) {
-                    logger.error("Device {} of provider {} does not have a valid calibration time.", device, provider);
-                } else {
-                    lastCalibrated = new Date(device.getCalibrationTime().toInstant().toEpochMilli());
-                    qpu.setLastCalibrated(lastCalibrated);
+            for (AWSDevice device : run.getDevices(provider)) {
+                if (!queueSizes.containsKey(device)) {
+                    continue;
                 }
-                qpu.setLastUpdated(new Date(System.currentTimeMillis()));
-                qpuRepository.save(qpu);
-                // add new qubit and gate characteristics if a new calibration was done since the last retrieval
-                logger.debug("Updating qubit characteristics...");
-                updateQubitCharacteristicsOfQPU(qpu, device, lastCalibrated);
-                logger.debug("Updating gate characteristics...");
-                updateGateCharacteristicsOfQPU(qpu.getDatabaseId(), device, lastCalibrated);
+                Integer queueSize = null;
+                try {
+                    queueSize = queueSizes.get(device).join();
+                } catch (CompletionException e) {
+                    logger.error("Exception while getting queue size of device {}: {}", device.getDeviceName(),
+                            e.getCause().getLocalizedMessage());
+                }
+                snapshots.add(submitDevice(run, provider, device, queueSize, statistics));
             }
         }
-        if (Objects.isNull(simulators)) {
+        if (Objects.isNull(run.getSimulators())) {
             logger.error("No simulators from AWS retrieved.");
-            return false;
+            status = false;
+        } else {
+            for (AWSDevice simulator : run.getSimulators()) {
+                if (acquireQPU(simulator)) {
+                    snapshots.add(qpuPersistenceExecutor.submit(simulator.getDeviceName(), () -> collectorMetrics.time(getProviderId(),
+                            CollectionPhase.PERSISTENCE, statistics,
+                            () -> storeSimulator(run, addProviderToDatabase("aws"), simulator, statistics))));
+                }
+            }
         }
-        for (AWSDevice simulator : simulators) {
-            Provider providerObj = addProviderToDatabase("aws");
-            addQPUToDatabase(providerObj, simulator);
+        return qpuPersistenceExecutor.await(snapshots) && status;
+    }
+
+    @Override
+    public boolean collectQueueStatus(CollectionStatistics statistics) {
+        // the regions of the devices are only known from the last collection, so the queue sizes of the stored QPUs are not updated
+        // before the first collection since the start of the collector, like the QPUs of IBMQ with an unknown scope
+        final AWSCollectionRun run = lastRun;
+        if (Objects.isNull(run)) {
+            logger.debug("No devices of AWS discovered since the start of the collector yet. Skipping update of queue sizes.");
+            return true;
         }
-        return true;
+
+        // retrieve the queue sizes of all QPUs concurrently, simulators do not provide a queue size
+        final Map<AWSDevice, CompletableFuture<Integer>> queueSizes = new LinkedHashMap<>();
+        for (String provider : AWSConstants.PROVIDERS.keySet()) {
+            final String region = AWSConstants.PROVIDERS.get(provider);
+            for (AWSDevice device : Objects.requireNonNullElse(run.getDevices(provider), List.<AWSDevice>of())) {
+                if (!acquireQPU(device)) {
+                    continue;
+                }
+                queueSizes.put(device, CompletableFuture.supplyAsync(() -> collectorMetrics.time(getProviderId(),
+                        CollectionPhase.QUEUE_STATUS, statistics, () -> retrieveQueueSize(device, region)), regionExecutor));
+            }
+        }
+
+        boolean status = true;
+        for (Map.Entry<AWSDevice, CompletableFuture<Integer>> queueSize : queueSizes.entrySet()) {
+            final String deviceName = queueSize.getKey().getDeviceName();
+            try {
+                final Integer size = queueSize.getValue().join();
+                if (Objects.isNull(size)) {
+                    status = false;
+                } else if (qpuRepository.updateQueueSize(deviceName, size) > 0) {
+                    statistics.qpuUpdated();
+                } else {
+                    statistics.qpuSkipped();
+                }
+            } catch (CompletionException e) {
+                logger.error("Exception while getting queue size of device {}: {}", deviceName, e.getCause().getLocalizedMessage());
+                status = false;
+            } catch (DataAccessException e) {
+                logger.error("Exception while updating queue size of device {}: {}", deviceName, e.getLocalizedMessage());
+                status = false;
+            }
+        }
+        logger.debug("Updated queue sizes of devices from AWS ({} QPUs)", statistics);
+        return status;
     }
 
-    private void setQueueSize(QPU qpu, AWSDevice device, String region) {
-        AWSBraketClientBuilder builder = AWSBraketClient.builder();
-        builder.setCredentials(new AWSCredentialsProvider() {
-            @Override
-            public AWSCredentials getCredentials() {
-                return new BasicAWSCredentials(accessToken, secretAccessToken);
+    /**
+     * Search the devices in all regions of the providers and the simulator region concurrently, each region is only queried once per run
+     *
+     * @param statistics the statistics of the collection run
+     * @return the context of the run containing the discovered devices
+     */
+    private AWSCollectionRun discoverDevices(CollectionStatistics statistics) {
+        final Map<String, CompletableFuture<List<AWSDevice>>> devicesPerRegion = new HashMap<>();
+        for (String region : getRegions()) {
+            devicesPerRegion.put(region, CompletableFuture.supplyAsync(() -> collectorMetrics.time(getProviderId(),
+                    CollectionPhase.DEVICE_LISTING, statistics, () -> searchDevices(region)), regionExecutor));
+        }
+
+        final Map<String, List<AWSDevice>> devicesPerProvider = new HashMap<>();
+        for (Map.Entry<String, String> providerAndRegion : AWSConstants.PROVIDERS.entrySet()) {
+            final String provider = providerAndRegion.getKey();
+            final List<AWSDevice> devices = getDevicesOfRegion(devicesPerRegion, providerAndRegion.getValue());
+            if (Objects.isNull(devices)) {
+                logger.error("Encountered an error when retrieving devices for provider {}", provider);
+                continue;
+            }
+            try {
+                devicesPerProvider.put(provider, getQPUs(devices, provider));
+            } catch (RuntimeException runtimeException) {
+                logger.error("Encountered an error when retrieving devices for provider {}", provider);
+                logger.error(runtimeException.getMessage());
             }
+        }
 
-            @Override
-            public void refresh() {
+        List<AWSDevice> simulators = null;
+        final List<AWSDevice> devices = getDevicesOfRegion(devicesPerRegion, AWSConstants.SIMULATOR_REGION);
+        if (Objects.nonNull(devices)) {
+            try {
+                simulators = getSimulators(devices);
+            } catch (RuntimeException runtimeException) {
+                logger.error("Encountered an error when retrieving simulators: {}", runtimeException.getMessage());
+            }
+        }
+        return new AWSCollectionRun(devicesPerProvider, simulators);
+    }
 
+    private List<AWSDevice> getDevicesOfRegion(Map<String, CompletableFuture<List<AWSDevice>>> devicesPerRegion, String region) {
+        try {
+            return devicesPerRegion.get(region).join();
+        } catch (CompletionException e) {
+            logger.error("Encountered an error when searching devices in region {}: {}", region, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hand the given device over to the writer, which stores it together with its provider
+     *
+     * @param run        the context of the run the device was discovered in
+     * @param provider   the name of the provider of the device
+     * @param device     the device to store
+     * @param queueSize  the current queue size of the device, or <code>null</code> if it could not be retrieved
+     * @param statistics the statistics of the collection run
+     * @return a future that is completed when the device was stored
+     */
+    CompletableFuture<Void> submitDevice(AWSCollectionRun run, String provider, AWSDevice device, Integer queueSize,
+                                         CollectionStatistics statistics) {
+        return qpuPersistenceExecutor.submit(device.getDeviceName(), () -> collectorMetrics.time(getProviderId(),
+                CollectionPhase.PERSISTENCE, statistics,
+                () -> storeDevice(run, addProviderToDatabase(provider), device, queueSize, statistics)));
+    }
+
+    private boolean acquireQPU(AWSDevice device) {
+        return collectorCluster.acquire(Constants.CLUSTER_QPU_PREFIX + device.getDeviceName());
+    }
+
+    private static Set<String> getRegions() {
+        final Set<String> regions = new HashSet<>(AWSConstants.PROVIDERS.values());
+        regions.add(AWSConstants.SIMULATOR_REGION);
+        return regions;
+    }
+
+    private void storeDevice(AWSCollectionRun run, Provider provider, AWSDevice device, Integer queueSize, CollectionStatistics statistics) {
+        // skip QPUs whose configuration and calibration did not change since the last collection, only the queue size is updated
+        final String fingerprint = getFingerprint(device);
+        final QPU storedQpu = qpuRepository.findByName(device.getDeviceName()).orElse(null);
+        if (Objects.nonNull(storedQpu) && fingerprint.equals(storedQpu.getFingerprint())) {
+            logger.debug("QPU {} of provider {} unchanged since last collection. Updating queue size only.", device.getDeviceName(),
+                    device.getProviderName());
+            if (Objects.nonNull(queueSize) && storedQpu.getQueueSize() != queueSize) {
+                storedQpu.setQueueSize(queueSize);
+                qpuRepository.save(storedQpu);
             }
-        });
-        builder.setRegion(region);
-        AWSBraketClient client = (AWSBraketClient) builder.build();
+            statistics.qpuSkipped();
+            return;
+        }
+
+        logger.debug("Adding QPU {} of provider {} to database", device.getDeviceName(), device.getProviderName());
+        final QPU qpu = addQPUToDatabase(run, provider, device);
+        statistics.qpuUpdated();
+        if (Objects.nonNull(queueSize)) {
+            qpu.setQueueSize(queueSize);
+        }
+        // Not entirely sure whether the updatedAt property is the calibrationDate
+        Date lastCalibrated = new Date();
+        if (Objects.isNull(device.getCalibrationTime())) {
+            logger.error("Device {} of provider {} does not have a valid calibration time.", device, provider.getName());
+        } else {
+            lastCalibrated = new Date(device.getCalibrationTime().toInstant().toEpochMilli());
+            qpu.setLastCalibrated(lastCalibrated);
+        }
+        qpu.setLastUpdated(new Date(System.currentTimeMillis()));
+        qpuRepository.save(qpu);
+        // add new qubit and gate characteristics if a new calibration was done since the last retrieval
+        logger.debug("Updating qubit characteristics...");
+        final boolean qubitsStored = updateQubitCharacteristicsOfQPU(qpu, device, lastCalibrated, statistics);
+        logger.debug("Updating gate characteristics...");
+        final boolean gatesStored = updateGateCharacteristicsOfQPU(qpu.getDatabaseId(), device, lastCalibrated, statistics);
+
+        // the fingerprint skips the QPU in the next collections, so it is only set once the whole calibration is stored
+        if (qubitsStored && gatesStored) {
+            qpu.setFingerprint(fingerprint);
+            qpuRepository.save(qpu);
+        } else {
+            logger.warn("Calibration of QPU {} of provider {} not completely stored. Storing it again with the next collection!",
+                    device.getDeviceName(), device.getProviderName());
+        }
+    }
+
+    private void storeSimulator(AWSCollectionRun run, Provider provider, AWSDevice simulator, CollectionStatistics statistics) {
+        final String fingerprint = getFingerprint(simulator);
+        final QPU storedQpu = qpuRepository.findByName(simulator.getDeviceName()).orElse(null);
+        if (Objects.nonNull(storedQpu) && fingerprint.equals(storedQpu.getFingerprint())) {
+            logger.debug("Simulator {} unchanged since last collection.", simulator.getDeviceName());
+            statistics.qpuSkipped();
+            return;
+        }
+
+        final QPU qpu = addQPUToDatabase(run, provider, simulator);
+        qpu.setFingerprint(fingerprint);
+        qpuRepository.save(qpu);
+        statistics.qpuUpdated();
+    }
+
+    /**
+     * Compute the fingerprint of the given device from the properties of its capabilities that are stored in the QProv data model
+     *
+     * @param device the device to compute the fingerprint for
+     * @return the fingerprint of the device
+     */
+    private static String getFingerprint(AWSDevice device) {
+        final QPUFingerprint fingerprint = new QPUFingerprint()
+                .add("arn", device.getDeviceArn())
+                .add("name", device.getDeviceName())
+                .add("provider", device.getProviderName())
+                .add("type", device.getDeviceType())
+                .add("qubits", device.getNumberQubits())
+                .add("maxShots", device.getMaxShots())
+                .addSorted("gates", device.getGates())
+                .add("calibrationTime", Objects.nonNull(device.getCalibrationTime()) ? device.getCalibrationTime().getTime() : null);
+        if (Objects.nonNull(device.getConnectivityMap())) {
+            fingerprint.addSorted("connectivity", device.getConnectivityMap().entrySet().stream()
+                    .map(entry -> entry.getKey() + "->" + entry.getValue().stream().sorted().collect(Collectors.toList()))
+                    .collect(Collectors.toList()));
+        }
+        fingerprint.addSorted("providerProperties", device.getProviderProperties().entrySet());
+        return fingerprint.build();
+    }
+
+    private Integer retrieveQueueSize(AWSDevice device, String region) {
         GetDeviceRequest request = new GetDeviceRequest();
         request.setDeviceArn(device.getDeviceArn());
-        GetDeviceResult result = client.getDevice(request);
+        GetDeviceResult result = clientRegistry.getClient(region).getDevice(request);
         // We retrieve three queues: {Queue: QUANTUM_TASKS_QUEUE,QueuePriority: Normal,QueueSize: 0}, {Queue: QUANTUM_TASKS_QUEUE,QueuePriority: Priority,QueueSize: 0}, {Queue: JOBS_QUEUE,QueueSize: 0} for now we only retrieve the first one
         Integer queueSize = result.getDeviceQueueInfo().stream().filter(deviceQueueInfo -> deviceQueueInfo.getQueue().equals("QUANTUM_TASKS_QUEUE")).filter(deviceQueueInfo -> deviceQueueInfo.getQueuePriority().equals("Normal")).map(DeviceQueueInfo::getQueueSize).map(Integer::valueOf).findFirst().orElse(-1);
         if (queueSize == -1) {
             logger.error("Could not retrieve the queue size of the quantum task queue.");
-            return;
+            return null;
         }
         logger.debug("Queue size retrieved: {}", queueSize);
-        qpu.setQueueSize(queueSize);
+        return queueSize;
     }
 
-    private void getDevices(String provider, String region) {
-        getQPUs(provider, region);
-        getSimulators();
-    }
-
-    private void getSimulators() {
-        AWSBraketClientBuilder builder = AWSBraketClient.builder();
-        builder.setCredentials(new AWSCredentialsProvider() {
-            @Override
-            public AWSCredentials getCredentials() {
-                return new BasicAWSCredentials(accessToken, secretAccessToken);
-            }
-
-            @Override
-            public void refresh() {
-
-            }
-        });
-        builder.setRegion(AWSConstants.SIMULATOR_REGION);
-        simulators = new ArrayList<>();
-        builder.setRequestHandlers(new RequestHandler2() {
-            @Override
-            public HttpResponse beforeUnmarshalling(Request<?> request, HttpResponse httpResponse) {
-                try {
-                    ObjectMapper mapper = new ObjectMapper();
-                    String json = IOUtils.toString(httpResponse.getContent());
-                    JsonNode node = mapper.readTree(json).get("devices");
-                    if (Objects.isNull(node)) {
-                        System.out.println("JSON response does not contain a devices property.");
-                        return super.beforeUnmarshalling(request, httpResponse);
-                    }
-                    // Get array of devices
-                    simulators = Arrays.asList(mapper.treeToValue(node, AWSDevice[].class));
-                    simulators = simulators.stream()
-                            .filter(awsDevice -> awsDevice.getDeviceType().equals("SIMULATOR"))
-                            .collect(Collectors.toList());
-                    for (AWSDevice awsDevice : simulators) {
-                        awsDevice.recoverPropertiesFromDeviceCapabilities();
-                    }
-                    super.beforeUnmarshalling(request, httpResponse);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-                return super.beforeUnmarshalling(request, httpResponse);
-            }
-        });
-        AWSBraketClient client = (AWSBraketClient) builder.build();
+    private List<AWSDevice> searchDevices(String region) {
+        final AtomicReference<List<AWSDevice>> devices = new AtomicReference<>(Collections.emptyList());
         SearchDevicesRequest request = new SearchDevicesRequest();
         request.setFilters(new ArrayList<>());
-        // The handling is done within the beforeUnmarshalling handler as the SDK discards the deviceCapabilities.
-        client.searchDevices(request);
+        // The handling is done on the raw response as the SDK discards the deviceCapabilities.
+        request.addHandlerContext(AWSBraketClientRegistry.RAW_RESPONSE_CONSUMER, response -> {
+            try {
+                devices.set(AWSDeviceParser.parseDevices(response));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        clientRegistry.getClient(region).searchDevices(request);
+        logger.debug("Found {} devices in region {}", devices.get().size(), region);
+        return devices.get();
     }
 
-    private void getQPUs(String provider, String region) {
-        AWSBraketClientBuilder builder = AWSBraketClient.builder();
-        builder.setCredentials(new AWSCredentialsProvider() {
-            @Override
-            public AWSCredentials getCredentials() {
-                return new BasicAWSCredentials(accessToken, secretAccessToken);
-            }
+    private List<AWSDevice> getSimulators(List<AWSDevice> devices) {
+        List<AWSDevice> simulators = devices.stream()
+                .filter(awsDevice -> awsDevice.getDeviceType().equals("SIMULATOR"))
+                .collect(Collectors.toList());
+        recoverProperties(simulators);
+        return simulators;
+    }
 
-            @Override
-            public void refresh() {
+    private List<AWSDevice> getQPUs(List<AWSDevice> devices, String provider) {
+        List<AWSDevice> qpus = devices.stream()
+                .filter(awsDevice -> awsDevice.getDeviceType().equals("QPU"))
+                .filter(awsDevice -> awsDevice.getProviderName().toLowerCase().equals(provider))
+                .filter(awsDevice -> !awsDevice.getDeviceStatus().equals("RETIRED"))
+                .collect(Collectors.toList());
+        recoverProperties(qpus);
+        return qpus;
+    }
 
+    private void recoverProperties(List<AWSDevice> devices) {
+        try {
+            for (AWSDevice device : devices) {
+                device.recoverPropertiesFromDeviceCapabilities();
             }
-        });
-        builder.setRegion(region);
-        builder.setRequestHandlers(new RequestHandler2() {
-            @Override
-            public HttpResponse beforeUnmarshalling(Request<?> request, HttpResponse httpResponse) {
-                try {
-                    ObjectMapper mapper = new ObjectMapper();
-                    String json = IOUtils.toString(httpResponse.getContent());
-                    JsonNode node = mapper.readTree(json).get("devices");
-                    if (Objects.isNull(node)) {
-                        System.out.println("JSON response does not contain a devices property.");
-                        return super.beforeUnmarshalling(request, httpResponse);
-                    }
-                    // Get array of devices
-                    List<AWSDevice> devices = Arrays.asList(mapper.treeToValue(node, AWSDevice[].class));
-                    devices = devices.stream()
-                            .filter(awsDevice -> awsDevice.getDeviceType().equals("QPU"))
-                            .filter(awsDevice -> awsDevice.getProviderName().toLowerCase().equals(provider))
-                            .filter(awsDevice -> !awsDevice.getDeviceStatus().equals("RETIRED"))
-                            .collect(Collectors.toList());
-                    for (AWSDevice device : devices) {
-                        device.recoverPropertiesFromDeviceCapabilities();
-                    }
-                    devicesPerProvider.put(provider, devices);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-                return super.beforeUnmarshalling(request, httpResponse);
-            }
-        });
-        AWSBraketClient client = (AWSBraketClient) builder.build();
-        SearchDevicesRequest request = new SearchDevicesRequest();
-        request.setFilters(new ArrayList<>());
-        // The handling is done within the beforeUnmarshalling handler as the SDK discards the deviceCapabilities.
-        client.searchDevices(request);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
 
@@ -309,6 +475,7 @@ public class AWSProvider implements IProvider {
      * @return the retrieved or created IBMQ provider object
      */
     private Provider addProviderToDatabase(String provider) {
+        collectorCluster.lock(Constants.CLUSTER_PROVIDER_PREFIX + provider);
         final Optional<Provider> providerOptional = providerRepository.findByName(provider);
         if (providerOptional.isPresent()) {
             logger.debug("Provider already present, skipping creation.");
@@ -328,7 +495,8 @@ public class AWSProvider implements IProvider {
         return providerObj;
     }
 
-    private QPU addQPUToDatabase(Provider provider, AWSDevice device) {
+    private QPU addQPUToDatabase(AWSCollectionRun run, Provider provider, AWSDevice device) {
+        collectorCluster.lock(Constants.CLUSTER_QPU_PREFIX + device.getDeviceName());
         final Optional<QPU> qpuOptional = qpuRepository.findByName(device.getDeviceName());
         if (qpuOptional.isPresent()) {
             logger.debug("QPU already present, updating information.");
@@ -345,8 +513,7 @@ public class AWSProvider implements IProvider {
         // create a new QPU object representing the retrieved device
         QPU qpu = new QPU();
         qpu.setName(device.getDeviceName());
-        QPU finalQpu = qpu;
-        qpu.setSimulator(simulators.stream().anyMatch(sim -> sim.getDeviceName().equals(finalQpu.getName())));
+        qpu.setSimulator(run.isSimulator(device.getDeviceName()));
 
         qpu.setProvider(provider);
         if (Objects.isNull(device.getMaxShots())) {
@@ -427,13 +594,14 @@ public class AWSProvider implements IProvider {
             logger.error("Connectivity map for device {} is null, cannot add gates", device.getDeviceName());
             return;
         }
+        Map<String, Qubit> qubitsByName = getQubitsByName(qpu);
         for (Integer qubitId : device.getConnectivityMap().keySet()) {
-            Optional<Qubit> optQubit = qubitRepository.findByQpuAndName(qpu, String.valueOf(qubitId));
-            if (optQubit.isEmpty()) {
+            Qubit qubit = qubitsByName.get(String.valueOf(qubitId));
+            if (Objects.isNull(qubit)) {
                 logger.error("Qubit {} is null for device {}", qubitId, device.getDeviceName());
                 continue;
             }
-            qubits.put(qubitId, optQubit.get());
+            qubits.put(qubitId, qubit);
         }
         // Collect all distinct qubit ids
         for (Integer sourceQubitId : device.getConnectivityMap().keySet()) {
@@ -463,43 +631,52 @@ public class AWSProvider implements IProvider {
                     targetQubit.addSupportedGate(gate);
                 }
             }
-            qubitRepository.save(sourceQubit);
         }
     }
 
     /**
      * Update the qubit characteristics of the given QPU with the latest calibration data and add to the database
      *
-     * @param qpu the QPU to update the qubit characteristics for
+     * @param qpu             the QPU to update the qubit characteristics for
+     * @param device          the device retrieved from AWS
+     * @param calibrationTime the time of the calibration of the given device
+     * @param statistics      the statistics of the collection run to update with the number of inserted qubit characteristics
+     * @return <code>true</code> if the characteristics of all qubits are stored for the given calibration, <code>false</code> otherwise
      */
-    private void updateQubitCharacteristicsOfQPU(QPU qpu, AWSDevice device, Date calibrationTime) {
+    private boolean updateQubitCharacteristicsOfQPU(QPU qpu, AWSDevice device, Date calibrationTime, CollectionStatistics statistics) {
+        // retrieve all qubits at once and insert the new characteristics in a batch afterwards
+        final Map<String, Qubit> qubits = getQubitsByName(qpu);
+        final Map<UUID, Date> latestCalibrationTimes = qubitCharacteristicsRepository.findLatestCalibrationTimesByQpu(qpu);
+        final List<QubitCharacteristics> newCharacteristics = new ArrayList<>();
+        boolean complete = true;
+
+        // We do this in case the qubits are not numbered/named sequentially
+        final List<String> qubitNames = Objects.nonNull(device.getConnectivityMap())
+                ? device.getConnectivityMap().keySet().stream().map(String::valueOf).toList()
+                : IntStream.range(0, qpu.getQubits().size()).mapToObj(String::valueOf).toList();
+
         // iterate through all properties and update corresponding Qubit
-        if (Objects.nonNull(device.getConnectivityMap())) {
-            // We do this in case the qubits are not numbered/named sequentially
-            for (Integer qubitId : device.getConnectivityMap().keySet()) {
-                updateQubitCharacteristicsOfQPU(qubitId.toString(), qpu, device, calibrationTime);
-            }
-        } else {
-            for (int i = 0; i < qpu.getQubits().size(); i++) {
-                updateQubitCharacteristicsOfQPU(String.valueOf(i), qpu, device, calibrationTime);
+        for (String qubitName : qubitNames) {
+            final Qubit currentQubit = qubits.get(qubitName);
+            if (Objects.isNull(currentQubit)) {
+                logger.warn("Unable to retrieve related qubit with name {} for QPU {}", qubitName, qpu.getName());
+                complete = false;
+                continue;
             }
+            updateQubitCharacteristics(currentQubit, latestCalibrationTimes, device, calibrationTime).ifPresent(newCharacteristics::add);
         }
+        qubitCharacteristicsRepository.saveAll(newCharacteristics);
+        statistics.characteristicsInserted(newCharacteristics.size());
+        return complete;
     }
 
-    private void updateQubitCharacteristicsOfQPU(String qubitId, QPU qpu, AWSDevice device, Date calibrationTime) {
-        final Qubit currentQubit = qubitRepository.findByQpuAndName(qpu, qubitId).orElse(null);
-
-        if (Objects.isNull(currentQubit)) {
-            logger.warn("Unable to retrieve related qubit with name {} for QPU {}", qubitId, qpu.getName());
-            return;
-        }
-
+    private Optional<QubitCharacteristics> updateQubitCharacteristics(Qubit currentQubit, Map<UUID, Date> latestCalibrationTimes,
+                                                                      AWSDevice device, Date calibrationTime) {
         // skip update if latest characteristics have the same time stamp then current calibration data
-        final QubitCharacteristics latestCharacteristics =
-                qubitCharacteristicsRepository.findByQubitOrderByCalibrationTimeDesc(currentQubit).stream().findFirst().orElse(null);
-        if (Objects.nonNull(latestCharacteristics) && !calibrationTime.after(latestCharacteristics.getCalibrationTime())) {
+        final Date latestCalibrationTime = latestCalibrationTimes.get(currentQubit.getDatabaseId());
+        if (Objects.nonNull(latestCalibrationTime) && !calibrationTime.after(latestCalibrationTime)) {
             logger.trace("Stored characteristics are up-to-date. No update needed!");
-            return;
+            return Optional.empty();
         }
 
         // create new characteristics object with the current characteristics
@@ -519,9 +696,16 @@ public class AWSProvider implements IProvider {
                 logger.warn("For device {} of provider {} no qubit handler is available. Qubit properties will be null.", device.getDeviceName(), device.getProviderName());
         }
 
-        // update qubit object with new characteristics object
-        currentQubit.getQubitCharacteristics().add(qubitCharacteristics);
-        qubitRepository.save(currentQubit);
+        // only update the loaded characteristics, adding to unloaded ones would load all stored characteristics of the qubit
+        if (Hibernate.isInitialized(currentQubit.getQubitCharacteristics())) {
+            currentQubit.getQubitCharacteristics().add(qubitCharacteristics);
+        }
+        return Optional.of(qubitCharacteristics);
+    }
+
+    private Map<String, Qubit> getQubitsByName(QPU qpu) {
+        return qubitRepository.findByQpu(qpu).stream()
+                .collect(Collectors.toMap(Qubit::getName, Function.identity(), (first, second) -> first));
     }
 
     private void handleRigettiQubitProperties(QubitCharacteristics qubitCharacteristics, AWSDevice device) {
@@ -530,62 +714,56 @@ public class AWSProvider implements IProvider {
     }
 
     private void handleIonqQubitProperties(QubitCharacteristics qubitCharacteristics, AWSDevice device) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            JsonNode providerNode = mapper.readTree(device.getDeviceCapabilities()).get("provider");
-            if (Objects.isNull(providerNode)) {
-                logger.warn("The IONQ device json has not the expected format. Cannot find provider node.");
-                return;
-            }
-            // Fidelities
-            JsonNode fidelityNode = providerNode.get("fidelity");
-            if (Objects.nonNull(fidelityNode)) {
-                JsonNode readoutError = fidelityNode.get("spam");
-                if (Objects.isNull(readoutError)) {
-                    logger.warn("The IONQ device json has not the expected format. Cannot find spam/readout error node.");
-                } else {
-                    qubitCharacteristics.setReadoutError(BigDecimal.valueOf(1.0).subtract(new BigDecimal(readoutError.get("mean").asText())));
-                }
-            } else {
-                logger.warn("The IONQ device json has not the expected format. Cannot find fidelity node.");
-            }
-            JsonNode timingNode = providerNode.get("timing");
-            if (Objects.nonNull(timingNode)) {
-                JsonNode t1 = timingNode.get("T1");
-                JsonNode t2 = timingNode.get("T2");
-                if (Objects.nonNull(t1)) {
-                    // convert from seconds to micro seconds
-                    qubitCharacteristics.setT1Time(BigDecimal.valueOf(t1.asDouble()).scaleByPowerOfTen(6));
-                } else {
-                    logger.warn("The IONQ device json has not the expected format. Cannot find t1 timing node.");
-                }
-                if (Objects.nonNull(t2)) {
-                    // convert from seconds to micro seconds
-                    qubitCharacteristics.setT2Time(BigDecimal.valueOf(t2.asDouble()).scaleByPowerOfTen(6));
-                } else {
-                    logger.warn("The IONQ device json has not the expected format. Cannot find t2 timing node.");
-                }
-            } else {
-                logger.warn("The IONQ device json has not the expected format. Cannot find timing node.");
-            }
-        } catch (JsonProcessingException ex) {
-            logger.error("Error processing qubit properties for QPU {} of provider {}:", device.getDeviceName(), device.getProviderName());
-            logger.error(ex.getMessage());
+        // Fidelities
+        BigDecimal readoutFidelity = getProviderProperty(device, "fidelity.spam.mean");
+        if (Objects.isNull(readoutFidelity)) {
+            logger.warn("The IONQ device json has not the expected format. Cannot find spam/readout error node.");
+        } else {
+            qubitCharacteristics.setReadoutError(BigDecimal.valueOf(1.0).subtract(readoutFidelity));
+        }
+        BigDecimal t1 = getProviderProperty(device, "timing.T1");
+        BigDecimal t2 = getProviderProperty(device, "timing.T2");
+        if (Objects.nonNull(t1)) {
+            // convert from seconds to micro seconds
+            qubitCharacteristics.setT1Time(t1.scaleByPowerOfTen(6));
+        } else {
+            logger.warn("The IONQ device json has not the expected format. Cannot find t1 timing node.");
+        }
+        if (Objects.nonNull(t2)) {
+            // convert from seconds to micro seconds
+            qubitCharacteristics.setT2Time(t2.scaleByPowerOfTen(6));
+        } else {
+            logger.warn("The IONQ device json has not the expected format. Cannot find t2 timing node.");
         }
+    }
 
+    private BigDecimal getProviderProperty(AWSDevice device, String name) {
+        String value = device.getProviderProperties().get(name);
+        if (Objects.isNull(value)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            logger.warn("Property {} of device {} is not a number: {}", name, device.getDeviceName(), value);
+            return null;
+        }
     }
 
     /**
      * Update the gate characteristics of the given QPU with the latest calibration data and add to the database
      *
      * @param qpuId           the Id of the QPU to update the gate characteristics for
-     * @param calibrationTime the time of the calibration the given device properties were retrieved from
+     * @param device          the device retrieved from AWS
+     * @param calibrationTime the time of the calibration of the given device
+     * @param statistics      the statistics of the collection run to update with the number of inserted gate characteristics
+     * @return <code>true</code> if the characteristics of all gates are stored for the given calibration, <code>false</code> otherwise
      */
-    private void updateGateCharacteristicsOfQPU(UUID qpuId, AWSDevice device, Date calibrationTime) {
+    private boolean updateGateCharacteristicsOfQPU(UUID qpuId, AWSDevice device, Date calibrationTime, CollectionStatistics statistics) {
         final QPU qpu = qpuRepository.findById(qpuId).orElse(null);
         if (Objects.isNull(qpu)) {
             logger.error("Unable to retrieve QPU with Id: {}", qpuId);
-            return;
+            return false;
         }
 
         logger.debug("QPU {} has {} qubits", qpu.getName(), qpu.getQubits().size());
@@ -593,11 +771,12 @@ public class AWSProvider implements IProvider {
                 qpu.getQubits().stream().flatMap(qubit -> qubit.getSupportedGates().stream()).distinct().collect(Collectors.toList());
         logger.debug("Updating characteristics for {} gates of QPU: {}", gates.size(), qpu.getName());
 
+        final Map<UUID, Date> latestCalibrationTimes = gateCharacteristicsRepository.findLatestCalibrationTimesByQpu(qpu);
+        final List<GateCharacteristics> newCharacteristics = new ArrayList<>();
         for (Gate gate : gates) {
             // skip update if latest characteristics have the same time stamp then current calibration data
-            final GateCharacteristics latestCharacteristics =
-                    gateCharacteristicsRepository.findByGateOrderByCalibrationTimeDesc(gate).stream().findFirst().orElse(null);
-            if (Objects.nonNull(latestCharacteristics) && !calibrationTime.after(latestCharacteristics.getCalibrationTime())) {
+            final Date latestCalibrationTime = latestCalibrationTimes.get(gate.getDatabaseId());
+            if (Objects.nonNull(latestCalibrationTime) && !calibrationTime.after(latestCalibrationTime)) {
                 logger.trace("Stored gate characteristics are up-to-date. No update needed!");
                 continue;
             }
@@ -617,70 +796,53 @@ public class AWSProvider implements IProvider {
                     logger.warn("For device {} of provider {} no qubit handler is available. Qubit properties will be null.", device.getDeviceName(), device.getProviderName());
             }
 
-            // update gate object with new characteristics object
-            gate.getGateCharacteristics().add(gateCharacteristics);
-            gateRepository.save(gate);
+            // only update the loaded characteristics, adding to unloaded ones would load all stored characteristics of the gate
+            if (Hibernate.isInitialized(gate.getGateCharacteristics())) {
+                gate.getGateCharacteristics().add(gateCharacteristics);
+            }
+            newCharacteristics.add(gateCharacteristics);
         }
+        gateCharacteristicsRepository.saveAll(newCharacteristics);
+        statistics.characteristicsInserted(newCharacteristics.size());
+        return true;
     }
 
     private void handleIonqGateProperties(GateCharacteristics gateCharacteristics, AWSDevice device) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            JsonNode providerNode = mapper.readTree(device.getDeviceCapabilities()).get("provider");
-            if (Objects.isNull(providerNode)) {
-                logger.warn("The IONQ device json has not the expected format. Cannot find provider node.");
-                return;
-            }
-            JsonNode fidelityNode = providerNode.get("fidelity");
-            JsonNode timingNode = providerNode.get("timing");
-            // If not updated (in case json is incomplete) just set them null
-            BigDecimal gateErrorRate;
-            BigDecimal gateTime;
-            if (is1QubitGateQasm(gateCharacteristics.getGate().getName())) { // 1 Qubit gate
-                gateErrorRate = retrieveGateErrorRate("1Q", fidelityNode);
-                gateTime = retrieveTiming("1Q", timingNode);
-            } else { // 2 Qubit gate
-                gateErrorRate = retrieveGateErrorRate("2Q", fidelityNode);
-                gateTime = retrieveTiming("2Q", timingNode);
-            }
-            // in seconds
-            gateCharacteristics.setGateTime(gateTime);
-            gateCharacteristics.setGateErrorRate(gateErrorRate);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        // If not updated (in case json is incomplete) just set them null
+        BigDecimal gateErrorRate;
+        BigDecimal gateTime;
+        if (is1QubitGateQasm(gateCharacteristics.getGate().getName())) { // 1 Qubit gate
+            gateErrorRate = retrieveGateErrorRate("1Q", device);
+            gateTime = retrieveTiming("1Q", device);
+        } else { // 2 Qubit gate
+            gateErrorRate = retrieveGateErrorRate("2Q", device);
+            gateTime = retrieveTiming("2Q", device);
         }
+        // in seconds
+        gateCharacteristics.setGateTime(gateTime);
+        gateCharacteristics.setGateErrorRate(gateErrorRate);
     }
 
 
     // Gate type is 1Q or 2Q for 1 or 2 qubit gates
-    private BigDecimal retrieveTiming(String gateType, JsonNode timingNode) {
-        if (Objects.isNull(timingNode)) {
-            logger.warn("The IONQ device json has not the expected format. Cannot find timing node.");
-        }
-        timingNode = timingNode.get(gateType);
-        if (Objects.isNull(timingNode)) {
-            logger.warn("The IONQ device json has not the expected format. Cannot find timing node for 1 Qubit gates.");
+    private BigDecimal retrieveTiming(String gateType, AWSDevice device) {
+        BigDecimal timing = getProviderProperty(device, "timing." + gateType);
+        if (Objects.isNull(timing)) {
+            logger.warn("The IONQ device json has not the expected format. Cannot find timing node for {} gates.", gateType);
             return null;
         }
         // convert from seconds to nano seconds
-        return new BigDecimal(timingNode.asText()).scaleByPowerOfTen(9);
-
+        return timing.scaleByPowerOfTen(9);
     }
 
     // Gate type is 1Q or 2Q for 1 or 2 qubit gates
-    private BigDecimal retrieveGateErrorRate(String gateType, JsonNode fidelityNode) {
-        if (Objects.isNull(fidelityNode)) {
-            logger.warn("The IONQ device json has not the expected format. Cannot find fidelity node.");
+    private BigDecimal retrieveGateErrorRate(String gateType, AWSDevice device) {
+        BigDecimal fidelity = getProviderProperty(device, "fidelity." + gateType + ".mean");
+        if (Objects.isNull(fidelity)) {
+            logger.warn("The IONQ device json has not the expected format. Cannot find fidelity node for {} gates.", gateType);
             return null;
         }
-        fidelityNode = fidelityNode.get(gateType);
-        if (Objects.isNull(fidelityNode)) {
-            logger.warn("The IONQ device json has not the expected format. Cannot find fidelity node for 1 Qubit gates.");
-            return null;
-        }
-        fidelityNode = fidelityNode.get("mean");
-        return BigDecimal.valueOf(1.0).subtract(new BigDecimal(fidelityNode.asText()));
-
+        return BigDecimal.valueOf(1.0).subtract(fidelity);
     }
 
     private boolean is1QubitGateQasm(String name) {
@@ -696,8 +858,13 @@ public class AWSProvider implements IProvider {
     }
 
     @Override
-    public boolean collectThroughCircuits() {
+    public CompletableFuture<Boolean> collectThroughCircuits(CollectionStatistics statistics) {
         logger.warn("Collect through circuit not implemented");
-        return false;
+        return CompletableFuture.completedFuture(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        regionExecutor.shutdownNow();
     }
 }
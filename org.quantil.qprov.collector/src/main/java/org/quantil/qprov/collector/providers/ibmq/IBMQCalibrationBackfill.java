@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.backfill.BackfillCheckpoint;
+import org.quantil.qprov.collector.backfill.BackfillCheckpointRepository;
+import org.quantil.qprov.collector.resilience.RequestRateLimiter;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+
+/**
+ * Backfills the historical calibration data of a set of QPUs for a range of days. The range is processed in windows of days, the properties
+ * valid at the end of each day of a window are retrieved for all QPUs concurrently within the rate limit and handed over to the writer as
+ * soon as they arrive. After each window, the checkpoint of each QPU is advanced over the days that were completely stored, so that an
+ * interrupted backfill resumes after the last completed day instead of retrieving the whole range again.
+ */
+class IBMQCalibrationBackfill {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final BackfillCheckpointRepository checkpointRepository;
+
+    private final ExecutorService backfillExecutor;
+
+    private final RequestRateLimiter rateLimiter;
+
+    private final int windowDays;
+
+    // retrieves the properties of the QPU with the given name that were valid at the given time
+    private final BiFunction<String, OffsetDateTime, DeviceProperties> propertiesFetcher;
+
+    // hands the retrieved properties of the QPU with the given name over to the writer
+    private final BiFunction<String, DeviceProperties, CompletableFuture<Void>> propertiesWriter;
+
+    IBMQCalibrationBackfill(BackfillCheckpointRepository checkpointRepository, ExecutorService backfillExecutor,
+                            RequestRateLimiter rateLimiter, int windowDays,
+                            BiFunction<String, OffsetDateTime, DeviceProperties> propertiesFetcher,
+                            BiFunction<String, DeviceProperties, CompletableFuture<Void>> propertiesWriter) {
+        this.checkpointRepository = checkpointRepository;
+        this.backfillExecutor = backfillExecutor;
+        this.rateLimiter = rateLimiter;
+        this.windowDays = Math.max(windowDays, 1);
+        this.propertiesFetcher = propertiesFetcher;
+        this.propertiesWriter = propertiesWriter;
+    }
+
+    /**
+     * Backfill the calibration data of the given QPUs for the given range of days. A QPU for which the retrieval or storage of a day fails
+     * is not backfilled further, the remaining QPUs are not affected.
+     *
+     * @param qpuNames  the names of the QPUs to backfill
+     * @param startDate the first day to backfill
+     * @param endDate   the last day to backfill
+     * @return <code>true</code> if the whole range was backfilled for all QPUs, <code>false</code> otherwise
+     */
+    boolean run(List<String> qpuNames, LocalDate startDate, LocalDate endDate) {
+
+        // resume from the stored checkpoints if they cover the start of the range, the days of a checkpoint that does not cover the start
+        // are backfilled again, which only retrieves the data as calibrations that are already stored are skipped by the writer
+        final Map<String, BackfillCheckpoint> checkpoints = new LinkedHashMap<>();
+        for (String qpuName : qpuNames) {
+            final BackfillCheckpoint storedCheckpoint = checkpointRepository.findById(qpuName).orElse(null);
+            final LocalDate nextDate = Objects.nonNull(storedCheckpoint) ? storedCheckpoint.getNextDate(startDate) : startDate;
+            if (nextDate.isAfter(endDate)) {
+                logger.debug("Calibration data of QPU '{}' already backfilled until {}", qpuName, storedCheckpoint.getLastDate());
+                continue;
+            }
+            final LocalDate checkpointStartDate = nextDate.isAfter(startDate) ? storedCheckpoint.getStartDate() : startDate;
+            checkpoints.put(qpuName, new BackfillCheckpoint(qpuName, checkpointStartDate, nextDate.minusDays(1)));
+        }
+        logger.debug("Backfilling calibration data of {} QPUs from {} to {}", checkpoints.size(), startDate, endDate);
+
+        boolean status = true;
+        for (LocalDate windowStart = startDate; !windowStart.isAfter(endDate) && !checkpoints.isEmpty();
+             windowStart = windowStart.plusDays(windowDays)) {
+            final LocalDate lastWindowDate = windowStart.plusDays(windowDays - 1);
+            final LocalDate windowEnd = lastWindowDate.isAfter(endDate) ? endDate : lastWindowDate;
+
+            // the checkpoints always end before the current window, so the days of each QPU are consecutive and start after its checkpoint
+            final Map<String, List<CompletableFuture<Void>>> windowFutures = new LinkedHashMap<>();
+            for (BackfillCheckpoint checkpoint : checkpoints.values()) {
+                final List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (LocalDate date = checkpoint.getLastDate().plusDays(1); !date.isAfter(windowEnd); date = date.plusDays(1)) {
+                    futures.add(backfillDay(checkpoint.getQpuName(), date));
+                }
+                windowFutures.put(checkpoint.getQpuName(), futures);
+            }
+
+            for (Map.Entry<String, List<CompletableFuture<Void>>> entry : windowFutures.entrySet()) {
+                final BackfillCheckpoint checkpoint = checkpoints.get(entry.getKey());
+                final LocalDate lastDate = checkpoint.getLastDate();
+                boolean completed = true;
+                for (CompletableFuture<Void> future : entry.getValue()) {
+                    try {
+                        future.join();
+                        if (completed) {
+                            checkpoint.setLastDate(checkpoint.getLastDate().plusDays(1));
+                        }
+                    } catch (CompletionException e) {
+                        if (completed) {
+                            logger.error("Exception while backfilling calibration data of QPU '{}' for {}: {}", entry.getKey(),
+                                    checkpoint.getLastDate().plusDays(1), e.getCause().getLocalizedMessage());
+                        }
+                        completed = false;
+                    }
+                }
+
+                if (!completed) {
+                    checkpoints.remove(entry.getKey());
+                    status = false;
+                }
+                if (checkpoint.getLastDate().isAfter(lastDate)) {
+                    checkpointRepository.save(checkpoint);
+                }
+            }
+            logger.debug("Backfilled calibration data until {}", windowEnd);
+        }
+        return status;
+    }
+
+    /**
+     * Retrieve the properties of the given QPU that were valid at the end of the given day and hand them over to the writer. The permit of
+     * the rate limiter is acquired before the retrieval is submitted, so that the threads of the executor do not wait for permits.
+     *
+     * @param qpuName the name of the QPU
+     * @param date    the day to retrieve the properties for
+     * @return a future that is completed when the properties were stored
+     */
+    private CompletableFuture<Void> backfillDay(String qpuName, LocalDate date) {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new CompletionException(e));
+        }
+
+        final OffsetDateTime endOfDay = date.atTime(23, 59, 59).atOffset(ZoneOffset.UTC);
+        return CompletableFuture.supplyAsync(() -> propertiesFetcher.apply(qpuName, endOfDay), backfillExecutor)
+                .thenCompose(properties -> Objects.isNull(properties)
+                        ? CompletableFuture.completedFuture(null) : propertiesWriter.apply(qpuName, properties));
+    }
+}
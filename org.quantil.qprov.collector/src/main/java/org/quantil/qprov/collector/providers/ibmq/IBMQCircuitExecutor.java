@@ -21,23 +21,41 @@ package org.quantil.qprov.collector.providers.ibmq;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.quantil.qprov.collector.Constants;
+import org.quantil.qprov.collector.CollectionPhase;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
 import org.quantil.qprov.collector.providers.ibmq.service.QiskitServiceRequest;
 import org.quantil.qprov.collector.providers.ibmq.service.QiskitServiceResult;
+import org.quantil.qprov.collector.providers.ibmq.service.QiskitServiceResultParser;
 import org.quantil.qprov.core.model.agents.Provider;
 import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.CalibrationMatrix;
+import org.quantil.qprov.core.repositories.CalibrationMatrixRepository;
 import org.quantil.qprov.core.repositories.ProviderRepository;
 import org.quantil.qprov.core.repositories.QPURepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 import java.util.Objects;
-import java.util.Vector;
+import java.util.stream.Collectors;
 
 @Component
 public class IBMQCircuitExecutor {
@@ -47,115 +65,228 @@ public class IBMQCircuitExecutor {
 
     private final QPURepository qpuRepository;
 
-    private URI createCalibrationMatrixApiEndpoint;
+    private final CalibrationMatrixRepository calibrationMatrixRepository;
 
+    private final CollectorMetrics collectorMetrics;
+
+    // shared by all calculations, so that the connections to the Qiskit service are pooled
+    private final WebClient webClient;
+
+    private final URI createCalibrationMatrixApiEndpoint;
+
+    private final Duration initialPollingInterval;
+
+    private final Duration maxPollingInterval;
+
+    private final Duration calculationTimeout;
+
+    @Autowired
     public IBMQCircuitExecutor(ProviderRepository providerRepository, QPURepository qpuRepository,
+                               CalibrationMatrixRepository calibrationMatrixRepository, CollectorMetrics collectorMetrics,
+                               WebClient.Builder webClientBuilder, ProviderResilience providerResilience,
                                @Value("${qprov.ibmq.qiskit-service.hostname}") String hostname,
                                @Value("${qprov.ibmq.qiskit-service.port}") int port,
-                               @Value("${qprov.ibmq.qiskit-service.version}") String version) {
+                               @Value("${qprov.ibmq.qiskit-service.version}") String version,
+                               @Value("${qprov.ibmq.calibration.polling-interval-initial}") Integer initialPollingInterval,
+                               @Value("${qprov.ibmq.calibration.polling-interval-max}") Integer maxPollingInterval,
+                               @Value("${qprov.ibmq.calibration.timeout}") Integer calculationTimeout) {
+        this(providerRepository, qpuRepository, calibrationMatrixRepository, collectorMetrics, webClientBuilder, providerResilience,
+                URI.create(String.format("http://%s:%d/qiskit-service/api/%s/calculate-calibration-matrix", hostname, port, version)),
+                Duration.ofSeconds(initialPollingInterval), Duration.ofSeconds(maxPollingInterval), Duration.ofMinutes(calculationTimeout));
+    }
+
+    IBMQCircuitExecutor(ProviderRepository providerRepository, QPURepository qpuRepository,
+                        CalibrationMatrixRepository calibrationMatrixRepository, CollectorMetrics collectorMetrics,
+                        WebClient.Builder webClientBuilder, ProviderResilience providerResilience, URI createCalibrationMatrixApiEndpoint,
+                        Duration initialPollingInterval, Duration maxPollingInterval, Duration calculationTimeout) {
         this.providerRepository = providerRepository;
         this.qpuRepository = qpuRepository;
+        this.calibrationMatrixRepository = calibrationMatrixRepository;
+        this.collectorMetrics = collectorMetrics;
 
-        createCalibrationMatrixApiEndpoint =
-                URI.create(String.format("http://%s:%d/qiskit-service/api/%s/calculate-calibration-matrix", hostname, port, version));
+        // the calculations are polled, so that each request is expected to be answered within the read timeout
+        this.webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) providerResilience.getConnectTimeout().toMillis())
+                .responseTimeout(providerResilience.getReadTimeout()))).build();
+        this.createCalibrationMatrixApiEndpoint = createCalibrationMatrixApiEndpoint;
+        this.initialPollingInterval = initialPollingInterval;
+        this.maxPollingInterval = maxPollingInterval;
+        this.calculationTimeout = calculationTimeout;
     }
 
     /**
      * Collect the different kinds of provenance data by executing corresponding calibration circuits
      *
-     * @param ibmqToken the IBMQ access token to execute quantum circuits on QPUs from IBMQ
-     * @return <code>true</code> if collection was successful, <code>false</code> if an error occured
+     * @param ibmqToken  the IBMQ access token to execute quantum circuits on QPUs from IBMQ
+     * @param statistics the statistics of the collection run
+     * @return a Mono emitting <code>true</code> if collection was successful, <code>false</code> if an error occured, once all
+     * calculations are finished
      */
-    public boolean collectDataByCircuitExecutions(String ibmqToken) {
+    public Mono<Boolean> collectDataByCircuitExecutions(String ibmqToken, CollectionStatistics statistics) {
         final Provider provider = providerRepository.findByName(IBMQConstants.PROVIDER_ID).orElse(null);
 
         if (Objects.isNull(provider)) {
             logger.error("Unable to retrieve IBMQ provider from database. Run API collection first and retry then!");
-            return false;
+            return Mono.just(false);
         }
 
-        boolean success = true;
-        for (QPU qpu : qpuRepository.findByProvider(provider)) {
-            logger.debug("Determining data on QPU: {}", qpu.getName());
-
-            if (qpu.isSimulator()) {
-                logger.debug("Skipping simulator {} for calibration matrix calculation!", qpu.getName());
-                continue;
-            }
+        final List<QPU> qpus = qpuRepository.findByProvider(provider).stream()
+                .filter(qpu -> {
+                    if (qpu.isSimulator()) {
+                        logger.debug("Skipping simulator {} for calibration matrix calculation!", qpu.getName());
+                    }
+                    return !qpu.isSimulator();
+                })
+                .collect(Collectors.toList());
 
-            // We currently collect the calibration matrices by running circuits. The collection of other kind of data can be added here
-            success &= collectCalibrationMatrix(qpu, ibmqToken);
-        }
-
-        return success;
+        // We currently collect the calibration matrices by running circuits. The collection of other kind of data can be added here
+        // all calculations are pending concurrently and no thread waits for them, each matrix is stored as soon as it is available
+        return Flux.fromIterable(qpus)
+                .flatMap(qpu -> collectCalibrationMatrix(qpu, ibmqToken, statistics))
+                .reduce(true, Boolean::logicalAnd);
     }
 
     /**
-     * Execute calibration circuits to calculate the calibration matrix on the given QPU
+     * Execute calibration circuits to calculate the calibration matrix on the given QPU and store the matrix as soon as it is available
      *
-     * @param qpu       the QPU to calculate the calibration matrix for
-     * @param ibmqToken the IBMQ access token to execute quantum circuits on QPUs from IBMQ
+     * @param qpu        the QPU to calculate the calibration matrix for
+     * @param ibmqToken  the IBMQ access token to execute quantum circuits on QPUs from IBMQ
+     * @param statistics the statistics of the collection run
      * @return <code>true</code> if the calculation was successful, otherwise <code>false</code>
      */
-    private boolean collectCalibrationMatrix(QPU qpu, String ibmqToken) {
+    private Mono<Boolean> collectCalibrationMatrix(QPU qpu, String ibmqToken, CollectionStatistics statistics) {
+        // the latency of the calculation covers the submission of the circuits, all polls, and storing the resulting matrix
+        return Mono.defer(() -> {
+            final Timer.Sample sample = collectorMetrics.startTimer();
+            return calculateCalibrationMatrix(qpu, ibmqToken, statistics)
+                    .doOnNext(success -> collectorMetrics.stopTimer(sample, IBMQConstants.PROVIDER_ID, CollectionPhase.CALIBRATION_MATRIX,
+                            statistics, success));
+        });
+    }
 
-        // Prepare the request to the Qiskit service
-        final RestTemplate restTemplate = new RestTemplate();
+    private Mono<Boolean> calculateCalibrationMatrix(QPU qpu, String ibmqToken, CollectionStatistics statistics) {
+        logger.debug("Determining data on QPU: {}", qpu.getName());
+
+        // make the execution request to the Qiskit service
         final QiskitServiceRequest request = new QiskitServiceRequest(qpu.getName(), ibmqToken);
+        return time(CollectionPhase.CIRCUIT_SUBMISSION, statistics, webClient.post()
+                .uri(createCalibrationMatrixApiEndpoint)
+                .bodyValue(request)
+                .retrieve()
+                .toBodilessEntity())
+                .flatMap(response -> {
+                    if (Objects.isNull(response.getHeaders().getLocation())) {
+                        return Mono.error(new IllegalStateException("Qiskit service did not return a result location"));
+                    }
+                    return pollResult(qpu, createCalibrationMatrixApiEndpoint.resolve(response.getHeaders().getLocation()), 0, statistics);
+                })
+                .timeout(calculationTimeout)
+                // storing the matrix blocks, so it must not be done on the threads of the HTTP client
+                .publishOn(Schedulers.boundedElastic())
+                .map(result -> storeCalibrationMatrix(qpu, result, statistics))
+                .onErrorResume(e -> {
+                    logger.error("Retrieval of calibration matrix for QPU {} not successful: {}", qpu.getName(), e.getLocalizedMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Poll for the result of a calibration matrix calculation with exponentially increasing intervals
+     *
+     * @param qpu            the QPU the calibration matrix is calculated for
+     * @param resultLocation the location of the result of the calculation
+     * @param attempt        the number of polls done so far
+     * @param statistics     the statistics of the collection run
+     * @return the completed result
+     */
+    private Mono<QiskitServiceResult> pollResult(QPU qpu, URI resultLocation, int attempt, CollectionStatistics statistics) {
+        return Mono.delay(getPollingInterval(attempt))
+                .then(retrieveResult(resultLocation, statistics))
+                .flatMap(result -> {
+                    if (result.isComplete()) {
+                        return Mono.just(result);
+                    }
+                    logger.trace("Calibration matrix for QPU {} not available yet after {} polls", qpu.getName(), attempt + 1);
+                    return pollResult(qpu, resultLocation, attempt + 1, statistics);
+                });
+    }
 
+    /**
+     * Retrieve the current state of a calculation, the result is parsed while it is received, so that large calibration matrices do not
+     * have to be buffered as a whole
+     *
+     * @param resultLocation the location of the result of the calculation
+     * @param statistics     the statistics of the collection run
+     * @return the parsed result
+     */
+    private Mono<QiskitServiceResult> retrieveResult(URI resultLocation, CollectionStatistics statistics) {
+        return time(CollectionPhase.CIRCUIT_POLLING, statistics, Mono.fromCallable(QiskitServiceResultParser::new)
+                .flatMap(parser -> webClient.get().uri(resultLocation).retrieve()
+                        .bodyToFlux(DataBuffer.class)
+                        .doOnNext(buffer -> statistics.bytesDownloaded(buffer.readableByteCount()))
+                        .reduce(parser, IBMQCircuitExecutor::feed)
+                        .flatMap(completeParser -> Mono.fromCallable(completeParser::finish))));
+    }
+
+    /**
+     * Time a request to the Qiskit service from its subscription until it completes or fails
+     *
+     * @param phase      the phase the request belongs to
+     * @param statistics the statistics of the collection run
+     * @param request    the request to time
+     * @param <T>        the type of the response
+     * @return the timed request
+     */
+    private <T> Mono<T> time(CollectionPhase phase, CollectionStatistics statistics, Mono<T> request) {
+        return Mono.defer(() -> {
+            final Timer.Sample sample = collectorMetrics.startTimer();
+            return request
+                    .doOnSuccess(response -> requestFinished(sample, phase, statistics, true))
+                    .doOnError(e -> requestFinished(sample, phase, statistics, false));
+        });
+    }
+
+    private void requestFinished(Timer.Sample sample, CollectionPhase phase, CollectionStatistics statistics, boolean success) {
+        // the received bytes are added while the response is streamed
+        statistics.apiCallMade(0);
+        collectorMetrics.stopTimer(sample, IBMQConstants.PROVIDER_ID, phase, statistics, success);
+    }
+
+    private static QiskitServiceResultParser feed(QiskitServiceResultParser parser, DataBuffer buffer) {
         try {
-            // make the execution request
-            final URI resultLocation = restTemplate.postForLocation(createCalibrationMatrixApiEndpoint, request);
-
-            boolean retrievedResult = false;
-            QiskitServiceResult result = restTemplate.getForObject(resultLocation, QiskitServiceResult.class);
-            while (!retrievedResult) {
-                try {
-                    // poll for result of calibration matrix calculation
-                    result = restTemplate.getForObject(resultLocation, QiskitServiceResult.class);
-                    retrievedResult = result.isComplete();
-
-                    // wait for next poll
-                    Thread.sleep(Constants.CALIBRATION_MATRIX_CALCULATION_POLLING_INTERVAL);
-                } catch (InterruptedException e) {
-                    // pass
-                } catch (RestClientException e) {
-                    logger.error("Unable to retrieve result from URL: {}", resultLocation);
-                    retrievedResult = true;
-                }
-            }
-
-            if (Objects.isNull(result) || !result.isComplete()) {
-                logger.debug("Retrieval of calibration matrix not successful!");
-                return false;
-            }
-
-            // get the calibration matrix from the result
-            final Object qiskitResult = result.getResult().get(IBMQConstants.QISKIT_SERVICE_RESULT_VARIABLE);
-
-            final Vector<Vector<Double>> parsedCalibrationMatrix = new Vector<Vector<Double>>();
-            final String[] rows = qiskitResult.toString().split("],\\[");
-            for (String row : rows) {
-                final String cleanedRow = row.replaceAll("\\[", "").replaceAll("]", "");
-                final Vector<Double> rowVector = new Vector<Double>();
-                for (String entry : cleanedRow.split(",")) {
-                    rowVector.add(Double.parseDouble(entry));
-                }
-                parsedCalibrationMatrix.add(rowVector);
-            }
-
-            // add new calibration matrix to the database and update corresponding QPU
-            final CalibrationMatrix calibrationMatrix = new CalibrationMatrix();
-            calibrationMatrix.setQpu(qpu);
-            calibrationMatrix.setCalibrationTime(new Date(System.currentTimeMillis()));
-            calibrationMatrix.setCalibrationMatrix(parsedCalibrationMatrix);
-            qpu.getCalibrationMatrices().add(calibrationMatrix);
-            qpuRepository.save(qpu);
-
-            return true;
-        } catch (RestClientException e) {
-            logger.error("Unable to access Qiskit service at URL: {}", createCalibrationMatrixApiEndpoint);
+            final byte[] chunk = new byte[buffer.readableByteCount()];
+            buffer.read(chunk);
+            parser.feed(chunk);
+            return parser;
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    Duration getPollingInterval(int attempt) {
+        final Duration interval = initialPollingInterval.multipliedBy(1L << Math.min(attempt, 16));
+        return interval.compareTo(maxPollingInterval) > 0 ? maxPollingInterval : interval;
+    }
+
+    private boolean storeCalibrationMatrix(QPU qpu, QiskitServiceResult result, CollectionStatistics statistics) {
+
+        if (Objects.isNull(result.getCalibrationMatrix())) {
+            logger.error("Result for QPU {} does not contain a calibration matrix!", qpu.getName());
             return false;
         }
+
+        // add new calibration matrix to the database
+        final CalibrationMatrix calibrationMatrix = new CalibrationMatrix();
+        calibrationMatrix.setQpu(qpu);
+        calibrationMatrix.setCalibrationTime(new Date(System.currentTimeMillis()));
+        calibrationMatrix.setCalibrationMatrix(result.getCalibrationMatrix(), result.getCalibrationMatrixDimension(),
+                result.getCalibrationMatrixDimension());
+        calibrationMatrixRepository.save(calibrationMatrix);
+        statistics.qpuUpdated();
+        logger.debug("Stored calibration matrix for QPU {}", qpu.getName());
+
+        return true;
     }
 }
@@ -19,17 +19,27 @@
 
 package org.quantil.qprov.collector.providers.ibmq;
 
+import java.time.Duration;
+
 public abstract class IBMQConstants {
 
     public static final String PROVIDER_ID = "ibmq";
 
     public static final String PROVIDER_URL = "https://quantum-computing.ibm.com/";
 
-    public static final String IBMQ_DEFAULT_HUB = "ibm-q";
+    public static final String IBMQ_AUTH_URL = "https://auth.quantum-computing.ibm.com/api";
 
-    public static final String IBMQ_DEFAULT_GROUP = "open";
+    public static final String IBMQ_API_URL = "https://api.quantum-computing.ibm.com/api";
 
-    public static final String IBMQ_DEFAULT_PROJECT = "main";
+    // used if IBMQ does not return the time to live of an access token
+    public static final Duration IBMQ_DEFAULT_ACCESS_TOKEN_TTL = Duration.ofHours(1);
 
     public static final String QISKIT_SERVICE_RESULT_VARIABLE = "matrix";
+
+    public static final String REPLAY_PROVIDER_ID = "ibmq-replay";
+
+    public static final String REPLAY_QPU_PREFIX = "replay_qpu_";
+
+    // type of the spooled snapshots of devices in the format of the IBMQ API
+    public static final String SPOOL_SNAPSHOT_TYPE = "ibmq-device";
 }
@@ -20,24 +20,19 @@
 package org.quantil.qprov.collector.providers.ibmq;
 
 import lombok.AllArgsConstructor;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import lombok.Getter;
+import org.quantil.qprov.ibmq.client.model.BackendStatus;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
 
+/**
+ * Details about a device that are retrieved from IBMQ in addition to the list of available devices
+ */
+@Getter
 @AllArgsConstructor
-public class IBMQRunnableApi implements Runnable {
-    protected static final Logger logger = LogManager.getLogger();
+public class IBMQDeviceDetails {
 
-    private IBMQProvider ibmqProvider;
+    private final BackendStatus backendStatus;
 
-    @Override
-    public void run() {
-        logger.debug("Starting periodic collection from API...");
-        boolean result = false;
-        try {
-            result = ibmqProvider.collectFromApi();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        logger.debug("Finished periodic collection from API with result: {}", result);
-    }
+    // null for simulators as they do not provide calibration data
+    private final DeviceProperties deviceProperties;
 }
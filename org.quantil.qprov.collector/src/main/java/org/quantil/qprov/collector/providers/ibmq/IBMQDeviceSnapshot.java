@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.quantil.qprov.collector.SpooledSnapshot;
+import org.quantil.qprov.ibmq.client.JSON;
+import org.quantil.qprov.ibmq.client.model.Device;
+
+/**
+ * The payloads retrieved from IBMQ for a single device, which are serialized in the format of the IBMQ API to spool them while the database
+ * is unavailable
+ */
+@Getter
+@AllArgsConstructor
+public class IBMQDeviceSnapshot {
+
+    private static final JSON JSON_SERIALIZER = new JSON();
+
+    private final String providerName;
+
+    // null if the provider does not have an offering URL
+    private final String offeringUrl;
+
+    private final Device device;
+
+    // null if the details could not be retrieved
+    private final IBMQDeviceDetails deviceDetails;
+
+    public SpooledSnapshot toSpooledSnapshot() {
+        return new SpooledSnapshot(IBMQConstants.SPOOL_SNAPSHOT_TYPE, device.getBackendName(), System.currentTimeMillis(),
+                JSON_SERIALIZER.serialize(this).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IBMQDeviceSnapshot fromSpooledSnapshot(SpooledSnapshot snapshot) {
+        final IBMQDeviceSnapshot deviceSnapshot = JSON_SERIALIZER.deserialize(new String(snapshot.getPayload(), StandardCharsets.UTF_8),
+                IBMQDeviceSnapshot.class);
+        if (Objects.isNull(deviceSnapshot) || Objects.isNull(deviceSnapshot.getDevice())) {
+            throw new IllegalArgumentException("Spooled snapshot of QPU " + snapshot.getQpuName() + " does not contain a device");
+        }
+        return deviceSnapshot;
+    }
+}
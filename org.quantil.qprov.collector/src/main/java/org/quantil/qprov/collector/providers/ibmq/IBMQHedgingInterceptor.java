@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.resilience.CircuitBreaker;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+
+/**
+ * Sends the requests to the IBMQ API through the given client, guarded by the circuit breaker of the provider. Idempotent GET requests are
+ * retried with a jittered backoff if they fail or are answered with a server error, and a second identical request is sent if the first one
+ * is not answered within the hedge delay, whereby the first response is used and the other request is cancelled. Hedging can be disabled
+ * for clients whose requests are rate limited, as the hedged requests would not be covered by the rate limit.
+ * <p>
+ * The interceptor has to be the only interceptor of the client it is added to, as the requests are sent by the given client, which executes
+ * the remaining interceptors.
+ */
+class IBMQHedgingInterceptor implements Interceptor {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final OkHttpClient client;
+
+    private final ProviderResilience resilience;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final boolean hedged;
+
+    IBMQHedgingInterceptor(OkHttpClient client, ProviderResilience resilience, CircuitBreaker circuitBreaker) {
+        this(client, resilience, circuitBreaker, true);
+    }
+
+    IBMQHedgingInterceptor(OkHttpClient client, ProviderResilience resilience, CircuitBreaker circuitBreaker, boolean hedged) {
+        this.client = client;
+        this.resilience = resilience;
+        this.circuitBreaker = circuitBreaker;
+        this.hedged = hedged;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        // the requests are sent by the dispatcher of the client, so the statistics of the collection run are attached to them
+        final Request request = CollectionStatistics.current()
+                .map(statistics -> chain.request().newBuilder().tag(CollectionStatistics.class, statistics).build())
+                .orElse(chain.request());
+        final boolean idempotent = "GET".equals(request.method());
+        final int maxRetries = idempotent ? resilience.getMaxRetries() : 0;
+
+        for (int retry = 0; ; retry++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new IOException("Circuit breaker of provider " + circuitBreaker.getProviderId() + " is open, request to "
+                        + request.url().encodedPath() + " not sent");
+            }
+
+            final Response response;
+            try {
+                response = idempotent && hedged ? executeHedged(request) : client.newCall(request).execute();
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                if (retry >= maxRetries || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                logger.debug("Request to {} failed: {}. Retrying...", request.url().encodedPath(), e.getLocalizedMessage());
+                awaitRetry(retry);
+                continue;
+            }
+
+            if (!isServerError(response.code())) {
+                circuitBreaker.onSuccess();
+                return response;
+            }
+            circuitBreaker.onFailure();
+            if (retry >= maxRetries) {
+                return response;
+            }
+            logger.debug("Request to {} answered with status {}. Retrying...", request.url().encodedPath(), response.code());
+            response.close();
+            awaitRetry(retry);
+        }
+    }
+
+    /**
+     * Send the given request and hedge it by a second request if no response is received within the hedge delay
+     *
+     * @param request the idempotent request to send
+     * @return the first response that is received
+     * @throws IOException if all sent requests failed
+     */
+    private Response executeHedged(Request request) throws IOException {
+        final List<Call> calls = new CopyOnWriteArrayList<>();
+        final AtomicInteger pendingCalls = new AtomicInteger();
+        final AtomicReference<Call> winner = new AtomicReference<>();
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        try {
+            enqueue(request, calls, pendingCalls, winner, result);
+            final Duration hedgeDelay = resilience.getHedgeDelay();
+            if (!hedgeDelay.isZero()) {
+                try {
+                    return result.get(hedgeDelay.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    logger.debug("No response for request to {} within {} ms. Sending hedged request...", request.url().encodedPath(),
+                            hedgeDelay.toMillis());
+                    enqueue(request, calls, pendingCalls, winner, result);
+                }
+            }
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response to " + request.url().encodedPath());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+        } finally {
+            // the body of the winning response is still read by the caller, only the other requests are cancelled
+            calls.stream().filter(call -> call != winner.get()).forEach(Call::cancel);
+        }
+    }
+
+    private void enqueue(Request request, List<Call> calls, AtomicInteger pendingCalls, AtomicReference<Call> winner,
+                         CompletableFuture<Response> result) {
+        final Call call = client.newCall(request);
+        calls.add(call);
+        pendingCalls.incrementAndGet();
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (winner.compareAndSet(null, call)) {
+                    result.complete(response);
+                } else {
+                    response.close();
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // the request only fails as a whole if none of the sent requests is answered
+                if (pendingCalls.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private void awaitRetry(int retry) throws InterruptedIOException {
+        try {
+            Thread.sleep(resilience.getRetryDelay(retry).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry request");
+        }
+    }
+
+    private static boolean isServerError(int code) {
+        return code >= HttpURLConnection.HTTP_INTERNAL_ERROR || code == HTTP_TOO_MANY_REQUESTS;
+    }
+}
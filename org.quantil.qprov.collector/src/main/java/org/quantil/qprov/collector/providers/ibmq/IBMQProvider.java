@@ -19,10 +19,24 @@
 
 package org.quantil.qprov.collector.providers.ibmq;
 
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.quantil.qprov.collector.CollectionPhase;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
 import org.quantil.qprov.collector.Constants;
 import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.collector.ISpoolHandler;
+import org.quantil.qprov.collector.QPUPersistenceExecutor;
+import org.quantil.qprov.collector.SpooledSnapshot;
+import org.quantil.qprov.collector.backfill.BackfillCheckpointRepository;
+import org.quantil.qprov.collector.cluster.CollectorCluster;
+import org.quantil.qprov.collector.jobs.CollectionSchedule;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.quantil.qprov.collector.resilience.RequestRateLimiter;
 import org.quantil.qprov.core.model.agents.Provider;
 import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.Gate;
@@ -32,25 +46,30 @@ import org.quantil.qprov.core.model.entities.QubitCharacteristics;
 import org.quantil.qprov.core.repositories.*;
 import org.quantil.qprov.ibmq.client.ApiClient;
 import org.quantil.qprov.ibmq.client.ApiException;
-import org.quantil.qprov.ibmq.client.Configuration;
 import org.quantil.qprov.ibmq.client.api.GetBackendInformationApi;
-import org.quantil.qprov.ibmq.client.api.LoginApi;
-import org.quantil.qprov.ibmq.client.auth.ApiKeyAuth;
 import org.quantil.qprov.ibmq.client.model.*;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PreDestroy;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
-public class IBMQProvider implements IProvider {
+public class IBMQProvider implements IProvider, ISpoolHandler {
 
     protected static final Logger logger = LogManager.getLogger();
 
@@ -68,9 +87,42 @@ public class IBMQProvider implements IProvider {
 
     private final IBMQCircuitExecutor ibmqCircuitExecutor;
 
+    private final QPUPersistenceExecutor qpuPersistenceExecutor;
+
+    private final CollectorCluster collectorCluster;
+
+    private final CollectorMetrics collectorMetrics;
+
+    private final BackfillCheckpointRepository backfillCheckpointRepository;
+
+    // limits the requests of all backfills, which retrieve the properties of many days at once, to the rate limit of IBMQ
+    private final RequestRateLimiter backfillRateLimiter;
+
+    private final int backfillWindow;
+
+    // client for the backfills, which does not hedge the requests, as hedged requests would bypass the rate limit of the backfills
+    private final ApiClient backfillApiClient;
+
+    // executor to retrieve the properties of the backfills, so that they do not delay the requests of the regular collections
+    private final ExecutorService backfillExecutor;
+
     private final Boolean executeCalibrationCircuits;
 
-    private ApiClient defaultClient;
+    private final IBMQTokenManager tokenManager;
+
+    // the access token is added to each request by the token manager, so the client is not changed after its creation
+    private final ApiClient apiClient;
+
+    // executor to retrieve the devices of the different scopes and the details of the different QPUs concurrently
+    private final ExecutorService requestExecutor;
+
+    // the scopes to collect the devices from, a device that is accessible in multiple scopes is retrieved from the first of them
+    private final List<IBMQScope> scopes;
+
+    // the scope each device was retrieved from by the last collection, used to retrieve the queue status of the stored QPUs
+    private final Map<String, IBMQScope> deviceScopes = new ConcurrentHashMap<>();
+
+    private final CollectionSchedule schedule;
 
     @Value("${qprov.ibmq.token}")
     private String ibmqToken;
@@ -81,10 +133,21 @@ public class IBMQProvider implements IProvider {
                         GateCharacteristicsRepository gateCharacteristicsRepository,
                         GateRepository gateRepository,
                         IBMQCircuitExecutor ibmqCircuitExecutor,
+                        QPUPersistenceExecutor qpuPersistenceExecutor,
+                        CollectorCluster collectorCluster,
+                        CollectorMetrics collectorMetrics,
+                        IBMQTokenManager tokenManager,
+                        ProviderResilience providerResilience,
+                        BackfillCheckpointRepository backfillCheckpointRepository,
                         @Value("${qprov.ibmq.execute-calibration}") Boolean executeCalibrationCircuits,
                         @Value("${qprov.ibmq.auto-collect}") Boolean autoCollect,
                         @Value("${qprov.ibmq.auto-collect-interval}") Integer autoCollectInterval,
-                        @Value("${qprov.ibmq.auto-collect-interval-circuits}") Integer autoCollectIntervalCircuits) {
+                        @Value("${qprov.ibmq.auto-collect-interval-circuits}") Integer autoCollectIntervalCircuits,
+                        @Value("${qprov.ibmq.auto-collect-interval-queue}") Integer autoCollectIntervalQueue,
+                        @Value("${qprov.ibmq.max-concurrent-requests}") Integer maxConcurrentRequests,
+                        @Value("${qprov.ibmq.scopes}") String[] scopes,
+                        @Value("${qprov.ibmq.backfill.max-requests-per-second}") Double backfillMaxRequestsPerSecond,
+                        @Value("${qprov.ibmq.backfill.window}") Integer backfillWindow) {
         this.providerRepository = providerRepository;
         this.qpuRepository = qpuRepository;
         this.qubitRepository = qubitRepository;
@@ -93,31 +156,51 @@ public class IBMQProvider implements IProvider {
         this.gateRepository = gateRepository;
         this.executeCalibrationCircuits = executeCalibrationCircuits;
         this.ibmqCircuitExecutor = ibmqCircuitExecutor;
+        this.qpuPersistenceExecutor = qpuPersistenceExecutor;
+        this.collectorCluster = collectorCluster;
+        this.collectorMetrics = collectorMetrics;
+        this.backfillCheckpointRepository = backfillCheckpointRepository;
+        this.backfillRateLimiter = new RequestRateLimiter(backfillMaxRequestsPerSecond);
+        this.backfillWindow = backfillWindow;
+
+        this.tokenManager = tokenManager;
+        this.apiClient = new ApiClient();
+        this.apiClient.setBasePath(IBMQConstants.IBMQ_API_URL);
+        final OkHttpClient httpClient = providerResilience.applyTimeouts(this.apiClient.getHttpClient().newBuilder())
+                .addInterceptor(tokenManager)
+                .addInterceptor(new IBMQTrafficInterceptor())
+                .build();
+
+        // the requests are sent asynchronously to hedge them, so the dispatcher must not limit them below the number of concurrent requests
+        final Dispatcher dispatcher = httpClient.dispatcher();
+        dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), 2 * maxConcurrentRequests));
+        final OkHttpClient.Builder hedgingClientBuilder = httpClient.newBuilder();
+        hedgingClientBuilder.interceptors().clear();
+        this.apiClient.setHttpClient(hedgingClientBuilder.addInterceptor(new IBMQHedgingInterceptor(httpClient, providerResilience,
+                providerResilience.getCircuitBreaker(getProviderId()))).build());
+        this.requestExecutor = Executors.newFixedThreadPool(maxConcurrentRequests, new CustomizableThreadFactory("qprov-ibmq-"));
+
+        this.backfillApiClient = new ApiClient();
+        this.backfillApiClient.setBasePath(IBMQConstants.IBMQ_API_URL);
+        final OkHttpClient.Builder backfillClientBuilder = httpClient.newBuilder();
+        backfillClientBuilder.interceptors().clear();
+        this.backfillApiClient.setHttpClient(backfillClientBuilder.addInterceptor(new IBMQHedgingInterceptor(httpClient,
+                providerResilience, providerResilience.getCircuitBreaker(getProviderId()), false)).build());
+        this.backfillExecutor = Executors.newFixedThreadPool(maxConcurrentRequests, new CustomizableThreadFactory("qprov-ibmq-backfill-"));
+        this.scopes = Arrays.stream(scopes).filter(scope -> !scope.isBlank()).map(IBMQScope::parse).distinct().toList();
+        if (this.scopes.isEmpty()) {
+            throw new IllegalArgumentException("At least one IBMQ scope has to be configured!");
+        }
 
-        this.defaultClient = Configuration.getDefaultApiClient();
-        this.defaultClient.setBasePath("https://api.quantum-computing.ibm.com/v2");
-
-        logger.debug("Started IBMQ Provider with auto collect: {}", autoCollect);
-
-        // periodically collect data if activated in properties/environment variables
-        if (autoCollect) {
-            logger.debug("Auto collection activated with interval: {} min", autoCollectInterval);
-            final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-            scheduler.scheduleAtFixedRate(new IBMQRunnableApi(this),
-                    Constants.DEFAULT_COLLECTION_STARTUP_TIME, autoCollectInterval, TimeUnit.MINUTES);
-
-            if (executeCalibrationCircuits) {
-                logger.debug("Auto collection by circuit execution activated with interval: {} min", autoCollectIntervalCircuits);
+        logger.debug("Started IBMQ Provider with auto collect: {} and scopes: {}", autoCollect, this.scopes);
 
-                // circuit execution is delayed as it relies on the set of identified QPUs from the API collection
-                scheduler.scheduleAtFixedRate(new IBMQRunnableCircuits(this),
-                        Constants.DEFAULT_COLLECTION_STARTUP_TIME_CIRCUITS, autoCollectIntervalCircuits, TimeUnit.MINUTES);
-            }
-        }
+        this.schedule = CollectionSchedule.create(autoCollect, autoCollectInterval, executeCalibrationCircuits, autoCollectIntervalCircuits,
+                autoCollectIntervalQueue);
     }
 
     /**
-     * Authenticate at IBMQ using the token provided through the environment variables
+     * Authenticate at IBMQ using the token provided through the environment variables, which reuses the cached access token if it is still
+     * valid
      *
      * @return <code>true</code> if authentication is successful, <code>false</code> otherwise
      */
@@ -129,20 +212,8 @@ public class IBMQProvider implements IProvider {
             return false;
         }
 
-        final ApiToken apiToken = new ApiToken();
-        apiToken.setApiToken(ibmqToken);
-
         try {
-            // get a short-lived access token with the api token
-            logger.debug("Changing base path to authenticate to: https://auth.quantum-computing.ibm.com/api");
-            this.defaultClient.setBasePath("https://auth.quantum-computing.ibm.com/api");
-            logger.debug("IBMQProvider try to get an accessToken via supplied apiToken!");
-            final AccessToken accessToken = new LoginApi(this.defaultClient).loginLoginWithApiToken(apiToken);
-            logger.debug("IBMQProvider successfully got an accessToken!");
-
-            // configure "API Token" authorization with obtained accessToken
-            final ApiKeyAuth apiKeyAuth = (ApiKeyAuth) this.defaultClient.getAuthentication("API Token");
-            apiKeyAuth.setApiKey(accessToken.getId());
+            tokenManager.getAccessToken();
             return true;
         } catch (ApiException e) {
             logger.error("Error while authenticating at IBMQ: {}", e.getLocalizedMessage());
@@ -151,22 +222,27 @@ public class IBMQProvider implements IProvider {
     }
 
     /**
-     * Check if IBMQ provider already exists in the database and return it or otherwise create it
+     * Check if the provider with the given name already exists in the database and return it or otherwise create it
      *
-     * @return the retrieved or created IBMQ provider object
+     * @param name        the name of the provider
+     * @param offeringUrl the URL of the offering of the provider, or <code>null</code> if not available
+     * @return the retrieved or created provider object
      */
-    private Provider addProviderToDatabase() {
-        final Optional<Provider> providerOptional = providerRepository.findByName(IBMQConstants.PROVIDER_ID);
+    private Provider addProviderToDatabase(String name, String offeringUrl) {
+        collectorCluster.lock(Constants.CLUSTER_PROVIDER_PREFIX + name);
+        final Optional<Provider> providerOptional = providerRepository.findByName(name);
         if (providerOptional.isPresent()) {
             logger.debug("Provider already present, skipping creation.");
             return providerOptional.get();
         }
 
-        // create a new Provider object representing the IBMQ provider that is handled by this collector
+        // create a new Provider object representing the provider that is handled by this collector
         final Provider provider = new Provider();
-        provider.setName(IBMQConstants.PROVIDER_ID);
+        provider.setName(name);
         try {
-            provider.setOfferingURL(new URL(IBMQConstants.PROVIDER_URL));
+            if (Objects.nonNull(offeringUrl)) {
+                provider.setOfferingURL(new URL(offeringUrl));
+            }
         } catch (MalformedURLException e) {
             logger.error("Unable to add provider URL due to MalformedURLException!");
         }
@@ -183,6 +259,7 @@ public class IBMQProvider implements IProvider {
      * @return the newly created or updated QPU object
      */
     private QPU addQPUToDatabase(Provider provider, Device device) {
+        collectorCluster.lock(Constants.CLUSTER_QPU_PREFIX + device.getBackendName());
         final Optional<QPU> qpuOptional = qpuRepository.findByName(device.getBackendName());
         if (qpuOptional.isPresent()) {
             logger.debug("QPU already present, updating information.");
@@ -246,7 +323,7 @@ public class IBMQProvider implements IProvider {
         // add gates to the qubits on which they can be executed
         if (Objects.nonNull(device.getSimulator()) && !device.getSimulator() && Objects.nonNull(device.getGates())) {
             for (org.quantil.qprov.ibmq.client.model.Gate ibmGate : device.getGates()) {
-                addGateFromDevice(ibmGate, qpu);
+                addGateFromDevice(ibmGate, qpu, qubits);
             }
         }
 
@@ -259,8 +336,9 @@ public class IBMQProvider implements IProvider {
      *
      * @param ibmGate the gate to add to the different qubits that can execute it
      * @param qpu     the qpu to which the qubits belong
+     * @param qubits  the qubits of the qpu identified by their name
      */
-    public void addGateFromDevice(org.quantil.qprov.ibmq.client.model.Gate ibmGate, QPU qpu) {
+    public void addGateFromDevice(org.quantil.qprov.ibmq.client.model.Gate ibmGate, QPU qpu, Map<String, Qubit> qubits) {
 
         // remove duplicates in coupling map
         final List<List<BigDecimal>> distinctList =
@@ -274,16 +352,13 @@ public class IBMQProvider implements IProvider {
             gate.setQpu(qpu);
             gate = gateRepository.save(gate);
 
-            // add gate to each qubit in the coupling if it operates on multiple qubits
-            final Set<Qubit> operatingQubits = new HashSet<>();
+            // add gate to each qubit in the coupling if it operates on multiple qubits, which also adds the qubits to the gate
             for (BigDecimal qubitId : coupling) {
-                final Qubit qubit = qubitRepository.findByQpuAndName(qpu, qubitId.toString()).orElse(null);
+                final Qubit qubit = qubits.get(qubitId.toString());
                 if (Objects.nonNull(qubit)) {
                     qubit.addSupportedGate(gate);
-                    qubitRepository.save(qubit);
                 }
             }
-            gate.setOperatingQubits(operatingQubits);
             gateRepository.save(gate);
         }
     }
@@ -294,31 +369,45 @@ public class IBMQProvider implements IProvider {
      * @param qpu              the QPU to update the qubit characteristics for
      * @param deviceProperties the device properties retrieved from the IBM API
      * @param calibrationTime  the time of the calibration the given device properties were retrieved from
+     * @param historical       <code>true</code> if the calibration may be older than the stored characteristics, e.g., for backfills
+     * @param statistics       the statistics of the collection run to update with the number of inserted qubit characteristics
+     * @return <code>true</code> if the characteristics of all qubits are stored for the given calibration, <code>false</code> otherwise
      */
-    private void updateQubitCharacteristicsOfQPU(QPU qpu, DeviceProperties deviceProperties, Date calibrationTime) {
+    private boolean updateQubitCharacteristicsOfQPU(QPU qpu, DeviceProperties deviceProperties, Date calibrationTime, boolean historical,
+                                                    CollectionStatistics statistics) {
 
         if (deviceProperties.getQubits().size() != qpu.getQubits().size()) {
             logger.error("Number of qubits in the device properties ({}) does not equal number of qubits from the QPU ({})!",
                     deviceProperties.getQubits().size(), qpu.getQubits().size());
-            return;
+            return false;
         }
 
+        // retrieve all qubits at once and insert the new characteristics in a batch afterwards
+        final Map<String, Qubit> qubits = qubitRepository.findByQpu(qpu).stream()
+                .collect(Collectors.toMap(Qubit::getName, Function.identity(), (first, second) -> first));
+
+        // retrieve the latest stored calibration of all qubits at once, historical calibrations are stored regardless
+        final Map<UUID, Date> latestCalibrationTimes =
+                historical ? Map.of() : qubitCharacteristicsRepository.findLatestCalibrationTimesByQpu(qpu);
+        final List<QubitCharacteristics> newCharacteristics = new ArrayList<>();
+        boolean complete = true;
+
         // iterate through all properties and update corresponding Qubit
         for (int i = 0; i < deviceProperties.getQubits().size(); i++) {
 
             // get properties and Qubit which belong together (based on the order)
             final List<Map<String, Object>> propertiesOfQubitList = deviceProperties.getQubits().get(i);
-            final Qubit currentQubit = qubitRepository.findByQpuAndName(qpu, String.valueOf(i)).orElse(null);
+            final Qubit currentQubit = qubits.get(String.valueOf(i));
 
             if (Objects.isNull(currentQubit)) {
                 logger.warn("Unable to retrieve related qubit with name {} for QPU {}", i, qpu.getName());
+                complete = false;
                 continue;
             }
 
             // skip update if latest characteristics have the same time stamp then current calibration data
-            final QubitCharacteristics latestCharacteristics =
-                    qubitCharacteristicsRepository.findByQubitOrderByCalibrationTimeDesc(currentQubit).stream().findFirst().orElse(null);
-            if (Objects.nonNull(latestCharacteristics) && !calibrationTime.after(latestCharacteristics.getCalibrationTime())) {
+            final Date latestCalibrationTime = latestCalibrationTimes.get(currentQubit.getDatabaseId());
+            if (Objects.nonNull(latestCalibrationTime) && !calibrationTime.after(latestCalibrationTime)) {
                 logger.trace("Stored characteristics are up-to-date. No update needed!");
                 continue;
             }
@@ -329,27 +418,24 @@ public class IBMQProvider implements IProvider {
             qubitCharacteristics.setCalibrationTime(calibrationTime);
 
             // retrieve T1, T2, and readout error - NOTE: T1 and T2 are in micro seconds (us)
-            for (Object propertiesOfQubit : propertiesOfQubitList) {
-                final Map<String, String> propertiesMap = IBMQUtility.transformIbmPropertiesToMap(propertiesOfQubit);
-
-                switch (propertiesMap.get("name")) {
-                    case "T1":
-                        qubitCharacteristics.setT1Time(new BigDecimal(propertiesMap.get("value")));
-                        break;
-                    case "T2":
-                        qubitCharacteristics.setT2Time(new BigDecimal(propertiesMap.get("value")));
-                        break;
-                    case "readout_error":
-                        qubitCharacteristics.setReadoutError(new BigDecimal(propertiesMap.get("value")));
-                        break;
-                    default:
-                }
+            final IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(propertiesOfQubitList);
+            qubitCharacteristics.setT1Time(toBigDecimal(qubitProperties.getT1Time()));
+            qubitCharacteristics.setT2Time(toBigDecimal(qubitProperties.getT2Time()));
+            qubitCharacteristics.setReadoutError(toBigDecimal(qubitProperties.getReadoutError()));
+
+            // only update the loaded characteristics, adding to unloaded ones would load all stored characteristics of the qubit
+            if (Hibernate.isInitialized(currentQubit.getQubitCharacteristics())) {
+                currentQubit.getQubitCharacteristics().add(qubitCharacteristics);
             }
-
-            // update qubit object with new characteristics object
-            currentQubit.getQubitCharacteristics().add(qubitCharacteristics);
-            qubitRepository.save(currentQubit);
+            newCharacteristics.add(qubitCharacteristics);
         }
+        qubitCharacteristicsRepository.saveAll(newCharacteristics);
+        statistics.characteristicsInserted(newCharacteristics.size());
+        return complete;
+    }
+
+    private static BigDecimal toBigDecimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
     }
 
     /**
@@ -358,44 +444,51 @@ public class IBMQProvider implements IProvider {
      * @param qpuId            the Id of the QPU to update the gate characteristics for
      * @param deviceProperties the device properties retrieved from the IBM API
      * @param calibrationTime  the time of the calibration the given device properties were retrieved from
+     * @param historical       <code>true</code> if the calibration may be older than the stored characteristics, e.g., for backfills
+     * @param statistics       the statistics of the collection run to update with the number of inserted gate characteristics
+     * @return <code>true</code> if the characteristics of all gates are stored for the given calibration, <code>false</code> otherwise
      */
-    private void updateGateCharacteristicsOfQPU(UUID qpuId, DeviceProperties deviceProperties, Date calibrationTime) {
+    private boolean updateGateCharacteristicsOfQPU(UUID qpuId, DeviceProperties deviceProperties, Date calibrationTime, boolean historical,
+                                                   CollectionStatistics statistics) {
 
         final QPU qpu = qpuRepository.findById(qpuId).orElse(null);
         if (Objects.isNull(qpu)) {
             logger.error("Unable to retrieve QPU with Id: {}", qpuId);
-            return;
+            return false;
         }
 
         final List<Gate> gates =
                 qpu.getQubits().stream().flatMap(qubit -> qubit.getSupportedGates().stream()).distinct().collect(Collectors.toList());
         logger.debug("Updating characteristics for {} gates of QPU: {}", gates.size(), qpu.getName());
 
+        // index the retrieved gate properties once instead of searching them for each gate
+        final Map<String, DevicePropsGate> gateProperties = IBMQUtility.indexGateProperties(deviceProperties.getGates());
+
+        // retrieve the latest stored calibration of all gates at once, historical calibrations are stored regardless
+        final Map<UUID, Date> latestCalibrationTimes =
+                historical ? Map.of() : gateCharacteristicsRepository.findLatestCalibrationTimesByQpu(qpu);
+        final List<GateCharacteristics> newCharacteristics = new ArrayList<>();
+        boolean complete = true;
         for (Gate gate : gates) {
 
             // skip update if latest characteristics have the same time stamp then current calibration data
-            final GateCharacteristics latestCharacteristics =
-                    gateCharacteristicsRepository.findByGateOrderByCalibrationTimeDesc(gate).stream().findFirst().orElse(null);
-            if (Objects.nonNull(latestCharacteristics) && !calibrationTime.after(latestCharacteristics.getCalibrationTime())) {
+            final Date latestCalibrationTime = latestCalibrationTimes.get(gate.getDatabaseId());
+            if (Objects.nonNull(latestCalibrationTime) && !calibrationTime.after(latestCalibrationTime)) {
                 logger.trace("Stored gate characteristics are up-to-date. No update needed!");
                 continue;
             }
 
             // get the DevicePropsGate that belongs to the gate that should be updated with the characteristics
-            final Optional<DevicePropsGate> matchingGateOptional =
-                    deviceProperties.getGates().stream()
-                            .filter(ibmGate -> ibmGate.getGate().equals(gate.getName()))
-                            .filter(ibmGate -> IBMQUtility.operatesOnSameQubits(ibmGate, gate))
-                            .findFirst();
-
-            if (matchingGateOptional.isEmpty()) {
+            final DevicePropsGate matchingGate = gateProperties.get(IBMQUtility.getGateKey(gate));
+            if (Objects.isNull(matchingGate)) {
                 logger.warn("No properties found for gate {} on QPU: {}", gate.getName(), qpu.getName());
+                complete = false;
                 continue;
             }
-            final DevicePropsGate matchingGate = matchingGateOptional.get();
 
             if (Objects.isNull(matchingGate.getParameters())) {
                 logger.warn("Parameters for matching gate properties are null!");
+                complete = false;
                 continue;
             }
 
@@ -418,80 +511,316 @@ public class IBMQProvider implements IProvider {
                 }
             }
 
-            // update gate object with new characteristics object
-            gate.getGateCharacteristics().add(gateCharacteristics);
-            gateRepository.save(gate);
+            // only update the loaded characteristics, adding to unloaded ones would load all stored characteristics of the gate
+            if (Hibernate.isInitialized(gate.getGateCharacteristics())) {
+                gate.getGateCharacteristics().add(gateCharacteristics);
+            }
+            newCharacteristics.add(gateCharacteristics);
         }
+        gateCharacteristicsRepository.saveAll(newCharacteristics);
+        statistics.characteristicsInserted(newCharacteristics.size());
+        return complete;
     }
 
     /**
      * Collect the data about the QPUs from IBMQ and add or update existing database entries
      *
-     * @param provider the provider object to connect the QPU objects to
+     * @param statistics the statistics of the collection run
      * @return <code>true</code> if collection of QPU data is successful, <code>false</code> otherwise
      */
-    private boolean collectQPUs(Provider provider) {
-
-        try {
-            // get all available QPUs
-            final GetBackendInformationApi backendInformationApi = new GetBackendInformationApi(this.defaultClient);
-            final List<Device> devices = backendInformationApi
-                    .getBackendInformationGetProjectDevicesWithVersion(IBMQConstants.IBMQ_DEFAULT_HUB, IBMQConstants.IBMQ_DEFAULT_GROUP,
-                            IBMQConstants.IBMQ_DEFAULT_PROJECT);
-
-            // get details for each retrieved QPU
-            boolean status = true;
-            for (Device device : devices) {
-
-                // create QPU in database if not already existing
-                logger.debug("Found QPU with name '{}'. Adding to database!", device.getBackendName());
-                final QPU qpu = addQPUToDatabase(provider, device);
-
-                try {
-                    logger.debug("Getting detailed information for the QPU...");
-
-                    // get current queue size and add to QPU characteristics
-                    final BackendStatus backendStatus = backendInformationApi
-                            .getBackendInformationGetDeviceQueueStatus(IBMQConstants.IBMQ_DEFAULT_HUB, IBMQConstants.IBMQ_DEFAULT_GROUP,
-                                    IBMQConstants.IBMQ_DEFAULT_PROJECT, device.getBackendName());
-                    final BigDecimal queueSize = backendStatus.getLengthQueue();
-                    qpu.setQueueSize(queueSize.intValue());
-                    logger.debug("Current queue size: {}", queueSize);
-
-                    // skip simulators in further analysis as they do not provide calibration data
-                    if (Objects.isNull(device.getSimulator()) || device.getSimulator()) {
-                        logger.debug("Device is simulator. Skipping data retrieval!");
-                        qpuRepository.save(qpu);
-                        continue;
+    private boolean collectQPUs(CollectionStatistics statistics) {
+
+        // get all available QPUs of all scopes concurrently
+        final GetBackendInformationApi backendInformationApi = new GetBackendInformationApi(this.apiClient);
+        final List<CompletableFuture<List<Device>>> deviceListFutures = scopes.stream()
+                .map(scope -> CompletableFuture.supplyAsync(() -> retrieveDevices(backendInformationApi, scope, statistics),
+                        requestExecutor))
+                .toList();
+
+        // devices accessible in multiple scopes are only retrieved once from the first scope in the configured order
+        boolean status = true;
+        final Map<String, Device> availableDevices = new LinkedHashMap<>();
+        final Map<String, IBMQScope> scopesOfDevices = new HashMap<>();
+        for (int i = 0; i < scopes.size(); i++) {
+            final IBMQScope scope = scopes.get(i);
+            try {
+                for (Device device : deviceListFutures.get(i).join()) {
+                    if (Objects.isNull(availableDevices.putIfAbsent(device.getBackendName(), device))) {
+                        scopesOfDevices.put(device.getBackendName(), scope);
                     }
-
-                    // retrieve details about qubits, gates, calibration, and queue size
-                    final DeviceProperties deviceProperties = backendInformationApi
-                            .getBackendInformationGetDeviceProperties(IBMQConstants.IBMQ_DEFAULT_HUB, IBMQConstants.IBMQ_DEFAULT_GROUP,
-                                    IBMQConstants.IBMQ_DEFAULT_PROJECT, device.getBackendName(), null, null);
-
-                    // update QPU object with last calibration and update time
-                    final Date lastCalibrated = new Date(deviceProperties.getLastUpdateDate().toInstant().toEpochMilli());
-                    qpu.setLastCalibrated(lastCalibrated);
-                    qpu.setLastUpdated(new Date(System.currentTimeMillis()));
-                    qpuRepository.save(qpu);
-
-                    // add new qubit and gate characteristics if a new calibration was done since the last retrieval
-                    updateQubitCharacteristicsOfQPU(qpu, deviceProperties, lastCalibrated);
-                    updateGateCharacteristicsOfQPU(qpu.getDatabaseId(), deviceProperties, lastCalibrated);
-                } catch (ApiException e) {
-                    logger.error("Exception while getting details about QPU with name '{}': {}", device.getBackendName(),
-                            e.getLocalizedMessage());
-                    status = false;
                 }
+            } catch (CompletionException e) {
+                logger.error("Exception while retrieving all available QPUs of scope {}: {}", scope, e.getCause().getLocalizedMessage());
+                status = false;
+            }
+        }
+        deviceScopes.putAll(scopesOfDevices);
+        final List<Device> devices = availableDevices.values().stream().filter(device -> acquireQPU(device.getBackendName())).toList();
+
+        // retrieve the details of all QPUs concurrently, the database is updated sequentially in the order of the devices afterwards
+        final List<CompletableFuture<IBMQDeviceDetails>> deviceDetailsFutures = devices.stream()
+                .map(device -> CompletableFuture.supplyAsync(() -> collectorMetrics.time(getProviderId(), CollectionPhase.QPU_FETCH,
+                        statistics, () -> retrieveDeviceDetails(backendInformationApi, scopesOfDevices.get(device.getBackendName()),
+                                device)), requestExecutor))
+                .collect(Collectors.toList());
+
+        // hand the details of each retrieved QPU over to the writer, which stores them while the remaining details are retrieved
+        final List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        for (int i = 0; i < devices.size(); i++) {
+            final Device device = devices.get(i);
+
+            IBMQDeviceDetails deviceDetails = null;
+            try {
+                deviceDetails = deviceDetailsFutures.get(i).join();
+            } catch (CompletionException e) {
+                logger.error("Exception while getting details about QPU with name '{}': {}", device.getBackendName(),
+                        e.getCause().getLocalizedMessage());
+                status = false;
+            }
+
+            snapshots.add(submitDevice(new IBMQDeviceSnapshot(IBMQConstants.PROVIDER_ID, IBMQConstants.PROVIDER_URL, device,
+                    deviceDetails), statistics));
+        }
+
+        return qpuPersistenceExecutor.await(snapshots) && status;
+    }
+
+    /**
+     * Check if this collector instance is responsible for collecting the QPU with the given name
+     *
+     * @param qpuName the name of the QPU
+     * @return <code>true</code> if the QPU is collected by this instance, <code>false</code> if it is collected by another instance
+     */
+    boolean acquireQPU(String qpuName) {
+        return collectorCluster.acquire(Constants.CLUSTER_QPU_PREFIX + qpuName);
+    }
+
+    /**
+     * Hand the given device snapshot over to the writer, which stores it or spools it if the database is unavailable. The provider of the
+     * device is created with the first snapshot that is stored, so that devices can be collected while the database is unavailable.
+     *
+     * @param deviceSnapshot the retrieved payloads of the device
+     * @param statistics     the statistics of the collection run
+     * @return a future that is completed when the snapshot was stored or spooled
+     */
+    CompletableFuture<Void> submitDevice(IBMQDeviceSnapshot deviceSnapshot, CollectionStatistics statistics) {
+        return qpuPersistenceExecutor.submit(deviceSnapshot.getDevice().getBackendName(),
+                () -> storeDevice(deviceSnapshot, statistics), deviceSnapshot::toSpooledSnapshot);
+    }
+
+    private void storeDevice(IBMQDeviceSnapshot deviceSnapshot, CollectionStatistics statistics) {
+        collectorMetrics.time(deviceSnapshot.getProviderName(), CollectionPhase.PERSISTENCE, statistics, () -> {
+            final Provider provider = addProviderToDatabase(deviceSnapshot.getProviderName(), deviceSnapshot.getOfferingUrl());
+            storeDevice(provider, deviceSnapshot.getDevice(), deviceSnapshot.getDeviceDetails(), statistics);
+        });
+    }
+
+    /**
+     * Add or update the QPU representing the given device and its qubit and gate characteristics in the database
+     *
+     * @param provider      the provider object to connect the QPU object to
+     * @param device        the device to store
+     * @param deviceDetails the retrieved details of the device, or <code>null</code> if they could not be retrieved
+     * @param statistics    the statistics of the collection run
+     */
+    private void storeDevice(Provider provider, Device device, IBMQDeviceDetails deviceDetails, CollectionStatistics statistics) {
+
+        // skip QPUs whose configuration and calibration did not change since the last collection, only the queue size is updated
+        final String fingerprint = Objects.nonNull(deviceDetails)
+                ? IBMQUtility.getFingerprint(device, deviceDetails.getDeviceProperties()) : null;
+        final QPU storedQpu = qpuRepository.findByName(device.getBackendName()).orElse(null);
+        if (Objects.nonNull(fingerprint) && Objects.nonNull(storedQpu) && fingerprint.equals(storedQpu.getFingerprint())) {
+            logger.debug("QPU with name '{}' unchanged since last collection. Updating queue size only!", device.getBackendName());
+            final int queueSize = deviceDetails.getBackendStatus().getLengthQueue().intValue();
+            if (storedQpu.getQueueSize() != queueSize) {
+                storedQpu.setQueueSize(queueSize);
+                qpuRepository.save(storedQpu);
+            }
+            statistics.qpuSkipped();
+            return;
+        }
+
+        // create QPU in database if not already existing
+        logger.debug("Found QPU with name '{}'. Adding to database!", device.getBackendName());
+        final QPU qpu = addQPUToDatabase(provider, device);
+        statistics.qpuUpdated();
+        if (Objects.isNull(deviceDetails)) {
+            return;
+        }
+
+        // get current queue size and add to QPU characteristics
+        final BigDecimal queueSize = deviceDetails.getBackendStatus().getLengthQueue();
+        qpu.setQueueSize(queueSize.intValue());
+        logger.debug("Current queue size: {}", queueSize);
+
+        // skip simulators in further analysis as they do not provide calibration data
+        if (Objects.isNull(deviceDetails.getDeviceProperties())) {
+            logger.debug("Device is simulator. Skipping data retrieval!");
+            qpu.setFingerprint(fingerprint);
+            qpuRepository.save(qpu);
+            return;
+        }
+        final DeviceProperties deviceProperties = deviceDetails.getDeviceProperties();
+
+        // update QPU object with last calibration and update time
+        final Date lastCalibrated = new Date(deviceProperties.getLastUpdateDate().toInstant().toEpochMilli());
+        qpu.setLastCalibrated(lastCalibrated);
+        qpu.setLastUpdated(new Date(System.currentTimeMillis()));
+        qpuRepository.save(qpu);
+
+        // add new qubit and gate characteristics if a new calibration was done since the last retrieval
+        final boolean qubitsStored = updateQubitCharacteristicsOfQPU(qpu, deviceProperties, lastCalibrated, false, statistics);
+        final boolean gatesStored =
+                updateGateCharacteristicsOfQPU(qpu.getDatabaseId(), deviceProperties, lastCalibrated, false, statistics);
+
+        // the fingerprint skips the QPU in the next collections, so it is only set once the whole calibration is stored
+        if (qubitsStored && gatesStored) {
+            qpu.setFingerprint(fingerprint);
+            qpuRepository.save(qpu);
+        } else {
+            logger.warn("Calibration of QPU with name '{}' not completely stored. Storing it again with the next collection!",
+                    device.getBackendName());
+        }
+    }
+
+    /**
+     * Add the qubit and gate characteristics of a past calibration of the given QPU to the database, unless characteristics of the same
+     * calibration are already stored
+     *
+     * @param qpuName          the name of the QPU the calibration belongs to
+     * @param deviceProperties the device properties retrieved for a past day from the IBM API
+     * @param statistics       the statistics of the backfill
+     */
+    private void storeHistoricalCalibration(String qpuName, DeviceProperties deviceProperties, CollectionStatistics statistics) {
+        collectorMetrics.time(getProviderId(), CollectionPhase.PERSISTENCE, statistics, () -> {
+            final QPU qpu = qpuRepository.findByName(qpuName).orElse(null);
+            if (Objects.isNull(qpu) || Objects.isNull(deviceProperties.getLastUpdateDate())) {
+                logger.warn("Unable to store historical calibration data of QPU with name '{}'", qpuName);
+                statistics.qpuSkipped();
+                return;
+            }
+
+            // consecutive days often share the same calibration, which is only stored once
+            final Date calibrationTime = new Date(deviceProperties.getLastUpdateDate().toInstant().toEpochMilli());
+            if (qubitCharacteristicsRepository.existsByQpuAndCalibrationTime(qpu, calibrationTime)) {
+                logger.trace("Calibration of QPU '{}' at {} already stored", qpuName, calibrationTime);
+                statistics.qpuSkipped();
+                return;
             }
 
-            return status;
+            updateQubitCharacteristicsOfQPU(qpu, deviceProperties, calibrationTime, true, statistics);
+            updateGateCharacteristicsOfQPU(qpu.getDatabaseId(), deviceProperties, calibrationTime, true, statistics);
+            statistics.qpuUpdated();
+        });
+    }
+
+    /**
+     * Retrieve the list of all devices available in the given scope from IBMQ
+     *
+     * @param backendInformationApi the API to retrieve the devices from
+     * @param scope                 the scope to retrieve the devices of
+     * @param statistics            the statistics of the collection run
+     * @return the retrieved devices
+     */
+    private List<Device> retrieveDevices(GetBackendInformationApi backendInformationApi, IBMQScope scope, CollectionStatistics statistics) {
+        return collectorMetrics.time(getProviderId(), CollectionPhase.DEVICE_LISTING, statistics, () -> {
+            try {
+                return backendInformationApi.getBackendInformationGetProjectDevicesWithVersion(scope.getHub(), scope.getGroup(),
+                        scope.getProject());
+            } catch (ApiException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Retrieve the current queue status and, for QPUs that are no simulators, the properties of the given device from IBMQ
+     *
+     * @param backendInformationApi the API to retrieve the details from
+     * @param scope                 the scope the device is accessible in
+     * @param device                the device to retrieve the details for
+     * @return the retrieved details of the device
+     */
+    private IBMQDeviceDetails retrieveDeviceDetails(GetBackendInformationApi backendInformationApi, IBMQScope scope, Device device) {
+        logger.debug("Getting detailed information for the QPU '{}' from scope {}...", device.getBackendName(), scope);
+        final BackendStatus backendStatus = retrieveBackendStatus(backendInformationApi, scope, device.getBackendName());
+
+        // simulators do not provide calibration data
+        if (Objects.isNull(device.getSimulator()) || device.getSimulator()) {
+            return new IBMQDeviceDetails(backendStatus, null);
+        }
+
+        // retrieve details about qubits, gates, and calibration
+        final DeviceProperties deviceProperties = retrieveDeviceProperties(backendInformationApi, scope, device.getBackendName(), null);
+        return new IBMQDeviceDetails(backendStatus, deviceProperties);
+    }
+
+    /**
+     * Retrieve the properties of the given device from IBMQ, which contain the calibration data of its qubits and gates
+     *
+     * @param backendInformationApi the API to retrieve the properties from
+     * @param scope                 the scope the device is accessible in
+     * @param backendName           the name of the device to retrieve the properties for
+     * @param dateTime              the time the properties were valid at, or <code>null</code> to retrieve the current properties
+     * @return the retrieved properties of the device
+     */
+    private DeviceProperties retrieveDeviceProperties(GetBackendInformationApi backendInformationApi, IBMQScope scope, String backendName,
+                                                      OffsetDateTime dateTime) {
+        try {
+            return backendInformationApi.getBackendInformationGetDeviceProperties(scope.getHub(), scope.getGroup(), scope.getProject(),
+                    backendName, null, null, dateTime);
         } catch (ApiException e) {
-            logger.error("Exception while retrieving all available QPUs: {}",
-                    e.getLocalizedMessage());
-            return false;
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Retrieve the current status of the given device from IBMQ, which contains its queue size
+     *
+     * @param backendInformationApi the API to retrieve the status from
+     * @param scope                 the scope the device is accessible in
+     * @param backendName           the name of the device to retrieve the status for
+     * @return the retrieved status of the device
+     */
+    private BackendStatus retrieveBackendStatus(GetBackendInformationApi backendInformationApi, IBMQScope scope, String backendName) {
+        try {
+            return backendInformationApi.getBackendInformationGetDeviceQueueStatus(scope.getHub(), scope.getGroup(), scope.getProject(),
+                    backendName);
+        } catch (ApiException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Retrieve the current queue size of the given device from IBMQ
+     *
+     * @param backendInformationApi the API to retrieve the queue status from
+     * @param scope                 the scope the device is accessible in
+     * @param backendName           the name of the device
+     * @return the number of jobs in the queue of the device
+     */
+    private int retrieveQueueSize(GetBackendInformationApi backendInformationApi, IBMQScope scope, String backendName) {
+        final BackendStatus backendStatus = retrieveBackendStatus(backendInformationApi, scope, backendName);
+        if (Objects.isNull(backendStatus) || Objects.isNull(backendStatus.getLengthQueue())) {
+            throw new CompletionException(new IllegalStateException("Queue status does not contain the length of the queue"));
         }
+        return backendStatus.getLengthQueue().intValue();
+    }
+
+    @Override
+    public String getSnapshotType() {
+        return IBMQConstants.SPOOL_SNAPSHOT_TYPE;
+    }
+
+    @Override
+    public void store(SpooledSnapshot snapshot) {
+        // the fingerprint of the QPU and the calibration times of the characteristics prevent storing a snapshot twice
+        storeDevice(IBMQDeviceSnapshot.fromSpooledSnapshot(snapshot), new CollectionStatistics());
+    }
+
+    @Override
+    public CollectionSchedule getSchedule() {
+        return schedule;
     }
 
     @Override
@@ -499,35 +828,136 @@ public class IBMQProvider implements IProvider {
         return IBMQConstants.PROVIDER_ID;
     }
 
+    /**
+     * Set the URL of the IBMQ API, e.g., to retrieve the data from a local stub of the API
+     *
+     * @param apiUrl the base URL of the API
+     */
+    void setApiUrl(String apiUrl) {
+        apiClient.setBasePath(apiUrl);
+        backfillApiClient.setBasePath(apiUrl);
+    }
+
     @Override
-    public boolean collectFromApi() {
+    public boolean collectFromApi(CollectionStatistics statistics) {
         logger.debug("Collection by IBMQProvider started...");
 
-        if (!authenticate()) {
+        if (!collectorMetrics.timeStatus(getProviderId(), CollectionPhase.AUTHENTICATION, statistics, this::authenticate)) {
             logger.warn("Authentication failed. Aborting retrieval from IBMQProvider. Please check the provided access token!");
             return false;
         }
         logger.debug("Successfully authenticated. Starting retrieval of QPUs...");
 
-        // add the IBMQ provider as object to the database if it was not created in a previous collection and otherwise retrieve it
-        logger.debug("Setting base path for data retrieval: https://api.quantum-computing.ibm.com/api");
-        this.defaultClient.setBasePath("https://api.quantum-computing.ibm.com/api");
-        final Provider ibmqProvider = addProviderToDatabase();
-
-        final boolean qpuRetrievalSuccess = collectQPUs(ibmqProvider);
-        logger.debug("Retrieval of QPUs returned success: {}", qpuRetrievalSuccess);
+        final boolean qpuRetrievalSuccess = collectQPUs(statistics);
+        logger.debug("Retrieval of QPUs returned success: {} ({} QPUs)", qpuRetrievalSuccess, statistics);
         return qpuRetrievalSuccess;
     }
 
     @Override
-    public boolean collectThroughCircuits() {
+    public boolean collectQueueStatus(CollectionStatistics statistics) {
+        final Optional<Provider> provider = providerRepository.findByName(IBMQConstants.PROVIDER_ID);
+        if (provider.isEmpty()) {
+            logger.debug("No QPUs of IBMQ stored yet. Skipping update of queue sizes!");
+            return true;
+        }
+
+        if (!collectorMetrics.timeStatus(getProviderId(), CollectionPhase.AUTHENTICATION, statistics, this::authenticate)) {
+            logger.warn("Authentication failed. Aborting update of queue sizes from IBMQProvider. Please check the provided access token!");
+            return false;
+        }
+
+        // only the status of the QPUs that are already stored is retrieved, new QPUs are added by the next collection from the API, and
+        // QPUs that were not retrieved by a collection since the start of the collector are skipped as their scope is not known yet
+        final GetBackendInformationApi backendInformationApi = new GetBackendInformationApi(this.apiClient);
+        final List<String> qpuNames = qpuRepository.findNamesByProvider(provider.get()).stream()
+                .filter(qpuName -> {
+                    if (!deviceScopes.containsKey(qpuName)) {
+                        logger.debug("Scope of QPU with name '{}' not known yet. Skipping update of its queue size!", qpuName);
+                        statistics.qpuSkipped();
+                        return false;
+                    }
+                    return acquireQPU(qpuName);
+                })
+                .toList();
+        final List<CompletableFuture<Integer>> queueSizeFutures = qpuNames.stream()
+                .map(qpuName -> CompletableFuture.supplyAsync(() -> collectorMetrics.time(getProviderId(), CollectionPhase.QUEUE_STATUS,
+                        statistics, () -> retrieveQueueSize(backendInformationApi, deviceScopes.get(qpuName), qpuName)), requestExecutor))
+                .toList();
+
+        boolean status = true;
+        for (int i = 0; i < qpuNames.size(); i++) {
+            try {
+                final int queueSize = queueSizeFutures.get(i).join();
+                if (qpuRepository.updateQueueSize(qpuNames.get(i), queueSize) > 0) {
+                    statistics.qpuUpdated();
+                } else {
+                    statistics.qpuSkipped();
+                }
+            } catch (CompletionException e) {
+                logger.error("Exception while getting queue status of QPU with name '{}': {}", qpuNames.get(i),
+                        e.getCause().getLocalizedMessage());
+                status = false;
+            } catch (DataAccessException e) {
+                logger.error("Exception while updating queue size of QPU with name '{}': {}", qpuNames.get(i), e.getLocalizedMessage());
+                status = false;
+            }
+        }
+        logger.debug("Updated queue sizes of QPUs from IBMQ ({} QPUs)", statistics);
+        return status;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> collectThroughCircuits(CollectionStatistics statistics) {
 
         if (!executeCalibrationCircuits) {
             logger.warn("Execution of calibration circuits deactivated in the properties. Please activate for this functionality!");
-            return false;
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (!collectorCluster.acquire(Constants.CLUSTER_CIRCUITS_PREFIX + getProviderId())) {
+            logger.debug("Calibration circuits for QPUs from IBMQ are executed by another collector instance.");
+            return CompletableFuture.completedFuture(true);
         }
 
         logger.debug("Triggering execution of circuits to determine calibration data for QPUs from IBMQ!");
-        return ibmqCircuitExecutor.collectDataByCircuitExecutions(ibmqToken);
+        return ibmqCircuitExecutor.collectDataByCircuitExecutions(ibmqToken, statistics).toFuture();
+    }
+
+    @Override
+    public boolean backfillCalibrations(LocalDate startDate, LocalDate endDate, CollectionStatistics statistics) {
+        final Optional<Provider> provider = providerRepository.findByName(IBMQConstants.PROVIDER_ID);
+        if (provider.isEmpty()) {
+            logger.warn("No QPUs of IBMQ stored yet. Backfill requires a collection from the API first!");
+            return false;
+        }
+
+        if (!collectorMetrics.timeStatus(getProviderId(), CollectionPhase.AUTHENTICATION, statistics, this::authenticate)) {
+            logger.warn("Authentication failed. Aborting backfill from IBMQProvider. Please check the provided access token!");
+            return false;
+        }
+
+        // only the stored QPUs are backfilled, simulators do not provide calibration data
+        final List<String> qpuNames = qpuRepository.findByProvider(provider.get()).stream()
+                .filter(qpu -> !qpu.isSimulator())
+                .map(QPU::getName)
+                .filter(this::acquireQPU)
+                .toList();
+        final GetBackendInformationApi backendInformationApi = new GetBackendInformationApi(this.backfillApiClient);
+        final IBMQCalibrationBackfill backfill = new IBMQCalibrationBackfill(backfillCheckpointRepository, backfillExecutor,
+                backfillRateLimiter, backfillWindow,
+                (qpuName, dateTime) -> collectorMetrics.time(getProviderId(), CollectionPhase.QPU_FETCH, statistics,
+                        () -> retrieveDeviceProperties(backendInformationApi, deviceScopes.getOrDefault(qpuName, scopes.get(0)), qpuName,
+                                dateTime)),
+                (qpuName, deviceProperties) -> qpuPersistenceExecutor.submit(qpuName,
+                        () -> storeHistoricalCalibration(qpuName, deviceProperties, statistics)));
+        final boolean status = backfill.run(qpuNames, startDate, endDate);
+        logger.debug("Backfill of calibration data from IBMQ returned success: {} ({} QPUs)", status, statistics);
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdownNow();
+        backfillExecutor.shutdownNow();
     }
 }
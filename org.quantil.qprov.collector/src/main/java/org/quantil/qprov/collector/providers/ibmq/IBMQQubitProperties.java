@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import lombok.Getter;
+
+/**
+ * The characteristics of a qubit read from the properties retrieved from IBM. Values that are not contained in the properties are
+ * <code>NaN</code>.
+ */
+@Getter
+public class IBMQQubitProperties {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    // T1 and T2 are stored in micro seconds (us)
+    private double t1Time = Double.NaN;
+
+    private double t2Time = Double.NaN;
+
+    private double readoutError = Double.NaN;
+
+    /**
+     * Read the characteristics of a qubit from the list of its properties as returned by the IBM API
+     *
+     * @param properties the properties of the qubit, each containing the name, value, and unit of a property
+     * @return the characteristics of the qubit
+     */
+    public static IBMQQubitProperties read(List<Map<String, Object>> properties) {
+        final IBMQQubitProperties qubitProperties = new IBMQQubitProperties();
+        for (Map<String, Object> property : properties) {
+            final Object name = property.get("name");
+            if (!(name instanceof String)) {
+                continue;
+            }
+
+            switch ((String) name) {
+                case "T1":
+                    qubitProperties.t1Time = toMicroSeconds(getValue(property), property.get("unit"));
+                    break;
+                case "T2":
+                    qubitProperties.t2Time = toMicroSeconds(getValue(property), property.get("unit"));
+                    break;
+                case "readout_error":
+                    qubitProperties.readoutError = getValue(property);
+                    break;
+                default:
+            }
+        }
+        return qubitProperties;
+    }
+
+    private static double getValue(Map<String, Object> property) {
+        final Object value = property.get("value");
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                logger.warn("Value of property {} is not a number: {}", property.get("name"), value);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double toMicroSeconds(double value, Object unit) {
+        if (!(unit instanceof String)) {
+            return value;
+        }
+        switch ((String) unit) {
+            case "s":
+                return value * 1e6;
+            case "ms":
+                return value * 1e3;
+            case "ns":
+                return value / 1e3;
+            default:
+                return value;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.quantil.qprov.ibmq.client.JSON;
+import org.quantil.qprov.ibmq.client.model.BackendStatus;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Serves payloads that were recorded from the IBMQ API. A recording consists of the list of devices in <code>devices.json</code>, and the
+ * properties and status of each device in <code>properties/&lt;backend&gt;.json</code> and <code>status/&lt;backend&gt;.json</code>. The
+ * directory either contains a single recording, or one recording per sub directory, which are replayed in alphabetical order and starting
+ * over after the last one.
+ */
+public class IBMQRecordedSource implements IBMQReplaySource {
+
+    private static final Type DEVICE_LIST_TYPE = new TypeToken<List<Device>>() {
+    }.getType();
+
+    private final List<Path> recordings;
+
+    private final JSON json = new JSON();
+
+    public IBMQRecordedSource(Path directory) throws IOException {
+        if (Files.exists(directory.resolve("devices.json"))) {
+            this.recordings = List.of(directory);
+        } else {
+            try (Stream<Path> files = Files.list(directory)) {
+                this.recordings = files.filter(Files::isDirectory).sorted().toList();
+            }
+        }
+        if (recordings.isEmpty()) {
+            throw new IOException("No recorded payloads found in directory: " + directory);
+        }
+    }
+
+    @Override
+    public List<Device> getDevices(int step) {
+        return read(getRecording(step).resolve("devices.json"), DEVICE_LIST_TYPE);
+    }
+
+    @Override
+    public BackendStatus getBackendStatus(Device device, int step) {
+        final Path file = getRecording(step).resolve("status").resolve(device.getBackendName() + ".json");
+        if (!Files.exists(file)) {
+            // the queue size is optional in recordings, as it is not required to store the devices
+            return new BackendStatus().lengthQueue(BigDecimal.ZERO);
+        }
+        return read(file, BackendStatus.class);
+    }
+
+    @Override
+    public DeviceProperties getDeviceProperties(Device device, int step) {
+        final Path file = getRecording(step).resolve("properties").resolve(device.getBackendName() + ".json");
+        return Files.exists(file) ? read(file, DeviceProperties.class) : null;
+    }
+
+    private Path getRecording(int step) {
+        return recordings.get(step % recordings.size());
+    }
+
+    private <T> T read(Path file, Type type) {
+        try {
+            return json.deserialize(Files.readString(file), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read recorded payload " + file, e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.collector.QPUPersistenceExecutor;
+import org.quantil.qprov.collector.jobs.CollectionSchedule;
+import org.quantil.qprov.core.model.agents.Provider;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.repositories.ProviderRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provider serving recorded or generated payloads in the format of the IBMQ API without network access or credentials. The payloads are
+ * stored by the same code as the data retrieved from IBMQ, so that the provider can be used to measure the collection throughput, the
+ * growth of the database, and the memory consumption for fleets of arbitrary size. Replayed devices with the name of a QPU of another
+ * provider are skipped, so that the replay never changes the QPUs collected from IBMQ.
+ */
+@Component
+@ConditionalOnProperty(name = "qprov.replay.enabled", havingValue = "true")
+public class IBMQReplayProvider implements IProvider {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final IBMQProvider ibmqProvider;
+
+    private final ProviderRepository providerRepository;
+
+    private final QPURepository qpuRepository;
+
+    private final QPUPersistenceExecutor qpuPersistenceExecutor;
+
+    private final IBMQReplaySource source;
+
+    private final CollectionSchedule schedule;
+
+    // each collection advances the replay by one step
+    private final AtomicInteger step = new AtomicInteger();
+
+    public IBMQReplayProvider(IBMQProvider ibmqProvider, ProviderRepository providerRepository, QPURepository qpuRepository,
+                              QPUPersistenceExecutor qpuPersistenceExecutor,
+                              @Value("${qprov.replay.directory}") String directory,
+                              @Value("${qprov.replay.qpus}") Integer qpus,
+                              @Value("${qprov.replay.qubits}") Integer qubits,
+                              @Value("${qprov.replay.seed}") Long seed,
+                              @Value("${qprov.replay.step-interval}") Integer stepInterval,
+                              @Value("${qprov.replay.auto-collect}") Boolean autoCollect,
+                              @Value("${qprov.replay.auto-collect-interval}") Integer autoCollectInterval,
+                              @Value("${qprov.replay.auto-collect-interval-queue}") Integer autoCollectIntervalQueue) throws IOException {
+        this.ibmqProvider = ibmqProvider;
+        this.providerRepository = providerRepository;
+        this.qpuRepository = qpuRepository;
+        this.qpuPersistenceExecutor = qpuPersistenceExecutor;
+        this.schedule = CollectionSchedule.create(autoCollect, autoCollectInterval, false, 0, autoCollectIntervalQueue);
+
+        if (Objects.isNull(directory) || directory.isBlank()) {
+            logger.info("Replaying synthetic fleet of {} QPUs with {} qubits each", qpus, qubits);
+            this.source = new IBMQSyntheticFleet(qpus, qubits, seed, Duration.ofMinutes(stepInterval));
+        } else {
+            logger.info("Replaying recorded payloads from directory: {}", directory);
+            this.source = new IBMQRecordedSource(Path.of(directory));
+        }
+    }
+
+    @Override
+    public String getProviderId() {
+        return IBMQConstants.REPLAY_PROVIDER_ID;
+    }
+
+    @Override
+    public CollectionSchedule getSchedule() {
+        return schedule;
+    }
+
+    @Override
+    public boolean collectFromApi(CollectionStatistics statistics) {
+        final int currentStep = step.getAndIncrement();
+        logger.debug("Replaying step {} of provider {}...", currentStep, getProviderId());
+
+        final List<Device> devices;
+        try {
+            devices = source.getDevices(currentStep).stream()
+                    .filter(device -> !isQPUOfOtherProvider(device.getBackendName()))
+                    .filter(device -> ibmqProvider.acquireQPU(device.getBackendName()))
+                    .toList();
+        } catch (RuntimeException e) {
+            logger.error("Unable to replay devices: {}", e.getLocalizedMessage());
+            return false;
+        }
+
+        // the details are created right before storing each device to keep only the payloads of a single QPU in memory
+        boolean status = true;
+        final List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        for (Device device : devices) {
+            final IBMQDeviceDetails deviceDetails;
+            try {
+                deviceDetails = new IBMQDeviceDetails(source.getBackendStatus(device, currentStep),
+                        Boolean.TRUE.equals(device.getSimulator()) ? null : source.getDeviceProperties(device, currentStep));
+            } catch (RuntimeException e) {
+                logger.error("Unable to replay details of QPU with name '{}': {}", device.getBackendName(), e.getLocalizedMessage());
+                status = false;
+                continue;
+            }
+            snapshots.add(ibmqProvider.submitDevice(new IBMQDeviceSnapshot(IBMQConstants.REPLAY_PROVIDER_ID, null, device, deviceDetails),
+                    statistics));
+        }
+        status = qpuPersistenceExecutor.await(snapshots) && status;
+        logger.debug("Replayed step {} of provider {} ({} QPUs)", currentStep, getProviderId(), statistics);
+        return status;
+    }
+
+    @Override
+    public boolean collectQueueStatus(CollectionStatistics statistics) {
+        final Optional<Provider> provider = providerRepository.findByName(IBMQConstants.REPLAY_PROVIDER_ID);
+        if (provider.isEmpty()) {
+            logger.debug("No QPUs of provider {} stored yet. Skipping update of queue sizes!", getProviderId());
+            return true;
+        }
+
+        // the queue sizes do not advance the replay, only the collections do, and only the replayed QPUs are updated
+        final int currentStep = step.get();
+        try {
+            for (Device device : source.getDevices(currentStep)) {
+                if (!ibmqProvider.acquireQPU(device.getBackendName())) {
+                    continue;
+                }
+                final int queueSize = source.getBackendStatus(device, currentStep).getLengthQueue().intValue();
+                if (qpuRepository.updateQueueSize(provider.get(), device.getBackendName(), queueSize) > 0) {
+                    statistics.qpuUpdated();
+                } else {
+                    statistics.qpuSkipped();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Unable to replay queue sizes: {}", e.getLocalizedMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check if a QPU with the given name is already stored for another provider, as the QPUs are identified by their name
+     *
+     * @param qpuName the name of the replayed QPU
+     * @return <code>true</code> if the name belongs to a QPU of another provider, <code>false</code> otherwise
+     */
+    private boolean isQPUOfOtherProvider(String qpuName) {
+        final Optional<QPU> storedQpu = qpuRepository.findByName(qpuName);
+        if (storedQpu.isPresent() && !IBMQConstants.REPLAY_PROVIDER_ID.equals(storedQpu.get().getProvider().getName())) {
+            logger.warn("QPU with name '{}' is already stored for provider {}. Skipping replay of the QPU!", qpuName,
+                    storedQpu.get().getProvider().getName());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> collectThroughCircuits(CollectionStatistics statistics) {
+        logger.warn("Execution of calibration circuits is not supported by provider {}!", getProviderId());
+        return CompletableFuture.completedFuture(false);
+    }
+}
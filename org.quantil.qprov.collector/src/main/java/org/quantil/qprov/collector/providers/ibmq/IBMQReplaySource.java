@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.util.List;
+
+import org.quantil.qprov.ibmq.client.model.BackendStatus;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+
+/**
+ * Source of the payloads that are served by the {@link IBMQReplayProvider} instead of retrieving them from IBMQ. Each collection of the replay
+ * provider advances the source by one step, so that the sources can provide evolving calibrations and queue sizes.
+ */
+public interface IBMQReplaySource {
+
+    /**
+     * Get the available devices in the format of the IBMQ API
+     *
+     * @param step the step of the replay
+     * @return the available devices
+     */
+    List<Device> getDevices(int step);
+
+    /**
+     * Get the status of the given device containing its queue size
+     *
+     * @param device the device to get the status for
+     * @param step   the step of the replay
+     * @return the status of the device
+     */
+    BackendStatus getBackendStatus(Device device, int step);
+
+    /**
+     * Get the properties of the given device containing its calibration data
+     *
+     * @param device the device to get the properties for
+     * @param step   the step of the replay
+     * @return the properties of the device, or <code>null</code> for simulators
+     */
+    DeviceProperties getDeviceProperties(Device device, int step);
+}
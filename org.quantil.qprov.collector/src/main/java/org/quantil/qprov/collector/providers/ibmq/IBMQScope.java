@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Hub, group, and project on IBMQ, which determine the devices that are accessible with the API token
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class IBMQScope {
+
+    private final String hub;
+
+    private final String group;
+
+    private final String project;
+
+    /**
+     * Parse a scope in the format <code>hub/group/project</code>
+     *
+     * @param scope the scope to parse
+     * @return the parsed scope
+     * @throws IllegalArgumentException if the scope does not consist of a hub, group, and project
+     */
+    public static IBMQScope parse(String scope) {
+        final String[] parts = scope.trim().split("/");
+        if (parts.length != 3 || parts[0].isBlank() || parts[1].isBlank() || parts[2].isBlank()) {
+            throw new IllegalArgumentException("Invalid IBMQ scope '" + scope + "', expected format: hub/group/project");
+        }
+        return new IBMQScope(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    @Override
+    public String toString() {
+        return hub + "/" + group + "/" + project;
+    }
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.quantil.qprov.ibmq.client.model.BackendStatus;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+import org.quantil.qprov.ibmq.client.model.DevicePropsGate;
+import org.quantil.qprov.ibmq.client.model.Gate;
+import org.quantil.qprov.ibmq.client.model.Parameter;
+
+/**
+ * Generates a fleet of QPUs of configurable size in the format of the IBMQ API. The qubits of each QPU are arranged in rows that are
+ * connected every fourth qubit, similar to the heavy-hex layout of IBM QPUs. Each step of the replay advances the simulated time by the
+ * given interval, and the QPUs are recalibrated daily at different times, so that only some of them change from one step to the next. All
+ * values are derived from the seed, the QPU, and its calibration, so that the fleet does not have to be kept in memory.
+ */
+public class IBMQSyntheticFleet implements IBMQReplaySource {
+
+    private static final OffsetDateTime START_TIME = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final Duration CALIBRATION_PERIOD = Duration.ofDays(1);
+
+    private static final List<String> SINGLE_QUBIT_GATES = List.of("id", "rz", "sx", "x");
+
+    private static final String TWO_QUBIT_GATE = "cx";
+
+    private final int qpus;
+
+    private final int qubits;
+
+    private final long seed;
+
+    private final Duration stepInterval;
+
+    public IBMQSyntheticFleet(int qpus, int qubits, long seed, Duration stepInterval) {
+        this.qpus = qpus;
+        this.qubits = qubits;
+        this.seed = seed;
+        this.stepInterval = stepInterval;
+    }
+
+    @Override
+    public List<Device> getDevices(int step) {
+        return IntStream.range(0, qpus).mapToObj(this::createDevice).toList();
+    }
+
+    @Override
+    public BackendStatus getBackendStatus(Device device, int step) {
+        final Random random = new Random(seed ^ ((long) getIndex(device) << 32) ^ step);
+        return new BackendStatus()
+                .state(true)
+                .status(true)
+                .message("active")
+                .backendVersion(device.getBackendVersion())
+                .lengthQueue(BigDecimal.valueOf(random.nextInt(500)));
+    }
+
+    @Override
+    public DeviceProperties getDeviceProperties(Device device, int step) {
+        final int index = getIndex(device);
+        final long calibration = getCalibration(index, step);
+        final OffsetDateTime calibrationTime = START_TIME.plus(getCalibrationOffset(index)).plus(CALIBRATION_PERIOD.multipliedBy(calibration));
+        final Random random = new Random(seed ^ ((long) index << 32) ^ (calibration * 0x9E3779B97F4A7C15L));
+
+        final DeviceProperties deviceProperties = new DeviceProperties()
+                .backendName(device.getBackendName())
+                .backendVersion(device.getBackendVersion())
+                .lastUpdateDate(calibrationTime);
+        for (int qubit = 0; qubit < qubits; qubit++) {
+            final double t1Time = 50 + random.nextDouble() * 250;
+            deviceProperties.addQubitsItem(List.of(
+                    createQubitProperty("T1", t1Time, "us", calibrationTime),
+                    createQubitProperty("T2", t1Time * (0.2 + random.nextDouble()), "us", calibrationTime),
+                    createQubitProperty("readout_error", 0.005 + random.nextDouble() * 0.05, "", calibrationTime)));
+        }
+        for (List<BigDecimal> coupling : getGateCouplings(TWO_QUBIT_GATE)) {
+            deviceProperties.addGatesItem(createGateProperties(TWO_QUBIT_GATE, coupling, 0.005 + random.nextDouble() * 0.03,
+                    200 + random.nextInt(400), calibrationTime));
+        }
+        for (String gate : SINGLE_QUBIT_GATES) {
+            for (List<BigDecimal> coupling : getGateCouplings(gate)) {
+                // rz is a virtual gate without error and duration
+                final boolean virtual = gate.equals("rz");
+                deviceProperties.addGatesItem(createGateProperties(gate, coupling, virtual ? 0 : random.nextDouble() * 0.001,
+                        virtual ? 0 : 35, calibrationTime));
+            }
+        }
+        return deviceProperties;
+    }
+
+    /**
+     * Get the number of calibrations of the given QPU since the start of the replay until the given step
+     *
+     * @param index the index of the QPU in the fleet
+     * @param step  the step of the replay
+     * @return the number of the last calibration, which is -1 if the QPU was not calibrated since the start of the replay
+     */
+    long getCalibration(int index, int step) {
+        final Duration sinceFirstCalibration = stepInterval.multipliedBy(step).minus(getCalibrationOffset(index));
+        return Math.floorDiv(sinceFirstCalibration.toMillis(), CALIBRATION_PERIOD.toMillis());
+    }
+
+    private Duration getCalibrationOffset(int index) {
+        // spread the calibrations of the different QPUs over the day
+        return CALIBRATION_PERIOD.multipliedBy(index).dividedBy(qpus);
+    }
+
+    private Device createDevice(int index) {
+        final Device device = new Device()
+                .backendName(String.format("%s%03d", IBMQConstants.REPLAY_QPU_PREFIX, index))
+                .backendVersion("1.0.0")
+                .nQubits(BigDecimal.valueOf(qubits))
+                .maxShots(BigDecimal.valueOf(100000))
+                .simulator(false)
+                .couplingMap(getGateCouplings(TWO_QUBIT_GATE))
+                .basisGates(new ArrayList<>(SINGLE_QUBIT_GATES));
+        device.addBasisGatesItem(TWO_QUBIT_GATE);
+        device.addGatesItem(new Gate().name(TWO_QUBIT_GATE).couplingMap(getGateCouplings(TWO_QUBIT_GATE)));
+        for (String gate : SINGLE_QUBIT_GATES) {
+            device.addGatesItem(new Gate().name(gate).couplingMap(getGateCouplings(gate)));
+        }
+        return device;
+    }
+
+    private List<List<BigDecimal>> getGateCouplings(String gate) {
+        if (!gate.equals(TWO_QUBIT_GATE)) {
+            return IntStream.range(0, qubits).mapToObj(qubit -> List.of(BigDecimal.valueOf(qubit))).toList();
+        }
+
+        // qubits are connected to their neighbours in a row and every fourth qubit to the qubit in the next row, in both directions like IBMQ
+        final int rowLength = Math.max(4, (int) Math.ceil(Math.sqrt(qubits)));
+        final List<List<BigDecimal>> couplings = new ArrayList<>();
+        for (int qubit = 0; qubit < qubits; qubit++) {
+            if ((qubit + 1) % rowLength != 0 && qubit + 1 < qubits) {
+                addCoupling(couplings, qubit, qubit + 1);
+            }
+            if (qubit % 4 == 0 && qubit + rowLength < qubits) {
+                addCoupling(couplings, qubit, qubit + rowLength);
+            }
+        }
+        return couplings;
+    }
+
+    private static void addCoupling(List<List<BigDecimal>> couplings, int first, int second) {
+        couplings.add(List.of(BigDecimal.valueOf(first), BigDecimal.valueOf(second)));
+        couplings.add(List.of(BigDecimal.valueOf(second), BigDecimal.valueOf(first)));
+    }
+
+    private static int getIndex(Device device) {
+        return Integer.parseInt(device.getBackendName().substring(IBMQConstants.REPLAY_QPU_PREFIX.length()));
+    }
+
+    private static Map<String, Object> createQubitProperty(String name, double value, String unit, OffsetDateTime date) {
+        return Map.of("name", name, "value", value, "unit", unit, "date", date.toString());
+    }
+
+    private static DevicePropsGate createGateProperties(String gate, List<BigDecimal> qubits, double error, int length, OffsetDateTime date) {
+        return new DevicePropsGate()
+                .gate(gate)
+                .name(gate + qubits.stream().map(BigDecimal::toString).reduce((first, second) -> first + "_" + second).orElse(""))
+                .qubits(qubits)
+                .addParametersItem(new Parameter().name("gate_error").value(BigDecimal.valueOf(error)).unit("").date(date))
+                .addParametersItem(new Parameter().name("gate_length").value(BigDecimal.valueOf(length)).unit("ns").date(date));
+    }
+}
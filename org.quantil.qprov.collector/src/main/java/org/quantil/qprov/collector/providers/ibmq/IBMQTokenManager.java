@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.quantil.qprov.ibmq.client.ApiClient;
+import org.quantil.qprov.ibmq.client.ApiException;
+import org.quantil.qprov.ibmq.client.api.LoginApi;
+import org.quantil.qprov.ibmq.client.model.AccessToken;
+import org.quantil.qprov.ibmq.client.model.ApiToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Caches the short-lived access token obtained from IBMQ with the API token and refreshes it before it expires. If multiple collections
+ * require a new token at the same time, only one of them logs in and the others wait for its result. While the cached token is still valid,
+ * only the collection performing the refresh waits for it.
+ * <p>
+ * The token manager is also an interceptor for the clients accessing the IBMQ API, which adds the current access token to each request, so
+ * that the authentication of the shared clients never has to be changed.
+ */
+@Component
+public class IBMQTokenManager implements Interceptor {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final String ACCESS_TOKEN_PARAMETER = "access_token";
+
+    private final ApiClient authClient;
+
+    private final String apiToken;
+
+    private final Duration refreshMargin;
+
+    private final Clock clock;
+
+    private final Object lock = new Object();
+
+    private volatile CachedToken cachedToken;
+
+    // the login that is currently running, guarded by the lock
+    private CompletableFuture<CachedToken> pendingRefresh;
+
+    @Autowired
+    public IBMQTokenManager(@Value("${qprov.ibmq.token}") String apiToken,
+                            @Value("${qprov.ibmq.token-refresh-margin}") Integer refreshMargin) {
+        this(IBMQConstants.IBMQ_AUTH_URL, apiToken, Duration.ofSeconds(refreshMargin), Clock.systemUTC());
+    }
+
+    IBMQTokenManager(String authUrl, String apiToken, Duration refreshMargin, Clock clock) {
+        this.authClient = new ApiClient();
+        this.authClient.setBasePath(authUrl);
+        this.apiToken = apiToken;
+        this.refreshMargin = refreshMargin;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a valid access token, which is retrieved from IBMQ if no token is cached or the cached token expires soon
+     *
+     * @return the access token
+     * @throws ApiException if no valid token is cached and the login at IBMQ fails
+     */
+    public String getAccessToken() throws ApiException {
+        final CachedToken current = cachedToken;
+        final Instant now = clock.instant();
+        if (Objects.nonNull(current) && now.isBefore(current.getRefreshTime())) {
+            return current.getId();
+        }
+
+        final CompletableFuture<CachedToken> refresh;
+        boolean refreshing = false;
+        synchronized (lock) {
+            if (Objects.nonNull(cachedToken) && now.isBefore(cachedToken.getRefreshTime())) {
+                // refreshed by another collection in the meantime
+                return cachedToken.getId();
+            }
+            if (Objects.isNull(pendingRefresh)) {
+                pendingRefresh = new CompletableFuture<>();
+                refreshing = true;
+            }
+            refresh = pendingRefresh;
+        }
+
+        if (refreshing) {
+            refresh(refresh);
+        } else if (Objects.nonNull(current) && now.isBefore(current.getExpiryTime())) {
+            // the cached token can still be used while another collection refreshes it
+            return current.getId();
+        }
+
+        try {
+            return refresh.join().getId();
+        } catch (CompletionException e) {
+            if (Objects.nonNull(current) && clock.instant().isBefore(current.getExpiryTime())) {
+                logger.warn("Refreshing IBMQ access token failed, using cached token until it expires: {}",
+                        e.getCause().getLocalizedMessage());
+                return current.getId();
+            }
+            if (e.getCause() instanceof ApiException) {
+                throw (ApiException) e.getCause();
+            }
+            throw new ApiException(e.getCause());
+        }
+    }
+
+    /**
+     * Discard the given access token, e.g., because it was rejected by IBMQ, so that a new one is retrieved for the next request
+     *
+     * @param accessToken the access token to discard
+     */
+    public void invalidate(String accessToken) {
+        synchronized (lock) {
+            if (Objects.nonNull(cachedToken) && cachedToken.getId().equals(accessToken)) {
+                logger.debug("Invalidating IBMQ access token.");
+                cachedToken = null;
+            }
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final String accessToken = getAccessTokenForRequest();
+        final Response response = chain.proceed(withAccessToken(chain.request(), accessToken));
+        if (response.code() != HttpURLConnection.HTTP_UNAUTHORIZED) {
+            return response;
+        }
+
+        // the token was revoked before its expiry, so retry once with a new one
+        logger.debug("IBMQ rejected access token, retrying request with a new token.");
+        response.close();
+        invalidate(accessToken);
+        return chain.proceed(withAccessToken(chain.request(), getAccessTokenForRequest()));
+    }
+
+    private String getAccessTokenForRequest() throws IOException {
+        try {
+            return getAccessToken();
+        } catch (ApiException e) {
+            throw new IOException("Unable to retrieve IBMQ access token: " + e.getLocalizedMessage(), e);
+        }
+    }
+
+    private static Request withAccessToken(Request request, String accessToken) {
+        final HttpUrl url = request.url().newBuilder().setQueryParameter(ACCESS_TOKEN_PARAMETER, accessToken).build();
+        return request.newBuilder().url(url).build();
+    }
+
+    private void refresh(CompletableFuture<CachedToken> refresh) {
+        try {
+            final Instant requested = clock.instant();
+            final ApiToken token = new ApiToken();
+            token.setApiToken(apiToken);
+
+            logger.debug("Retrieving new IBMQ access token with the API token...");
+            final AccessToken accessToken = new LoginApi(authClient).loginLoginWithApiToken(token);
+            final Duration ttl = Objects.nonNull(accessToken.getTtl())
+                    ? Duration.ofSeconds(accessToken.getTtl().longValue()) : IBMQConstants.IBMQ_DEFAULT_ACCESS_TOKEN_TTL;
+
+            // the time to live starts before the token is received, so the expiry is computed from the time of the request, and tokens
+            // living shorter than twice the refresh margin are refreshed after half of their time to live
+            final Duration refreshAfter = ttl.compareTo(refreshMargin.multipliedBy(2)) > 0 ? ttl.minus(refreshMargin) : ttl.dividedBy(2);
+            final CachedToken newToken = new CachedToken(accessToken.getId(), requested.plus(ttl), requested.plus(refreshAfter));
+            cachedToken = newToken;
+            logger.debug("Retrieved IBMQ access token valid until {}", newToken.getExpiryTime());
+            refresh.complete(newToken);
+        } catch (ApiException | RuntimeException e) {
+            logger.error("Error while authenticating at IBMQ: {}", e.getLocalizedMessage());
+            refresh.completeExceptionally(e);
+        } finally {
+            synchronized (lock) {
+                pendingRefresh = null;
+            }
+        }
+    }
+
+    /**
+     * An access token with the time at which it should be refreshed and the time at which it expires
+     */
+    private static final class CachedToken {
+
+        private final String id;
+
+        private final Instant expiryTime;
+
+        private final Instant refreshTime;
+
+        private CachedToken(String id, Instant expiryTime, Instant refreshTime) {
+            this.id = id;
+            this.expiryTime = expiryTime;
+            this.refreshTime = refreshTime;
+        }
+
+        private String getId() {
+            return id;
+        }
+
+        private Instant getExpiryTime() {
+            return expiryTime;
+        }
+
+        private Instant getRefreshTime() {
+            return refreshTime;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Optional;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.quantil.qprov.collector.CollectionStatistics;
+
+/**
+ * Attributes the requests sent to the IBMQ API and the size of their responses to the collection run the request is sent for. The response
+ * body is counted while it is read by the client, so that it does not have to be buffered.
+ */
+class IBMQTrafficInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Response response = chain.proceed(chain.request());
+
+        // requests sent by the dispatcher of the client carry the statistics of their collection run, otherwise the request is sent and the
+        // response is read by the thread executing the operation of the collection run
+        final CollectionStatistics statistics = Optional.ofNullable(chain.request().tag(CollectionStatistics.class))
+                .or(CollectionStatistics::current).orElse(null);
+        if (Objects.isNull(statistics)) {
+            return response;
+        }
+        statistics.apiCallMade(0);
+
+        final ResponseBody body = response.body();
+        if (Objects.isNull(body)) {
+            return response;
+        }
+        final BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                final long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    statistics.bytesDownloaded(read);
+                }
+                return read;
+            }
+        });
+        return response.newBuilder().body(ResponseBody.create(source, body.contentType(), body.contentLength())).build();
+    }
+}
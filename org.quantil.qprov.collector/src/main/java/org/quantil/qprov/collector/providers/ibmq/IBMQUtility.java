@@ -21,11 +21,17 @@ package org.quantil.qprov.collector.providers.ibmq;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.quantil.qprov.collector.QPUFingerprint;
 import org.quantil.qprov.core.model.entities.Gate;
 import org.quantil.qprov.core.model.entities.Qubit;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
 import org.quantil.qprov.ibmq.client.model.DevicePropsGate;
 
 import org.apache.logging.log4j.LogManager;
@@ -35,30 +41,6 @@ public abstract class IBMQUtility {
 
     protected static final Logger logger = LogManager.getLogger();
 
-    /**
-     * Parse the objects returned by IBM to a Java Map
-     *
-     * @param propertiesList the propertiesList as provided by the IBM API
-     * @return the Map containing the data from the provided properties list
-     */
-    public static Map<String, String> transformIbmPropertiesToMap(Object propertiesList) {
-        final String[] propertiesArray = propertiesList.toString()
-                .replaceAll("\\s+", "")
-                .replaceAll("\\{", "")
-                .replaceAll("}", "")
-                .split(",");
-
-        final Map<String, String> map = new HashMap<>();
-        for (String property : propertiesArray) {
-            final String[] propertyParts = property.split("=");
-            if (propertyParts.length != 2) {
-                continue;
-            }
-            map.put(propertyParts[0], propertyParts[1]);
-        }
-        return map;
-    }
-
     /**
      * Check whether the given gate from the QProv data model operates on the same set of qubits than the gate for which the characteristics were
      * retrieved from IBM
@@ -94,4 +76,72 @@ public abstract class IBMQUtility {
 
         return true;
     }
+
+    /**
+     * Index the gate properties retrieved from IBM by the name of the gate and the qubits it operates on, so that the properties of a gate
+     * from the QProv data model can be looked up without comparing it with all retrieved gate properties
+     *
+     * @param ibmGateProperties the properties of all gates of a QPU retrieved from IBM
+     * @return the Map containing the gate properties by their gate key
+     */
+    public static Map<String, DevicePropsGate> indexGateProperties(List<DevicePropsGate> ibmGateProperties) {
+        final Map<String, DevicePropsGate> index = new HashMap<>(ibmGateProperties.size() * 2);
+        for (DevicePropsGate gateProperties : ibmGateProperties) {
+            if (Objects.isNull(gateProperties.getQubits())) {
+                logger.warn("Qubits in IBM gate properties are null for gate with name: {}!", gateProperties.getGate());
+                continue;
+            }
+
+            // gates operating on the same qubits in a different order share their properties, keep the first ones as done before
+            index.putIfAbsent(getGateKey(gateProperties.getGate(), gateProperties.getQubits().stream().map(BigDecimal::toString)), gateProperties);
+        }
+        return index;
+    }
+
+    /**
+     * Get the key identifying the given gate from the QProv data model in the index of the IBM gate properties
+     *
+     * @param gate the gate from the QPov data model
+     * @return the key of the gate
+     */
+    public static String getGateKey(Gate gate) {
+        return getGateKey(gate.getName(), gate.getOperatingQubits().stream().map(Qubit::getName));
+    }
+
+    /**
+     * Compute the fingerprint of the given device from the configuration that is stored in the QProv data model and the calibration time
+     *
+     * @param device           the device to compute the fingerprint for
+     * @param deviceProperties the properties of the device, or <code>null</code> for simulators
+     * @return the fingerprint of the device
+     */
+    public static String getFingerprint(Device device, DeviceProperties deviceProperties) {
+        final QPUFingerprint fingerprint = new QPUFingerprint()
+                .add("name", device.getBackendName())
+                .add("version", device.getBackendVersion())
+                .add("qubits", device.getnQubits())
+                .add("maxShots", device.getMaxShots())
+                .add("simulator", device.getSimulator());
+
+        // coupling maps are normalized as the stored qubits and gates neither depend on the order nor on duplicates
+        if (Objects.nonNull(device.getCouplingMap())) {
+            fingerprint.addSorted("couplingMap", device.getCouplingMap().stream()
+                    .map(coupling -> getGateKey("", coupling.stream().map(BigDecimal::toString)))
+                    .collect(Collectors.toSet()));
+        }
+        if (Objects.nonNull(device.getGates())) {
+            fingerprint.addSorted("gates", device.getGates().stream()
+                    .flatMap(ibmGate -> ibmGate.getCouplingMap().stream()
+                            .map(coupling -> getGateKey(ibmGate.getName(), coupling.stream().map(BigDecimal::toString))))
+                    .collect(Collectors.toSet()));
+        }
+        if (Objects.nonNull(deviceProperties)) {
+            fingerprint.add("calibrationTime", deviceProperties.getLastUpdateDate());
+        }
+        return fingerprint.build();
+    }
+
+    private static String getGateKey(String gateName, Stream<String> qubitNames) {
+        return qubitNames.sorted().collect(Collectors.joining(",", gateName + "[", "]"));
+    }
 }
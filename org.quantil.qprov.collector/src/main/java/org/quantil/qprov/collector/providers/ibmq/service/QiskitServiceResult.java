@@ -23,9 +23,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Result of a calculation by the Qiskit service, which is read using the {@link QiskitServiceResultParser}
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,5 +35,8 @@ public class QiskitServiceResult {
 
     private boolean complete;
 
-    private Map<String, Object> result = new HashMap<>();
+    // entries of the square calibration matrix in row-major order, null if not contained in the result
+    private double[] calibrationMatrix;
+
+    private int calibrationMatrixDimension;
 }
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.quantil.qprov.collector.providers.ibmq.IBMQConstants;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Parses the result of a calculation by the Qiskit service incrementally while the response is received. The entries of the calibration
+ * matrix are read as a stream of JSON numbers directly into a primitive array, all other parts of the result are skipped. The matrix can
+ * either be contained as nested JSON array or as string containing the nested array.
+ */
+public class QiskitServiceResultParser {
+
+    // matrices embedded as string exceed the default maximum string length for 12 qubits already
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder().maxStringLength(Integer.MAX_VALUE).build())
+            .build();
+
+    // tolerance for the sums of the probability distributions contained in the calibration matrix
+    private static final double STOCHASTIC_TOLERANCE = 1e-6;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private String id;
+
+    private boolean complete;
+
+    // entries of the calibration matrix in row-major order, null if the result does not contain a matrix
+    private double[] entries;
+
+    private int size;
+
+    private int rows;
+
+    private int columns;
+
+    private int rowStart;
+
+    private boolean inMatrix;
+
+    private boolean inRow;
+
+    public QiskitServiceResultParser() throws IOException {
+        this.parser = FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parse a complete result of the Qiskit service
+     *
+     * @param content the raw JSON result
+     * @return the parsed result
+     * @throws IOException if the result is not valid JSON or contains an invalid calibration matrix
+     */
+    public static QiskitServiceResult parse(byte[] content) throws IOException {
+        final QiskitServiceResultParser resultParser = new QiskitServiceResultParser();
+        resultParser.feed(content);
+        return resultParser.finish();
+    }
+
+    /**
+     * Parse the next chunk of the result. The chunk must not be modified afterwards, as it is not copied by the parser.
+     *
+     * @param chunk the next bytes of the result
+     * @throws IOException if the chunk is not valid JSON
+     */
+    public void feed(byte[] chunk) throws IOException {
+        feeder.feedInput(chunk, 0, chunk.length);
+        readAvailableTokens();
+    }
+
+    /**
+     * Finish parsing after the complete result was passed to the parser
+     *
+     * @return the parsed result
+     * @throws IOException if the result is incomplete or contains an invalid calibration matrix
+     */
+    public QiskitServiceResult finish() throws IOException {
+        feeder.endOfInput();
+        readAvailableTokens();
+        parser.close();
+        return new QiskitServiceResult(id, complete, getValidatedMatrix(), rows);
+    }
+
+    private void readAvailableTokens() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (inMatrix) {
+                readMatrixToken(parser, token);
+                continue;
+            }
+
+            final JsonStreamContext context = parser.getParsingContext();
+            switch (token) {
+                case VALUE_STRING:
+                    if (isResultField(context, "id")) {
+                        id = parser.getText();
+                    } else if (isMatrixField(context)) {
+                        readEmbeddedMatrix(parser.getText());
+                    }
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    if (isResultField(context, "complete")) {
+                        complete = token == JsonToken.VALUE_TRUE;
+                    }
+                    break;
+                case START_ARRAY:
+                    if (isMatrixField(context.getParent())) {
+                        startMatrix();
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static boolean isResultField(JsonStreamContext context, String name) {
+        return context.inObject() && name.equals(context.getCurrentName()) && context.getParent().inRoot();
+    }
+
+    private static boolean isMatrixField(JsonStreamContext context) {
+        return context.inObject() && IBMQConstants.QISKIT_SERVICE_RESULT_VARIABLE.equals(context.getCurrentName())
+                && isResultField(context.getParent(), "result");
+    }
+
+    private void readEmbeddedMatrix(String matrix) throws IOException {
+        try (JsonParser embeddedParser = FACTORY.createParser(matrix)) {
+            JsonToken token = embeddedParser.nextToken();
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(embeddedParser, "Calibration matrix is not an array");
+            }
+            startMatrix();
+            while (inMatrix && (token = embeddedParser.nextToken()) != null) {
+                readMatrixToken(embeddedParser, token);
+            }
+        }
+    }
+
+    private void startMatrix() {
+        entries = new double[INITIAL_CAPACITY];
+        size = 0;
+        rows = 0;
+        columns = -1;
+        inMatrix = true;
+        inRow = false;
+    }
+
+    private void readMatrixToken(JsonParser matrixParser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_ARRAY:
+                if (inRow) {
+                    throw new JsonParseException(matrixParser, "Calibration matrix has more than two dimensions");
+                }
+                inRow = true;
+                rowStart = size;
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                if (!inRow) {
+                    throw new JsonParseException(matrixParser, "Calibration matrix is not an array of rows");
+                }
+                if (size == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                entries[size++] = matrixParser.getDoubleValue();
+                break;
+            case END_ARRAY:
+                if (inRow) {
+                    finishRow(matrixParser);
+                } else {
+                    inMatrix = false;
+                }
+                break;
+            default:
+                throw new JsonParseException(matrixParser, "Unexpected token in calibration matrix: " + token);
+        }
+    }
+
+    private void finishRow(JsonParser matrixParser) throws IOException {
+        final int rowLength = size - rowStart;
+        if (columns < 0) {
+            // the matrix has to be square, so the required capacity is known after the first row
+            columns = rowLength;
+            if (entries.length < columns * columns) {
+                entries = Arrays.copyOf(entries, columns * columns);
+            }
+        } else if (rowLength != columns) {
+            throw new JsonParseException(matrixParser,
+                    String.format("Row %d of the calibration matrix has %d instead of %d entries", rows, rowLength, columns));
+        }
+        rows++;
+        inRow = false;
+    }
+
+    /**
+     * Check that the parsed matrix is square and stochastic. Depending on the convention used to calculate the matrix, either the rows or
+     * the columns are probability distributions.
+     *
+     * @return the entries of the matrix, or <code>null</code> if the result does not contain a matrix
+     */
+    private double[] getValidatedMatrix() throws IOException {
+        if (Objects.isNull(entries)) {
+            return null;
+        }
+        if (inMatrix) {
+            throw new IOException("Calibration matrix is incomplete");
+        }
+        if (rows == 0) {
+            throw new IOException("Calibration matrix is empty");
+        }
+        if (rows != columns) {
+            throw new IOException(String.format("Calibration matrix is not square: %d rows and %d columns", rows, columns));
+        }
+
+        final double[] columnSums = new double[columns];
+        boolean rowStochastic = true;
+        for (int row = 0; row < rows; row++) {
+            double rowSum = 0;
+            for (int column = 0; column < columns; column++) {
+                final double entry = entries[row * columns + column];
+                if (!(entry >= -STOCHASTIC_TOLERANCE && entry <= 1 + STOCHASTIC_TOLERANCE)) {
+                    throw new IOException(
+                            String.format("Entry (%d, %d) of the calibration matrix is not a probability: %s", row, column, entry));
+                }
+                rowSum += entry;
+                columnSums[column] += entry;
+            }
+            rowStochastic &= Math.abs(rowSum - 1) <= STOCHASTIC_TOLERANCE;
+        }
+        final boolean columnStochastic = Arrays.stream(columnSums).allMatch(sum -> Math.abs(sum - 1) <= STOCHASTIC_TOLERANCE);
+        if (!rowStochastic && !columnStochastic) {
+            throw new IOException("Calibration matrix is not stochastic");
+        }
+
+        return size == entries.length ? entries : Arrays.copyOf(entries, size);
+    }
+}
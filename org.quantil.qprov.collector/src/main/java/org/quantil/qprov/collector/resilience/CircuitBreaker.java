@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Circuit breaker for the requests to the API of a provider. After a number of consecutive failed requests, the circuit is opened and no
+ * further requests are sent to the provider for a while, so that the collections fail fast and the last collected data is kept in the
+ * database. Afterwards, a single trial request is permitted, which closes the circuit if it succeeds and opens it again otherwise.
+ */
+public class CircuitBreaker {
+
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final String providerId;
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private Instant openedAt;
+
+    // only a single trial request is permitted while the circuit is half-open
+    private boolean trialPending;
+
+    public CircuitBreaker(String providerId, int failureThreshold, Duration openDuration, Clock clock) {
+        this.providerId = providerId;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if a request may be sent to the provider. Every permitted request must be reported by {@link #onSuccess()} or
+     * {@link #onFailure()}.
+     *
+     * @return <code>true</code> if the request may be sent, <code>false</code> if the circuit is open
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            logger.info("Circuit breaker of provider {} is half-open, permitting a trial request", providerId);
+            state = State.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                final boolean permitted = !trialPending;
+                trialPending = true;
+                yield permitted;
+            }
+        };
+    }
+
+    /**
+     * Report a successful request, i.e., a request the provider responded to, which closes the circuit
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Circuit breaker of provider {} is closed again", providerId);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialPending = false;
+    }
+
+    /**
+     * Report a failed request, i.e., a request that timed out, could not be sent, or was answered with a server error
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialPending = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("Circuit breaker of provider {} is open after {} consecutive failed requests. Pausing requests for {} s",
+                    providerId, consecutiveFailures, openDuration.toSeconds());
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    /**
+     * Check if the circuit is open, so that requests to the provider are rejected without being sent
+     *
+     * @return <code>true</code> if the circuit is open and no trial request is permitted yet, <code>false</code> otherwise
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && clock.instant().isBefore(openedAt.plus(openDuration));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+}
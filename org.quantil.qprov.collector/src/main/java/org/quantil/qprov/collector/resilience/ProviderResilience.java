@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.OkHttpClient;
+
+/**
+ * Provides the timeouts and retry settings for the clients of the provider APIs as well as one {@link CircuitBreaker} per provider, so
+ * that an unresponsive provider neither blocks its collections indefinitely nor is flooded with requests while it is unhealthy.
+ */
+@Component
+public class ProviderResilience {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final Duration connectTimeout;
+
+    private final Duration readTimeout;
+
+    private final Duration requestTimeout;
+
+    private final int maxRetries;
+
+    private final Duration retryBackoff;
+
+    private final Duration hedgeDelay;
+
+    private final int failureThreshold;
+
+    private final Duration openDuration;
+
+    public ProviderResilience(MeterRegistry meterRegistry,
+                              @Value("${qprov.collector.resilience.connect-timeout}") Integer connectTimeout,
+                              @Value("${qprov.collector.resilience.read-timeout}") Integer readTimeout,
+                              @Value("${qprov.collector.resilience.request-timeout}") Integer requestTimeout,
+                              @Value("${qprov.collector.resilience.max-retries}") Integer maxRetries,
+                              @Value("${qprov.collector.resilience.retry-backoff}") Integer retryBackoff,
+                              @Value("${qprov.collector.resilience.hedge-delay}") Integer hedgeDelay,
+                              @Value("${qprov.collector.resilience.circuit-breaker.failure-threshold}") Integer failureThreshold,
+                              @Value("${qprov.collector.resilience.circuit-breaker.open-duration}") Integer openDuration) {
+        this.meterRegistry = meterRegistry;
+        this.connectTimeout = Duration.ofSeconds(connectTimeout);
+        this.readTimeout = Duration.ofSeconds(readTimeout);
+        this.requestTimeout = Duration.ofSeconds(requestTimeout);
+        this.maxRetries = maxRetries;
+        this.retryBackoff = Duration.ofMillis(retryBackoff);
+        this.hedgeDelay = Duration.ofMillis(hedgeDelay);
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Duration.ofSeconds(openDuration);
+    }
+
+    /**
+     * Get the circuit breaker for the requests to the given provider, which is created on first use
+     *
+     * @param providerId the ID of the provider
+     * @return the circuit breaker shared by all clients of the provider
+     */
+    public CircuitBreaker getCircuitBreaker(String providerId) {
+        return circuitBreakers.computeIfAbsent(providerId, this::createCircuitBreaker);
+    }
+
+    private CircuitBreaker createCircuitBreaker(String providerId) {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker(providerId, failureThreshold, openDuration, Clock.systemUTC());
+        Gauge.builder("qprov.provider.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker of the provider (0 = closed, 1 = half-open, 2 = open)")
+                .tag("provider", providerId)
+                .register(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Apply the configured timeouts to the given builder of an HTTP client
+     *
+     * @param builder the builder of the client
+     * @return the given builder
+     */
+    public OkHttpClient.Builder applyTimeouts(OkHttpClient.Builder builder) {
+        return builder.connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(readTimeout)
+                .callTimeout(requestTimeout);
+    }
+
+    /**
+     * Get the delay before the given retry of a request, which grows exponentially with the number of retries and is drawn uniformly from
+     * zero to this bound, so that the retries of concurrent requests are spread over time instead of hitting the provider at once
+     *
+     * @param retry the number of the retry, starting at zero
+     * @return the delay to wait before sending the retry
+     */
+    public Duration getRetryDelay(int retry) {
+        final long bound = retryBackoff.toMillis() << Math.min(retry, 16);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+}
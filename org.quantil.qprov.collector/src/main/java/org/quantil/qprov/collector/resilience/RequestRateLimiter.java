@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of the requests to the API of a provider by spacing the permits evenly, so that bulk retrievals, such as backfills, can
+ * send their requests concurrently without exceeding the rate limits of the provider.
+ */
+public class RequestRateLimiter {
+
+    private final long intervalNanos;
+
+    private long nextPermit = System.nanoTime();
+
+    /**
+     * Create a rate limiter with the given rate
+     *
+     * @param permitsPerSecond the maximum number of requests per second, or a value less than or equal to 0 to not limit the requests
+     */
+    public RequestRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    /**
+     * Wait until the next request may be sent
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        final long waitNanos;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            final long permit = Math.max(now, nextPermit);
+            nextPermit = permit + intervalNanos;
+            waitNanos = permit - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
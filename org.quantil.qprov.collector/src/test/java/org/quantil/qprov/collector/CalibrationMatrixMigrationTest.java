@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quantil.qprov.core.model.entities.CalibrationMatrix;
+import org.quantil.qprov.core.repositories.CalibrationMatrixRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CalibrationMatrixMigrationTest {
+
+    private final CalibrationMatrixRepository calibrationMatrixRepository = Mockito.mock(CalibrationMatrixRepository.class);
+
+    private final CalibrationMatrixMigration migration =
+            new CalibrationMatrixMigration(calibrationMatrixRepository, Mockito.mock(PlatformTransactionManager.class));
+
+    @Test
+    public void testLegacyMatricesAreConverted() {
+        final List<CalibrationMatrix> calibrationMatrices = IntStream.range(0, 25).mapToObj(i -> createLegacyMatrix(i / 100.0)).toList();
+
+        // the repository returns the matrices that still contain the legacy column, like the query after each committed batch
+        when(calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNull(any())).thenAnswer(invocation ->
+                calibrationMatrices.stream()
+                        .filter(matrix -> Objects.nonNull(ReflectionTestUtils.getField(matrix, "legacyCalibrationMatrix")))
+                        .limit(invocation.getArgument(0, Pageable.class).getPageSize())
+                        .toList());
+        migration.run(null);
+
+        for (int i = 0; i < calibrationMatrices.size(); i++) {
+            final CalibrationMatrix calibrationMatrix = calibrationMatrices.get(i);
+            assertNull(ReflectionTestUtils.getField(calibrationMatrix, "legacyCalibrationMatrix"));
+            assertNotNull(calibrationMatrix.getData());
+            assertEquals(createRows(i / 100.0), calibrationMatrix.getCalibrationMatrix());
+        }
+        verify(calibrationMatrixRepository, times(4)).findByLegacyCalibrationMatrixIsNotNull(any());
+        verify(calibrationMatrixRepository, times(4)).saveAll(any());
+    }
+
+    @Test
+    public void testUnconvertibleMatrixIsSkipped() {
+        final List<CalibrationMatrix> calibrationMatrices = IntStream.range(0, 25).mapToObj(i -> createLegacyMatrix(i / 100.0)).toList();
+        calibrationMatrices.forEach(matrix -> matrix.setDatabaseId(UUID.randomUUID()));
+
+        // rows of different lengths are rejected by the binary format
+        final CalibrationMatrix unconvertible = calibrationMatrices.get(3);
+        final Vector<Vector<Double>> raggedRows = createRows(0.5);
+        raggedRows.get(1).add(0.0);
+        ReflectionTestUtils.setField(unconvertible, "legacyCalibrationMatrix", raggedRows);
+
+        when(calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNull(any())).thenAnswer(invocation ->
+                findLegacyMatrices(calibrationMatrices, List.of(), invocation.getArgument(0, Pageable.class)));
+        when(calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNullAndDatabaseIdNotIn(any(), any())).thenAnswer(invocation ->
+                findLegacyMatrices(calibrationMatrices, invocation.getArgument(0, Collection.class),
+                        invocation.getArgument(1, Pageable.class)));
+        final List<CalibrationMatrix> saved = new ArrayList<>();
+        when(calibrationMatrixRepository.saveAll(any())).thenAnswer(invocation -> {
+            saved.addAll(invocation.getArgument(0, Collection.class));
+            return invocation.getArgument(0);
+        });
+        migration.run(null);
+
+        // the remaining matrices are converted and the unconvertible one is neither saved nor selected again
+        assertEquals(raggedRows, ReflectionTestUtils.getField(unconvertible, "legacyCalibrationMatrix"));
+        assertNull(unconvertible.getData());
+        assertEquals(calibrationMatrices.size() - 1, saved.size());
+        assertFalse(saved.contains(unconvertible));
+        calibrationMatrices.stream().filter(matrix -> matrix != unconvertible)
+                .forEach(matrix -> assertNull(ReflectionTestUtils.getField(matrix, "legacyCalibrationMatrix")));
+        verify(calibrationMatrixRepository, times(1)).findByLegacyCalibrationMatrixIsNotNull(any());
+        verify(calibrationMatrixRepository, times(3)).findByLegacyCalibrationMatrixIsNotNullAndDatabaseIdNotIn(any(), any());
+    }
+
+    @Test
+    public void testMatrixInBinaryFormatIsKept() {
+        final CalibrationMatrix calibrationMatrix = createLegacyMatrix(0.1);
+        calibrationMatrix.setCalibrationMatrix(new double[] {1, 0, 0, 1}, 2, 2);
+
+        // the binary matrix was written after the legacy matrix, so only the legacy column is cleared
+        calibrationMatrix.migrateLegacyCalibrationMatrix();
+        assertNull(ReflectionTestUtils.getField(calibrationMatrix, "legacyCalibrationMatrix"));
+        assertEquals(List.of(List.of(1.0, 0.0), List.of(0.0, 1.0)), calibrationMatrix.getCalibrationMatrix());
+    }
+
+    @Test
+    public void testFailedMigrationDoesNotPreventStartup() {
+        when(calibrationMatrixRepository.findByLegacyCalibrationMatrixIsNotNull(any())).thenThrow(new IllegalStateException("Failed"));
+        assertDoesNotThrow(() -> migration.run(null));
+    }
+
+    private static List<CalibrationMatrix> findLegacyMatrices(List<CalibrationMatrix> calibrationMatrices, Collection<?> excludedIds,
+                                                              Pageable pageable) {
+        return calibrationMatrices.stream()
+                .filter(matrix -> Objects.nonNull(ReflectionTestUtils.getField(matrix, "legacyCalibrationMatrix")))
+                .filter(matrix -> !excludedIds.contains(matrix.getDatabaseId()))
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    private static CalibrationMatrix createLegacyMatrix(double error) {
+        final CalibrationMatrix calibrationMatrix = new CalibrationMatrix();
+        ReflectionTestUtils.setField(calibrationMatrix, "legacyCalibrationMatrix", createRows(error));
+        return calibrationMatrix;
+    }
+
+    private static Vector<Vector<Double>> createRows(double error) {
+        final Vector<Vector<Double>> rows = new Vector<>();
+        rows.add(new Vector<>(List.of(1 - error, error)));
+        rows.add(new Vector<>(List.of(error, 1 - error)));
+        return rows;
+    }
+}
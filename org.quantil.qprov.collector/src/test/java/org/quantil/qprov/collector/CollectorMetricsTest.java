@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.quantil.qprov.collector.jobs.CollectionType;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CollectorMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CollectorMetrics collectorMetrics = new CollectorMetrics(meterRegistry);
+
+    @Test
+    public void testPhasesAreTaggedWithTheirOutcome() {
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertEquals("details", collectorMetrics.time("ibmq", CollectionPhase.QPU_FETCH, statistics, () -> "details"));
+        assertThrows(IllegalStateException.class, () -> collectorMetrics.time("ibmq", CollectionPhase.QPU_FETCH, statistics, () -> {
+            throw new IllegalStateException("API not available");
+        }));
+        assertFalse(collectorMetrics.timeStatus("ibmq", CollectionPhase.AUTHENTICATION, statistics, () -> false));
+
+        assertEquals(1, getPhaseCount("ibmq", CollectionPhase.QPU_FETCH, "success"));
+        assertEquals(1, getPhaseCount("ibmq", CollectionPhase.QPU_FETCH, "error"));
+        assertEquals(1, getPhaseCount("ibmq", CollectionPhase.AUTHENTICATION, "error"));
+        assertEquals(3, meterRegistry.get("qprov.collection.phase").timers().size());
+
+        assertEquals(2, statistics.getFailures());
+        assertEquals(Set.of("authentication", "qpu_fetch"), statistics.getPhaseDurations().keySet());
+    }
+
+    @Test
+    public void testRequestsAreAttributedToTheRunOfTheOperation() {
+        final CollectionStatistics statistics = new CollectionStatistics();
+        collectorMetrics.time("aws", CollectionPhase.DEVICE_LISTING, statistics,
+                () -> CollectionStatistics.current().orElseThrow().apiCallMade(512));
+        collectorMetrics.time("aws", CollectionPhase.QPU_FETCH, statistics, () -> {
+            // nested operations of another run are attributed to that run
+            final CollectionStatistics other = new CollectionStatistics();
+            collectorMetrics.time("aws", CollectionPhase.QUEUE_STATUS, other,
+                    () -> CollectionStatistics.current().orElseThrow().apiCallMade(8));
+            assertEquals(1, other.getApiCalls());
+            CollectionStatistics.current().orElseThrow().apiCallMade(256);
+        });
+
+        assertTrue(CollectionStatistics.current().isEmpty());
+        assertEquals(2, statistics.getApiCalls());
+        assertEquals(768, statistics.getBytesDownloaded());
+        assertEquals(0, statistics.getFailures());
+    }
+
+    @Test
+    public void testCollectionStatisticsAreAccumulated() {
+        for (int i = 0; i < 2; i++) {
+            final CollectionStatistics statistics = new CollectionStatistics();
+            statistics.qpuUpdated();
+            statistics.qpuSkipped();
+            statistics.qpuSkipped();
+            statistics.characteristicsInserted(27);
+            collectorMetrics.recordCollection("aws", CollectionType.API, Duration.ofSeconds(3), true, statistics);
+        }
+
+        assertEquals(2, meterRegistry.get("qprov.collection.run").tags("provider", "aws", "type", "api", "outcome", "success").timer()
+                .count());
+        assertEquals(2, meterRegistry.get("qprov.collection.qpus").tags("provider", "aws", "result", "updated").counter().count());
+        assertEquals(4, meterRegistry.get("qprov.collection.qpus").tags("provider", "aws", "result", "skipped").counter().count());
+        assertEquals(54, meterRegistry.get("qprov.collection.characteristics").tags("provider", "aws").counter().count());
+    }
+
+    private long getPhaseCount(String providerId, CollectionPhase phase, String outcome) {
+        return meterRegistry.get("qprov.collection.phase")
+                .tags("provider", providerId, "phase", phase.getTagValue(), "outcome", outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.quantil.qprov.collector.providers.ibmq.IBMQQubitProperties;
+import org.quantil.qprov.collector.providers.ibmq.IBMQReplayProvider;
+import org.quantil.qprov.collector.providers.ibmq.IBMQSyntheticFleet;
+import org.quantil.qprov.collector.providers.ibmq.IBMQUtility;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.model.entities.Gate;
+import org.quantil.qprov.core.model.entities.GateCharacteristics;
+import org.quantil.qprov.core.model.entities.Qubit;
+import org.quantil.qprov.core.model.entities.QubitCharacteristics;
+import org.quantil.qprov.core.repositories.GateCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.GateRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.quantil.qprov.core.repositories.QubitCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.QubitRepository;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DevicePropsGate;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+import org.quantil.qprov.ibmq.client.model.Parameter;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Compares storing the calibration data of synthetic IBMQ QPUs as it was done before the persistence was batched to the batched
+ * persistence of the collector. The baseline saves each qubit and gate with its new characteristics separately, each save in a transaction
+ * of its own and without JDBC batching, while the collector stores the snapshots of several QPUs within one transaction using ordered
+ * JDBC batch inserts. Each invocation stores the next day of the synthetic fleet, so that every QPU is recalibrated, and the JDBC
+ * statements and transactions per QPU are printed after each iteration.
+ * <p>
+ * The benchmark requires a PostgreSQL database configured by the same environment variables as the collector (POSTGRES_HOSTNAME, ...),
+ * whose schema is dropped and recreated for each configuration, so only use an empty database.
+ * The benchmark is not executed with the tests and can be started using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QPUPersistenceBenchmark {
+
+    private static final int NUMBER_OF_QPUS = 10;
+
+    private static final long SEED = 42;
+
+    @Param({"baseline", "batched"})
+    private String persistence;
+
+    @Param({"127", "433"})
+    private int numberOfQubits;
+
+    private ConfigurableApplicationContext context;
+
+    private IBMQReplayProvider provider;
+
+    private IBMQSyntheticFleet fleet;
+
+    private int step;
+
+    private Statistics statistics;
+
+    private QPURepository qpuRepository;
+
+    private QubitRepository qubitRepository;
+
+    private GateRepository gateRepository;
+
+    private QubitCharacteristicsRepository qubitCharacteristicsRepository;
+
+    private GateCharacteristicsRepository gateCharacteristicsRepository;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QPUPersistenceBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final boolean batched = persistence.equals("batched");
+
+        // the settings are passed as arguments, as default properties would be overridden by the application.yml
+        context = new SpringApplicationBuilder(QProvCollector.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--spring.jpa.properties.hibernate.order_inserts=" + batched,
+                        "--spring.jpa.properties.hibernate.order_updates=" + batched,
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + (batched ? 50 : 1),
+                        "--qprov.collector.spool.enabled=false",
+                        "--qprov.ibmq.auto-collect=false",
+                        "--qprov.aws.auto-collect=false",
+                        "--qprov.replay.enabled=true",
+                        "--qprov.replay.auto-collect=false",
+                        "--qprov.replay.qpus=" + NUMBER_OF_QPUS,
+                        "--qprov.replay.qubits=" + numberOfQubits,
+                        "--qprov.replay.seed=" + SEED,
+                        "--qprov.replay.step-interval=" + TimeUnit.DAYS.toMinutes(1),
+                        "--logging.level.org.quantil.qprov=info",
+                        "--logging.level.org.hibernate=warn");
+        provider = context.getBean(IBMQReplayProvider.class);
+        fleet = new IBMQSyntheticFleet(NUMBER_OF_QPUS, numberOfQubits, SEED, Duration.ofDays(1));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        qpuRepository = context.getBean(QPURepository.class);
+        qubitRepository = context.getBean(QubitRepository.class);
+        gateRepository = context.getBean(GateRepository.class);
+        qubitCharacteristicsRepository = context.getBean(QubitCharacteristicsRepository.class);
+        gateCharacteristicsRepository = context.getBean(GateCharacteristicsRepository.class);
+
+        // store the QPUs, qubits, and gates, so that the measured invocations only add calibration data
+        provider.collectFromApi(new CollectionStatistics());
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Benchmark
+    public boolean storeCalibration() {
+        return persistence.equals("batched") ? provider.collectFromApi(new CollectionStatistics()) : storeCalibrationPerEntity();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        System.out.printf("%n%s, %d qubits: %.1f JDBC statements and %.1f transactions per QPU%n", persistence, numberOfQubits,
+                (double) statistics.getPrepareStatementCount() / NUMBER_OF_QPUS, (double) statistics.getTransactionCount() / NUMBER_OF_QPUS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Store the next day of the synthetic fleet like the collector did before the persistence was batched, i.e., outside a shared
+     * transaction with one query per qubit and one save per qubit and gate
+     *
+     * @return <code>true</code> if the calibration of all QPUs was stored
+     */
+    private boolean storeCalibrationPerEntity() {
+        step++;
+        for (Device device : fleet.getDevices(step)) {
+            final DeviceProperties deviceProperties = fleet.getDeviceProperties(device, step);
+            final Date lastCalibrated = new Date(deviceProperties.getLastUpdateDate().toInstant().toEpochMilli());
+            final QPU storedQpu = qpuRepository.findByName(device.getBackendName()).orElseThrow();
+            storedQpu.setQueueSize(fleet.getBackendStatus(device, step).getLengthQueue().intValue());
+            storedQpu.setLastCalibrated(lastCalibrated);
+            storedQpu.setLastUpdated(new Date(System.currentTimeMillis()));
+            final QPU qpu = qpuRepository.save(storedQpu);
+
+            for (int i = 0; i < deviceProperties.getQubits().size(); i++) {
+                final Qubit qubit = qubitRepository.findByQpuAndName(qpu, String.valueOf(i)).orElseThrow();
+                final QubitCharacteristics latestCharacteristics =
+                        qubitCharacteristicsRepository.findByQubitOrderByCalibrationTimeDesc(qubit).stream().findFirst().orElse(null);
+                if (Objects.nonNull(latestCharacteristics) && !lastCalibrated.after(latestCharacteristics.getCalibrationTime())) {
+                    continue;
+                }
+
+                final IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(deviceProperties.getQubits().get(i));
+                final QubitCharacteristics qubitCharacteristics = new QubitCharacteristics();
+                qubitCharacteristics.setQubit(qubit);
+                qubitCharacteristics.setCalibrationTime(lastCalibrated);
+                qubitCharacteristics.setT1Time(toBigDecimal(qubitProperties.getT1Time()));
+                qubitCharacteristics.setT2Time(toBigDecimal(qubitProperties.getT2Time()));
+                qubitCharacteristics.setReadoutError(toBigDecimal(qubitProperties.getReadoutError()));
+                qubit.getQubitCharacteristics().add(qubitCharacteristics);
+                qubitRepository.save(qubit);
+            }
+
+            final UUID qpuId = qpu.getDatabaseId();
+            final List<Gate> gates = qpuRepository.findById(qpuId).orElseThrow().getQubits().stream()
+                    .flatMap(qubit -> qubit.getSupportedGates().stream()).distinct().toList();
+            for (Gate gate : gates) {
+                final GateCharacteristics latestCharacteristics =
+                        gateCharacteristicsRepository.findByGateOrderByCalibrationTimeDesc(gate).stream().findFirst().orElse(null);
+                if (Objects.nonNull(latestCharacteristics) && !lastCalibrated.after(latestCharacteristics.getCalibrationTime())) {
+                    continue;
+                }
+
+                final Optional<DevicePropsGate> matchingGate = deviceProperties.getGates().stream()
+                        .filter(ibmGate -> ibmGate.getGate().equals(gate.getName()))
+                        .filter(ibmGate -> IBMQUtility.operatesOnSameQubits(ibmGate, gate))
+                        .findFirst();
+                if (matchingGate.isEmpty()) {
+                    return false;
+                }
+
+                final Map<String, Parameter> parameters = matchingGate.get().getParameters().stream()
+                        .collect(Collectors.toMap(Parameter::getName, parameter -> parameter, (first, second) -> first));
+                final GateCharacteristics gateCharacteristics = new GateCharacteristics();
+                gateCharacteristics.setGate(gate);
+                gateCharacteristics.setCalibrationTime(lastCalibrated);
+                Optional.ofNullable(parameters.get("gate_error")).map(Parameter::getValue).ifPresent(gateCharacteristics::setGateErrorRate);
+                Optional.ofNullable(parameters.get("gate_length")).map(Parameter::getValue).ifPresent(gateCharacteristics::setGateTime);
+                gate.getGateCharacteristics().add(gateCharacteristics);
+                gateRepository.save(gate);
+            }
+        }
+        return true;
+    }
+
+    private static BigDecimal toBigDecimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value);
+    }
+}
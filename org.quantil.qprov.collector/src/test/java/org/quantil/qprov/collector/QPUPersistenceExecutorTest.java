@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QPUPersistenceExecutorTest {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QPUPersistenceExecutor executor;
+
+    public QPUPersistenceExecutorTest() throws IOException {
+        QPUSnapshotSpool disabledSpool = new QPUSnapshotSpool(null, 0, 0, new SimpleMeterRegistry());
+        executor = new QPUPersistenceExecutor(transactionManager, Mockito.mock(Statistics.class), meterRegistry, disabledSpool, 4, 3);
+    }
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSnapshotsAreStoredInBatches() throws InterruptedException {
+        // block the writer until all snapshots are queued, so that they are stored in batches of three
+        CountDownLatch blocked = new CountDownLatch(1);
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        snapshots.add(submitBlocking(blocked));
+        for (int i = 0; i < 4; i++) {
+            String qpuName = "qpu" + i;
+            snapshots.add(executor.submit(qpuName, () -> stored.add(qpuName)));
+        }
+        blocked.countDown();
+
+        assertTrue(executor.await(snapshots));
+        assertEquals(Set.of("qpu0", "qpu1", "qpu2", "qpu3"), stored);
+        assertEquals(3, transactionManager.commits.get());
+        assertEquals(0, transactionManager.rollbacks.get());
+        assertEquals(3, awaitBatches(3));
+    }
+
+    @Test
+    public void testFailingSnapshotIsIsolated() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        snapshots.add(submitBlocking(blocked));
+        CompletableFuture<Void> first = executor.submit("qpu0", () -> {
+        });
+        CompletableFuture<Void> failing = executor.submit("qpu1", () -> {
+            throw new IllegalStateException("constraint violation");
+        });
+        CompletableFuture<Void> last = executor.submit("qpu2", () -> {
+        });
+        snapshots.addAll(List.of(first, failing, last));
+        blocked.countDown();
+
+        assertFalse(executor.await(snapshots));
+        assertFalse(first.isCompletedExceptionally());
+        assertTrue(failing.isCompletedExceptionally());
+        assertFalse(last.isCompletedExceptionally());
+
+        // the rolled back batch is retried with one transaction per snapshot
+        assertEquals(2, transactionManager.rollbacks.get());
+        assertEquals(3, transactionManager.commits.get());
+    }
+
+    @Test
+    public void testStatisticsAreOnlyUpdatedAfterCommit() throws InterruptedException {
+        CollectorMetrics collectorMetrics = new CollectorMetrics(meterRegistry);
+        CollectionStatistics statistics = new CollectionStatistics();
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        snapshots.add(submitBlocking(blocked));
+        for (String qpuName : List.of("qpu0", "qpu1", "qpu2")) {
+            snapshots.add(executor.submit(qpuName, () -> collectorMetrics.time("test", CollectionPhase.PERSISTENCE, statistics, () -> {
+                statistics.qpuUpdated();
+                statistics.characteristicsInserted(2);
+                if (qpuName.equals("qpu1")) {
+                    throw new IllegalStateException("constraint violation");
+                }
+            })));
+        }
+        blocked.countDown();
+
+        // the snapshots stored in the rolled back batch are only counted once they were stored again
+        assertFalse(executor.await(snapshots));
+        assertEquals(2, statistics.getUpdatedQpus());
+        assertEquals(4, statistics.getInsertedCharacteristics());
+        assertEquals(1, statistics.getFailures());
+        assertEquals(2, meterRegistry.get("qprov.collection.phase").tag("outcome", "success").timer().count());
+        assertNull(meterRegistry.find("qprov.collection.phase").tag("outcome", "error").timer());
+    }
+
+    @Test
+    public void testBackpressureMetrics() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<CompletableFuture<Void>> snapshots = new ArrayList<>();
+        snapshots.add(submitBlocking(blocked));
+        for (int i = 0; i < 3; i++) {
+            snapshots.add(executor.submit("qpu" + i, () -> {
+            }));
+        }
+        Thread.sleep(50);
+
+        assertEquals(3, meterRegistry.get("qprov.persistence.queue.depth").gauge().value());
+        assertTrue(meterRegistry.get("qprov.persistence.writer.lag").gauge().value() >= 0.05);
+
+        blocked.countDown();
+        assertTrue(executor.await(snapshots));
+        assertEquals(0, meterRegistry.get("qprov.persistence.queue.depth").gauge().value());
+        assertEquals(0, meterRegistry.get("qprov.persistence.writer.lag").gauge().value());
+        assertEquals(2, awaitBatches(2));
+    }
+
+    @Test
+    public void testSubmitAfterShutdown() throws InterruptedException {
+        AtomicInteger executions = new AtomicInteger();
+        executor.shutdown();
+
+        assertFalse(executor.await(List.of(executor.submit("qpu", executions::incrementAndGet))));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void testSnapshotsAreSpooledWhileDatabaseUnavailable(@TempDir Path directory) throws IOException, InterruptedException {
+        SimpleMeterRegistry spoolMeterRegistry = new SimpleMeterRegistry();
+        QPUSnapshotSpool spool = new QPUSnapshotSpool(directory, 4096, 4096, spoolMeterRegistry);
+        QPUPersistenceExecutor spoolingExecutor =
+                new QPUPersistenceExecutor(transactionManager, Mockito.mock(Statistics.class), spoolMeterRegistry, spool, 4, 3);
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+
+        try {
+            transactionManager.unavailable = true;
+            CollectionStatistics statistics = new CollectionStatistics();
+            assertTrue(spoolingExecutor.await(List.of(spoolingExecutor.submit("qpu0", statistics::qpuUpdated,
+                    () -> new SpooledSnapshot("test", "qpu0", 0, "qpu0".getBytes(StandardCharsets.UTF_8))))));
+            assertEquals(0, statistics.getUpdatedQpus());
+            assertFalse(spoolingExecutor.await(List.of(spoolingExecutor.submit("qpu1", () -> stored.add("qpu1")))));
+            assertEquals(1, spool.getPendingRecords());
+
+            // snapshots are spooled as long as the spool is not empty to keep their order, unless they can not be spooled
+            transactionManager.unavailable = false;
+            assertTrue(spoolingExecutor.await(List.of(submitSpoolable(spoolingExecutor, "qpu2", stored),
+                    spoolingExecutor.submit("qpu3", () -> stored.add("qpu3")))));
+            assertEquals(2, spool.getPendingRecords());
+            assertEquals(Set.of("qpu3"), stored);
+
+            ISpoolHandler handler = new ISpoolHandler() {
+                @Override
+                public String getSnapshotType() {
+                    return "test";
+                }
+
+                @Override
+                public void store(SpooledSnapshot snapshot) {
+                    stored.add(new String(snapshot.getPayload(), StandardCharsets.UTF_8));
+                }
+            };
+            QPUSpoolReplayer replayer = new QPUSpoolReplayer(spool, Set.of(handler), transactionManager, spoolMeterRegistry, 3, 30);
+
+            // the spool is kept until the database is available again
+            transactionManager.unavailable = true;
+            assertFalse(replayer.replay());
+            assertEquals(2, spool.getPendingRecords());
+
+            transactionManager.unavailable = false;
+            assertTrue(replayer.replay());
+            assertTrue(spool.isEmpty());
+            assertEquals(Set.of("qpu0", "qpu2", "qpu3"), stored);
+            assertEquals(2, spoolMeterRegistry.get("qprov.spool.replayed").counter().count());
+            replayer.shutdown();
+        } finally {
+            spoolingExecutor.shutdown();
+        }
+    }
+
+    private static CompletableFuture<Void> submitSpoolable(QPUPersistenceExecutor executor, String qpuName, Set<String> stored) {
+        return executor.submit(qpuName, () -> stored.add(qpuName),
+                () -> new SpooledSnapshot("test", qpuName, 0, qpuName.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long awaitBatches(long expected) throws InterruptedException {
+        // the snapshots of a batch are completed before the duration of the batch is recorded
+        for (int i = 0; i < 100 && meterRegistry.get("qprov.persistence.batch").timer().count() < expected; i++) {
+            Thread.sleep(10);
+        }
+        return meterRegistry.get("qprov.persistence.batch").timer().count();
+    }
+
+    private CompletableFuture<Void> submitBlocking(CountDownLatch blocked) throws InterruptedException {
+        // the writer is blocked in a batch of its own until the latch is released
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Void> snapshot = executor.submit("blocking", () -> {
+            started.countDown();
+            await(blocked);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return snapshot;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final AtomicInteger commits = new AtomicInteger();
+
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        private volatile boolean unavailable;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            if (unavailable) {
+                throw new CannotCreateTransactionException("Connection refused");
+            }
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
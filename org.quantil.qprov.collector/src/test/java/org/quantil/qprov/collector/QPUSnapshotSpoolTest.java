@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QPUSnapshotSpoolTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testSnapshotsAreReplayedInOrder() throws IOException {
+        QPUSnapshotSpool spool = new QPUSnapshotSpool(directory, SEGMENT_SIZE, 8 * SEGMENT_SIZE, meterRegistry);
+        assertTrue(spool.isEmpty());
+
+        // each record has 77 bytes, so that three records fit into a segment
+        for (int i = 0; i < 5; i++) {
+            assertTrue(spool.append(createSnapshot("qpu" + i)));
+        }
+        assertEquals(5, spool.getPendingRecords());
+        assertEquals(2, countSegments());
+        assertEquals(2 * SEGMENT_SIZE, meterRegistry.get("qprov.spool.size").gauge().value());
+
+        // reading does not remove the snapshots
+        assertEquals(List.of("qpu0", "qpu1"), getQpuNames(spool.read(2)));
+        assertEquals(List.of("qpu0", "qpu1", "qpu2", "qpu3"), getQpuNames(spool.read(4)));
+
+        spool.acknowledge(2);
+        assertEquals(List.of("qpu2", "qpu3", "qpu4"), getQpuNames(spool.read(10)));
+        assertEquals(2, countSegments());
+
+        // the first segment is deleted as soon as all its snapshots are replayed
+        spool.acknowledge(1);
+        assertEquals(1, countSegments());
+        assertEquals("payload of qpu3".repeat(3), new String(spool.read(1).get(0).getPayload(), StandardCharsets.UTF_8));
+
+        spool.acknowledge(2);
+        assertTrue(spool.isEmpty());
+        assertEquals(0, countSegments());
+        assertEquals(5, meterRegistry.get("qprov.spool.appended").counter().count());
+    }
+
+    @Test
+    public void testRecoveryAfterCrash() throws IOException {
+        QPUSnapshotSpool spool = new QPUSnapshotSpool(directory, SEGMENT_SIZE, 8 * SEGMENT_SIZE, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            spool.append(createSnapshot("qpu" + i));
+        }
+
+        // simulate a crash while the second record of the first segment was written by corrupting its payload, which invalidates the
+        // remaining records of the segment
+        Path firstSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            firstSegment = files.sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(firstSegment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 77 + 20);
+        }
+
+        QPUSnapshotSpool recovered = new QPUSnapshotSpool(directory, SEGMENT_SIZE, 8 * SEGMENT_SIZE, new SimpleMeterRegistry());
+        assertEquals(List.of("qpu0", "qpu3", "qpu4"), getQpuNames(recovered.read(10)));
+
+        // new snapshots are appended to a new segment after the recovered ones
+        assertTrue(recovered.append(createSnapshot("qpu5")));
+        assertEquals(3, countSegments());
+        assertEquals(List.of("qpu0", "qpu3", "qpu4", "qpu5"), getQpuNames(recovered.read(10)));
+
+        recovered.acknowledge(4);
+        assertTrue(recovered.isEmpty());
+        assertEquals(0, countSegments());
+    }
+
+    @Test
+    public void testSpoolIsBounded() throws IOException {
+        QPUSnapshotSpool spool = new QPUSnapshotSpool(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE, meterRegistry);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(spool.append(createSnapshot("qpu" + i)));
+        }
+        assertFalse(spool.append(createSnapshot("qpu6")));
+        assertEquals(6, spool.getPendingRecords());
+        assertEquals(1, meterRegistry.get("qprov.spool.rejected").counter().count());
+
+        // snapshots are accepted again as soon as a segment was replayed
+        spool.acknowledge(3);
+        assertTrue(spool.append(createSnapshot("qpu6")));
+    }
+
+    @Test
+    public void testDisabledSpool() throws IOException {
+        QPUSnapshotSpool spool = new QPUSnapshotSpool(null, SEGMENT_SIZE, 8 * SEGMENT_SIZE, meterRegistry);
+        assertFalse(spool.append(createSnapshot("qpu0")));
+        assertTrue(spool.isEmpty());
+        assertTrue(spool.read(10).isEmpty());
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static SpooledSnapshot createSnapshot(String qpuName) {
+        return new SpooledSnapshot("test", qpuName, 0, ("payload of " + qpuName).repeat(3).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> getQpuNames(List<SpooledSnapshot> snapshots) {
+        return snapshots.stream().map(SpooledSnapshot::getQpuName).toList();
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.cluster;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class CollectorClusterTest {
+
+    private static final List<String> QPUS = IntStream.range(0, 1000).mapToObj(i -> "qpu:ibm_" + i).toList();
+
+    private final CollectorInstanceRepository instanceRepository = Mockito.mock(CollectorInstanceRepository.class);
+
+    private final CollectionLeaseRepository leaseRepository = Mockito.mock(CollectionLeaseRepository.class);
+
+    @Test
+    public void testQPUsAreBalanced() {
+        List<String> instances = List.of("a", "b", "c", "d");
+        Map<String, Long> qpusPerInstance = QPUS.stream()
+                .collect(Collectors.groupingBy(qpu -> CollectorCluster.getOwner(qpu, instances), Collectors.counting()));
+
+        assertEquals(4, qpusPerInstance.size());
+        qpusPerInstance.values().forEach(count -> assertTrue(count > 200 && count < 300, "Unbalanced assignment: " + qpusPerInstance));
+    }
+
+    @Test
+    public void testOnlyQPUsOfDeadInstanceAreReassigned() {
+        List<String> instances = new ArrayList<>(List.of("a", "b", "c", "d"));
+        Map<String, String> before = QPUS.stream()
+                .collect(Collectors.toMap(Function.identity(), qpu -> CollectorCluster.getOwner(qpu, instances)));
+
+        instances.remove("c");
+        for (String qpu : QPUS) {
+            String owner = CollectorCluster.getOwner(qpu, instances);
+            if (before.get(qpu).equals("c")) {
+                assertFalse(owner.equals("c"));
+            } else {
+                assertEquals(before.get(qpu), owner);
+            }
+        }
+    }
+
+    @Test
+    public void testDisabledClusterCollectsEverything() {
+        CollectorCluster cluster = createCluster(false);
+        assertTrue(QPUS.stream().allMatch(cluster::acquire));
+        Mockito.verifyNoInteractions(leaseRepository);
+    }
+
+    @Test
+    public void testQPUsAreCollectedByAssignedInstance() {
+        CollectorCluster cluster = createCluster(true);
+        // the live instances are returned ordered by their IDs by the database
+        List<String> instances = Stream.of(cluster.getInstanceId(), "other").sorted().toList();
+        when(instanceRepository.findLiveInstanceIds(anyInt())).thenReturn(instances);
+        when(leaseRepository.acquire(anyString(), eq(cluster.getInstanceId()), anyInt())).thenReturn(1);
+        cluster.heartbeat();
+
+        List<String> acquired = QPUS.stream().filter(cluster::acquire).toList();
+        assertTrue(acquired.size() > 400 && acquired.size() < 600);
+        assertTrue(acquired.stream().allMatch(cluster::isAssigned));
+        assertEquals(instances, cluster.getInstances());
+
+        // leases held by another instance, e.g., a dead instance whose leases did not expire yet, are not taken over
+        String qpu = acquired.get(0);
+        when(leaseRepository.acquire(eq(qpu), anyString(), anyInt())).thenReturn(0);
+        assertFalse(cluster.acquire(qpu));
+
+        // previously acquired leases are still used while the database is unavailable
+        String otherQpu = acquired.get(1);
+        when(leaseRepository.acquire(eq(otherQpu), anyString(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("unavailable"));
+        assertTrue(cluster.acquire(otherQpu));
+    }
+
+    @Test
+    public void testLeasesAreReleasedAfterRebalancing() {
+        CollectorCluster cluster = createCluster(true);
+        when(leaseRepository.acquire(anyString(), eq(cluster.getInstanceId()), anyInt())).thenReturn(1);
+        assertTrue(QPUS.stream().allMatch(cluster::acquire));
+
+        // another instance joins and takes over about half of the QPUs
+        when(instanceRepository.findLiveInstanceIds(anyInt())).thenReturn(List.of(cluster.getInstanceId(), "other"));
+        cluster.heartbeat();
+
+        List<String> released = QPUS.stream().filter(qpu -> !cluster.isAssigned(qpu)).toList();
+        assertTrue(released.size() > 400 && released.size() < 600);
+        released.forEach(qpu -> Mockito.verify(leaseRepository).release(qpu, cluster.getInstanceId()));
+        Mockito.verify(leaseRepository).renew(cluster.getInstanceId(), 60);
+    }
+
+    private CollectorCluster createCluster(boolean enabled) {
+        EntityManager entityManager = Mockito.mock(EntityManager.class);
+        return new CollectorCluster(instanceRepository, leaseRepository, entityManager, new SimpleMeterRegistry(), enabled, 60);
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CalibrationCadenceEstimatorTest {
+
+    private static final Instant FIRST_CALIBRATION = Instant.parse("2024-03-10T06:00:00Z");
+
+    private static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(60);
+
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(10);
+
+    private static final Duration MAX_INTERVAL = Duration.ofMinutes(360);
+
+    private final CalibrationCadenceEstimator estimator =
+            new CalibrationCadenceEstimator(null, null, null, true, MIN_INTERVAL, MAX_INTERVAL);
+
+    @Test
+    public void testInsufficientHistory() {
+        List<Instant> calibrationTimes = List.of(FIRST_CALIBRATION, FIRST_CALIBRATION.plus(Duration.ofDays(1)));
+
+        assertEquals(DEFAULT_INTERVAL, estimator.getInterval(calibrationTimes, at(1, 12), DEFAULT_INTERVAL));
+        assertEquals(MAX_INTERVAL, estimator.getInterval(List.of(), at(1, 12), Duration.ofDays(1)));
+    }
+
+    @Test
+    public void testSparsePollingBetweenCalibrations() {
+        // shortly after the calibration, the next one is not expected before the maximum interval elapsed
+        assertEquals(MAX_INTERVAL, estimator.getInterval(dailyCalibrations(), at(2, 12), DEFAULT_INTERVAL));
+
+        // the next collection is scheduled at the beginning of the window around the expected calibration of 2.4 hours
+        assertEquals(Duration.ofMinutes(156), estimator.getInterval(dailyCalibrations(), at(3, 1), DEFAULT_INTERVAL));
+    }
+
+    @Test
+    public void testDensePollingAroundExpectedCalibration() {
+        assertEquals(MIN_INTERVAL, estimator.getInterval(dailyCalibrations(), at(3, 4), DEFAULT_INTERVAL));
+
+        // delayed calibration
+        assertEquals(MIN_INTERVAL, estimator.getInterval(dailyCalibrations(), at(3, 8), DEFAULT_INTERVAL));
+    }
+
+    @Test
+    public void testMissedCalibration() {
+        // the calibration is expected in the next period if it did not happen within the window
+        assertEquals(MAX_INTERVAL, estimator.getInterval(dailyCalibrations(), at(3, 9), DEFAULT_INTERVAL));
+        assertEquals(Duration.ofMinutes(156), estimator.getInterval(dailyCalibrations(), at(4, 1), DEFAULT_INTERVAL));
+    }
+
+    @Test
+    public void testMedianIgnoresOutliers() {
+        // an additional calibration after one hour does not change the estimated daily period
+        List<Instant> calibrationTimes = List.of(FIRST_CALIBRATION, FIRST_CALIBRATION.plus(Duration.ofDays(1)),
+                FIRST_CALIBRATION.plus(Duration.ofDays(1)).plus(Duration.ofHours(1)), FIRST_CALIBRATION.plus(Duration.ofDays(2)));
+
+        assertEquals(MIN_INTERVAL, estimator.getInterval(calibrationTimes, at(3, 5), DEFAULT_INTERVAL));
+        assertEquals(MAX_INTERVAL, estimator.getInterval(calibrationTimes, at(2, 12), DEFAULT_INTERVAL));
+    }
+
+    private static List<Instant> dailyCalibrations() {
+        return List.of(FIRST_CALIBRATION, FIRST_CALIBRATION.plus(Duration.ofDays(1)), FIRST_CALIBRATION.plus(Duration.ofDays(2)));
+    }
+
+    private static Instant at(int day, int hour) {
+        return FIRST_CALIBRATION.plus(Duration.ofDays(day)).plus(Duration.ofHours(hour - 6));
+    }
+}
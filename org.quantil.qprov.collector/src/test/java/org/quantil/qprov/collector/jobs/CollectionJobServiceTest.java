@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.quantil.qprov.collector.CollectionPhase;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.IProvider;
+import org.quantil.qprov.collector.resilience.CircuitBreaker;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.quantil.qprov.core.model.collection.CollectionRun;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
+import org.quantil.qprov.core.repositories.CollectionRunRepository;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CollectionJobServiceTest {
+
+    private final CollectionRunRepository collectionRunRepository = Mockito.mock(CollectionRunRepository.class);
+
+    private final CollectorMetrics collectorMetrics = new CollectorMetrics(new SimpleMeterRegistry());
+
+    private final ProviderResilience providerResilience = new ProviderResilience(new SimpleMeterRegistry(), 1, 1, 1, 0, 0, 0, 1, 60);
+
+    private final IProvider provider = Mockito.mock(IProvider.class);
+
+    private final CollectionJobService jobService =
+            new CollectionJobService(Set.of(provider), collectorMetrics, collectionRunRepository, providerResilience, 1, 10);
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        jobService.shutdown();
+    }
+
+    @Test
+    public void testFinishedCollectionIsRecorded() {
+        when(provider.getProviderId()).thenReturn("ibmq");
+        when(provider.collectFromApi(any())).thenAnswer(invocation -> {
+            final CollectionStatistics statistics = invocation.getArgument(0);
+            collectorMetrics.time("ibmq", CollectionPhase.DEVICE_LISTING, statistics, () -> statistics.apiCallMade(1024));
+            statistics.qpuUpdated();
+            statistics.qpuSkipped();
+            statistics.characteristicsInserted(42);
+            return true;
+        });
+
+        final ProviderCollection collection = jobService.submit(CollectionType.API, provider, CollectionTrigger.SCHEDULED)
+                .getProviders().get("ibmq");
+        final ArgumentCaptor<CollectionRun> run = ArgumentCaptor.forClass(CollectionRun.class);
+        verify(collectionRunRepository, timeout(5000)).save(run.capture());
+
+        assertEquals(collection.getJobId(), run.getValue().getJobId());
+        assertEquals("ibmq", run.getValue().getProvider());
+        assertEquals("API", run.getValue().getType());
+        assertEquals(CollectionTrigger.SCHEDULED, run.getValue().getTrigger());
+        assertTrue(run.getValue().isSuccess());
+        assertFalse(run.getValue().getEndTime().before(run.getValue().getStartTime()));
+        assertEquals(Set.of("device_listing"), run.getValue().getPhaseDurations().keySet());
+        assertEquals(1, run.getValue().getApiCalls());
+        assertEquals(1024, run.getValue().getBytesDownloaded());
+        assertEquals(1, run.getValue().getUpdatedQpus());
+        assertEquals(1, run.getValue().getSkippedQpus());
+        assertEquals(42, run.getValue().getRowsWritten());
+        assertEquals(0, run.getValue().getFailures());
+    }
+
+    @Test
+    public void testFailedCollectionIsRecorded() {
+        when(provider.getProviderId()).thenReturn("aws");
+        when(provider.collectQueueStatus(any())).thenThrow(new IllegalStateException("Region not available"));
+        when(collectionRunRepository.save(any())).thenThrow(new IllegalStateException("Database not available"));
+
+        jobService.submit(CollectionType.QUEUE, CollectionTrigger.MANUAL);
+        final ArgumentCaptor<CollectionRun> run = ArgumentCaptor.forClass(CollectionRun.class);
+        verify(collectionRunRepository, timeout(5000)).save(run.capture());
+
+        assertEquals(CollectionTrigger.MANUAL, run.getValue().getTrigger());
+        assertFalse(run.getValue().isSuccess());
+        assertEquals("Region not available", run.getValue().getError());
+    }
+
+    @Test
+    public void testHangingProviderDoesNotBlockOtherProviders() throws InterruptedException {
+        final IProvider hangingProvider = Mockito.mock(IProvider.class);
+        final CollectionJobService providerJobService = new CollectionJobService(Set.of(provider, hangingProvider), collectorMetrics,
+                collectionRunRepository, providerResilience, 1, 10);
+        final CountDownLatch hanging = new CountDownLatch(1);
+        when(hangingProvider.getProviderId()).thenReturn("aws");
+        when(hangingProvider.collectFromApi(any())).thenAnswer(invocation -> hanging.await(10, TimeUnit.SECONDS));
+        when(provider.getProviderId()).thenReturn("ibmq");
+        when(provider.collectFromApi(any())).thenReturn(true);
+
+        // the second collection of the hanging provider waits in its own executor instead of occupying a thread of the other provider
+        providerJobService.submit(CollectionType.API, hangingProvider, CollectionTrigger.SCHEDULED);
+        providerJobService.submit(CollectionType.QUEUE, hangingProvider, CollectionTrigger.SCHEDULED);
+        final ProviderCollection collection = providerJobService.submit(CollectionType.API, provider, CollectionTrigger.SCHEDULED)
+                .getProviders().get("ibmq");
+
+        verify(provider, timeout(5000)).collectFromApi(any());
+        hanging.countDown();
+        verify(collectionRunRepository, timeout(5000).times(3)).save(any());
+        assertEquals(CollectionStatus.SUCCEEDED, collection.getStatus());
+        providerJobService.shutdown();
+    }
+
+    @Test
+    public void testCircuitCollectionDoesNotOccupyExecutor() {
+        final CompletableFuture<Boolean> circuitsResult = new CompletableFuture<>();
+        when(provider.getProviderId()).thenReturn("ibmq");
+        when(provider.collectThroughCircuits(any())).thenReturn(circuitsResult);
+        when(provider.collectFromApi(any())).thenReturn(true);
+
+        // the collection through circuits keeps running while the only thread of the executor collects from the API
+        final ProviderCollection circuitsCollection = jobService.submit(CollectionType.CIRCUITS, provider, CollectionTrigger.MANUAL)
+                .getProviders().get("ibmq");
+        jobService.submit(CollectionType.API, provider, CollectionTrigger.MANUAL);
+        verify(collectionRunRepository, timeout(5000)).save(any());
+        assertEquals(CollectionStatus.RUNNING, circuitsCollection.getStatus());
+
+        circuitsResult.complete(true);
+        verify(collectionRunRepository, timeout(5000).times(2)).save(any());
+        assertEquals(CollectionStatus.SUCCEEDED, circuitsCollection.getStatus());
+    }
+
+    @Test
+    public void testCollectionIsSkippedWhileCircuitBreakerIsOpen() {
+        when(provider.getProviderId()).thenReturn("ibmq");
+        final CircuitBreaker circuitBreaker = providerResilience.getCircuitBreaker("ibmq");
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.onFailure();
+
+        jobService.submit(CollectionType.API, provider, CollectionTrigger.MANUAL);
+        final ArgumentCaptor<CollectionRun> run = ArgumentCaptor.forClass(CollectionRun.class);
+        verify(collectionRunRepository, timeout(5000)).save(run.capture());
+
+        verify(provider, never()).collectFromApi(any());
+        assertFalse(run.getValue().isSuccess());
+        assertEquals("Circuit breaker of provider is open", run.getValue().getError());
+    }
+}
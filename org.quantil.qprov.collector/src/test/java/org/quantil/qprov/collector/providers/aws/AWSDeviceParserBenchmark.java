@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.aws;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the extraction of the device properties from the device capabilities using the streaming parser with the former approach based
+ * on the tree model and a new ObjectMapper per step. The payloads in the test resources follow the Braket device capability schemas of the
+ * corresponding providers.
+ * <p>
+ * The benchmark is not executed with the tests and can be started using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AWSDeviceParserBenchmark {
+
+    @Param({"ionq-aria-1", "rigetti-ankaa-2", "iqm-garnet"})
+    private String payload;
+
+    private String deviceCapabilities;
+
+    private byte[] searchResponse;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AWSDeviceParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/aws/" + payload + ".json")) {
+            deviceCapabilities = new String(Objects.requireNonNull(inputStream).readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // wrap the capabilities in a search response containing the same device multiple times
+        final Map<String, String> device = Map.of("deviceArn", "arn:aws:braket:::device/qpu/" + payload, "deviceName", payload,
+                "providerName", payload.substring(0, payload.indexOf('-')), "deviceType", "QPU", "deviceStatus", "ONLINE",
+                "deviceCapabilities", deviceCapabilities);
+        searchResponse = new ObjectMapper().writeValueAsBytes(Map.of("devices", List.of(device, device, device, device)));
+    }
+
+    @Benchmark
+    public void streamingParser(Blackhole blackhole) throws IOException {
+        for (AWSDevice device : AWSDeviceParser.parseDevices(searchResponse)) {
+            device.recoverPropertiesFromDeviceCapabilities();
+            blackhole.consume(device);
+        }
+    }
+
+    @Benchmark
+    public void treeModel(Blackhole blackhole) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final String json = new String(searchResponse, StandardCharsets.UTF_8);
+        final JsonNode node = mapper.readTree(json).get("devices");
+        for (AWSDevice device : mapper.treeToValue(node, AWSDevice[].class)) {
+            recoverPropertiesWithTreeModel(device);
+            blackhole.consume(device);
+        }
+    }
+
+    /**
+     * The former extraction of the device properties, which reads the whole capabilities into a tree using new ObjectMappers
+     */
+    private static void recoverPropertiesWithTreeModel(AWSDevice device) throws IOException {
+        final JsonNode capabilities = new ObjectMapper().readTree(device.getDeviceCapabilities());
+
+        device.setNumberQubits(new BigDecimal(capabilities.get("paradigm").get("qubitCount").asInt()));
+        final List<Integer> shotsRange =
+                new ObjectMapper().readerFor(new TypeReference<List<Integer>>() {
+                }).readValue(capabilities.get("service").get("shotsRange"));
+        device.setMaxShots(new BigDecimal(shotsRange.stream().max(Integer::compareTo).orElse(-1)));
+
+        device.setGates(new ObjectMapper().readerFor(new TypeReference<List<String>>() {
+        }).readValue(capabilities.get("action").get("braket.ir.openqasm.program").get("supportedOperations")));
+
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonNode connectivity = capabilities.get("paradigm").get("connectivity");
+        final int numberQubits = device.getNumberQubits().intValue();
+        final Map<Integer, List<Integer>> connectivityMap = new HashMap<>(numberQubits);
+        if (connectivity.get("fullyConnected").asBoolean()) {
+            for (int i = 0; i < numberQubits; i++) {
+                final int qubit = i;
+                connectivityMap.put(i, IntStream.range(0, numberQubits).filter(j -> j != qubit).boxed().toList());
+            }
+        } else {
+            final Iterator<Map.Entry<String, JsonNode>> connectivityPerNode = connectivity.get("connectivityGraph").fields();
+            while (connectivityPerNode.hasNext()) {
+                final Map.Entry<String, JsonNode> entry = connectivityPerNode.next();
+                connectivityMap.put(Integer.parseInt(entry.getKey()), Arrays.asList(mapper.treeToValue(entry.getValue(), Integer[].class)));
+            }
+        }
+        device.setConnectivityMap(connectivityMap);
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.aws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AWSDeviceParserTest {
+
+    @Test
+    public void testIonQCapabilities() throws IOException {
+        AWSDevice device = parseDevice("ionq-aria-1");
+        assertEquals(25, device.getNumberQubits().intValue());
+        assertEquals(100000, device.getMaxShots().intValue());
+        assertEquals(List.of("x", "y", "z", "rx", "ry", "rz", "h", "cnot", "s", "si", "t", "ti", "v", "vi", "xx", "yy", "zz", "swap"),
+                device.getGates());
+        assertNotNull(device.getCalibrationTime());
+
+        // fully connected, i.e., each qubit is connected to all other qubits
+        assertEquals(25, device.getConnectivityMap().size());
+        assertEquals(24, device.getConnectivityMap().get(0).size());
+
+        assertEquals(new BigDecimal("0.9952"), new BigDecimal(device.getProviderProperties().get("fidelity.spam.mean")));
+        assertEquals(new BigDecimal("0.0006"), new BigDecimal(device.getProviderProperties().get("timing.2Q")));
+    }
+
+    @Test
+    public void testRigettiCapabilities() throws IOException {
+        AWSDevice device = parseDevice("rigetti-ankaa-2");
+        assertEquals(84, device.getNumberQubits().intValue());
+        assertEquals(84, device.getConnectivityMap().size());
+        assertEquals(List.of(1, 12), device.getConnectivityMap().get(0));
+        assertTrue(device.getGates().contains("cz"));
+
+        // the provider specs are not needed and therefore skipped
+        assertTrue(device.getProviderProperties().isEmpty());
+    }
+
+    @Test
+    public void testSearchResponse() throws IOException {
+        AWSDevice device = new AWSDevice();
+        device.setDeviceName("Garnet");
+        device.setProviderName("IQM");
+        device.setDeviceType("QPU");
+        device.setDeviceCapabilities(readPayload("iqm-garnet"));
+        byte[] response = new ObjectMapper().writeValueAsBytes(Map.of("devices", List.of(device), "nextToken", "token"));
+
+        List<AWSDevice> devices = AWSDeviceParser.parseDevices(response);
+        assertEquals(1, devices.size());
+        assertEquals("Garnet", devices.get(0).getDeviceName());
+
+        devices.get(0).recoverPropertiesFromDeviceCapabilities();
+        assertEquals(20, devices.get(0).getNumberQubits().intValue());
+        assertEquals(List.of(2, 4), devices.get(0).getConnectivityMap().get(1));
+    }
+
+    private AWSDevice parseDevice(String payload) throws IOException {
+        AWSDevice device = new AWSDevice();
+        device.setDeviceName(payload);
+        device.setDeviceCapabilities(readPayload(payload));
+        device.recoverPropertiesFromDeviceCapabilities();
+        return device;
+    }
+
+    private String readPayload(String payload) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/aws/" + payload + ".json")) {
+            return new String(Objects.requireNonNull(inputStream).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
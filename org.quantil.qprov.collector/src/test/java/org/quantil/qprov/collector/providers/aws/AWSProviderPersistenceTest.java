@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+
+package org.quantil.qprov.collector.providers.aws;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.QPUPersistenceExecutor;
+import org.quantil.qprov.collector.cluster.CollectorCluster;
+import org.quantil.qprov.core.model.agents.Provider;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.model.entities.Gate;
+import org.quantil.qprov.core.model.entities.GateCharacteristics;
+import org.quantil.qprov.core.model.entities.Qubit;
+import org.quantil.qprov.core.model.entities.QubitCharacteristics;
+import org.quantil.qprov.core.repositories.GateCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.GateRepository;
+import org.quantil.qprov.core.repositories.ProviderRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.quantil.qprov.core.repositories.QubitCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.QubitRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class AWSProviderPersistenceTest {
+
+    private static final String PROVIDER = "ionq";
+
+    private static final String DEVICE_NAME = "Aria 1";
+
+    private final Map<String, Provider> providers = new ConcurrentHashMap<>();
+
+    private final Map<String, QPU> qpus = new ConcurrentHashMap<>();
+
+    private final List<QubitCharacteristics> qubitCharacteristics = new CopyOnWriteArrayList<>();
+
+    private final List<GateCharacteristics> gateCharacteristics = new CopyOnWriteArrayList<>();
+
+    private final ProviderRepository providerRepository = Mockito.mock(ProviderRepository.class);
+
+    private final QPURepository qpuRepository = Mockito.mock(QPURepository.class);
+
+    private final QubitRepository qubitRepository = Mockito.mock(QubitRepository.class);
+
+    private final GateRepository gateRepository = Mockito.mock(GateRepository.class);
+
+    private final QubitCharacteristicsRepository qubitCharacteristicsRepository = Mockito.mock(QubitCharacteristicsRepository.class);
+
+    private final GateCharacteristicsRepository gateCharacteristicsRepository = Mockito.mock(GateCharacteristicsRepository.class);
+
+    private final QPUPersistenceExecutor qpuPersistenceExecutor = Mockito.mock(QPUPersistenceExecutor.class);
+
+    private final AWSProvider provider;
+
+    public AWSProviderPersistenceTest() {
+        mockRepositories();
+
+        // the snapshots are stored directly on the calling thread
+        when(qpuPersistenceExecutor.submit(anyString(), any())).thenAnswer(invocation -> {
+            try {
+                invocation.getArgument(1, Runnable.class).run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        when(qpuPersistenceExecutor.await(any())).thenAnswer(invocation -> invocation.<List<CompletableFuture<Void>>>getArgument(0).stream()
+                .noneMatch(CompletableFuture::isCompletedExceptionally));
+
+        provider = new AWSProvider(providerRepository, qpuRepository, qubitRepository, qubitCharacteristicsRepository,
+                gateCharacteristicsRepository, gateRepository, qpuPersistenceExecutor, Mockito.mock(CollectorCluster.class),
+                new CollectorMetrics(new SimpleMeterRegistry()), Mockito.mock(AWSBraketClientRegistry.class), false, false, 60, 180, 5);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        provider.shutdown();
+    }
+
+    @Test
+    public void testUnchangedDeviceIsSkipped() throws IOException {
+        final AWSDevice device = createDevice(25);
+        assertTrue(store(device, new CollectionStatistics()));
+        assertNotNull(qpus.get(DEVICE_NAME).getFingerprint());
+        assertEquals(25, qubitCharacteristics.size());
+        assertEquals(getGates().size(), gateCharacteristics.size());
+
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertTrue(store(device, statistics));
+        assertEquals(0, statistics.getUpdatedQpus());
+        assertEquals(1, statistics.getSkippedQpus());
+    }
+
+    @Test
+    public void testMissingQubitIsStoredAgain() throws IOException {
+        assertTrue(store(createDevice(24), new CollectionStatistics()));
+        final String fingerprint = qpus.get(DEVICE_NAME).getFingerprint();
+        assertNotNull(fingerprint);
+
+        // the qubit added to the device is not added to the stored QPU, so its calibration can not be stored completely
+        final AWSDevice device = createDevice(25);
+        for (int i = 0; i < 2; i++) {
+            final CollectionStatistics statistics = new CollectionStatistics();
+            assertTrue(store(device, statistics));
+            assertEquals(1, statistics.getUpdatedQpus());
+            assertEquals(0, statistics.getSkippedQpus());
+            assertEquals(fingerprint, qpus.get(DEVICE_NAME).getFingerprint());
+        }
+        assertEquals(24, qubitCharacteristics.size());
+    }
+
+    private boolean store(AWSDevice device, CollectionStatistics statistics) {
+        final AWSCollectionRun run = new AWSCollectionRun(Map.of(PROVIDER, List.of(device)), List.of());
+        return qpuPersistenceExecutor.await(List.of(provider.submitDevice(run, PROVIDER, device, 0, statistics)));
+    }
+
+    private List<Gate> getGates() {
+        return qpus.get(DEVICE_NAME).getQubits().stream().flatMap(qubit -> qubit.getSupportedGates().stream()).distinct().toList();
+    }
+
+    private AWSDevice createDevice(int numberOfQubits) throws IOException {
+        final AWSDevice device = new AWSDevice();
+        device.setDeviceArn("arn:aws:braket:us-east-1::device/qpu/ionq/Aria-1");
+        device.setDeviceName(DEVICE_NAME);
+        device.setProviderName("IonQ");
+        device.setDeviceType("QPU");
+        device.setDeviceStatus("ONLINE");
+        device.setDeviceCapabilities(readPayload("ionq-aria-1"));
+        device.recoverPropertiesFromDeviceCapabilities();
+
+        // only keep the given number of qubits of the fully connected device
+        device.setNumberQubits(BigDecimal.valueOf(numberOfQubits));
+        device.setConnectivityMap(device.getConnectivityMap().entrySet().stream()
+                .filter(entry -> entry.getKey() < numberOfQubits)
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> entry.getValue().stream().filter(qubit -> qubit < numberOfQubits).toList(),
+                        (first, second) -> first, TreeMap::new)));
+        return device;
+    }
+
+    private String readPayload(String payload) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/aws/" + payload + ".json")) {
+            return new String(Objects.requireNonNull(inputStream).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void mockRepositories() {
+        when(providerRepository.findByName(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(providers.get(invocation.getArgument(0, String.class))));
+        when(providerRepository.save(any())).thenAnswer(invocation -> {
+            final Provider savedProvider = invocation.getArgument(0, Provider.class);
+            savedProvider.setDatabaseId(Objects.requireNonNullElseGet(savedProvider.getDatabaseId(), UUID::randomUUID));
+            providers.put(savedProvider.getName(), savedProvider);
+            return savedProvider;
+        });
+
+        when(qpuRepository.findByName(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(qpus.get(invocation.getArgument(0, String.class))));
+        when(qpuRepository.findById(any())).thenAnswer(invocation -> qpus.values().stream()
+                .filter(qpu -> qpu.getDatabaseId().equals(invocation.getArgument(0, UUID.class))).findFirst());
+        when(qpuRepository.save(any())).thenAnswer(invocation -> {
+            final QPU qpu = invocation.getArgument(0, QPU.class);
+            qpu.setDatabaseId(Objects.requireNonNullElseGet(qpu.getDatabaseId(), UUID::randomUUID));
+            qpus.put(qpu.getName(), qpu);
+            return qpu;
+        });
+
+        when(qubitRepository.findByQpu(any())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0, QPU.class).getQubits()));
+        when(qubitRepository.save(any())).thenAnswer(invocation -> {
+            final Qubit qubit = invocation.getArgument(0, Qubit.class);
+            qubit.setDatabaseId(Objects.requireNonNullElseGet(qubit.getDatabaseId(), UUID::randomUUID));
+            return qubit;
+        });
+        when(gateRepository.save(any())).thenAnswer(invocation -> {
+            final Gate gate = invocation.getArgument(0, Gate.class);
+            gate.setDatabaseId(Objects.requireNonNullElseGet(gate.getDatabaseId(), UUID::randomUUID));
+            return gate;
+        });
+
+        when(qubitCharacteristicsRepository.findLatestCalibrationTimesByQpu(any())).thenAnswer(invocation -> qubitCharacteristics.stream()
+                .filter(characteristics -> characteristics.getQubit().getQpu() == invocation.getArgument(0))
+                .collect(Collectors.toMap(characteristics -> characteristics.getQubit().getDatabaseId(),
+                        QubitCharacteristics::getCalibrationTime, BinaryOperator.maxBy(Comparator.naturalOrder()))));
+        when(qubitCharacteristicsRepository.saveAll(any())).thenAnswer(invocation -> {
+            qubitCharacteristics.addAll(invocation.getArgument(0, Collection.class));
+            return invocation.getArgument(0);
+        });
+        when(gateCharacteristicsRepository.findLatestCalibrationTimesByQpu(any())).thenAnswer(invocation -> gateCharacteristics.stream()
+                .filter(characteristics -> characteristics.getGate().getQpu() == invocation.getArgument(0))
+                .collect(Collectors.toMap(characteristics -> characteristics.getGate().getDatabaseId(),
+                        GateCharacteristics::getCalibrationTime, BinaryOperator.maxBy(Comparator.naturalOrder()))));
+        when(gateCharacteristicsRepository.saveAll(any())).thenAnswer(invocation -> {
+            gateCharacteristics.addAll(invocation.getArgument(0, Collection.class));
+            return invocation.getArgument(0);
+        });
+    }
+}
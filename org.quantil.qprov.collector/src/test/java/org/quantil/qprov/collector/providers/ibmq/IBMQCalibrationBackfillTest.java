@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quantil.qprov.collector.backfill.BackfillCheckpoint;
+import org.quantil.qprov.collector.backfill.BackfillCheckpointRepository;
+import org.quantil.qprov.collector.resilience.RequestRateLimiter;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class IBMQCalibrationBackfillTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2024, 3, 1);
+
+    private static final LocalDate END_DATE = START_DATE.plusDays(9);
+
+    private final BackfillCheckpointRepository checkpointRepository = Mockito.mock(BackfillCheckpointRepository.class);
+
+    // the checkpoints stored by the backfill, copied to detect modifications that are not saved
+    private final Map<String, BackfillCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+    // the days that were stored for each QPU
+    private final Map<String, Set<LocalDate>> storedDays = new ConcurrentHashMap<>();
+
+    private ExecutorService backfillExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        backfillExecutor = Executors.newFixedThreadPool(4);
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(checkpoints.get(invocation.getArgument(0, String.class))).map(IBMQCalibrationBackfillTest::copy));
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            final BackfillCheckpoint checkpoint = invocation.getArgument(0, BackfillCheckpoint.class);
+            checkpoints.put(checkpoint.getQpuName(), copy(checkpoint));
+            return checkpoint;
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testBackfillStoresAllDays() {
+        assertTrue(createBackfill((qpuName, dateTime) -> new DeviceProperties().lastUpdateDate(dateTime))
+                .run(List.of("ibm_a", "ibm_b"), START_DATE, END_DATE));
+
+        assertEquals(Set.of("ibm_a", "ibm_b"), storedDays.keySet());
+        storedDays.values().forEach(days -> assertEquals(Set.copyOf(START_DATE.datesUntil(END_DATE.plusDays(1)).toList()), days));
+        checkpoints.values().forEach(checkpoint -> {
+            assertEquals(START_DATE, checkpoint.getStartDate());
+            assertEquals(END_DATE, checkpoint.getLastDate());
+        });
+    }
+
+    @Test
+    public void testBackfillResumesAfterCheckpoint() {
+        checkpoints.put("ibm_a", new BackfillCheckpoint("ibm_a", START_DATE.minusDays(5), START_DATE.plusDays(4)));
+        checkpoints.put("ibm_b", new BackfillCheckpoint("ibm_b", START_DATE.minusDays(5), END_DATE));
+
+        assertTrue(createBackfill((qpuName, dateTime) -> new DeviceProperties().lastUpdateDate(dateTime))
+                .run(List.of("ibm_a", "ibm_b"), START_DATE, END_DATE));
+
+        // the completely backfilled QPU is not retrieved again, and the range of the other QPU is extended
+        assertEquals(Set.copyOf(START_DATE.plusDays(5).datesUntil(END_DATE.plusDays(1)).toList()), storedDays.get("ibm_a"));
+        assertFalse(storedDays.containsKey("ibm_b"));
+        assertEquals(START_DATE.minusDays(5), checkpoints.get("ibm_a").getStartDate());
+        assertEquals(END_DATE, checkpoints.get("ibm_a").getLastDate());
+    }
+
+    @Test
+    public void testFailedDayStopsBackfillOfQPU() {
+        final LocalDate failedDate = START_DATE.plusDays(4);
+        assertFalse(createBackfill((qpuName, dateTime) -> {
+            if (qpuName.equals("ibm_b") && dateTime.toLocalDate().equals(failedDate)) {
+                throw new IllegalStateException("Service unavailable");
+            }
+            return new DeviceProperties().lastUpdateDate(dateTime);
+        }).run(List.of("ibm_a", "ibm_b"), START_DATE, END_DATE));
+
+        // the checkpoint ends before the failed day, so that the next backfill retries it, and the other QPU is not affected
+        assertEquals(END_DATE, checkpoints.get("ibm_a").getLastDate());
+        assertEquals(failedDate.minusDays(1), checkpoints.get("ibm_b").getLastDate());
+        assertTrue(storedDays.get("ibm_b").stream().noneMatch(date -> date.isAfter(START_DATE.plusDays(5))));
+    }
+
+    @Test
+    public void testPermitsAreAcquiredBeforeSubmitting() {
+        // the permits are acquired by the thread running the backfill, so that the threads of the executor only send requests
+        final Thread backfillThread = Thread.currentThread();
+        final AtomicInteger permits = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(0) {
+            @Override
+            public void acquire() {
+                assertSame(backfillThread, Thread.currentThread());
+                permits.incrementAndGet();
+            }
+        };
+
+        assertTrue(createBackfill(rateLimiter, (qpuName, dateTime) -> {
+            requests.incrementAndGet();
+            return new DeviceProperties().lastUpdateDate(dateTime);
+        }).run(List.of("ibm_a", "ibm_b"), START_DATE, END_DATE));
+        assertEquals(20, permits.get());
+        assertEquals(20, requests.get());
+    }
+
+    private IBMQCalibrationBackfill createBackfill(BiFunction<String, OffsetDateTime, DeviceProperties> propertiesFetcher) {
+        return createBackfill(new RequestRateLimiter(0), propertiesFetcher);
+    }
+
+    private IBMQCalibrationBackfill createBackfill(RequestRateLimiter rateLimiter,
+                                                   BiFunction<String, OffsetDateTime, DeviceProperties> propertiesFetcher) {
+        return new IBMQCalibrationBackfill(checkpointRepository, backfillExecutor, rateLimiter, 3, propertiesFetcher,
+                (qpuName, deviceProperties) -> {
+                    storedDays.computeIfAbsent(qpuName, ignored -> ConcurrentHashMap.newKeySet())
+                            .add(deviceProperties.getLastUpdateDate().toLocalDate());
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    private static BackfillCheckpoint copy(BackfillCheckpoint checkpoint) {
+        return new BackfillCheckpoint(checkpoint.getQpuName(), checkpoint.getStartDate(), checkpoint.getLastDate());
+    }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.quantil.qprov.core.model.agents.Provider;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.model.entities.CalibrationMatrix;
+import org.quantil.qprov.core.repositories.CalibrationMatrixRepository;
+import org.quantil.qprov.core.repositories.ProviderRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the calculation of calibration matrices against a stub of the Qiskit service, which returns the location of the result for each
+ * submitted calculation and completes the result once the condition configured for the QPU is fulfilled
+ */
+public class IBMQCircuitExecutorTest {
+
+    private static final String ENDPOINT = "/qiskit-service/api/v1.0/calculate-calibration-matrix";
+
+    private static final Pattern QPU_NAME = Pattern.compile("\"qpu-name\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final Duration POLLING_INTERVAL = Duration.ofMillis(20);
+
+    private final Map<String, Predicate<Integer>> completions = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+
+    private final List<CalibrationMatrix> storedMatrices = new CopyOnWriteArrayList<>();
+
+    private final ProviderRepository providerRepository = Mockito.mock(ProviderRepository.class);
+
+    private final QPURepository qpuRepository = Mockito.mock(QPURepository.class);
+
+    private final CalibrationMatrixRepository calibrationMatrixRepository = Mockito.mock(CalibrationMatrixRepository.class);
+
+    private HttpServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(ENDPOINT, exchange -> {
+            if (exchange.getRequestMethod().equals("POST")) {
+                final Matcher matcher = QPU_NAME.matcher(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                final String qpuName = matcher.find() ? matcher.group(1) : "unknown";
+                exchange.getResponseHeaders().add("Location", ENDPOINT + "/" + qpuName);
+                exchange.sendResponseHeaders(202, -1);
+                exchange.close();
+                return;
+            }
+
+            final String qpuName = exchange.getRequestURI().getPath().substring(ENDPOINT.length() + 1);
+            final int poll = polls.computeIfAbsent(qpuName, ignored -> new AtomicInteger()).incrementAndGet();
+            if (completions.getOrDefault(qpuName, ignored -> true).test(poll)) {
+                respond(exchange, "{\"id\": \"" + qpuName + "\", \"complete\": true, \"result\": {\"matrix\": [[0.9, 0.2], [0.1, 0.8]]}}");
+            } else {
+                respond(exchange, "{\"id\": \"" + qpuName + "\", \"complete\": false, \"result\": null}");
+            }
+        });
+        server.start();
+
+        final Provider provider = new Provider();
+        provider.setName(IBMQConstants.PROVIDER_ID);
+        when(providerRepository.findByName(IBMQConstants.PROVIDER_ID)).thenReturn(Optional.of(provider));
+        when(calibrationMatrixRepository.save(any())).thenAnswer(invocation -> {
+            storedMatrices.add(invocation.getArgument(0, CalibrationMatrix.class));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testPollingIntervalsAreIncreasedUpToMaximum() {
+        final IBMQCircuitExecutor executor = createExecutor(Duration.ofSeconds(30), Duration.ofSeconds(180), Duration.ofMinutes(120));
+        assertEquals(List.of(30L, 60L, 120L, 180L, 180L), List.of(0, 1, 2, 3, 40).stream()
+                .map(attempt -> executor.getPollingInterval(attempt).toSeconds()).toList());
+    }
+
+    @Test
+    public void testEachMatrixIsStoredWhenAvailable() {
+        // the calculation on the slow QPU only completes after the matrix of the fast QPU was stored
+        completions.put("fast_qpu", poll -> poll >= 2);
+        completions.put("slow_qpu", poll -> !storedMatrices.isEmpty());
+        when(qpuRepository.findByProvider(any())).thenReturn(List.of(createQPU("slow_qpu", false), createQPU("fast_qpu", false),
+                createQPU("simulator", true)));
+
+        final CollectionStatistics statistics = new CollectionStatistics();
+        final IBMQCircuitExecutor executor = createExecutor(POLLING_INTERVAL, POLLING_INTERVAL.multipliedBy(4), Duration.ofSeconds(10));
+        assertTrue(executor.collectDataByCircuitExecutions("token", statistics).block(Duration.ofSeconds(20)));
+
+        assertEquals(List.of("fast_qpu", "slow_qpu"), storedMatrices.stream().map(matrix -> matrix.getQpu().getName()).toList());
+        assertTrue(polls.get("slow_qpu").get() > 1);
+        assertFalse(polls.containsKey("simulator"));
+        assertEquals(2, statistics.getUpdatedQpus());
+    }
+
+    @Test
+    public void testCalculationIsAbortedAfterTimeout() {
+        completions.put("fast_qpu", poll -> true);
+        completions.put("hanging_qpu", poll -> false);
+        when(qpuRepository.findByProvider(any())).thenReturn(List.of(createQPU("fast_qpu", false), createQPU("hanging_qpu", false)));
+
+        final CollectionStatistics statistics = new CollectionStatistics();
+        final IBMQCircuitExecutor executor = createExecutor(POLLING_INTERVAL, POLLING_INTERVAL, Duration.ofMillis(500));
+        assertFalse(executor.collectDataByCircuitExecutions("token", statistics).block(Duration.ofSeconds(20)));
+
+        assertEquals(List.of("fast_qpu"), storedMatrices.stream().map(matrix -> matrix.getQpu().getName()).toList());
+        assertTrue(polls.get("hanging_qpu").get() > 1);
+        assertEquals(1, statistics.getUpdatedQpus());
+    }
+
+    @Test
+    public void testMissingProviderFails() {
+        when(providerRepository.findByName(IBMQConstants.PROVIDER_ID)).thenReturn(Optional.empty());
+        final IBMQCircuitExecutor executor = createExecutor(POLLING_INTERVAL, POLLING_INTERVAL, Duration.ofSeconds(10));
+        assertFalse(executor.collectDataByCircuitExecutions("token", new CollectionStatistics()).block(Duration.ofSeconds(20)));
+    }
+
+    private IBMQCircuitExecutor createExecutor(Duration initialPollingInterval, Duration maxPollingInterval, Duration timeout) {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new IBMQCircuitExecutor(providerRepository, qpuRepository, calibrationMatrixRepository, new CollectorMetrics(meterRegistry),
+                WebClient.builder(), new ProviderResilience(meterRegistry, 1, 1, 1, 0, 0, 0, 5, 60),
+                URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort() + ENDPOINT),
+                initialPollingInterval, maxPollingInterval, timeout);
+    }
+
+    private static QPU createQPU(String name, boolean simulator) {
+        final QPU qpu = new QPU();
+        qpu.setName(name);
+        qpu.setSimulator(simulator);
+        return qpu;
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        final byte[] response = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response);
+        }
+    }
+}
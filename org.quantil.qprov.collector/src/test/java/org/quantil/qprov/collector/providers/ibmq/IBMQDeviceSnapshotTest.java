@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import org.junit.jupiter.api.Test;
+import org.quantil.qprov.collector.SpooledSnapshot;
+import org.quantil.qprov.ibmq.client.model.Device;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IBMQDeviceSnapshotTest {
+
+    @Test
+    public void testSpooledSnapshotRoundTrip() {
+        IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(1, 20, 42, Duration.ofHours(1));
+        Device device = fleet.getDevices(0).get(0);
+        IBMQDeviceDetails deviceDetails = new IBMQDeviceDetails(fleet.getBackendStatus(device, 0), fleet.getDeviceProperties(device, 0));
+
+        SpooledSnapshot spooledSnapshot = new IBMQDeviceSnapshot(IBMQConstants.PROVIDER_ID, IBMQConstants.PROVIDER_URL, device,
+                deviceDetails).toSpooledSnapshot();
+        assertEquals(IBMQConstants.SPOOL_SNAPSHOT_TYPE, spooledSnapshot.getType());
+        assertEquals(device.getBackendName(), spooledSnapshot.getQpuName());
+
+        IBMQDeviceSnapshot snapshot = IBMQDeviceSnapshot.fromSpooledSnapshot(spooledSnapshot);
+        assertEquals(IBMQConstants.PROVIDER_ID, snapshot.getProviderName());
+        assertEquals(IBMQConstants.PROVIDER_URL, snapshot.getOfferingUrl());
+        assertEquals(IBMQUtility.getFingerprint(device, deviceDetails.getDeviceProperties()),
+                IBMQUtility.getFingerprint(snapshot.getDevice(), snapshot.getDeviceDetails().getDeviceProperties()));
+        assertEquals(deviceDetails.getDeviceProperties().getQubits(), snapshot.getDeviceDetails().getDeviceProperties().getQubits());
+        assertEquals(deviceDetails.getBackendStatus().getLengthQueue().intValue(),
+                snapshot.getDeviceDetails().getBackendStatus().getLengthQueue().intValue());
+    }
+
+    @Test
+    public void testSpooledSnapshotWithoutDetails() {
+        Device device = new Device().backendName("ibm_test").simulator(false);
+        IBMQDeviceSnapshot snapshot = IBMQDeviceSnapshot.fromSpooledSnapshot(
+                new IBMQDeviceSnapshot(IBMQConstants.REPLAY_PROVIDER_ID, null, device, null).toSpooledSnapshot());
+        assertEquals("ibm_test", snapshot.getDevice().getBackendName());
+        assertNull(snapshot.getOfferingUrl());
+        assertNull(snapshot.getDeviceDetails());
+
+        SpooledSnapshot emptySnapshot = new SpooledSnapshot(IBMQConstants.SPOOL_SNAPSHOT_TYPE, "ibm_test", 0, "{}".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> IBMQDeviceSnapshot.fromSpooledSnapshot(emptySnapshot));
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.quantil.qprov.core.model.entities.Gate;
+import org.quantil.qprov.core.model.entities.Qubit;
+import org.quantil.qprov.ibmq.client.model.DevicePropsGate;
+import org.quantil.qprov.ibmq.client.model.Parameter;
+
+/**
+ * Compares the matching of the gate properties retrieved from IBM to the stored gates of a QPU by scanning all gate properties for each gate
+ * with the lookup in the gate properties index, using synthetic QPUs with a heavy-hex coupling map.
+ * The benchmark is not executed with the tests and can be started using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IBMQGateMatchingBenchmark {
+
+    private static final String[] SINGLE_QUBIT_GATES = {"id", "rz", "sx", "x"};
+
+    private static final String TWO_QUBIT_GATE = "cx";
+
+    @Param({"127", "433"})
+    private int numberOfQubits;
+
+    private List<Gate> gates;
+
+    private List<DevicePropsGate> gateProperties;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IBMQGateMatchingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        final List<int[]> couplingMap = createHeavyHexCouplingMap(numberOfQubits);
+
+        final Map<Integer, Qubit> qubits = new HashMap<>();
+        for (int i = 0; i < numberOfQubits; i++) {
+            final Qubit qubit = new Qubit();
+            qubit.setDatabaseId(UUID.randomUUID());
+            qubit.setName(String.valueOf(i));
+            qubits.put(i, qubit);
+        }
+
+        // create the stored gates and the gate properties as returned by IBM, which contain two-qubit gates for both directions
+        gates = new ArrayList<>();
+        gateProperties = new ArrayList<>();
+        for (int i = 0; i < numberOfQubits; i++) {
+            for (String gateName : SINGLE_QUBIT_GATES) {
+                gates.add(createGate(gateName, qubits.get(i)));
+                gateProperties.add(createGateProperties(gateName, i));
+            }
+        }
+        for (int[] coupling : couplingMap) {
+            gates.add(createGate(TWO_QUBIT_GATE, qubits.get(coupling[0]), qubits.get(coupling[1])));
+            gateProperties.add(createGateProperties(TWO_QUBIT_GATE, coupling[0], coupling[1]));
+            gateProperties.add(createGateProperties(TWO_QUBIT_GATE, coupling[1], coupling[0]));
+        }
+    }
+
+    @Benchmark
+    public void scanGateProperties(Blackhole blackhole) {
+        for (Gate gate : gates) {
+            final Optional<DevicePropsGate> matchingGate = gateProperties.stream()
+                    .filter(ibmGate -> ibmGate.getGate().equals(gate.getName()))
+                    .filter(ibmGate -> IBMQUtility.operatesOnSameQubits(ibmGate, gate))
+                    .findFirst();
+            blackhole.consume(matchingGate.orElse(null));
+        }
+    }
+
+    @Benchmark
+    public void indexGateProperties(Blackhole blackhole) {
+        final Map<String, DevicePropsGate> index = IBMQUtility.indexGateProperties(gateProperties);
+        for (Gate gate : gates) {
+            blackhole.consume(index.get(IBMQUtility.getGateKey(gate)));
+        }
+    }
+
+    /**
+     * Create a coupling map similar to the heavy-hex lattice of IBM QPUs, i.e., rows of linearly connected qubits that are linked by bridge
+     * qubits at every fourth column with alternating offsets
+     */
+    private static List<int[]> createHeavyHexCouplingMap(int numberOfQubits) {
+        final int rowLength = (int) Math.round(Math.sqrt(numberOfQubits * 1.6));
+        final List<int[]> couplingMap = new ArrayList<>();
+
+        int nextQubit = 0;
+        int rowIndex = 0;
+        int[] previousRow = null;
+        while (nextQubit < numberOfQubits) {
+            final List<int[]> bridges = new ArrayList<>();
+            if (previousRow != null) {
+                for (int column = rowIndex % 2 == 0 ? 2 : 0; column < previousRow.length && nextQubit < numberOfQubits; column += 4) {
+                    bridges.add(new int[] {column, nextQubit++});
+                }
+            }
+
+            final int[] row = new int[Math.min(rowLength, numberOfQubits - nextQubit)];
+            for (int column = 0; column < row.length; column++) {
+                row[column] = nextQubit++;
+                if (column > 0) {
+                    couplingMap.add(new int[] {row[column - 1], row[column]});
+                }
+            }
+
+            for (int[] bridge : bridges) {
+                couplingMap.add(new int[] {previousRow[bridge[0]], bridge[1]});
+                if (bridge[0] < row.length) {
+                    couplingMap.add(new int[] {bridge[1], row[bridge[0]]});
+                }
+            }
+            previousRow = row;
+            rowIndex++;
+        }
+        return couplingMap;
+    }
+
+    private static Gate createGate(String name, Qubit... operatingQubits) {
+        final Gate gate = new Gate();
+        gate.setDatabaseId(UUID.randomUUID());
+        gate.setName(name);
+        for (Qubit qubit : operatingQubits) {
+            gate.addOperatingQubit(qubit);
+        }
+        return gate;
+    }
+
+    private static DevicePropsGate createGateProperties(String name, int... qubits) {
+        final DevicePropsGate gateProperties = new DevicePropsGate();
+        gateProperties.setGate(name);
+        gateProperties.setName(name + "_" + Arrays.stream(qubits).mapToObj(String::valueOf).collect(Collectors.joining("_")));
+        for (int qubit : qubits) {
+            gateProperties.addQubitsItem(BigDecimal.valueOf(qubit));
+        }
+        gateProperties.addParametersItem(new Parameter().name("gate_error").unit("").value(BigDecimal.valueOf(0.001)));
+        gateProperties.addParametersItem(new Parameter().name("gate_length").unit("ns").value(BigDecimal.valueOf(35.5)));
+        return gateProperties;
+    }
+}
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quantil.qprov.collector.resilience.CircuitBreaker;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the retries, hedging, and circuit breaking of requests against a local stub of the IBMQ API that injects latency and server errors
+ */
+public class IBMQHedgingInterceptorTest {
+
+    private static final long HEDGE_DELAY = 200;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final ProviderResilience providerResilience =
+            new ProviderResilience(new SimpleMeterRegistry(), 1, 5, 10, 2, 10, (int) HEDGE_DELAY, 3, 60);
+
+    private final CircuitBreaker circuitBreaker = providerResilience.getCircuitBreaker(IBMQConstants.PROVIDER_ID);
+
+    // latency of the first request in milliseconds and number of requests answered with a server error
+    private volatile long firstRequestLatency;
+
+    private volatile int failingRequests;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private OkHttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/devices", exchange -> {
+            final int request = requests.incrementAndGet();
+            try {
+                Thread.sleep(request == 1 ? firstRequestLatency : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final byte[] response = ("response-" + request).getBytes(StandardCharsets.UTF_8);
+            try (OutputStream body = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(request <= failingRequests ? 503 : 200, response.length);
+                body.write(response);
+            } catch (IOException e) {
+                // the client cancelled the request
+            }
+        });
+        server.start();
+
+        final OkHttpClient httpClient = providerResilience.applyTimeouts(new OkHttpClient.Builder()).build();
+        client = new OkHttpClient.Builder().addInterceptor(new IBMQHedgingInterceptor(httpClient, providerResilience, circuitBreaker))
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() throws IOException {
+        firstRequestLatency = 3000;
+
+        final long startTime = System.nanoTime();
+        try (Response response = client.newCall(get()).execute()) {
+            assertEquals("response-2", response.body().string());
+        }
+        assertTrue(System.nanoTime() - startTime < 2000 * 1000000L);
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testRateLimitedRequestIsNotHedged() throws IOException {
+        firstRequestLatency = 3 * HEDGE_DELAY;
+
+        final OkHttpClient httpClient = providerResilience.applyTimeouts(new OkHttpClient.Builder()).build();
+        final OkHttpClient rateLimitedClient = new OkHttpClient.Builder()
+                .addInterceptor(new IBMQHedgingInterceptor(httpClient, providerResilience, circuitBreaker, false))
+                .build();
+        try (Response response = rateLimitedClient.newCall(get()).execute()) {
+            assertEquals("response-1", response.body().string());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testServerErrorIsRetried() throws IOException {
+        failingRequests = 2;
+
+        try (Response response = client.newCall(get()).execute()) {
+            assertEquals(200, response.code());
+            assertEquals("response-3", response.body().string());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testNonIdempotentRequestIsNotRetried() throws IOException {
+        failingRequests = 1;
+
+        final Request post = new Request.Builder().url(getUrl()).post(RequestBody.create("{}", MediaType.get("application/json"))).build();
+        try (Response response = client.newCall(post).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testOpenCircuitRejectsRequests() throws IOException {
+        failingRequests = Integer.MAX_VALUE;
+
+        // the retries of the first request exceed the failure threshold, so that the second request is not sent
+        try (Response response = client.newCall(get()).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(IOException.class, () -> client.newCall(get()).execute());
+        assertEquals(3, requests.get());
+    }
+
+    private Request get() {
+        return new Request.Builder().url(getUrl()).build();
+    }
+
+    private String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/devices";
+    }
+}
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.quantil.qprov.collector.CollectionStatistics;
+import org.quantil.qprov.collector.CollectorMetrics;
+import org.quantil.qprov.collector.QPUPersistenceExecutor;
+import org.quantil.qprov.collector.backfill.BackfillCheckpointRepository;
+import org.quantil.qprov.collector.cluster.CollectorCluster;
+import org.quantil.qprov.collector.resilience.ProviderResilience;
+import org.quantil.qprov.core.model.agents.Provider;
+import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.model.entities.Gate;
+import org.quantil.qprov.core.model.entities.GateCharacteristics;
+import org.quantil.qprov.core.model.entities.Qubit;
+import org.quantil.qprov.core.model.entities.QubitCharacteristics;
+import org.quantil.qprov.core.repositories.GateCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.GateRepository;
+import org.quantil.qprov.core.repositories.ProviderRepository;
+import org.quantil.qprov.core.repositories.QPURepository;
+import org.quantil.qprov.core.repositories.QubitCharacteristicsRepository;
+import org.quantil.qprov.core.repositories.QubitRepository;
+import org.quantil.qprov.ibmq.client.JSON;
+import org.quantil.qprov.ibmq.client.model.BackendStatus;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the storage of the devices retrieved from IBMQ against repositories that keep the entities in memory, so that the same entity
+ * objects are returned within a collection like within the single transaction of a snapshot. The collections retrieve the data from a
+ * local stub of the IBMQ API, which answers each request with the response registered for its path.
+ */
+public class IBMQProviderTest {
+
+    private static final int QUBITS = 8;
+
+    private static final String API_PATH = "/api";
+
+    private static final IBMQScope SCOPE = IBMQScope.parse("ibm-q/open/main");
+
+    private final IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(1, QUBITS, 42, Duration.ofHours(1));
+
+    private final Map<String, Provider> providers = new ConcurrentHashMap<>();
+
+    private final Map<String, QPU> qpus = new ConcurrentHashMap<>();
+
+    private final List<QubitCharacteristics> qubitCharacteristics = new CopyOnWriteArrayList<>();
+
+    private final List<GateCharacteristics> gateCharacteristics = new CopyOnWriteArrayList<>();
+
+    private final ProviderRepository providerRepository = Mockito.mock(ProviderRepository.class);
+
+    private final QPURepository qpuRepository = Mockito.mock(QPURepository.class);
+
+    private final QubitRepository qubitRepository = Mockito.mock(QubitRepository.class);
+
+    private final GateRepository gateRepository = Mockito.mock(GateRepository.class);
+
+    private final QubitCharacteristicsRepository qubitCharacteristicsRepository = Mockito.mock(QubitCharacteristicsRepository.class);
+
+    private final GateCharacteristicsRepository gateCharacteristicsRepository = Mockito.mock(GateCharacteristicsRepository.class);
+
+    // stores the snapshots directly on the calling thread
+    private final QPUPersistenceExecutor qpuPersistenceExecutor = Mockito.mock(QPUPersistenceExecutor.class);
+
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private final JSON json = new JSON();
+
+    private final HttpServer server;
+
+    private final IBMQProvider provider;
+
+    public IBMQProviderTest() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/users/loginWithToken", exchange -> respond(exchange, "{\"id\": \"token\", \"ttl\": 3600}"));
+        server.createContext(API_PATH, exchange -> {
+            final String path = exchange.getRequestURI().getPath().substring(API_PATH.length());
+            requests.computeIfAbsent(path, ignored -> new AtomicInteger()).incrementAndGet();
+            respond(exchange, responses.get(path));
+        });
+        server.start();
+
+        mockRepositories();
+        when(qpuPersistenceExecutor.submit(anyString(), any(), any())).thenAnswer(invocation -> {
+            try {
+                invocation.getArgument(1, Runnable.class).run();
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        when(qpuPersistenceExecutor.await(any())).thenAnswer(invocation -> invocation.<List<CompletableFuture<Void>>>getArgument(0).stream()
+                .noneMatch(CompletableFuture::isCompletedExceptionally));
+
+        provider = createProvider(SCOPE);
+    }
+
+    private IBMQProvider createProvider(IBMQScope... scopes) {
+        final String url = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort();
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final IBMQTokenManager tokenManager = new IBMQTokenManager(url, "apiToken", Duration.ofMinutes(5), Clock.systemUTC());
+        final CollectorCluster collectorCluster = Mockito.mock(CollectorCluster.class);
+        when(collectorCluster.acquire(anyString())).thenReturn(true);
+        final IBMQProvider provider = new IBMQProvider(providerRepository, qpuRepository, qubitRepository, qubitCharacteristicsRepository,
+                gateCharacteristicsRepository, gateRepository, Mockito.mock(IBMQCircuitExecutor.class), qpuPersistenceExecutor,
+                collectorCluster, new CollectorMetrics(meterRegistry), tokenManager,
+                new ProviderResilience(meterRegistry, 1, 1, 1, 0, 0, 0, 5, 60), Mockito.mock(BackfillCheckpointRepository.class),
+                false, false, 60, 180, 5, 4, Arrays.stream(scopes).map(IBMQScope::toString).toArray(String[]::new), 0.0, 7);
+        provider.setApiUrl(url + API_PATH);
+        ReflectionTestUtils.setField(provider, "ibmqToken", "apiToken");
+        return provider;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        provider.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testNewDeviceIsStoredWithCharacteristics() {
+        final Device device = fleet.getDevices(0).get(0);
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertTrue(store(device, 0, statistics));
+
+        final QPU qpu = qpus.get(device.getBackendName());
+        final List<Gate> gates = qpu.getQubits().stream().flatMap(qubit -> qubit.getSupportedGates().stream()).distinct().toList();
+        assertEquals(QUBITS, qpu.getQubits().size());
+        assertTrue(gates.stream().allMatch(gate -> !gate.getOperatingQubits().isEmpty()));
+
+        // the characteristics of all qubits and gates are stored with the first collection of the device
+        assertEquals(QUBITS, qubitCharacteristics.size());
+        assertEquals(gates.size(), gateCharacteristics.size());
+        assertTrue(gateCharacteristics.stream().allMatch(characteristics -> Objects.nonNull(characteristics.getGateErrorRate())));
+        assertEquals(1, statistics.getUpdatedQpus());
+    }
+
+    @Test
+    public void testUnchangedDeviceIsSkipped() {
+        final Device device = fleet.getDevices(0).get(0);
+        assertTrue(store(device, 0, new CollectionStatistics()));
+        assertNotNull(qpus.get(device.getBackendName()).getFingerprint());
+
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertTrue(store(device, 0, statistics));
+        assertEquals(0, statistics.getUpdatedQpus());
+        assertEquals(1, statistics.getSkippedQpus());
+    }
+
+    @Test
+    public void testMismatchingQubitsAreStoredAgain() {
+        final Device device = fleet.getDevices(0).get(0);
+        final DeviceProperties deviceProperties = fleet.getDeviceProperties(device, 0);
+        deviceProperties.getQubits().remove(QUBITS - 1);
+        assertTrue(store(device, 0, deviceProperties, new CollectionStatistics()));
+        assertTrue(qubitCharacteristics.isEmpty());
+        assertNull(qpus.get(device.getBackendName()).getFingerprint());
+
+        // the same calibration is stored again by the next collection, as the QPU was not marked up to date
+        assertStoredAgain(device);
+    }
+
+    @Test
+    public void testMissingGatePropertiesAreStoredAgain() {
+        final Device device = fleet.getDevices(0).get(0);
+        final DeviceProperties deviceProperties = fleet.getDeviceProperties(device, 0);
+        deviceProperties.setGates(new ArrayList<>(deviceProperties.getGates().subList(0, 1)));
+        assertTrue(store(device, 0, deviceProperties, new CollectionStatistics()));
+        assertEquals(QUBITS, qubitCharacteristics.size());
+        assertEquals(1, gateCharacteristics.size());
+        assertNull(qpus.get(device.getBackendName()).getFingerprint());
+
+        assertStoredAgain(device);
+    }
+
+    @Test
+    public void testMissingQubitPropertyIsStoredAsNull() {
+        final Device device = fleet.getDevices(0).get(0);
+        final DeviceProperties deviceProperties = fleet.getDeviceProperties(device, 0);
+        deviceProperties.getQubits().set(0, deviceProperties.getQubits().get(0).stream()
+                .filter(property -> !"T2".equals(property.get("name"))).toList());
+        assertTrue(store(device, 0, deviceProperties, new CollectionStatistics()));
+
+        final QubitCharacteristics characteristics = qubitCharacteristics.stream()
+                .filter(qubitCharacteristics -> qubitCharacteristics.getQubit().getName().equals("0")).findFirst().orElseThrow();
+        assertNotNull(characteristics.getT1Time());
+        assertNull(characteristics.getT2Time());
+        assertNotNull(characteristics.getReadoutError());
+    }
+
+    private void assertStoredAgain(Device device) {
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertTrue(store(device, 0, statistics));
+        assertEquals(1, statistics.getUpdatedQpus());
+        assertEquals(QUBITS, qubitCharacteristics.size());
+        assertEquals(qpus.get(device.getBackendName()).getQubits().stream().flatMap(qubit -> qubit.getSupportedGates().stream())
+                .distinct().count(), gateCharacteristics.size());
+        assertNotNull(qpus.get(device.getBackendName()).getFingerprint());
+
+        final CollectionStatistics nextStatistics = new CollectionStatistics();
+        assertTrue(store(device, 0, nextStatistics));
+        assertEquals(1, nextStatistics.getSkippedQpus());
+    }
+
+    @Test
+    public void testQueueSizesAreUpdated() {
+        final Provider ibmq = new Provider();
+        ibmq.setName(IBMQConstants.PROVIDER_ID);
+        providers.put(ibmq.getName(), ibmq);
+        when(qpuRepository.findNamesByProvider(ibmq)).thenReturn(List.of("changed_qpu", "unchanged_qpu", "unknown_qpu", "offline_qpu",
+                "failing_qpu", "unscoped_qpu"));
+        when(qpuRepository.updateQueueSize(anyString(), anyInt())).thenAnswer(invocation ->
+                switch (invocation.getArgument(0, String.class)) {
+                    case "changed_qpu" -> 1;
+                    case "failing_qpu" -> throw new QueryTimeoutException("Update of the queue size timed out");
+                    default -> 0;
+                });
+
+        // the scopes of the QPUs are only known for the QPUs retrieved by a collection since the start of the collector
+        @SuppressWarnings("unchecked") final Map<String, IBMQScope> deviceScopes =
+                (Map<String, IBMQScope>) ReflectionTestUtils.getField(provider, "deviceScopes");
+        for (String qpuName : List.of("changed_qpu", "unchanged_qpu", "unknown_qpu", "offline_qpu", "failing_qpu")) {
+            deviceScopes.put(qpuName, SCOPE);
+        }
+
+        responses.put(getDevicePath("changed_qpu", "queue/status"), json.serialize(new BackendStatus().lengthQueue(BigDecimal.valueOf(5))));
+        responses.put(getDevicePath("unchanged_qpu", "queue/status"), json.serialize(new BackendStatus().lengthQueue(BigDecimal.ZERO)));
+        responses.put(getDevicePath("unknown_qpu", "queue/status"), "{\"state\": true, \"status\": \"active\"}");
+        responses.put(getDevicePath("failing_qpu", "queue/status"), json.serialize(new BackendStatus().lengthQueue(BigDecimal.ONE)));
+        responses.put(getDevicePath("unscoped_qpu", "queue/status"), json.serialize(new BackendStatus().lengthQueue(BigDecimal.ONE)));
+
+        // the queue status without the length of the queue and the failed request are counted as failures of the other QPUs, the
+        // failed update does not abort the update of the remaining QPUs, and the QPU with the unknown scope is skipped
+        final CollectionStatistics statistics = new CollectionStatistics();
+        assertFalse(provider.collectQueueStatus(statistics));
+        verify(qpuRepository).updateQueueSize("changed_qpu", 5);
+        verify(qpuRepository).updateQueueSize("unchanged_qpu", 0);
+        verify(qpuRepository).updateQueueSize("failing_qpu", 1);
+        verify(qpuRepository, never()).updateQueueSize(eq("unknown_qpu"), anyInt());
+        verify(qpuRepository, never()).updateQueueSize(eq("offline_qpu"), anyInt());
+        verify(qpuRepository, never()).updateQueueSize(eq("unscoped_qpu"), anyInt());
+        assertEquals(1, statistics.getUpdatedQpus());
+        assertEquals(2, statistics.getSkippedQpus());
+        assertEquals(2, statistics.getFailures());
+    }
+
+    @Test
+    public void testDevicesOfMultipleScopesAreRetrievedOnce() {
+        final IBMQScope otherScope = IBMQScope.parse("ibm-q-research/university/project");
+        final List<Device> devices = new IBMQSyntheticFleet(3, QUBITS, 42, Duration.ofHours(1)).getDevices(0);
+        responses.put(getProjectPath(SCOPE, "devices/v/1"), json.serialize(devices.subList(0, 2)));
+        responses.put(getProjectPath(otherScope, "devices/v/1"), json.serialize(devices.subList(1, 3)));
+        for (Device device : devices) {
+            for (IBMQScope scope : List.of(SCOPE, otherScope)) {
+                responses.put(getDevicePath(scope, device.getBackendName(), "queue/status"),
+                        json.serialize(fleet.getBackendStatus(device, 0)));
+                responses.put(getDevicePath(scope, device.getBackendName(), "properties"),
+                        json.serialize(fleet.getDeviceProperties(device, 0)));
+            }
+        }
+
+        final IBMQProvider multiScopeProvider = createProvider(SCOPE, otherScope);
+        try {
+            final CollectionStatistics statistics = new CollectionStatistics();
+            assertTrue(multiScopeProvider.collectFromApi(statistics));
+            assertEquals(3, statistics.getUpdatedQpus());
+        } finally {
+            multiScopeProvider.shutdown();
+        }
+
+        // the device accessible in both scopes is stored once with the details retrieved from the first scope
+        assertEquals(devices.stream().map(Device::getBackendName).collect(Collectors.toSet()), qpus.keySet());
+        final List<IBMQScope> expectedScopes = List.of(SCOPE, SCOPE, otherScope);
+        for (int i = 0; i < devices.size(); i++) {
+            final String deviceName = devices.get(i).getBackendName();
+            final IBMQScope expectedScope = expectedScopes.get(i);
+            final IBMQScope unexpectedScope = expectedScope == SCOPE ? otherScope : SCOPE;
+            for (String resource : List.of("queue/status", "properties")) {
+                assertEquals(1, getRequests(getDevicePath(expectedScope, deviceName, resource)));
+                assertEquals(0, getRequests(getDevicePath(unexpectedScope, deviceName, resource)));
+            }
+        }
+    }
+
+    private int getRequests(String path) {
+        return Optional.ofNullable(requests.get(path)).map(AtomicInteger::get).orElse(0);
+    }
+
+    private static String getDevicePath(String deviceName, String resource) {
+        return getDevicePath(SCOPE, deviceName, resource);
+    }
+
+    private static String getDevicePath(IBMQScope scope, String deviceName, String resource) {
+        return getProjectPath(scope, "devices/" + deviceName + "/" + resource);
+    }
+
+    private static String getProjectPath(IBMQScope scope, String resource) {
+        return String.format("/Network/%s/Groups/%s/Projects/%s/%s", scope.getHub(), scope.getGroup(), scope.getProject(), resource);
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        if (Objects.isNull(content)) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] response = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response);
+        }
+    }
+
+    private boolean store(Device device, int step, CollectionStatistics statistics) {
+        return store(device, step, fleet.getDeviceProperties(device, step), statistics);
+    }
+
+    private boolean store(Device device, int step, DeviceProperties deviceProperties, CollectionStatistics statistics) {
+        final IBMQDeviceDetails deviceDetails = new IBMQDeviceDetails(fleet.getBackendStatus(device, step), deviceProperties);
+        return qpuPersistenceExecutor.await(List.of(provider.submitDevice(new IBMQDeviceSnapshot(IBMQConstants.PROVIDER_ID,
+                IBMQConstants.PROVIDER_URL, device, deviceDetails), statistics)));
+    }
+
+    private void mockRepositories() {
+        when(providerRepository.findByName(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(providers.get(invocation.getArgument(0, String.class))));
+        when(providerRepository.save(any())).thenAnswer(invocation -> {
+            final Provider provider = invocation.getArgument(0, Provider.class);
+            provider.setDatabaseId(Objects.requireNonNullElseGet(provider.getDatabaseId(), UUID::randomUUID));
+            providers.put(provider.getName(), provider);
+            return provider;
+        });
+
+        when(qpuRepository.findByName(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(qpus.get(invocation.getArgument(0, String.class))));
+        when(qpuRepository.findById(any())).thenAnswer(invocation -> qpus.values().stream()
+                .filter(qpu -> qpu.getDatabaseId().equals(invocation.getArgument(0, UUID.class))).findFirst());
+        when(qpuRepository.save(any())).thenAnswer(invocation -> {
+            final QPU qpu = invocation.getArgument(0, QPU.class);
+            qpu.setDatabaseId(Objects.requireNonNullElseGet(qpu.getDatabaseId(), UUID::randomUUID));
+            qpus.put(qpu.getName(), qpu);
+            return qpu;
+        });
+
+        when(qubitRepository.findByQpu(any())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0, QPU.class).getQubits()));
+        when(qubitRepository.save(any())).thenAnswer(invocation -> {
+            final Qubit qubit = invocation.getArgument(0, Qubit.class);
+            qubit.setDatabaseId(Objects.requireNonNullElseGet(qubit.getDatabaseId(), UUID::randomUUID));
+            return qubit;
+        });
+        when(gateRepository.save(any())).thenAnswer(invocation -> {
+            final Gate gate = invocation.getArgument(0, Gate.class);
+            gate.setDatabaseId(Objects.requireNonNullElseGet(gate.getDatabaseId(), UUID::randomUUID));
+            return gate;
+        });
+
+        when(qubitCharacteristicsRepository.findLatestCalibrationTimesByQpu(any())).thenAnswer(invocation -> qubitCharacteristics.stream()
+                .filter(characteristics -> characteristics.getQubit().getQpu() == invocation.getArgument(0))
+                .collect(Collectors.toMap(characteristics -> characteristics.getQubit().getDatabaseId(),
+                        QubitCharacteristics::getCalibrationTime, BinaryOperator.maxBy(Comparator.naturalOrder()))));
+        when(qubitCharacteristicsRepository.saveAll(any())).thenAnswer(invocation -> {
+            qubitCharacteristics.addAll(invocation.getArgument(0, Collection.class));
+            return invocation.getArgument(0);
+        });
+        when(gateCharacteristicsRepository.findLatestCalibrationTimesByQpu(any())).thenAnswer(invocation -> gateCharacteristics.stream()
+                .filter(characteristics -> characteristics.getGate().getQpu() == invocation.getArgument(0))
+                .collect(Collectors.toMap(characteristics -> characteristics.getGate().getDatabaseId(),
+                        GateCharacteristics::getCalibrationTime, BinaryOperator.maxBy(Comparator.naturalOrder()))));
+        when(gateCharacteristicsRepository.saveAll(any())).thenAnswer(invocation -> {
+            gateCharacteristics.addAll(invocation.getArgument(0, Collection.class));
+            return invocation.getArgument(0);
+        });
+    }
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading the qubit characteristics from the typed properties with the former approach, which transformed the string representation
+ * of each property into a map using regular expressions, for a synthetic QPU with 433 qubits.
+ * <p>
+ * The benchmark is not executed with the tests and can be started using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IBMQQubitPropertiesBenchmark {
+
+    private static final int NUMBER_OF_QUBITS = 433;
+
+    private static final String[][] PROPERTIES = {{"T1", "us"}, {"T2", "us"}, {"frequency", "GHz"}, {"anharmonicity", "GHz"},
+            {"readout_error", ""}, {"prob_meas0_prep1", ""}, {"prob_meas1_prep0", ""}, {"readout_length", "ns"}};
+
+    private List<List<Map<String, Object>>> qubits;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IBMQQubitPropertiesBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        // the properties are deserialized by Gson into maps with a string date, name, unit, and a double value
+        final Random random = new Random(42);
+        qubits = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_QUBITS; i++) {
+            final List<Map<String, Object>> properties = new ArrayList<>();
+            for (String[] property : PROPERTIES) {
+                final Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("date", "2024-03-12T06:14:51Z");
+                entry.put("name", property[0]);
+                entry.put("unit", property[1]);
+                entry.put("value", random.nextDouble() * 300);
+                properties.add(entry);
+            }
+            qubits.add(properties);
+        }
+    }
+
+    @Benchmark
+    public void typedProperties(Blackhole blackhole) {
+        for (List<Map<String, Object>> properties : qubits) {
+            final IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(properties);
+            blackhole.consume(BigDecimal.valueOf(qubitProperties.getT1Time()));
+            blackhole.consume(BigDecimal.valueOf(qubitProperties.getT2Time()));
+            blackhole.consume(BigDecimal.valueOf(qubitProperties.getReadoutError()));
+        }
+    }
+
+    @Benchmark
+    public void stringTransformation(Blackhole blackhole) {
+        for (List<Map<String, Object>> properties : qubits) {
+            for (Object property : properties) {
+                final Map<String, String> propertiesMap = transformIbmPropertiesToMap(property);
+                switch (propertiesMap.get("name")) {
+                    case "T1":
+                    case "T2":
+                    case "readout_error":
+                        blackhole.consume(new BigDecimal(propertiesMap.get("value")));
+                        break;
+                    default:
+                }
+            }
+        }
+    }
+
+    /**
+     * The former transformation of the properties returned by IBM into a map
+     */
+    private static Map<String, String> transformIbmPropertiesToMap(Object propertiesList) {
+        final String[] propertiesArray = propertiesList.toString()
+                .replaceAll("\\s+", "")
+                .replaceAll("\\{", "")
+                .replaceAll("}", "")
+                .split(",");
+
+        final Map<String, String> map = new HashMap<>();
+        for (String property : propertiesArray) {
+            final String[] propertyParts = property.split("=");
+            if (propertyParts.length != 2) {
+                continue;
+            }
+            map.put(propertyParts[0], propertyParts[1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IBMQQubitPropertiesTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testConvertTimesToMicroSeconds() {
+        assertEquals(120.5, readT1Time(120.5, "us"), DELTA);
+        assertEquals(120.5, readT1Time(0.0001205, "s"), DELTA);
+        assertEquals(120.5, readT1Time(0.1205, "ms"), DELTA);
+        assertEquals(120.5, readT1Time(120500, "ns"), DELTA);
+    }
+
+    @Test
+    public void testKeepValueOfUnknownUnit() {
+        assertEquals(120.5, readT1Time(120.5, "min"), DELTA);
+        assertEquals(120.5, IBMQQubitProperties.read(List.of(Map.of("name", "T1", "value", 120.5))).getT1Time(), DELTA);
+    }
+
+    @Test
+    public void testReadAllProperties() {
+        final IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(List.of(
+                createProperty("T1", 150.0, "us"),
+                createProperty("T2", 0.09, "ms"),
+                createProperty("frequency", 5.1, "GHz"),
+                createProperty("readout_error", "0.021", "")));
+        assertEquals(150.0, qubitProperties.getT1Time(), DELTA);
+        assertEquals(90.0, qubitProperties.getT2Time(), DELTA);
+        assertEquals(0.021, qubitProperties.getReadoutError(), DELTA);
+    }
+
+    @Test
+    public void testMissingPropertyIsNaN() {
+        final IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(List.of(
+                createProperty("T1", 150.0, "us"),
+                createProperty("readout_error", "not a number", "")));
+        assertEquals(150.0, qubitProperties.getT1Time(), DELTA);
+        assertTrue(Double.isNaN(qubitProperties.getT2Time()));
+        assertTrue(Double.isNaN(qubitProperties.getReadoutError()));
+        assertTrue(Double.isNaN(IBMQQubitProperties.read(List.of()).getT1Time()));
+    }
+
+    private static double readT1Time(double value, String unit) {
+        return IBMQQubitProperties.read(List.of(createProperty("T1", value, unit))).getT1Time();
+    }
+
+    private static Map<String, Object> createProperty(String name, Object value, String unit) {
+        return Map.of("name", name, "value", value, "unit", unit);
+    }
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quantil.qprov.ibmq.client.JSON;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IBMQReplaySourceTest {
+
+    @Test
+    public void testSyntheticFleet() {
+        IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(3, 30, 42, Duration.ofHours(1));
+        List<Device> devices = fleet.getDevices(0);
+        assertEquals(3, devices.size());
+        assertEquals(List.of("replay_qpu_000", "replay_qpu_001", "replay_qpu_002"), devices.stream().map(Device::getBackendName).toList());
+
+        Device device = devices.get(1);
+        assertTrue(device.getCouplingMap().stream().flatMap(List::stream).allMatch(qubit -> qubit.intValue() >= 0 && qubit.intValue() < 30));
+
+        DeviceProperties properties = fleet.getDeviceProperties(device, 0);
+        assertEquals(30, properties.getQubits().size());
+        IBMQQubitProperties qubitProperties = IBMQQubitProperties.read(properties.getQubits().get(0));
+        assertTrue(qubitProperties.getT1Time() >= 50 && qubitProperties.getT1Time() <= 300);
+        assertTrue(qubitProperties.getT2Time() > 0);
+        assertTrue(qubitProperties.getReadoutError() > 0 && qubitProperties.getReadoutError() < 0.1);
+
+        // properties are available for each gate of the device
+        long gateCouplings = device.getGates().stream().mapToLong(gate -> gate.getCouplingMap().size()).sum();
+        assertEquals(gateCouplings, properties.getGates().size());
+        assertEquals(gateCouplings, IBMQUtility.indexGateProperties(properties.getGates()).size()
+                + device.getCouplingMap().size() / 2);
+    }
+
+    @Test
+    public void testSyntheticFleetIsDeterministic() {
+        IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(2, 20, 42, Duration.ofHours(1));
+        IBMQSyntheticFleet sameFleet = new IBMQSyntheticFleet(2, 20, 42, Duration.ofHours(1));
+        Device device = fleet.getDevices(5).get(0);
+
+        assertEquals(fleet.getDeviceProperties(device, 5), sameFleet.getDeviceProperties(sameFleet.getDevices(5).get(0), 5));
+        assertEquals(fleet.getBackendStatus(device, 5), sameFleet.getBackendStatus(device, 5));
+    }
+
+    @Test
+    public void testSyntheticFleetCalibrationsEvolve() {
+        // the QPUs are recalibrated daily at different hours, so that exactly one QPU changes per hourly step
+        IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(24, 5, 42, Duration.ofHours(1));
+        for (int step = 0; step < 48; step++) {
+            int changed = 0;
+            for (Device device : fleet.getDevices(step)) {
+                String fingerprint = IBMQUtility.getFingerprint(device, fleet.getDeviceProperties(device, step));
+                String nextFingerprint = IBMQUtility.getFingerprint(device, fleet.getDeviceProperties(device, step + 1));
+                if (!fingerprint.equals(nextFingerprint)) {
+                    changed++;
+                }
+            }
+            assertEquals(1, changed);
+        }
+
+        Device device = fleet.getDevices(0).get(0);
+        assertNotEquals(fleet.getDeviceProperties(device, 0).getQubits(), fleet.getDeviceProperties(device, 24).getQubits());
+    }
+
+    @Test
+    public void testRecordedSource(@TempDir Path directory) throws IOException {
+        // record two steps of a synthetic fleet and replay them
+        IBMQSyntheticFleet fleet = new IBMQSyntheticFleet(2, 10, 42, Duration.ofHours(12));
+        JSON json = new JSON();
+        for (int step = 0; step < 2; step++) {
+            Path recording = Files.createDirectories(directory.resolve("step" + step));
+            Files.createDirectories(recording.resolve("properties"));
+            Files.createDirectories(recording.resolve("status"));
+            List<Device> devices = fleet.getDevices(step);
+            Files.writeString(recording.resolve("devices.json"), json.serialize(devices));
+            for (Device device : devices) {
+                Files.writeString(recording.resolve("properties").resolve(device.getBackendName() + ".json"),
+                        json.serialize(fleet.getDeviceProperties(device, step)));
+                Files.writeString(recording.resolve("status").resolve(device.getBackendName() + ".json"),
+                        json.serialize(fleet.getBackendStatus(device, step)));
+            }
+        }
+
+        IBMQRecordedSource source = new IBMQRecordedSource(directory);
+        for (int step = 0; step < 4; step++) {
+            Device device = source.getDevices(step).get(1);
+            assertEquals(IBMQUtility.getFingerprint(device, fleet.getDeviceProperties(device, step % 2)),
+                    IBMQUtility.getFingerprint(device, source.getDeviceProperties(device, step)));
+            assertEquals(fleet.getBackendStatus(device, step % 2).getLengthQueue().intValue(),
+                    source.getBackendStatus(device, step).getLengthQueue().intValue());
+        }
+
+        // missing payloads of simulators
+        Device simulator = new Device().backendName("simulator").simulator(true);
+        assertNull(source.getDeviceProperties(simulator, 0));
+        assertEquals(BigDecimal.ZERO, source.getBackendStatus(simulator, 0).getLengthQueue());
+    }
+}
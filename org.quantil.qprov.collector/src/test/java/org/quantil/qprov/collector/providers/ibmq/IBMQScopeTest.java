@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IBMQScopeTest {
+
+    @Test
+    public void testParseScope() {
+        final IBMQScope scope = IBMQScope.parse(" my-hub/my-group/my-project ");
+        assertEquals("my-hub", scope.getHub());
+        assertEquals("my-group", scope.getGroup());
+        assertEquals("my-project", scope.getProject());
+        assertEquals("my-hub/my-group/my-project", scope.toString());
+        assertEquals(new IBMQScope("my-hub", "my-group", "my-project"), scope);
+    }
+
+    @Test
+    public void testParseInvalidScope() {
+        assertThrows(IllegalArgumentException.class, () -> IBMQScope.parse("ibm-q/open"));
+        assertThrows(IllegalArgumentException.class, () -> IBMQScope.parse("ibm-q//main"));
+        assertThrows(IllegalArgumentException.class, () -> IBMQScope.parse("ibm-q/open/main/extra"));
+    }
+}
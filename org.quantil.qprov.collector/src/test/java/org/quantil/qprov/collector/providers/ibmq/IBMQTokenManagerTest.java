@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quantil.qprov.ibmq.client.ApiException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the caching and refresh of access tokens against a local stub of the IBMQ authentication endpoint
+ */
+public class IBMQTokenManagerTest {
+
+    private static final long TTL = 3600;
+
+    private static final Duration REFRESH_MARGIN = Duration.ofMinutes(5);
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private final TestClock clock = new TestClock();
+
+    private volatile int status = 200;
+
+    private volatile CountDownLatch loginStarted = new CountDownLatch(0);
+
+    private volatile CountDownLatch loginBlocker = new CountDownLatch(0);
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private IBMQTokenManager tokenManager;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/users/loginWithToken", exchange -> {
+            loginStarted.countDown();
+            try {
+                loginBlocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final byte[] response = String.format("{\"id\": \"token-%d\", \"ttl\": %d, \"userId\": \"user\"}", logins.incrementAndGet(), TTL)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+
+        tokenManager = new IBMQTokenManager("http://localhost:" + server.getAddress().getPort(), "apiToken", REFRESH_MARGIN, clock);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testTokenIsCached() throws ApiException {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        clock.advance(Duration.ofSeconds(TTL).minus(REFRESH_MARGIN).minusSeconds(1));
+        assertEquals("token-1", tokenManager.getAccessToken());
+        assertEquals(1, logins.get());
+    }
+
+    @Test
+    public void testTokenIsRefreshedBeforeExpiry() throws ApiException {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        clock.advance(Duration.ofSeconds(TTL).minus(REFRESH_MARGIN));
+        assertEquals("token-2", tokenManager.getAccessToken());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testInvalidatedTokenIsReplaced() throws ApiException {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        tokenManager.invalidate("token-1");
+        assertEquals("token-2", tokenManager.getAccessToken());
+    }
+
+    @Test
+    public void testFailedRefreshUsesValidToken() throws ApiException {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        status = 500;
+
+        // within the refresh margin, the cached token is still used
+        clock.advance(Duration.ofSeconds(TTL).minus(REFRESH_MARGIN));
+        assertEquals("token-1", tokenManager.getAccessToken());
+
+        // after the expiry, the failure is reported
+        clock.advance(REFRESH_MARGIN);
+        assertThrows(ApiException.class, () -> tokenManager.getAccessToken());
+    }
+
+    @Test
+    public void testConcurrentRefreshIsSharedForExpiredToken() throws Exception {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        clock.advance(Duration.ofSeconds(TTL));
+
+        final List<String> tokens = getTokensConcurrently(8);
+        assertEquals(List.of("token-2"), tokens.stream().distinct().toList());
+        assertEquals(2, logins.get());
+    }
+
+    @Test
+    public void testConcurrentRefreshUsesCachedTokenWhileValid() throws Exception {
+        assertEquals("token-1", tokenManager.getAccessToken());
+        clock.advance(Duration.ofSeconds(TTL).minus(REFRESH_MARGIN));
+
+        // only the collection performing the refresh waits for the new token, the others use the still valid cached token
+        final List<String> tokens = getTokensConcurrently(8);
+        assertEquals(7, tokens.stream().filter("token-1"::equals).count());
+        assertEquals(1, tokens.stream().filter("token-2"::equals).count());
+        assertEquals(2, logins.get());
+    }
+
+    private List<String> getTokensConcurrently(int threads) throws Exception {
+        loginStarted = new CountDownLatch(1);
+        loginBlocker = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // the first caller starts the login, which is blocked until all other callers requested the token
+            final List<Future<String>> futures = new ArrayList<>();
+            futures.add(executor.submit(tokenManager::getAccessToken));
+            assertTrue(loginStarted.await(10, TimeUnit.SECONDS));
+
+            // each caller reads the clock once when requesting the token, before it waits for the login or uses the cached token
+            clock.reads.drainPermits();
+            for (int i = 1; i < threads; i++) {
+                futures.add(executor.submit(tokenManager::getAccessToken));
+            }
+            assertTrue(clock.reads.tryAcquire(threads - 1, 10, TimeUnit.SECONDS));
+            loginBlocker.countDown();
+
+            final List<String> tokens = new ArrayList<>();
+            for (Future<String> future : futures) {
+                tokens.add(future.get());
+            }
+            return tokens;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class TestClock extends Clock {
+
+        private final Semaphore reads = new Semaphore(0);
+
+        private volatile Instant instant = Instant.parse("2024-03-12T06:00:00Z");
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            reads.release();
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq;
+
+import org.junit.jupiter.api.Test;
+import org.quantil.qprov.ibmq.client.model.Device;
+import org.quantil.qprov.ibmq.client.model.DeviceProperties;
+import org.quantil.qprov.ibmq.client.model.Gate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class IBMQUtilityTest {
+
+    private static final OffsetDateTime CALIBRATION_TIME = OffsetDateTime.of(2024, 3, 12, 6, 14, 51, 0, ZoneOffset.UTC);
+
+    @Test
+    public void testFingerprintIgnoresOrderAndDuplicates() {
+        Device device = createDevice(List.of(List.of(0, 1), List.of(1, 2)), List.of(List.of(0, 1), List.of(1, 2)));
+        Device reordered = createDevice(List.of(List.of(2, 1), List.of(1, 0), List.of(0, 1)), List.of(List.of(1, 2), List.of(1, 0)));
+
+        assertEquals(IBMQUtility.getFingerprint(device, createProperties(CALIBRATION_TIME)),
+                IBMQUtility.getFingerprint(reordered, createProperties(CALIBRATION_TIME)));
+    }
+
+    @Test
+    public void testFingerprintChanges() {
+        Device device = createDevice(List.of(List.of(0, 1), List.of(1, 2)), List.of(List.of(0, 1), List.of(1, 2)));
+        String fingerprint = IBMQUtility.getFingerprint(device, createProperties(CALIBRATION_TIME));
+
+        // new calibration
+        assertNotEquals(fingerprint, IBMQUtility.getFingerprint(device, createProperties(CALIBRATION_TIME.plusHours(1))));
+
+        // changed coupling map
+        Device recoupled = createDevice(List.of(List.of(0, 1), List.of(0, 2)), List.of(List.of(0, 1), List.of(1, 2)));
+        assertNotEquals(fingerprint, IBMQUtility.getFingerprint(recoupled, createProperties(CALIBRATION_TIME)));
+
+        // new version
+        device.setBackendVersion("1.0.1");
+        assertNotEquals(fingerprint, IBMQUtility.getFingerprint(device, createProperties(CALIBRATION_TIME)));
+    }
+
+    private static Device createDevice(List<List<Integer>> couplingMap, List<List<Integer>> gateCouplingMap) {
+        Gate gate = new Gate();
+        gate.setName("cx");
+        gate.setCouplingMap(toBigDecimals(gateCouplingMap));
+
+        Device device = new Device();
+        device.setBackendName("ibm_test");
+        device.setBackendVersion("1.0.0");
+        device.setnQubits(BigDecimal.valueOf(3));
+        device.setMaxShots(BigDecimal.valueOf(100000));
+        device.setSimulator(false);
+        device.setCouplingMap(toBigDecimals(couplingMap));
+        device.setGates(List.of(gate));
+        return device;
+    }
+
+    private static DeviceProperties createProperties(OffsetDateTime calibrationTime) {
+        DeviceProperties deviceProperties = new DeviceProperties();
+        deviceProperties.setLastUpdateDate(calibrationTime);
+        return deviceProperties;
+    }
+
+    private static List<List<BigDecimal>> toBigDecimals(List<List<Integer>> couplingMap) {
+        return couplingMap.stream().map(coupling -> coupling.stream().map(BigDecimal::valueOf).toList()).toList();
+    }
+}
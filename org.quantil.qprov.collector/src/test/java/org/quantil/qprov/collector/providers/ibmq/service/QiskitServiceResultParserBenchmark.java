@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the streaming parser for calibration matrices with the former approach, which deserialized the result into a map and split the
+ * string representation of the matrix using regular expressions into vectors of boxed values. The synthetic matrices model readout errors,
+ * i.e., each prepared state is measured correctly or with a single flipped bit.
+ * <p>
+ * The benchmark is not executed with the tests and can be started using the main method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class QiskitServiceResultParserBenchmark {
+
+    // the former approach fails for 12 qubits with the default maximum string length, so it is raised for the comparison
+    private static final ObjectMapper MAPPER = new ObjectMapper(JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder().maxStringLength(Integer.MAX_VALUE).build())
+            .build())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final double FLIP_PROBABILITY = 0.01;
+
+    @Param({"8", "10", "12"})
+    private int qubits;
+
+    // the matrix contained as string in the result, as expected by the former approach
+    private byte[] stringResult;
+
+    private byte[] arrayResult;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QiskitServiceResultParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        final int dimension = 1 << qubits;
+        final StringBuilder matrix = new StringBuilder();
+        matrix.append('[');
+        for (int measured = 0; measured < dimension; measured++) {
+            matrix.append(measured == 0 ? "[" : ",[");
+            for (int prepared = 0; prepared < dimension; prepared++) {
+                final int flippedBits = Integer.bitCount(measured ^ prepared);
+                final double probability = flippedBits == 0 ? 1 - qubits * FLIP_PROBABILITY : flippedBits == 1 ? FLIP_PROBABILITY : 0.0;
+                matrix.append(prepared == 0 ? "" : ",").append(probability);
+            }
+            matrix.append(']');
+        }
+        matrix.append(']');
+
+        stringResult = ("{\"id\":\"42\",\"complete\":true,\"result\":{\"matrix\":\"" + matrix + "\"}}").getBytes(StandardCharsets.UTF_8);
+        arrayResult = ("{\"id\":\"42\",\"complete\":true,\"result\":{\"matrix\":" + matrix + "}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public double[] streamingString() throws IOException {
+        return QiskitServiceResultParser.parse(stringResult).getCalibrationMatrix();
+    }
+
+    @Benchmark
+    public double[] streamingArray() throws IOException {
+        return QiskitServiceResultParser.parse(arrayResult).getCalibrationMatrix();
+    }
+
+    @Benchmark
+    public Vector<Vector<Double>> legacy() throws IOException {
+        final LegacyResult result = MAPPER.readValue(stringResult, LegacyResult.class);
+        final Object qiskitResult = result.result.get("matrix");
+
+        final Vector<Vector<Double>> parsedCalibrationMatrix = new Vector<Vector<Double>>();
+        final String[] rows = qiskitResult.toString().split("],\\[");
+        for (String row : rows) {
+            final String cleanedRow = row.replaceAll("\\[", "").replaceAll("]", "");
+            final Vector<Double> rowVector = new Vector<Double>();
+            for (String entry : cleanedRow.split(",")) {
+                rowVector.add(Double.parseDouble(entry));
+            }
+            parsedCalibrationMatrix.add(rowVector);
+        }
+        return parsedCalibrationMatrix;
+    }
+
+    /**
+     * The former representation of the result
+     */
+    public static class LegacyResult {
+
+        public String id;
+
+        public boolean complete;
+
+        public Map<String, Object> result = new HashMap<>();
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.collector.providers.ibmq.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QiskitServiceResultParserTest {
+
+    private static final double[] MATRIX = {0.9, 0.2, 0.1, 0.8};
+
+    @Test
+    public void testMatrixAsArray() throws IOException {
+        QiskitServiceResult result = parse("{\"id\": \"42\", \"complete\": true, \"result\": {\"matrix\": [[0.9, 0.2], [0.1, 0.8]]}}");
+        assertEquals("42", result.getId());
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getCalibrationMatrixDimension());
+        assertArrayEquals(MATRIX, result.getCalibrationMatrix());
+    }
+
+    @Test
+    public void testMatrixAsString() throws IOException {
+        QiskitServiceResult result = parse("{\"result\": {\"matrix\": \"[[0.9,0.2],[0.1,0.8]]\"}, \"complete\": true, \"id\": \"42\"}");
+        assertTrue(result.isComplete());
+        assertArrayEquals(MATRIX, result.getCalibrationMatrix());
+    }
+
+    @Test
+    public void testChunkedResult() throws IOException {
+        byte[] content = "{\"id\": \"42\", \"complete\": true, \"result\": {\"other\": {\"matrix\": [[2]]}, \"matrix\": [[1, 0], [0, 1]]}}"
+                .getBytes(StandardCharsets.UTF_8);
+        QiskitServiceResultParser parser = new QiskitServiceResultParser();
+        for (int i = 0; i < content.length; i += 3) {
+            parser.feed(Arrays.copyOfRange(content, i, Math.min(i + 3, content.length)));
+        }
+        QiskitServiceResult result = parser.finish();
+        assertArrayEquals(new double[] {1, 0, 0, 1}, result.getCalibrationMatrix());
+    }
+
+    @Test
+    public void testPendingResult() throws IOException {
+        QiskitServiceResult result = parse("{\"id\": \"42\", \"complete\": false, \"result\": null}");
+        assertFalse(result.isComplete());
+        assertNull(result.getCalibrationMatrix());
+    }
+
+    @Test
+    public void testInvalidMatrices() {
+        // not square
+        assertThrows(IOException.class, () -> parse("{\"result\": {\"matrix\": [[0.5, 0.5], [0.5, 0.5], [0.5, 0.5]]}}"));
+        // rows of different length
+        assertThrows(IOException.class, () -> parse("{\"result\": {\"matrix\": [[1, 0], [1]]}}"));
+        // not stochastic
+        assertThrows(IOException.class, () -> parse("{\"result\": {\"matrix\": [[0.9, 0.3], [0.3, 0.9]]}}"));
+        // incomplete
+        assertThrows(IOException.class, () -> parse("{\"result\": {\"matrix\": [[1, 0], [0, 1"));
+    }
+
+    private static QiskitServiceResult parse(String content) throws IOException {
+        return QiskitServiceResultParser.parse(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -59,6 +59,10 @@ public class QPU extends org.openprovenance.prov.xml.Agent implements ProvExtens
 
     private boolean isSimulator;
 
+    // hash of the device configuration and calibration time of the last collection to detect unchanged QPUs
+    @EqualsAndHashCode.Exclude
+    private String fingerprint;
+
     @OneToMany(mappedBy = "qpu",
             fetch = FetchType.LAZY,
             cascade = CascadeType.ALL,
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.model.collection;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * A finished collection run of the provenance collector for a single provider, which is recorded to compare the performance of the
+ * collector over time and to correlate slow or failed runs with incidents of the providers
+ */
+@Data
+@Entity
+@Table(indexes = @Index(columnList = "startTime"))
+public class CollectionRun {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "databaseId", updatable = false, nullable = false)
+    private UUID databaseId;
+
+    /**
+     * The ID of the collection job that started the run
+     */
+    private UUID jobId;
+
+    private String provider;
+
+    /**
+     * The type of the collection, i.e., <code>API</code>, <code>CIRCUITS</code>, or <code>QUEUE</code>
+     */
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    private CollectionTrigger trigger;
+
+    private Date startTime;
+
+    private Date endTime;
+
+    private boolean success;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    /**
+     * The accumulated duration in milliseconds of all operations of each phase, which can exceed the duration of the run if the operations
+     * are executed concurrently. The durations are loaded lazily and only fetched by the repository queries that need them.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "collection_run_phase", joinColumns = @JoinColumn(name = "collection_run_id"))
+    @MapKeyColumn(name = "phase")
+    @Column(name = "duration")
+    private Map<String, Long> phaseDurations = new HashMap<>();
+
+    private long apiCalls;
+
+    private long bytesDownloaded;
+
+    private int updatedQpus;
+
+    private int skippedQpus;
+
+    /**
+     * The number of qubit and gate characteristics written to the database
+     */
+    private long rowsWritten;
+
+    /**
+     * The number of failed operations, e.g., requests to the provider API or QPUs that could not be stored
+     */
+    private int failures;
+}
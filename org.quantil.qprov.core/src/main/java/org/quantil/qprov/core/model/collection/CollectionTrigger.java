@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.model.collection;
+
+/**
+ * The origin of a collection run of the provenance collector
+ */
+public enum CollectionTrigger {
+
+    /**
+     * The collection was started by the periodic schedule of the provider
+     */
+    SCHEDULED,
+
+    /**
+     * The collection was requested over the collector API
+     */
+    MANUAL
+}
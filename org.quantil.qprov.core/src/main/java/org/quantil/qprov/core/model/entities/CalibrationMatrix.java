@@ -20,17 +20,23 @@
 package org.quantil.qprov.core.model.entities;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.Vector;
 
 import org.quantil.qprov.core.model.agents.QPU;
+import org.quantil.qprov.core.utils.CalibrationMatrixCodec;
 
+import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -57,6 +63,68 @@ public class CalibrationMatrix {
     @ToString.Exclude
     private QPU qpu;
 
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private CalibrationMatrixData data;
+
+    /**
+     * Java serialized matrix of rows written before the binary format was introduced. It is converted on startup of the collector and can
+     * be removed once all databases are migrated.
+     */
     @Lob
-    private Vector<Vector<Double>> calibrationMatrix;
+    @Column(name = "calibration_matrix")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Vector<Vector<Double>> legacyCalibrationMatrix;
+
+    /**
+     * Get the entries of the calibration matrix, which loads and decodes the stored matrix
+     *
+     * @return the rows of the calibration matrix, or <code>null</code> if no matrix is stored
+     */
+    public Vector<Vector<Double>> getCalibrationMatrix() {
+        if (Objects.nonNull(data)) {
+            return CalibrationMatrixCodec.decode(data.getContent());
+        }
+        return legacyCalibrationMatrix;
+    }
+
+    /**
+     * Set the entries of the calibration matrix
+     *
+     * @param calibrationMatrix the rows of the calibration matrix
+     */
+    public void setCalibrationMatrix(Vector<Vector<Double>> calibrationMatrix) {
+        setData(new CalibrationMatrixData(CalibrationMatrixCodec.encode(calibrationMatrix)));
+    }
+
+    /**
+     * Set the entries of the calibration matrix
+     *
+     * @param entries the entries of the matrix in row-major order
+     * @param rows    the number of rows of the matrix
+     * @param columns the number of columns of the matrix
+     */
+    public void setCalibrationMatrix(double[] entries, int rows, int columns) {
+        setData(new CalibrationMatrixData(CalibrationMatrixCodec.encode(entries, rows, columns)));
+    }
+
+    /**
+     * Convert a matrix stored in the legacy format to the binary format
+     *
+     * @return <code>true</code> if the matrix was converted, <code>false</code> if it is already stored in the binary format
+     */
+    public boolean migrateLegacyCalibrationMatrix() {
+        if (Objects.isNull(legacyCalibrationMatrix)) {
+            return false;
+        }
+        if (Objects.isNull(data)) {
+            setCalibrationMatrix(legacyCalibrationMatrix);
+        }
+        legacyCalibrationMatrix = null;
+        return true;
+    }
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.model.entities;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+
+/**
+ * The entries of a calibration matrix in the binary format of the {@link org.quantil.qprov.core.utils.CalibrationMatrixCodec}. They are kept
+ * separately from the {@link CalibrationMatrix}, so that they are only loaded from the database when they are accessed.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+public class CalibrationMatrixData {
+
+    @Id
+    @Getter
+    @Setter
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(name = "databaseId", updatable = false, nullable = false)
+    private UUID databaseId;
+
+    @Column(nullable = false)
+    @ToString.Exclude
+    private byte[] content;
+
+    public CalibrationMatrixData(byte[] content) {
+        this.content = content;
+    }
+}
@@ -19,12 +19,15 @@
 
 package org.quantil.qprov.core.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.CalibrationMatrix;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
@@ -34,4 +37,10 @@ import org.springframework.stereotype.Repository;
 public interface CalibrationMatrixRepository extends JpaRepository<CalibrationMatrix, UUID> {
 
     List<CalibrationMatrix> findByQpuOrderByCalibrationTimeDesc(QPU qpu);
+
+    Optional<CalibrationMatrix> findFirstByQpuOrderByCalibrationTimeDesc(QPU qpu);
+
+    List<CalibrationMatrix> findByLegacyCalibrationMatrixIsNotNull(Pageable pageable);
+
+    List<CalibrationMatrix> findByLegacyCalibrationMatrixIsNotNullAndDatabaseIdNotIn(Collection<UUID> databaseIds, Pageable pageable);
 }
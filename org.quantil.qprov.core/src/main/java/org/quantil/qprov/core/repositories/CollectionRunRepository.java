@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.quantil.qprov.core.model.collection.CollectionRun;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+@RepositoryRestResource(exported = false)
+@Repository
+public interface CollectionRunRepository extends JpaRepository<CollectionRun, UUID> {
+
+    Page<CollectionRun> findByProvider(String provider, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "phaseDurations")
+    Optional<CollectionRun> findById(UUID databaseId);
+
+    /**
+     * Get the runs with the given IDs together with their phase durations, e.g., for the runs of a page. The paged queries do not fetch
+     * the phase durations themselves, as Hibernate can only apply the pagination in memory to queries fetching a collection.
+     *
+     * @param databaseIds the IDs of the runs
+     * @return the runs with initialized phase durations in any order
+     */
+    @EntityGraph(attributePaths = "phaseDurations")
+    List<CollectionRun> findByDatabaseIdIn(Collection<UUID> databaseIds);
+}
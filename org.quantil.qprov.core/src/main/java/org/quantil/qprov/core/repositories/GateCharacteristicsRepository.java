@@ -19,13 +19,20 @@
 
 package org.quantil.qprov.core.repositories;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.Gate;
 import org.quantil.qprov.core.model.entities.GateCharacteristics;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 
@@ -34,4 +41,21 @@ import org.springframework.stereotype.Repository;
 public interface GateCharacteristicsRepository extends JpaRepository<GateCharacteristics, UUID> {
 
     List<GateCharacteristics> findByGateOrderByCalibrationTimeDesc(Gate gate);
+
+    Optional<GateCharacteristics> findFirstByGateOrderByCalibrationTimeDesc(Gate gate);
+
+    @Query("SELECT c.gate.databaseId, MAX(c.calibrationTime) FROM GateCharacteristics c WHERE c.gate.qpu = :qpu "
+            + "GROUP BY c.gate.databaseId")
+    List<Object[]> findLatestCalibrationTimeOfGatesByQpu(@Param("qpu") QPU qpu);
+
+    /**
+     * Get the calibration time of the latest stored characteristics of each gate of the given QPU with a single query
+     *
+     * @param qpu the QPU to get the latest calibration times for
+     * @return the latest calibration times by the Ids of the gates, gates without characteristics are not contained
+     */
+    default Map<UUID, Date> findLatestCalibrationTimesByQpu(QPU qpu) {
+        return findLatestCalibrationTimeOfGatesByQpu(qpu).stream()
+                .collect(Collectors.toMap(row -> (UUID) row[0], row -> (Date) row[1]));
+    }
 }
@@ -27,8 +27,12 @@ import org.quantil.qprov.core.model.agents.Provider;
 import org.quantil.qprov.core.model.agents.QPU;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @RepositoryRestResource(exported = false)
 @Repository
@@ -39,4 +43,33 @@ public interface QPURepository extends JpaRepository<QPU, UUID> {
     Optional<QPU> findByName(String name);
 
     List<QPU> findByProvider(Provider provider);
+
+    @Query("SELECT q.name FROM QPU q WHERE q.provider = :provider")
+    List<String> findNamesByProvider(@Param("provider") Provider provider);
+
+    /**
+     * Update the queue size of the QPU with the given name without loading the QPU
+     *
+     * @param name      the name of the QPU
+     * @param queueSize the current queue size
+     * @return the number of updated QPUs, which is 0 if the queue size did not change
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE QPU q SET q.queueSize = :queueSize WHERE q.name = :name AND q.queueSize <> :queueSize")
+    int updateQueueSize(@Param("name") String name, @Param("queueSize") int queueSize);
+
+    /**
+     * Update the queue size of the QPU with the given name of the given provider without loading the QPU, QPUs with the same name of
+     * other providers are not changed
+     *
+     * @param provider  the provider of the QPU
+     * @param name      the name of the QPU
+     * @param queueSize the current queue size
+     * @return the number of updated QPUs, which is 0 if the queue size did not change
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE QPU q SET q.queueSize = :queueSize WHERE q.provider = :provider AND q.name = :name AND q.queueSize <> :queueSize")
+    int updateQueueSize(@Param("provider") Provider provider, @Param("name") String name, @Param("queueSize") int queueSize);
 }
@@ -19,13 +19,20 @@
 
 package org.quantil.qprov.core.repositories;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.quantil.qprov.core.model.agents.QPU;
 import org.quantil.qprov.core.model.entities.Qubit;
 import org.quantil.qprov.core.model.entities.QubitCharacteristics;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 
@@ -34,4 +41,28 @@ import org.springframework.stereotype.Repository;
 public interface QubitCharacteristicsRepository extends JpaRepository<QubitCharacteristics, UUID> {
 
     List<QubitCharacteristics> findByQubitOrderByCalibrationTimeDesc(Qubit qubit);
+
+    Optional<QubitCharacteristics> findFirstByQubitOrderByCalibrationTimeDesc(Qubit qubit);
+
+    @Query("SELECT c.qubit.databaseId, MAX(c.calibrationTime) FROM QubitCharacteristics c WHERE c.qubit.qpu = :qpu "
+            + "GROUP BY c.qubit.databaseId")
+    List<Object[]> findLatestCalibrationTimeOfQubitsByQpu(@Param("qpu") QPU qpu);
+
+    /**
+     * Get the calibration time of the latest stored characteristics of each qubit of the given QPU with a single query
+     *
+     * @param qpu the QPU to get the latest calibration times for
+     * @return the latest calibration times by the Ids of the qubits, qubits without characteristics are not contained
+     */
+    default Map<UUID, Date> findLatestCalibrationTimesByQpu(QPU qpu) {
+        return findLatestCalibrationTimeOfQubitsByQpu(qpu).stream()
+                .collect(Collectors.toMap(row -> (UUID) row[0], row -> (Date) row[1]));
+    }
+
+    @Query("SELECT DISTINCT c.calibrationTime FROM QubitCharacteristics c WHERE c.qubit.qpu = :qpu AND c.calibrationTime >= :since "
+            + "ORDER BY c.calibrationTime")
+    List<Date> findCalibrationTimesByQpu(@Param("qpu") QPU qpu, @Param("since") Date since);
+
+    @Query("SELECT COUNT(c) > 0 FROM QubitCharacteristics c WHERE c.qubit.qpu = :qpu AND c.calibrationTime = :calibrationTime")
+    boolean existsByQpuAndCalibrationTime(@Param("qpu") QPU qpu, @Param("calibrationTime") Date calibrationTime);
 }
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Vector;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary representation of calibration matrices. A matrix is stored as a little-endian header followed by the entries as dense row-major
+ * float64 block, which is deflated if this reduces its size:
+ * <pre>
+ * magic (4 bytes) | version (1 byte) | flags (1 byte) | reserved (2 bytes) | rows (int32) | columns (int32) | entries
+ * </pre>
+ */
+public final class CalibrationMatrixCodec {
+
+    private static final int MAGIC = 0x314d4351; // "QCM1" in little-endian byte order
+
+    private static final byte VERSION = 1;
+
+    private static final byte FLAG_DEFLATED = 0x01;
+
+    private static final int HEADER_SIZE = 16;
+
+    private CalibrationMatrixCodec() {
+    }
+
+    /**
+     * Encode the given calibration matrix
+     *
+     * @param entries the entries of the matrix in row-major order
+     * @param rows    the number of rows of the matrix
+     * @param columns the number of columns of the matrix
+     * @return the binary representation of the matrix
+     */
+    public static byte[] encode(double[] entries, int rows, int columns) {
+        if (rows < 0 || columns < 0 || (long) rows * columns != entries.length) {
+            throw new IllegalArgumentException(
+                    String.format("Matrix with %d entries does not have the dimension %dx%d", entries.length, rows, columns));
+        }
+
+        final ByteBuffer raw = ByteBuffer.allocate(entries.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asDoubleBuffer().put(entries);
+        final byte[] payload = raw.array();
+        final byte[] deflated = deflate(payload);
+
+        final boolean useDeflated = deflated.length < payload.length;
+        final byte[] content = useDeflated ? deflated : payload;
+        return ByteBuffer.allocate(HEADER_SIZE + content.length).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .put(useDeflated ? FLAG_DEFLATED : 0)
+                .putShort((short) 0)
+                .putInt(rows)
+                .putInt(columns)
+                .put(content)
+                .array();
+    }
+
+    /**
+     * Encode the given calibration matrix
+     *
+     * @param matrix the rows of the matrix, which all have to be of the same length
+     * @return the binary representation of the matrix
+     */
+    public static byte[] encode(List<? extends List<Double>> matrix) {
+        final int rows = matrix.size();
+        final int columns = rows == 0 ? 0 : matrix.get(0).size();
+        final double[] entries = new double[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            final List<Double> rowEntries = matrix.get(row);
+            if (rowEntries.size() != columns) {
+                throw new IllegalArgumentException(
+                        String.format("Row %d of the matrix has %d instead of %d entries", row, rowEntries.size(), columns));
+            }
+            for (int column = 0; column < columns; column++) {
+                entries[row * columns + column] = rowEntries.get(column);
+            }
+        }
+        return encode(entries, rows, columns);
+    }
+
+    /**
+     * Decode a calibration matrix
+     *
+     * @param data the binary representation of the matrix
+     * @return the rows of the matrix
+     */
+    public static Vector<Vector<Double>> decode(byte[] data) {
+        final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Data does not contain an encoded calibration matrix");
+        }
+        final byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported calibration matrix encoding version: " + version);
+        }
+        final byte flags = buffer.get();
+        buffer.getShort();
+        final int rows = buffer.getInt();
+        final int columns = buffer.getInt();
+
+        final int payloadSize = Math.multiplyExact(Math.multiplyExact(rows, columns), Double.BYTES);
+        final ByteBuffer payload = (flags & FLAG_DEFLATED) != 0
+                ? ByteBuffer.wrap(inflate(data, HEADER_SIZE, payloadSize)).order(ByteOrder.LITTLE_ENDIAN)
+                : buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (payload.remaining() != payloadSize) {
+            throw new IllegalArgumentException(String.format("Encoded calibration matrix is truncated: expected %d bytes but found %d",
+                    payloadSize, payload.remaining()));
+        }
+
+        final Vector<Vector<Double>> matrix = new Vector<>(rows);
+        for (int row = 0; row < rows; row++) {
+            final Vector<Double> rowVector = new Vector<>(columns);
+            for (int column = 0; column < columns; column++) {
+                rowVector.add(payload.getDouble());
+            }
+            matrix.add(rowVector);
+        }
+        return matrix;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length / 2 + 64);
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int payloadSize) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            final byte[] payload = new byte[payloadSize];
+            int size = 0;
+            while (size < payloadSize && !inflater.finished()) {
+                final int inflated = inflater.inflate(payload, size, payloadSize - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+            if (size != payloadSize) {
+                throw new IllegalArgumentException(
+                        String.format("Encoded calibration matrix is truncated: expected %d bytes but found %d", payloadSize, size));
+            }
+
+            // the checksum at the end of the stream is only verified once it is read, which also detects payloads exceeding the dimension
+            if (inflater.inflate(new byte[1]) != 0 || !inflater.finished()) {
+                throw new IllegalArgumentException("Encoded calibration matrix does not end after the expected " + payloadSize + " bytes");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Encoded calibration matrix is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
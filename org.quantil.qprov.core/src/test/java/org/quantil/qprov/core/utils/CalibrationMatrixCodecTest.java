@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.core.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CalibrationMatrixCodecTest {
+
+    private static final int FLAGS_OFFSET = 5;
+
+    private static final int HEADER_SIZE = 16;
+
+    @Test
+    public void testRoundTripDeflated() {
+        // the mostly zero entries of a calibration matrix are compressible, so that the payload is deflated
+        final int dimension = 16;
+        final double[] entries = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++) {
+            entries[i * dimension + i] = 0.95;
+            entries[((i + 1) % dimension) * dimension + i] = 0.05;
+        }
+
+        final byte[] data = CalibrationMatrixCodec.encode(entries, dimension, dimension);
+        assertEquals(1, data[FLAGS_OFFSET]);
+        assertTrue(data.length < HEADER_SIZE + entries.length * Double.BYTES);
+        assertArrayEquals(entries, flatten(CalibrationMatrixCodec.decode(data)));
+    }
+
+    @Test
+    public void testRoundTripUncompressed() {
+        // random entries cannot be compressed, so that the payload is stored as is
+        final Random random = new Random(42);
+        final double[] entries = random.doubles(6).toArray();
+
+        final byte[] data = CalibrationMatrixCodec.encode(entries, 2, 3);
+        assertEquals(0, data[FLAGS_OFFSET]);
+        assertEquals(HEADER_SIZE + entries.length * Double.BYTES, data.length);
+
+        final Vector<Vector<Double>> matrix = CalibrationMatrixCodec.decode(data);
+        assertEquals(2, matrix.size());
+        assertEquals(3, matrix.get(0).size());
+        assertArrayEquals(entries, flatten(matrix));
+    }
+
+    @Test
+    public void testEncodeRows() {
+        final List<List<Double>> rows = List.of(List.of(0.9, 0.2), List.of(0.1, 0.8));
+        assertArrayEquals(CalibrationMatrixCodec.encode(new double[] {0.9, 0.2, 0.1, 0.8}, 2, 2), CalibrationMatrixCodec.encode(rows));
+        assertEquals(rows, CalibrationMatrixCodec.decode(CalibrationMatrixCodec.encode(rows)));
+        assertEquals(List.of(), CalibrationMatrixCodec.decode(CalibrationMatrixCodec.encode(List.of())));
+    }
+
+    @Test
+    public void testInvalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.encode(new double[3], 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.encode(new double[0], -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.encode(List.of(List.of(1.0, 0.0), List.of(1.0))));
+    }
+
+    @Test
+    public void testInvalidHeader() {
+        final byte[] data = CalibrationMatrixCodec.encode(new double[] {1, 0, 0, 1}, 2, 2);
+
+        // shorter than the header
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(Arrays.copyOf(data, HEADER_SIZE - 1)));
+
+        // wrong magic
+        final byte[] wrongMagic = data.clone();
+        wrongMagic[0] ^= 0x7f;
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(wrongMagic));
+
+        // unsupported version
+        final byte[] wrongVersion = data.clone();
+        wrongVersion[4] = 2;
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(wrongVersion));
+    }
+
+    @Test
+    public void testTruncatedOrCorruptedData() {
+        final byte[] uncompressed = CalibrationMatrixCodec.encode(new Random(42).doubles(4).toArray(), 2, 2);
+        final byte[] truncated = Arrays.copyOf(uncompressed, uncompressed.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(truncated));
+
+        final byte[] deflated = CalibrationMatrixCodec.encode(new double[64 * 64], 64, 64);
+        assertEquals(1, deflated[FLAGS_OFFSET]);
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(Arrays.copyOf(deflated, deflated.length / 2)));
+
+        // only the checksum at the end of the stream is missing
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(Arrays.copyOf(deflated, deflated.length - 4)));
+
+        // the payload is larger than the dimension in the header
+        final byte[] tooLarge = deflated.clone();
+        tooLarge[8] = 32;
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(tooLarge));
+
+        final byte[] corrupted = deflated.clone();
+        Arrays.fill(corrupted, HEADER_SIZE, corrupted.length, (byte) 0xff);
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(corrupted));
+
+        // the dimension in the header does not match the payload
+        final byte[] wrongDimension = uncompressed.clone();
+        wrongDimension[8] = 3;
+        assertThrows(IllegalArgumentException.class, () -> CalibrationMatrixCodec.decode(wrongDimension));
+    }
+
+    private static double[] flatten(Vector<Vector<Double>> matrix) {
+        return matrix.stream().flatMap(List::stream).mapToDouble(Double::doubleValue).toArray();
+    }
+}
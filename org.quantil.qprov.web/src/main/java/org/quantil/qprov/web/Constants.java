@@ -37,6 +37,8 @@ public final class Constants {
 
     public static final String TAG_PROV_TEMPLATE = "provenance-template";
 
+    public static final String TAG_COLLECTION_RUN = "collection-run";
+
     /**** API paths ****/
     public static final String PATH_PROV = "provenance-documents";
 
@@ -80,6 +82,8 @@ public final class Constants {
 
     public static final String PATH_CHARACTERISTICS = "characteristics";
 
+    public static final String PATH_COLLECTION_RUNS = "collection-runs";
+
     private Constants() {
     }
 }
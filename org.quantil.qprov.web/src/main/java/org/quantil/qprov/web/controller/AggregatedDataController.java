@@ -122,8 +122,7 @@ public class AggregatedDataController {
         final Stream<CalibrationMatrix> calibrationMatrixStream;
         if (latest) {
             // retrieve characteristics with latest calibration time stamp
-            calibrationMatrixStream = Stream.ofNullable(
-                    calibrationMatrixRepository.findByQpuOrderByCalibrationTimeDesc(qpu).stream().findFirst().orElse(null));
+            calibrationMatrixStream = calibrationMatrixRepository.findFirstByQpuOrderByCalibrationTimeDesc(qpu).stream();
         } else {
             // retrieve all characteristics
             calibrationMatrixStream = calibrationMatrixRepository.findByQpuOrderByCalibrationTimeDesc(qpu).stream();
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.web.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.quantil.qprov.core.model.collection.CollectionRun;
+import org.quantil.qprov.core.repositories.CollectionRunRepository;
+import org.quantil.qprov.web.Constants;
+import org.quantil.qprov.web.dtos.CollectionRunDto;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Controller to access the runs of the provenance collector, which are recorded to analyze the performance of the collector over time
+ */
+@io.swagger.v3.oas.annotations.tags.Tag(name = Constants.TAG_COLLECTION_RUN)
+@RestController
+@CrossOrigin(allowedHeaders = "*", origins = "*")
+@RequestMapping("/" + Constants.PATH_COLLECTION_RUNS)
+@AllArgsConstructor
+public class CollectionRunController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final CollectionRunRepository collectionRunRepository;
+
+    @Operation(responses = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "400", description = "Bad Request. Invalid page or page size.")
+    }, description = "Retrieve the recorded collection runs, starting with the most recent one.")
+    @GetMapping
+    public ResponseEntity<PagedModel<EntityModel<CollectionRunDto>>> getCollectionRuns(
+            @RequestParam(value = "provider", required = false) String provider,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        final Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "startTime"));
+        final Page<CollectionRun> runs = Objects.isNull(provider)
+                ? collectionRunRepository.findAll(pageable) : collectionRunRepository.findByProvider(provider, pageable);
+
+        // the phase durations of all runs of the page are fetched with a single query
+        final Map<UUID, CollectionRun> runsWithPhases = collectionRunRepository.findByDatabaseIdIn(
+                        runs.map(CollectionRun::getDatabaseId).toList()).stream()
+                .collect(Collectors.toMap(CollectionRun::getDatabaseId, Function.identity()));
+        final List<EntityModel<CollectionRunDto>> runEntities = runs.stream()
+                .map(run -> runsWithPhases.getOrDefault(run.getDatabaseId(), run))
+                .map(run -> EntityModel.of(CollectionRunDto.createDTO(run),
+                        linkTo(methodOn(CollectionRunController.class).getCollectionRun(run.getDatabaseId())).withSelfRel()))
+                .toList();
+
+        final var pagedModel = PagedModel.of(runEntities,
+                new PagedModel.PageMetadata(runs.getSize(), runs.getNumber(), runs.getTotalElements(), runs.getTotalPages()));
+        pagedModel.add(linkTo(methodOn(CollectionRunController.class).getCollectionRuns(provider, page, size)).withSelfRel());
+        if (runs.hasPrevious()) {
+            pagedModel.add(linkTo(methodOn(CollectionRunController.class).getCollectionRuns(provider, page - 1, size))
+                    .withRel(IanaLinkRelations.PREV));
+        }
+        if (runs.hasNext()) {
+            pagedModel.add(linkTo(methodOn(CollectionRunController.class).getCollectionRuns(provider, page + 1, size))
+                    .withRel(IanaLinkRelations.NEXT));
+        }
+        return ResponseEntity.ok(pagedModel);
+    }
+
+    @Operation(responses = {
+            @ApiResponse(responseCode = "200"),
+            @ApiResponse(responseCode = "404", description = "Not Found. Collection run with given ID doesn't exist.")
+    }, description = "Retrieve a specific collection run.")
+    @GetMapping("/{runId}")
+    public ResponseEntity<EntityModel<CollectionRunDto>> getCollectionRun(@PathVariable UUID runId) {
+
+        final Optional<CollectionRun> run = collectionRunRepository.findById(runId);
+        if (run.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        final EntityModel<CollectionRunDto> runDto = EntityModel.of(CollectionRunDto.createDTO(run.get()));
+        runDto.add(linkTo(methodOn(CollectionRunController.class).getCollectionRun(runId)).withSelfRel());
+        return ResponseEntity.ok(runDto);
+    }
+}
@@ -111,8 +111,7 @@ public class GateCharacteristicsController {
         final Stream<GateCharacteristics> gateCharacteristicsStream;
         if (latest) {
             // retrieve characteristics with latest calibration time stamp
-            gateCharacteristicsStream = Stream.ofNullable(
-                    gateCharacteristicsRepository.findByGateOrderByCalibrationTimeDesc(gateOptional.get()).stream().findFirst().orElse(null));
+            gateCharacteristicsStream = gateCharacteristicsRepository.findFirstByGateOrderByCalibrationTimeDesc(gateOptional.get()).stream();
         } else {
             // retrieve all characteristics
             gateCharacteristicsStream = gateCharacteristicsRepository.findByGateOrderByCalibrationTimeDesc(gateOptional.get()).stream();
@@ -100,8 +100,7 @@ public class QubitCharacteristicsController {
         final Stream<QubitCharacteristics> qubitCharacteristicsStream;
         if (latest) {
             // retrieve characteristics with latest calibration time stamp
-            qubitCharacteristicsStream = Stream.ofNullable(
-                    qubitCharacteristicsRepository.findByQubitOrderByCalibrationTimeDesc(qubitOptional.get()).stream().findFirst().orElse(null));
+            qubitCharacteristicsStream = qubitCharacteristicsRepository.findFirstByQubitOrderByCalibrationTimeDesc(qubitOptional.get()).stream();
         } else {
             // retrieve all characteristics
             qubitCharacteristicsStream = qubitCharacteristicsRepository.findByQubitOrderByCalibrationTimeDesc(qubitOptional.get()).stream();
@@ -58,6 +58,8 @@ public class RootController {
         responseEntity.add(linkTo(methodOn(ProvDocumentController.class).getProvenanceDocuments()).withRel(Constants.PATH_PROV));
         responseEntity.add(linkTo(methodOn(VirtualMachineController.class).getVirtualMachines()).withRel(Constants.PATH_VIRTUAL_MACHINES));
         responseEntity.add(linkTo(methodOn(SqlController.class).executeSQL(null)).withRel(Constants.PATH_SQL));
+        responseEntity.add(linkTo(methodOn(CollectionRunController.class).getCollectionRuns(null, 0, 20))
+                .withRel(Constants.PATH_COLLECTION_RUNS));
 
         return ResponseEntity.ok(responseEntity);
     }
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2024 the QProv contributors.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+
+package org.quantil.qprov.web.dtos;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.quantil.qprov.core.model.collection.CollectionRun;
+import org.quantil.qprov.core.model.collection.CollectionTrigger;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Data transfer object for collection runs ({@link org.quantil.qprov.core.model.collection.CollectionRun}).
+ */
+@EqualsAndHashCode
+@Data
+@AllArgsConstructor
+public class CollectionRunDto {
+
+    private UUID id;
+
+    private UUID jobId;
+
+    private String provider;
+
+    private String type;
+
+    private CollectionTrigger trigger;
+
+    private Date startTime;
+
+    private Date endTime;
+
+    private Long duration;
+
+    private boolean success;
+
+    private String error;
+
+    private Map<String, Long> phaseDurations;
+
+    private long apiCalls;
+
+    private long bytesDownloaded;
+
+    private int updatedQpus;
+
+    private int skippedQpus;
+
+    private long rowsWritten;
+
+    private int failures;
+
+    public static CollectionRunDto createDTO(CollectionRun run) {
+        final Long duration = Objects.nonNull(run.getStartTime()) && Objects.nonNull(run.getEndTime())
+                ? run.getEndTime().getTime() - run.getStartTime().getTime() : null;
+        return new CollectionRunDto(run.getDatabaseId(), run.getJobId(), run.getProvider(), run.getType(), run.getTrigger(), run.getStartTime(),
+                run.getEndTime(), duration, run.isSuccess(), run.getError(), Map.copyOf(run.getPhaseDurations()), run.getApiCalls(),
+                run.getBytesDownloaded(), run.getUpdatedQpus(), run.getSkippedQpus(), run.getRowsWritten(), run.getFailures());
+    }
+}